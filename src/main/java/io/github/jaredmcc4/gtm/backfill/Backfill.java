@@ -0,0 +1,31 @@
+package io.github.jaredmcc4.gtm.backfill;
+
+/**
+ * Migracion de datos en linea que se aplica por rangos de id despues de Flyway.
+ * <p>
+ * Las migraciones SQL solo agregan la estructura (columnas nullables, tablas nuevas) y el
+ * relleno de filas se implementa como un bean de este tipo: el {@link BackfillRunner} lo
+ * recorre en lotes cortos, cada uno en su propia transaccion, guardando el progreso para
+ * retomarlo tras un reinicio. {@link #procesar} debe ser idempotente porque un lote puede
+ * repetirse si el proceso cae antes de registrar el avance.
+ */
+public interface Backfill {
+
+    /**
+     * Identificador unico y estable; es la clave del checkpoint.
+     */
+    String nombre();
+
+    /**
+     * Mayor id a procesar, leido la primera vez que se ejecuta. Las filas creadas despues
+     * ya deben escribirse con el valor final desde la aplicacion.
+     */
+    long maxId();
+
+    /**
+     * Procesa las filas con id en {@code [desdeId, hastaId]}.
+     *
+     * @return filas modificadas
+     */
+    int procesar(long desdeId, long hastaId);
+}
@@ -0,0 +1,59 @@
+package io.github.jaredmcc4.gtm.backfill;
+
+import io.github.jaredmcc4.gtm.domain.BackfillCheckpoint;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Endpoint de Actuator {@code /actuator/backfills} con el progreso de cada backfill.
+ */
+@Component
+@RequiredArgsConstructor
+@Endpoint(id = "backfills")
+public class BackfillEndpoint {
+
+    private final BackfillRunner backfillRunner;
+
+    /**
+     * Estado publicado de un backfill.
+     */
+    public record Progreso(String nombre,
+                           BackfillCheckpoint.Estado estado,
+                           long ultimoId,
+                           Long objetivoId,
+                           double porcentaje,
+                           long procesadas,
+                           String propietario,
+                           LocalDateTime leaseHasta,
+                           String error,
+                           LocalDateTime iniciadoEn,
+                           LocalDateTime completadoEn) {
+    }
+
+    @ReadOperation
+    public List<Progreso> backfills() {
+        return backfillRunner.progreso().stream()
+                .map(BackfillEndpoint::aProgreso)
+                .toList();
+    }
+
+    static Progreso aProgreso(BackfillCheckpoint checkpoint) {
+        double porcentaje;
+        if (checkpoint.getEstado() == BackfillCheckpoint.Estado.COMPLETADO) {
+            porcentaje = 100.0;
+        } else if (checkpoint.getObjetivoId() == null || checkpoint.getObjetivoId() == 0) {
+            porcentaje = 0.0;
+        } else {
+            porcentaje = Math.min(100.0, checkpoint.getUltimoId() * 100.0 / checkpoint.getObjetivoId());
+        }
+        return new Progreso(checkpoint.getNombre(), checkpoint.getEstado(), checkpoint.getUltimoId(),
+                checkpoint.getObjetivoId(), Math.round(porcentaje * 10) / 10.0, checkpoint.getProcesadas(),
+                checkpoint.getPropietario(), checkpoint.getLeaseHasta(), checkpoint.getError(),
+                checkpoint.getIniciadoEn(), checkpoint.getCompletadoEn());
+    }
+}
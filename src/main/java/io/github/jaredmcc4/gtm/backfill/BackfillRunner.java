@@ -0,0 +1,191 @@
+package io.github.jaredmcc4.gtm.backfill;
+
+import io.github.jaredmcc4.gtm.domain.BackfillCheckpoint;
+import io.github.jaredmcc4.gtm.repository.BackfillCheckpointRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Ejecuta los {@link Backfill} registrados en un hilo propio una vez que la aplicacion arranco
+ * (y por tanto Flyway ya migro el esquema).
+ * <p>
+ * Cada backfill avanza por rangos de id de tamano fijo; el lote y su checkpoint se confirman
+ * en la misma transaccion, asi que un reinicio retoma desde el ultimo rango confirmado. Un
+ * lease en {@code backfill_checkpoints} asegura que solo un nodo ejecute cada backfill; si el
+ * nodo cae, otro lo retoma cuando el lease vence. El ritmo se limita en ids por segundo para
+ * no saturar la base de datos durante el trafico normal.
+ */
+@Slf4j
+@Component
+public class BackfillRunner {
+
+    private static final int MAX_LONGITUD_ERROR = 500;
+
+    private final List<Backfill> backfills;
+    private final BackfillCheckpointRepository checkpointRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final boolean habilitado;
+    private final int tamanoLote;
+    private final int idsPorSegundo;
+    private final Duration lease;
+    private final String nodo = UUID.randomUUID().toString();
+    private final AtomicBoolean enCurso = new AtomicBoolean();
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(
+            Thread.ofPlatform().name("backfill").daemon(true).factory());
+    private volatile boolean detenido;
+
+    public BackfillRunner(List<Backfill> backfills,
+                          BackfillCheckpointRepository checkpointRepository,
+                          PlatformTransactionManager transactionManager,
+                          @Value("${app.backfill.enabled:true}") boolean habilitado,
+                          @Value("${app.backfill.lote:1000}") int tamanoLote,
+                          @Value("${app.backfill.ids-por-segundo:5000}") int idsPorSegundo,
+                          @Value("${app.backfill.lease-segundos:120}") long leaseSegundos) {
+        this.backfills = backfills;
+        this.checkpointRepository = checkpointRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.habilitado = habilitado;
+        this.tamanoLote = tamanoLote;
+        this.idsPorSegundo = idsPorSegundo;
+        this.lease = Duration.ofSeconds(leaseSegundos);
+    }
+
+    /**
+     * Lanza los backfills pendientes al terminar el arranque y luego periodicamente,
+     * para retomar los que otro nodo dejo a medias.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(initialDelayString = "${app.backfill.intervalo-ms:300000}", fixedDelayString = "${app.backfill.intervalo-ms:300000}")
+    public void programar() {
+        if (!habilitado || backfills.isEmpty() || detenido || !enCurso.compareAndSet(false, true)) {
+            return;
+        }
+        executor.execute(() -> {
+            try {
+                backfills.forEach(this::ejecutar);
+            } finally {
+                enCurso.set(false);
+            }
+        });
+    }
+
+    /**
+     * Ejecuta un backfill hasta terminarlo, perder el lease o detener la aplicacion.
+     *
+     * @return {@code true} si quedo completado
+     */
+    public boolean ejecutar(Backfill backfill) {
+        String nombre = backfill.nombre();
+        try {
+            asegurarCheckpoint(nombre);
+            if (checkpointRepository.reclamar(nombre, nodo, LocalDateTime.now(), vencimientoLease()) == 0) {
+                log.debug("Backfill {} completado o en ejecucion en otro nodo", nombre);
+                return false;
+            }
+            checkpointRepository.fijarObjetivo(nombre, nodo, backfill.maxId());
+            BackfillCheckpoint checkpoint = checkpointRepository.findById(nombre).orElseThrow();
+            long objetivo = checkpoint.getObjetivoId();
+            long ultimoId = checkpoint.getUltimoId();
+            log.info("Backfill {} iniciado desde id {} hasta {}", nombre, ultimoId, objetivo);
+
+            while (ultimoId < objetivo) {
+                if (detenido) {
+                    log.info("Backfill {} pausado en id {} por apagado", nombre, ultimoId);
+                    return false;
+                }
+                long desde = ultimoId + 1;
+                long hasta = Math.min(objetivo, ultimoId + tamanoLote);
+                long inicio = System.nanoTime();
+                if (!procesarLote(backfill, desde, hasta)) {
+                    log.warn("Backfill {} perdio el lease en id {}", nombre, ultimoId);
+                    return false;
+                }
+                ultimoId = hasta;
+                esperar(hasta - desde + 1, System.nanoTime() - inicio);
+            }
+
+            checkpointRepository.finalizar(nombre, nodo, BackfillCheckpoint.Estado.COMPLETADO, null, LocalDateTime.now());
+            log.info("Backfill {} completado", nombre);
+            return true;
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            return false;
+        } catch (RuntimeException ex) {
+            log.error("Backfill {} fallido, se reintentara desde el ultimo checkpoint", nombre, ex);
+            String error = String.valueOf(ex.getMessage());
+            checkpointRepository.finalizar(nombre, nodo, BackfillCheckpoint.Estado.FALLIDO,
+                    error.length() > MAX_LONGITUD_ERROR ? error.substring(0, MAX_LONGITUD_ERROR) : error, null);
+            return false;
+        }
+    }
+
+    /**
+     * Progreso de todos los backfills conocidos.
+     */
+    public List<BackfillCheckpoint> progreso() {
+        return checkpointRepository.findAll();
+    }
+
+    @PreDestroy
+    public void detener() {
+        detenido = true;
+        executor.shutdown();
+    }
+
+    private boolean procesarLote(Backfill backfill, long desde, long hasta) {
+        Boolean avanzado = transactionTemplate.execute(status -> {
+            int filas = backfill.procesar(desde, hasta);
+            if (checkpointRepository.avanzar(backfill.nombre(), nodo, hasta, filas, vencimientoLease()) == 0) {
+                status.setRollbackOnly();
+                return false;
+            }
+            return true;
+        });
+        return Boolean.TRUE.equals(avanzado);
+    }
+
+    private void asegurarCheckpoint(String nombre) {
+        if (checkpointRepository.existsById(nombre)) {
+            return;
+        }
+        try {
+            checkpointRepository.saveAndFlush(BackfillCheckpoint.builder().nombre(nombre).build());
+        } catch (DataIntegrityViolationException ex) {
+            log.debug("Checkpoint de {} creado por otro nodo", nombre);
+        }
+    }
+
+    /**
+     * Duerme lo necesario para no superar el ritmo configurado de ids por segundo.
+     */
+    private void esperar(long ids, long transcurridoNanos) throws InterruptedException {
+        if (idsPorSegundo <= 0) {
+            return;
+        }
+        long objetivoMs = ids * 1000 / idsPorSegundo;
+        long pausaMs = objetivoMs - Duration.ofNanos(transcurridoNanos).toMillis();
+        if (pausaMs > 0) {
+            Thread.sleep(pausaMs);
+        }
+    }
+
+    private LocalDateTime vencimientoLease() {
+        return LocalDateTime.now().plus(lease);
+    }
+}
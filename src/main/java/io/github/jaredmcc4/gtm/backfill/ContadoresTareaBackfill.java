@@ -0,0 +1,31 @@
+package io.github.jaredmcc4.gtm.backfill;
+
+import io.github.jaredmcc4.gtm.repository.TareaRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+/**
+ * Rellena los contadores denormalizados de las tareas existentes (migracion {@code V4})
+ * por rangos de id en lugar de un unico {@code UPDATE} sobre toda la tabla.
+ */
+@Component
+@RequiredArgsConstructor
+public class ContadoresTareaBackfill implements Backfill {
+
+    private final TareaRepository tareaRepository;
+
+    @Override
+    public String nombre() {
+        return "tareas-contadores-v4";
+    }
+
+    @Override
+    public long maxId() {
+        return tareaRepository.findMaxId();
+    }
+
+    @Override
+    public int procesar(long desdeId, long hastaId) {
+        return tareaRepository.reconciliarContadores(desdeId, hastaId);
+    }
+}
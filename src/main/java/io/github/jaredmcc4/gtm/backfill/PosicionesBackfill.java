@@ -0,0 +1,46 @@
+package io.github.jaredmcc4.gtm.backfill;
+
+import io.github.jaredmcc4.gtm.domain.Tarea;
+import io.github.jaredmcc4.gtm.repository.TareaRepository;
+import io.github.jaredmcc4.gtm.services.PosicionRebalanceador;
+import io.github.jaredmcc4.gtm.util.PosicionUtil;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+/**
+ * Asigna las claves iniciales de orden manual (migracion {@code V5}) por rangos de id de tarea
+ * en lugar de un {@code UPDATE} con {@code ROW_NUMBER()} sobre toda la tabla.
+ * <p>
+ * Solo rebalancea los padres que aun tienen la clave por defecto repetida, asi que repetir un
+ * rango no altera un orden que el usuario ya modifico; el rebalanceo conserva el orden actual
+ * (clave y luego id) y toma el mismo bloqueo por usuario que mover.
+ */
+@Component
+@RequiredArgsConstructor
+public class PosicionesBackfill implements Backfill {
+
+    private final TareaRepository tareaRepository;
+    private final PosicionRebalanceador posicionRebalanceador;
+
+    @Override
+    public String nombre() {
+        return "posiciones-v5";
+    }
+
+    @Override
+    public long maxId() {
+        return tareaRepository.findMaxId();
+    }
+
+    @Override
+    public int procesar(long desdeId, long hastaId) {
+        int filas = 0;
+        for (Long usuarioId : tareaRepository.findUsuariosConPosicionRepetida(desdeId, hastaId, PosicionUtil.INICIAL)) {
+            filas += posicionRebalanceador.rebalancearTareas(usuarioId);
+        }
+        for (Tarea tarea : tareaRepository.findConPosicionSubtareaRepetida(desdeId, hastaId, PosicionUtil.INICIAL)) {
+            filas += posicionRebalanceador.rebalancearSubtareas(tarea.getUsuario().getId(), tarea.getId());
+        }
+        return filas;
+    }
+}
@@ -0,0 +1,49 @@
+package io.github.jaredmcc4.gtm.backfill;
+
+import io.github.jaredmcc4.gtm.domain.RefreshToken;
+import io.github.jaredmcc4.gtm.repository.RefreshTokenRepository;
+import io.github.jaredmcc4.gtm.util.TokenHashUtil;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Calcula el hash de los refresh tokens anteriores a {@code V10} por rangos de id y, salvo
+ * que la doble escritura siga activa para nodos antiguos, borra su valor en texto plano.
+ */
+@Component
+public class RefreshTokenHashBackfill implements Backfill {
+
+    private final RefreshTokenRepository refreshTokenRepository;
+    private final boolean dobleEscritura;
+
+    public RefreshTokenHashBackfill(RefreshTokenRepository refreshTokenRepository,
+                                    @Value("${app.auth.refresh-token.doble-escritura:false}") boolean dobleEscritura) {
+        this.refreshTokenRepository = refreshTokenRepository;
+        this.dobleEscritura = dobleEscritura;
+    }
+
+    @Override
+    public String nombre() {
+        return "refresh-tokens-hash-v10";
+    }
+
+    @Override
+    public long maxId() {
+        return refreshTokenRepository.findMaxId();
+    }
+
+    @Override
+    public int procesar(long desdeId, long hastaId) {
+        List<RefreshToken> pendientes = refreshTokenRepository.findSinHash(desdeId, hastaId);
+        for (RefreshToken refreshToken : pendientes) {
+            refreshToken.setTokenHash(TokenHashUtil.sha256(refreshToken.getToken()));
+            if (!dobleEscritura) {
+                refreshToken.setToken(null);
+            }
+        }
+        refreshTokenRepository.saveAll(pendientes);
+        return pendientes.size();
+    }
+}
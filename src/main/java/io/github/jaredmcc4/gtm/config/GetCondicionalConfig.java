@@ -0,0 +1,34 @@
+package io.github.jaredmcc4.gtm.config;
+
+import io.github.jaredmcc4.gtm.services.VersionDatosService;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+/**
+ * Registra {@link VersionDatosInterceptor} sobre las lecturas de tareas y etiquetas.
+ * Se excluyen las rutas cuya respuesta depende de la hora y no solo de los datos.
+ */
+@Configuration
+public class GetCondicionalConfig implements WebMvcConfigurer {
+
+    private final VersionDatosService versionDatosService;
+    private final boolean habilitado;
+
+    public GetCondicionalConfig(VersionDatosService versionDatosService,
+                                @Value("${app.http.get-condicional.enabled:true}") boolean habilitado) {
+        this.versionDatosService = versionDatosService;
+        this.habilitado = habilitado;
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        if (!habilitado) {
+            return;
+        }
+        registry.addInterceptor(new VersionDatosInterceptor(versionDatosService))
+                .addPathPatterns("/api/v1/tareas", "/api/v1/tareas/**", "/api/v1/etiquetas", "/api/v1/etiquetas/**")
+                .excludePathPatterns("/api/v1/tareas/proximas-vencer");
+    }
+}
@@ -0,0 +1,90 @@
+package io.github.jaredmcc4.gtm.config;
+
+import com.github.benmanes.caffeine.jcache.configuration.CaffeineConfiguration;
+import com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.JCacheMetrics;
+import org.hibernate.cache.jcache.ConfigSettings;
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.cache.CacheManager;
+import javax.cache.Caching;
+import java.net.URI;
+import java.time.Duration;
+import java.util.List;
+import java.util.OptionalLong;
+import java.util.UUID;
+
+/**
+ * Cache de segundo nivel de Hibernate sobre JCache (Caffeine) para datos casi estaticos:
+ * la entidad {@code Rol}, la coleccion {@code Usuario.roles} y la consulta por nombre de rol.
+ * <p>
+ * Las regiones son locales a cada nodo; los cambios hechos por JPA se reflejan en el nodo que
+ * los hace y el TTL acota cuanto puede tardar otro nodo en verlos. Las metricas se publican
+ * como {@code cache.*{cache="<region>"}}.
+ */
+@Configuration
+public class HibernateCacheConfig {
+
+    public static final String REGION_ROLES = "roles";
+    public static final String REGION_USUARIO_ROLES = "usuarios.roles";
+    private static final String REGION_CONSULTAS = "default-query-results-region";
+    private static final String REGION_TIMESTAMPS = "default-update-timestamps-region";
+
+    /**
+     * Gestor JCache propio (URI unica por contexto) con las regiones preconfiguradas:
+     * tamano maximo, TTL y estadisticas. La region de timestamps no expira, como exige Hibernate.
+     */
+    @Bean(destroyMethod = "close")
+    public CacheManager hibernateCacheManager(@Value("${app.hibernate.cache.max-entradas:10000}") long maxEntradas,
+                                              @Value("${app.hibernate.cache.ttl-segundos:600}") long ttlSegundos) {
+        CacheManager cacheManager = Caching.getCachingProvider(CaffeineCachingProvider.class.getName())
+                .getCacheManager(URI.create("gtm-hibernate-" + UUID.randomUUID()), HibernateCacheConfig.class.getClassLoader());
+        Duration ttl = Duration.ofSeconds(ttlSegundos);
+        crearRegion(cacheManager, REGION_ROLES, OptionalLong.of(maxEntradas), ttl);
+        crearRegion(cacheManager, REGION_USUARIO_ROLES, OptionalLong.of(maxEntradas), ttl);
+        crearRegion(cacheManager, REGION_CONSULTAS, OptionalLong.of(maxEntradas), ttl);
+        crearRegion(cacheManager, REGION_TIMESTAMPS, OptionalLong.empty(), null);
+        return cacheManager;
+    }
+
+    /**
+     * Activa la cache de segundo nivel y de consultas usando el gestor anterior.
+     */
+    @Bean
+    public HibernatePropertiesCustomizer hibernateCacheCustomizer(CacheManager hibernateCacheManager) {
+        return propiedades -> {
+            propiedades.put(AvailableSettings.USE_SECOND_LEVEL_CACHE, true);
+            propiedades.put(AvailableSettings.USE_QUERY_CACHE, true);
+            propiedades.put(AvailableSettings.CACHE_REGION_FACTORY, "jcache");
+            propiedades.put(ConfigSettings.CACHE_MANAGER, hibernateCacheManager);
+            propiedades.put(ConfigSettings.MISSING_CACHE_STRATEGY, "create");
+        };
+    }
+
+    /**
+     * Publica aciertos y fallos de cada region en Micrometer.
+     */
+    @Bean
+    public MeterBinder hibernateCacheMetrics(CacheManager hibernateCacheManager) {
+        return registry -> List.of(REGION_ROLES, REGION_USUARIO_ROLES, REGION_CONSULTAS).forEach(region ->
+                JCacheMetrics.monitor(registry, hibernateCacheManager.getCache(region)));
+    }
+
+    private static void crearRegion(CacheManager cacheManager, String nombre, OptionalLong maxEntradas, Duration ttl) {
+        if (cacheManager.getCache(nombre) != null) {
+            return;
+        }
+        CaffeineConfiguration<Object, Object> configuracion = new CaffeineConfiguration<>();
+        configuracion.setMaximumSize(maxEntradas);
+        if (ttl != null) {
+            configuracion.setExpireAfterWrite(OptionalLong.of(ttl.toNanos()));
+        }
+        configuracion.setStatisticsEnabled(true);
+        cacheManager.createCache(nombre, configuracion);
+    }
+}
@@ -0,0 +1,35 @@
+package io.github.jaredmcc4.gtm.config;
+
+import io.github.jaredmcc4.gtm.invalidacion.InvalidacionTransporte;
+import io.github.jaredmcc4.gtm.invalidacion.LocalInvalidacionTransporte;
+import io.github.jaredmcc4.gtm.invalidacion.TablaInvalidacionTransporte;
+import io.github.jaredmcc4.gtm.repository.CacheInvalidacionRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+/**
+ * Selecciona el transporte de invalidaciones de cache con {@code app.invalidacion.transporte}:
+ * {@code tabla} (por defecto, varias replicas sin infraestructura extra) o {@code local}
+ * (un solo nodo).
+ */
+@Configuration
+public class InvalidacionConfig {
+
+    @Bean
+    public InvalidacionTransporte invalidacionTransporte(
+            CacheInvalidacionRepository cacheInvalidacionRepository,
+            @Value("${app.invalidacion.transporte:tabla}") String transporte,
+            @Value("${app.invalidacion.lote:500}") int tamanoLote,
+            @Value("${app.invalidacion.ventana-ms:60000}") long ventanaMs,
+            @Value("${app.invalidacion.retencion-minutos:60}") long retencionMinutos) {
+        return switch (transporte) {
+            case "tabla" -> new TablaInvalidacionTransporte(cacheInvalidacionRepository, tamanoLote,
+                    Duration.ofMillis(ventanaMs), Duration.ofMinutes(retencionMinutos));
+            case "local" -> new LocalInvalidacionTransporte();
+            default -> throw new IllegalStateException("Transporte de invalidacion desconocido: " + transporte);
+        };
+    }
+}
@@ -0,0 +1,13 @@
+package io.github.jaredmcc4.gtm.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * Habilita las tareas programadas ({@code @Scheduled}) de la aplicacion,
+ * como el vaciado periodico de cambios diferidos.
+ */
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+}
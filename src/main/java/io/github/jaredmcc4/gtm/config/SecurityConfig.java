@@ -1,5 +1,16 @@
 package io.github.jaredmcc4.gtm.config;
 
+import io.github.jaredmcc4.gtm.security.BcryptCalibrado;
+import io.github.jaredmcc4.gtm.security.CachingJwtDecoder;
+import io.github.jaredmcc4.gtm.security.PasswordEncoderAcotado;
+import io.github.jaredmcc4.gtm.security.UsuarioAutenticado;
+import io.github.jaredmcc4.gtm.security.UsuarioAutenticadoConverter;
+import io.github.jaredmcc4.gtm.security.VersionesToken;
+import io.github.jaredmcc4.gtm.util.JwtUtil;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -7,32 +18,27 @@ import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.annotation.web.configurers.AbstractHttpConfigurer;
 import org.springframework.security.config.http.SessionCreationPolicy;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.oauth2.jwt.JwtDecoder;
 import org.springframework.security.oauth2.jwt.NimbusJwtDecoder;
-import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationConverter;
-import org.springframework.security.oauth2.server.resource.authentication.JwtGrantedAuthoritiesConverter;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.web.cors.CorsConfiguration;
 import org.springframework.web.cors.CorsConfigurationSource;
 import org.springframework.web.cors.UrlBasedCorsConfigurationSource;
 
-
-import javax.crypto.SecretKey;
-import javax.crypto.spec.SecretKeySpec;
-import java.nio.charset.StandardCharsets;
+import java.time.Duration;
 import java.util.Arrays;
 import java.util.List;
 import java.util.stream.Collectors;
 
+@Slf4j
 @Configuration
 @EnableWebSecurity
 public class SecurityConfig {
 
     /**
      * Secreto HMAC usado para firmar y validar los JWT generados por el backend.
-     * Debe tener al menos 256 bits (32 caracteres) para usar HS256 de forma segura.
+     * Debe tener al menos 256 bits (32 bytes decodificados) para usar HS256 de forma segura.
      */
     @Value("${jwt.secret}")
     private String jwtSecret;
@@ -44,21 +50,25 @@ public class SecurityConfig {
     private String allowedOrigins;
 
     /**
-     * Construye el decodificador JWT con el secreto configurado. Valida que el
-     * secreto cumpla el tamano minimo requerido por HS256.
+     * Construye el decodificador JWT con la llave derivada igual que en {@link JwtUtil}
+     * (Base64, Base64URL o texto plano); la llave se calcula una vez al arrancar. Los tokens
+     * verificados se recuerdan en {@link CachingJwtDecoder} hasta su expiracion.
      *
+     * @param meterRegistry registro de metricas (opcional)
+     * @param cacheHabilitada si se recuerdan los tokens verificados
+     * @param maxEntradas maximo de tokens recordados
+     * @param ttlMaximoSegundos vida maxima de un token recordado
      * @return instancia de {@link JwtDecoder} basada en Nimbus
      * @throws IllegalArgumentException si el secreto tiene menos de 32 bytes
      */
     @Bean
-    public JwtDecoder jwtDecoder() {
-        byte[] keyBytes = jwtSecret.getBytes(StandardCharsets.UTF_8);
-        if (keyBytes.length < 32) {
-            throw new IllegalArgumentException("JWT secret debe tener al menos 256 bits (32 caracteres)");
-        }
-
-        SecretKey key = new SecretKeySpec(keyBytes, "HmacSHA256");
-        return NimbusJwtDecoder.withSecretKey(key).build();
+    public CachingJwtDecoder jwtDecoder(ObjectProvider<MeterRegistry> meterRegistry,
+                                        @Value("${app.jwt.cache.enabled:true}") boolean cacheHabilitada,
+                                        @Value("${app.jwt.cache.max-entradas:10000}") long maxEntradas,
+                                        @Value("${app.jwt.cache.ttl-maximo-segundos:3600}") long ttlMaximoSegundos) {
+        JwtDecoder nimbus = NimbusJwtDecoder.withSecretKey(JwtUtil.derivarClave(jwtSecret)).build();
+        return new CachingJwtDecoder(nimbus, meterRegistry.getIfAvailable(SimpleMeterRegistry::new),
+                cacheHabilitada, maxEntradas, Duration.ofSeconds(ttlMaximoSegundos));
     }
 
     /**
@@ -71,12 +81,12 @@ public class SecurityConfig {
      * </ul>
      *
      * @param http configuracion HTTP mutable proporcionada por Spring Security
-     * @param jwtAuthenticationConverter convertidor de roles desde el claim {@code roles}
+     * @param usuarioAutenticadoConverter convertidor del JWT al principal {@link UsuarioAutenticado}
      * @return filtro de seguridad completamente configurado
      * @throws Exception si ocurre un error al construir la cadena
      */
     @Bean
-    public SecurityFilterChain sfc(HttpSecurity http, JwtAuthenticationConverter jwtAuthenticationConverter) throws Exception {
+    public SecurityFilterChain sfc(HttpSecurity http, UsuarioAutenticadoConverter usuarioAutenticadoConverter) throws Exception {
         http
                 .cors(cors -> cors.configurationSource(corsConfigurationSource()))
                 .csrf(AbstractHttpConfigurer::disable)
@@ -101,7 +111,7 @@ public class SecurityConfig {
                         .anyRequest().authenticated()
                 )
                 .oauth2ResourceServer(oauth2 -> oauth2
-                        .jwt(jwt -> jwt.jwtAuthenticationConverter(jwtAuthenticationConverter))
+                        .jwt(jwt -> jwt.jwtAuthenticationConverter(usuarioAutenticadoConverter))
                 );
         return http.build();
     }
@@ -126,29 +136,50 @@ public class SecurityConfig {
     }
 
     /**
-     * Convierte el claim {@code roles} del JWT en autoridades Spring con prefijo {@code ROLE_}.
+     * Convierte el JWT verificado en el principal {@link UsuarioAutenticado} y mapea el claim
+     * {@code roles} a autoridades Spring con prefijo {@code ROLE_}; rechaza los tokens con una
+     * version anterior a la vigente del usuario.
      *
+     * @param versionesToken versiones de tokens por usuario (opcional)
      * @return convertidor de autenticacion JWT
      */
     @Bean
-    public JwtAuthenticationConverter jwtAuthenticationConverter() {
-        JwtGrantedAuthoritiesConverter grantedAuthoritiesConverter = new JwtGrantedAuthoritiesConverter();
-        grantedAuthoritiesConverter.setAuthoritiesClaimName("roles");
-        grantedAuthoritiesConverter.setAuthorityPrefix("ROLE_");
-
-        JwtAuthenticationConverter jwtAuthenticationConverter = new JwtAuthenticationConverter();
-        jwtAuthenticationConverter.setJwtGrantedAuthoritiesConverter(grantedAuthoritiesConverter);
-        return jwtAuthenticationConverter;
+    public UsuarioAutenticadoConverter usuarioAutenticadoConverter(ObjectProvider<VersionesToken> versionesToken) {
+        return new UsuarioAutenticadoConverter(versionesToken.getIfAvailable());
     }
 
     /**
-     * Proveedor de contrasenas basado en BCrypt con factor de costo 12.
+     * Proveedor de contrasenas delegante ({@code {bcrypt}hash}) cuyo costo se fija con
+     * {@code app.password.hash.costo} o, si es 0, se calibra al arrancar para tardar cerca
+     * de {@code objetivo-ms} por hash en esta CPU. {@code costo-minimo} es el piso comun de
+     * la flota: la calibracion solo lo sube y el login solo recalcula hashes por debajo de el,
+     * de modo que nodos con CPU distinta no alternan el costo de un mismo hash. Se ejecuta en
+     * un pool acotado para que los hashes no compitan por CPU con el resto de peticiones.
      *
+     * @param meterRegistry registro de metricas (opcional)
+     * @param costo costo fijo de BCrypt, que tambien hace de piso (0 para calibrar)
+     * @param objetivoMs latencia objetivo de la calibracion
+     * @param costoMinimo piso de costo comun a todos los nodos
+     * @param costoMaximo costo maximo de la calibracion
+     * @param hilos hilos del pool (0 usa la mitad de los nucleos, al menos uno)
+     * @param capacidadCola operaciones en espera antes de responder 503
+     * @param retryAfterSegundos valor de {@code Retry-After} al rechazar
      * @return codificador de contrasenas
      */
     @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder(12);
+    public PasswordEncoder passwordEncoder(ObjectProvider<MeterRegistry> meterRegistry,
+                                           @Value("${app.password.hash.costo:0}") int costo,
+                                           @Value("${app.password.hash.objetivo-ms:250}") long objetivoMs,
+                                           @Value("${app.password.hash.costo-minimo:" + BcryptCalibrado.COSTO_MINIMO + "}") int costoMinimo,
+                                           @Value("${app.password.hash.costo-maximo:14}") int costoMaximo,
+                                           @Value("${app.password.hash.hilos:0}") int hilos,
+                                           @Value("${app.password.hash.cola:64}") int capacidadCola,
+                                           @Value("${app.password.hash.retry-after-segundos:2}") long retryAfterSegundos) {
+        int piso = costo > 0 ? costo : costoMinimo;
+        int costoEfectivo = costo > 0 ? costo : BcryptCalibrado.calibrar(Duration.ofMillis(objetivoMs), costoMinimo, costoMaximo);
+        log.info("Costo de BCrypt para contrasenas nuevas: {}{} (minimo {})", costoEfectivo, costo > 0 ? "" : " (calibrado)", piso);
+        return new PasswordEncoderAcotado(BcryptCalibrado.crear(costoEfectivo, piso), meterRegistry.getIfAvailable(SimpleMeterRegistry::new),
+                hilos, capacidadCola, retryAfterSegundos);
     }
 
     /**
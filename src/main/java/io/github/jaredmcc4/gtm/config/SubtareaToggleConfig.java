@@ -0,0 +1,26 @@
+package io.github.jaredmcc4.gtm.config;
+
+import io.github.jaredmcc4.gtm.services.SubtareaToggleBuffer;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+/**
+ * Registra {@link SubtareaToggleInterceptor} antes que cualquier otro interceptor sobre las
+ * rutas de tareas y etiquetas.
+ */
+@Configuration
+@RequiredArgsConstructor
+public class SubtareaToggleConfig implements WebMvcConfigurer {
+
+    private final SubtareaToggleBuffer subtareaToggleBuffer;
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(new SubtareaToggleInterceptor(subtareaToggleBuffer))
+                .addPathPatterns("/api/v1/tareas", "/api/v1/tareas/**", "/api/v1/etiquetas", "/api/v1/etiquetas/**")
+                .order(Ordered.HIGHEST_PRECEDENCE);
+    }
+}
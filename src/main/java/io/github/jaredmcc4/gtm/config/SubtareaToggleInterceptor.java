@@ -0,0 +1,37 @@
+package io.github.jaredmcc4.gtm.config;
+
+import io.github.jaredmcc4.gtm.exception.UnauthorizedException;
+import io.github.jaredmcc4.gtm.security.UsuarioAutenticado;
+import io.github.jaredmcc4.gtm.services.SubtareaToggleBuffer;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+/**
+ * Vacia los toggles de subtareas pendientes del usuario antes de atender rutas de tareas y
+ * etiquetas, para que los contadores de {@code TareaDto} y la version de datos que usa
+ * {@link VersionDatosInterceptor} ya los incluyan. Sin pendientes no toca la base de datos.
+ */
+@RequiredArgsConstructor
+public class SubtareaToggleInterceptor implements HandlerInterceptor {
+
+    private final SubtareaToggleBuffer subtareaToggleBuffer;
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        Long usuarioId = usuarioAutenticado();
+        if (usuarioId != null) {
+            subtareaToggleBuffer.vaciarUsuario(usuarioId);
+        }
+        return true;
+    }
+
+    private Long usuarioAutenticado() {
+        try {
+            return UsuarioAutenticado.actual(null).map(UsuarioAutenticado::usuarioId).orElse(null);
+        } catch (UnauthorizedException ex) {
+            return null;
+        }
+    }
+}
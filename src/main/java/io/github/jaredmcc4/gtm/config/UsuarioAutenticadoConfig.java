@@ -0,0 +1,21 @@
+package io.github.jaredmcc4.gtm.config;
+
+import io.github.jaredmcc4.gtm.security.UsuarioAutenticadoArgumentResolver;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.method.support.HandlerMethodArgumentResolver;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.util.List;
+
+/**
+ * Registra {@link UsuarioAutenticadoArgumentResolver} para que los controladores reciban el
+ * usuario autenticado como parametro.
+ */
+@Configuration
+public class UsuarioAutenticadoConfig implements WebMvcConfigurer {
+
+    @Override
+    public void addArgumentResolvers(List<HandlerMethodArgumentResolver> resolvers) {
+        resolvers.add(new UsuarioAutenticadoArgumentResolver());
+    }
+}
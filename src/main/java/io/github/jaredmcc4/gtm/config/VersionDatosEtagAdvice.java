@@ -0,0 +1,44 @@
+package io.github.jaredmcc4.gtm.config;
+
+import org.springframework.core.MethodParameter;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.http.server.ServletServerHttpRequest;
+import org.springframework.http.server.ServletServerHttpResponse;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyAdvice;
+
+/**
+ * Publica los validadores que dejo {@link VersionDatosInterceptor} cuando la respuesta es 2xx.
+ * Corre justo antes de serializar el cuerpo, con el estado final ya fijado.
+ */
+@ControllerAdvice
+public class VersionDatosEtagAdvice implements ResponseBodyAdvice<Object> {
+
+    @Override
+    public boolean supports(MethodParameter returnType, Class<? extends HttpMessageConverter<?>> converterType) {
+        return true;
+    }
+
+    @Override
+    public Object beforeBodyWrite(Object body, MethodParameter returnType, MediaType selectedContentType,
+                                  Class<? extends HttpMessageConverter<?>> selectedConverterType,
+                                  ServerHttpRequest request, ServerHttpResponse response) {
+        if (!(request instanceof ServletServerHttpRequest servletRequest)
+                || !(response instanceof ServletServerHttpResponse servletResponse)) {
+            return body;
+        }
+        Object atributo = servletRequest.getServletRequest().getAttribute(VersionDatosInterceptor.ATRIBUTO_VALIDADORES);
+        int estado = servletResponse.getServletResponse().getStatus();
+        if (atributo instanceof VersionDatosInterceptor.Validadores validadores && estado >= 200 && estado < 300) {
+            response.getHeaders().setETag(validadores.etag());
+            if (validadores.ultimaModificacion() > 0) {
+                response.getHeaders().setLastModified(validadores.ultimaModificacion());
+            }
+            response.getHeaders().setCacheControl(VersionDatosInterceptor.CACHE_CONTROL);
+        }
+        return body;
+    }
+}
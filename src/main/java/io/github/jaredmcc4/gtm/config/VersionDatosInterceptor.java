@@ -0,0 +1,82 @@
+package io.github.jaredmcc4.gtm.config;
+
+import io.github.jaredmcc4.gtm.exception.UnauthorizedException;
+import io.github.jaredmcc4.gtm.security.UsuarioAutenticado;
+import io.github.jaredmcc4.gtm.services.VersionDatosService;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+import java.time.ZoneId;
+
+/**
+ * Resuelve GET condicionales ({@code If-None-Match}/{@code If-Modified-Since}) con la version
+ * de datos del usuario antes de llegar al controlador.
+ * <p>
+ * Si la version no cambio responde 304 sin consultar entidades ni serializar; si cambio deja los
+ * validadores en la peticion y {@link VersionDatosEtagAdvice} agrega {@code ETag},
+ * {@code Last-Modified} y {@code Cache-Control: private, no-cache} solo si la respuesta es 2xx,
+ * asi un error nunca entrega un ETag con el que luego se responda 304. El ETag es debil y se
+ * comparte entre todas las URL del usuario: cualquier escritura lo invalida, y la misma URL con
+ * la misma version siempre produce la misma respuesta.
+ * <p>
+ * La version leida queda en el atributo {@link #ATRIBUTO_VERSION} de la peticion para que el
+ * controlador la reutilice sin volver a consultarla.
+ */
+@RequiredArgsConstructor
+public class VersionDatosInterceptor implements HandlerInterceptor {
+
+    public static final String ATRIBUTO_VERSION = VersionDatosInterceptor.class.getName() + ".version";
+
+    static final String ATRIBUTO_VALIDADORES = VersionDatosInterceptor.class.getName() + ".validadores";
+
+    static final String CACHE_CONTROL = "private, no-cache";
+
+    private final VersionDatosService versionDatosService;
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (!HttpMethod.GET.matches(request.getMethod()) && !HttpMethod.HEAD.matches(request.getMethod())) {
+            return true;
+        }
+        Long usuarioId = usuarioAutenticado();
+        if (usuarioId == null) {
+            return true;
+        }
+        VersionDatosService.Version version = versionDatosService.obtener(usuarioId);
+        if (version == null) {
+            return true;
+        }
+        request.setAttribute(ATRIBUTO_VERSION, version);
+
+        String etag = "W/\"" + usuarioId + "-" + version.numero() + "\"";
+        long ultimaModificacion = version.modificadoEn() != null
+                ? version.modificadoEn().atZone(ZoneId.systemDefault()).toInstant().toEpochMilli()
+                : -1;
+        if (new ServletWebRequest(request).checkNotModified(etag, ultimaModificacion)) {
+            response.setHeader(HttpHeaders.CACHE_CONTROL, CACHE_CONTROL);
+            new ServletWebRequest(request, response).checkNotModified(etag, ultimaModificacion);
+            return false;
+        }
+        request.setAttribute(ATRIBUTO_VALIDADORES, new Validadores(etag, ultimaModificacion));
+        return true;
+    }
+
+    private Long usuarioAutenticado() {
+        try {
+            return UsuarioAutenticado.actual(null).map(UsuarioAutenticado::usuarioId).orElse(null);
+        } catch (UnauthorizedException ex) {
+            return null;
+        }
+    }
+
+    /**
+     * ETag y fecha de modificacion a publicar si la respuesta termina en 2xx.
+     */
+    record Validadores(String etag, long ultimaModificacion) {
+    }
+}
@@ -4,11 +4,10 @@ import io.github.jaredmcc4.gtm.domain.Adjunto;
 import io.github.jaredmcc4.gtm.dto.adjunto.AdjuntoDto;
 import io.github.jaredmcc4.gtm.dto.response.ApiResponse;
 import io.github.jaredmcc4.gtm.dto.response.ErrorResponse;
-import io.github.jaredmcc4.gtm.exception.UnauthorizedException;
 import io.github.jaredmcc4.gtm.mapper.AdjuntoMapper;
+import io.github.jaredmcc4.gtm.security.UsuarioAutenticado;
 import io.github.jaredmcc4.gtm.services.AdjuntoService;
-import io.github.jaredmcc4.gtm.util.JwtExtractorUtil;
-import io.github.jaredmcc4.gtm.util.JwtUtil;
+import io.github.jaredmcc4.gtm.services.IdempotenciaService;
 import io.github.jaredmcc4.gtm.validator.FileValidator;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
@@ -24,8 +23,6 @@ import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
-import org.springframework.security.core.annotation.AuthenticationPrincipal;
-import org.springframework.security.oauth2.jwt.Jwt;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
 
@@ -46,37 +43,19 @@ public class AdjuntoController {
 
     private final AdjuntoService adjuntoService;
     private final AdjuntoMapper adjuntoMapper;
-    private final JwtUtil jwtUtil;
-
-    /**
-     * Obtiene el ID de usuario autenticado a partir del JWT del principal o del header Authorization.
-     *
-     * @param jwt token JWT inyectado por Spring (puede ser null)
-     * @param authorizationHeader header Authorization Bearer opcional
-     * @return identificador interno del usuario
-     * @throws UnauthorizedException si no se puede determinar el usuario
-     */
-    private Long resolveUsuarioId(Jwt jwt, String authorizationHeader) {
-        if (jwt != null) {
-            return JwtExtractorUtil.extractUsuarioId(jwt);
-        }
-        if (authorizationHeader != null && authorizationHeader.startsWith("Bearer ")) {
-            String token = authorizationHeader.substring(7);
-            return jwtUtil.extraerUsuarioId(token);
-        }
-        throw new UnauthorizedException("No se pudo determinar el usuario autenticado");
-    }
+    private final IdempotenciaService idempotenciaService;
 
     /**
      * Sube un archivo y lo asocia a una tarea del usuario autenticado.
      *
      * @param tareaId identificador de la tarea
      * @param file archivo recibido via multipart
-     * @param jwt JWT actual
-     * @param authorizationHeader header Authorization Bearer opcional
+     * @param autenticado usuario autenticado
+     * @param idempotencyKey clave opcional para reintentos seguros
      * @return adjunto creado en formato DTO
      */
-    @Operation(summary = "Subir un archivo adjunto a una tarea")
+    @Operation(summary = "Subir un archivo adjunto a una tarea",
+            description = "Con Idempotency-Key, los reintentos devuelven la respuesta original sin volver a copiar el archivo.")
     @io.swagger.v3.oas.annotations.responses.ApiResponses({
             @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "201", description = "Archivo subido",
                     content = @Content(schema = @Schema(implementation = ApiResponse.class))),
@@ -85,33 +64,39 @@ public class AdjuntoController {
             @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "401", description = "No autenticado",
                     content = @Content(schema = @Schema(implementation = ErrorResponse.class))),
             @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "404", description = "Tarea no encontrada",
+                    content = @Content(schema = @Schema(implementation = ErrorResponse.class))),
+            @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "409", description = "Solicitud con la misma Idempotency-Key en proceso",
                     content = @Content(schema = @Schema(implementation = ErrorResponse.class)))
     })
     @PostMapping("/tarea/{tareaId}")
     public ResponseEntity<ApiResponse<AdjuntoDto>> subirAdjunto(
             @Parameter(description = "ID de la tarea", example = "10") @PathVariable Long tareaId,
             @RequestParam("file") MultipartFile file,
-            @Parameter(hidden = true) @AuthenticationPrincipal Jwt jwt,
-            @RequestHeader(value = "Authorization", required = false) String authorizationHeader) {
+            @Parameter(hidden = true) UsuarioAutenticado autenticado,
+            @Parameter(description = "Clave de idempotencia generada por el cliente")
+            @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey) {
 
-        Long usuarioId = resolveUsuarioId(jwt, authorizationHeader);
+        Long usuarioId = autenticado.usuarioId();
         log.info("Usuario {} subiendo adjunto a tarea {}", usuarioId, tareaId);
 
         FileValidator.validate(file);
 
-        var adjunto = adjuntoService.subirAdjunto(tareaId, file, usuarioId);
-        var dto = adjuntoMapper.toDto(adjunto);
+        String operacion = "POST /api/v1/adjuntos/tarea/" + tareaId;
+        var huella = new HuellaArchivo(file.getOriginalFilename(), file.getContentType(), file.getSize());
+        return idempotenciaService.ejecutar(usuarioId, idempotencyKey, operacion, huella, AdjuntoDto.class, () -> {
+            var adjunto = adjuntoService.subirAdjunto(tareaId, file, usuarioId);
+            var dto = adjuntoMapper.toDto(adjunto);
 
-        return ResponseEntity.status(HttpStatus.CREATED)
-                .body(ApiResponse.success("Archivo subido exitosamente", dto));
+            return ResponseEntity.status(HttpStatus.CREATED)
+                    .body(ApiResponse.success("Archivo subido exitosamente", dto));
+        });
     }
 
     /**
      * Lista los adjuntos de una tarea del usuario autenticado.
      *
      * @param tareaId identificador de la tarea
-     * @param jwt JWT actual
-     * @param authorizationHeader header Authorization Bearer opcional
+     * @param autenticado usuario autenticado
      * @return lista de adjuntos en formato DTO
      */
     @Operation(summary = "Obtener adjuntos de una tarea", description = "Muestra todos los archivos adjuntos de una tarea.")
@@ -126,10 +111,9 @@ public class AdjuntoController {
     @GetMapping("/tarea/{tareaId}")
     public ResponseEntity<ApiResponse<List<AdjuntoDto>>> obtenerAdjuntosPorTarea(
             @Parameter(description = "ID de la tarea", example = "10") @PathVariable Long tareaId,
-            @Parameter(hidden = true) @AuthenticationPrincipal Jwt jwt,
-            @RequestHeader(value = "Authorization", required = false) String authorizationHeader) {
+            @Parameter(hidden = true) UsuarioAutenticado autenticado) {
 
-        Long usuarioId = resolveUsuarioId(jwt, authorizationHeader);
+        Long usuarioId = autenticado.usuarioId();
         log.info("Usuario {} obteniendo adjuntos de tarea {}", usuarioId, tareaId);
 
         var adjuntos = adjuntoService.mostrarAdjuntos(tareaId, usuarioId);
@@ -144,8 +128,7 @@ public class AdjuntoController {
      * Descarga un adjunto propiedad del usuario.
      *
      * @param adjuntoId identificador del adjunto
-     * @param jwt JWT actual
-     * @param authorizationHeader header Authorization Bearer opcional
+     * @param autenticado usuario autenticado
      * @return recurso binario del adjunto con cabecera de descarga
      */
     @Operation(summary = "Descargar archivo adjunto", description = "Descarga el archivo seleccionado.")
@@ -159,10 +142,9 @@ public class AdjuntoController {
     @GetMapping("/{adjuntoId}/descargar")
     public ResponseEntity<Resource> descargarAdjunto(
             @Parameter(description = "ID del adjunto", example = "5") @PathVariable Long adjuntoId,
-            @Parameter(hidden = true) @AuthenticationPrincipal Jwt jwt,
-            @RequestHeader(value = "Authorization", required = false) String authorizationHeader) {
+            @Parameter(hidden = true) UsuarioAutenticado autenticado) {
 
-        Long usuarioId = resolveUsuarioId(jwt, authorizationHeader);
+        Long usuarioId = autenticado.usuarioId();
         log.info("Usuario {} descargando adjunto {}", usuarioId, adjuntoId);
 
         Adjunto adjunto = adjuntoService.obtenerAdjuntoPorId(adjuntoId, usuarioId);
@@ -179,8 +161,7 @@ public class AdjuntoController {
      * Elimina un adjunto del usuario autenticado.
      *
      * @param adjuntoId identificador del adjunto
-     * @param jwt JWT actual
-     * @param authorizationHeader header Authorization Bearer opcional
+     * @param autenticado usuario autenticado
      * @return respuesta sin cuerpo tras eliminar
      */
     @Operation(summary = "Eliminar archivo adjunto", description = "Elimina un archivo del sistema y de la base de datos.")
@@ -195,14 +176,18 @@ public class AdjuntoController {
     @DeleteMapping("/{adjuntoId}")
     public ResponseEntity<ApiResponse<Void>> eliminarAdjunto(
             @Parameter(description = "ID del adjunto", example = "5") @PathVariable Long adjuntoId,
-            @Parameter(hidden = true) @AuthenticationPrincipal Jwt jwt,
-            @RequestHeader(value = "Authorization", required = false) String authorizationHeader) {
+            @Parameter(hidden = true) UsuarioAutenticado autenticado) {
 
-        Long usuarioId = resolveUsuarioId(jwt, authorizationHeader);
+        Long usuarioId = autenticado.usuarioId();
         log.info("Usuario {} eliminando adjunto {}", usuarioId, adjuntoId);
 
         adjuntoService.eliminarAdjunto(adjuntoId, usuarioId);
         return ResponseEntity.ok(ApiResponse.success("Adjunto eliminado exitosamente", null));
     }
-}
 
+    /**
+     * Datos del archivo que identifican una subida repetida con la misma Idempotency-Key.
+     */
+    record HuellaArchivo(String nombre, String tipo, long tamano) {
+    }
+}
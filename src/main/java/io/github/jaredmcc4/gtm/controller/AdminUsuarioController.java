@@ -0,0 +1,53 @@
+package io.github.jaredmcc4.gtm.controller;
+
+import io.github.jaredmcc4.gtm.dto.response.ApiResponse;
+import io.github.jaredmcc4.gtm.dto.response.ErrorResponse;
+import io.github.jaredmcc4.gtm.dto.usuario.UsuarioDto;
+import io.github.jaredmcc4.gtm.mapper.UsuarioMapper;
+import io.github.jaredmcc4.gtm.services.UsuarioService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+/**
+ * Controlador REST de administracion de usuarios (requiere rol ADMIN).
+ */
+@Slf4j
+@RestController
+@RequestMapping("/api/v1/admin/usuarios")
+@RequiredArgsConstructor
+@SecurityRequirement(name = "bearerAuth")
+@Tag(name = "Administracion de usuarios", description = "Operaciones administrativas sobre cuentas de usuario.")
+public class AdminUsuarioController {
+
+    private final UsuarioService usuarioService;
+    private final UsuarioMapper usuarioMapper;
+
+    /**
+     * Desactiva una cuenta; sus JWT y refresh tokens dejan de aceptarse de inmediato.
+     *
+     * @param id identificador del usuario
+     * @return usuario desactivado
+     */
+    @Operation(summary = "Desactivar usuario", description = "Desactiva la cuenta e invalida todos sus tokens.")
+    @io.swagger.v3.oas.annotations.responses.ApiResponses({
+            @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "200", description = "Usuario desactivado",
+                    content = @Content(schema = @Schema(implementation = ApiResponse.class))),
+            @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "403", description = "Sin rol ADMIN",
+                    content = @Content(schema = @Schema(implementation = ErrorResponse.class))),
+            @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "404", description = "Usuario no encontrado",
+                    content = @Content(schema = @Schema(implementation = ErrorResponse.class)))
+    })
+    @PatchMapping("/{id}/desactivar")
+    public ResponseEntity<ApiResponse<UsuarioDto>> desactivarUsuario(@PathVariable Long id) {
+        log.info("PATCH /api/v1/admin/usuarios/{}/desactivar", id);
+        UsuarioDto usuarioDto = usuarioMapper.toDto(usuarioService.desactivarUsuario(id));
+        return ResponseEntity.ok(ApiResponse.success("Usuario desactivado exitosamente", usuarioDto));
+    }
+}
@@ -7,10 +7,13 @@ import io.github.jaredmcc4.gtm.dto.auth.RegistroRequest;
 import io.github.jaredmcc4.gtm.dto.auth.SocialLoginRequest;
 import io.github.jaredmcc4.gtm.dto.response.ApiResponse;
 import io.github.jaredmcc4.gtm.dto.usuario.UsuarioDto;
+import io.github.jaredmcc4.gtm.exception.ResourceNotFoundException;
+import io.github.jaredmcc4.gtm.exception.UnauthorizedException;
 import io.github.jaredmcc4.gtm.mapper.UsuarioMapper;
+import io.github.jaredmcc4.gtm.security.LimitadorIntentos;
 import io.github.jaredmcc4.gtm.services.AuthService;
 import io.github.jaredmcc4.gtm.services.SocialAuthService;
-import io.github.jaredmcc4.gtm.services.TurnstileService;
+import io.github.jaredmcc4.gtm.util.ClientIpUtil;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.media.Schema;
@@ -23,6 +26,7 @@ import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.AuthenticationException;
 import org.springframework.web.bind.annotation.*;
 
 @Slf4j
@@ -34,8 +38,8 @@ public class AuthController {
 
     private final AuthService authService;
     private final SocialAuthService socialAuthService;
-    private final TurnstileService turnstileService;
     private final UsuarioMapper usuarioMapper;
+    private final LimitadorIntentos limitadorIntentos;
 
     /**
      * Registra un nuevo usuario final y devuelve sus datos visibles.
@@ -57,35 +61,18 @@ public class AuthController {
             HttpServletRequest httpRequest) {
         log.info("POST /api/v1/auth/registro - Email: {}", request.getEmail());
         
-        // Verificar Turnstile token
-        String clientIp = obtenerClientIp(httpRequest);
-        turnstileService.verificarToken(request.getTurnstileToken(), clientIp);
-        
-        var usuario = authService.registrarUsuario(request);
+        var usuario = authService.registrarUsuario(request, ClientIpUtil.obtener(httpRequest));
         var usuarioDto = usuarioMapper.toDto(usuario);
         return ResponseEntity.status(HttpStatus.CREATED)
                 .body(ApiResponse.success("Usuario registrado exitosamente", usuarioDto));
     }
 
     /**
-     * Obtiene la IP real del cliente considerando proxies.
-     */
-    private String obtenerClientIp(HttpServletRequest request) {
-        String xForwardedFor = request.getHeader("X-Forwarded-For");
-        if (xForwardedFor != null && !xForwardedFor.isEmpty()) {
-            return xForwardedFor.split(",")[0].trim();
-        }
-        String xRealIp = request.getHeader("X-Real-IP");
-        if (xRealIp != null && !xRealIp.isEmpty()) {
-            return xRealIp;
-        }
-        return request.getRemoteAddr();
-    }
-
-    /**
-     * Autentica al usuario y entrega JWT de acceso y refresh token.
+     * Autentica al usuario y entrega JWT de acceso y refresh token. Los intentos por encima
+     * del limite por IP o email se rechazan con 429 antes de consultar credenciales.
      *
      * @param request credenciales de acceso (email y password)
+     * @param httpRequest request HTTP para obtener la IP del cliente
      * @return tokens emitidos y sus expiraciones
      */
     @Operation(summary = "Iniciar sesion", description = "Autentica al usuario y devuelve JWT + Refresh Token.")
@@ -93,13 +80,23 @@ public class AuthController {
             @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "200", description = "Autenticacion exitosa",
                     content = @Content(schema = @Schema(implementation = ApiResponse.class))),
             @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "401", description = "Credenciales invalidas o usuario inactivo",
+                    content = @Content(schema = @Schema(implementation = ApiResponse.class))),
+            @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "429", description = "Demasiados intentos",
                     content = @Content(schema = @Schema(implementation = ApiResponse.class)))
     })
     @PostMapping("/login")
-    public ResponseEntity<ApiResponse<JwtResponse>> login(@Valid @RequestBody LoginRequest request) {
+    public ResponseEntity<ApiResponse<JwtResponse>> login(@Valid @RequestBody LoginRequest request,
+                                                          HttpServletRequest httpRequest) {
         log.info("POST /api/v1/auth/login - Email: {}", request.getEmail());
-        var jwtResponse = authService.autenticarUsuario(request);
-        return ResponseEntity.ok(ApiResponse.success("Autenticacion exitosa", jwtResponse));
+        String clientIp = ClientIpUtil.obtener(httpRequest);
+        limitadorIntentos.verificarLogin(clientIp, request.getEmail());
+        try {
+            var jwtResponse = authService.autenticarUsuario(request);
+            return ResponseEntity.ok(ApiResponse.success("Autenticacion exitosa", jwtResponse));
+        } catch (AuthenticationException ex) {
+            limitadorIntentos.registrarFallo(clientIp, request.getEmail());
+            throw ex;
+        }
     }
 
     /**
@@ -123,9 +120,11 @@ public class AuthController {
     }
 
     /**
-     * Genera un nuevo par de tokens a partir de un refresh token valido.
+     * Genera un nuevo par de tokens a partir de un refresh token valido. Tiene su propio limite
+     * por IP y cada token desconocido, revocado o expirado penaliza a la IP.
      *
      * @param request request con el refresh token actual
+     * @param httpRequest request HTTP para obtener la IP del cliente
      * @return nuevo JWT de acceso y refresh token renovado
      */
     @Operation(summary = "Refrescar token JWT", description = "Genera un nuevo JWT usando el Refresh Token valido.")
@@ -133,13 +132,23 @@ public class AuthController {
             @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "200", description = "Token refrescado",
                     content = @Content(schema = @Schema(implementation = ApiResponse.class))),
             @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "401", description = "Refresh token invalido, revocado o expirado",
+                    content = @Content(schema = @Schema(implementation = ApiResponse.class))),
+            @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "429", description = "Demasiados intentos",
                     content = @Content(schema = @Schema(implementation = ApiResponse.class)))
     })
     @PostMapping("/refresh")
-    public ResponseEntity<ApiResponse<JwtResponse>> refreshToken(@Valid @RequestBody RefreshTokenRequest request) {
+    public ResponseEntity<ApiResponse<JwtResponse>> refreshToken(@Valid @RequestBody RefreshTokenRequest request,
+                                                                 HttpServletRequest httpRequest) {
         log.info("POST /api/v1/auth/refresh");
-        var jwtResponse = authService.refrescarToken(request.getRefreshToken());
-        return ResponseEntity.ok(ApiResponse.success("Token refrescado exitosamente", jwtResponse));
+        String clientIp = ClientIpUtil.obtener(httpRequest);
+        limitadorIntentos.verificarRefresh(clientIp);
+        try {
+            var jwtResponse = authService.refrescarToken(request.getRefreshToken());
+            return ResponseEntity.ok(ApiResponse.success("Token refrescado exitosamente", jwtResponse));
+        } catch (UnauthorizedException | ResourceNotFoundException ex) {
+            limitadorIntentos.registrarFalloRefresh(clientIp);
+            throw ex;
+        }
     }
 
     /**
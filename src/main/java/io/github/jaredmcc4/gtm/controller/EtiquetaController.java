@@ -4,12 +4,10 @@ import io.github.jaredmcc4.gtm.domain.Etiqueta;
 import io.github.jaredmcc4.gtm.dto.etiqueta.EtiquetaDto;
 import io.github.jaredmcc4.gtm.dto.response.ApiResponse;
 import io.github.jaredmcc4.gtm.dto.response.ErrorResponse;
-import io.github.jaredmcc4.gtm.exception.UnauthorizedException;
 import io.github.jaredmcc4.gtm.mapper.EtiquetaMapper;
+import io.github.jaredmcc4.gtm.security.UsuarioAutenticado;
 import io.github.jaredmcc4.gtm.services.EtiquetaService;
 import io.github.jaredmcc4.gtm.services.UsuarioService;
-import io.github.jaredmcc4.gtm.util.JwtExtractorUtil;
-import io.github.jaredmcc4.gtm.util.JwtUtil;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.media.Content;
@@ -22,8 +20,6 @@ import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
-import org.springframework.security.core.annotation.AuthenticationPrincipal;
-import org.springframework.security.oauth2.jwt.Jwt;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.List;
@@ -43,32 +39,11 @@ public class EtiquetaController {
     private final EtiquetaService etiquetaService;
     private final EtiquetaMapper etiquetaMapper;
     private final UsuarioService usuarioService;
-    private final JwtUtil jwtUtil;
-
-    /**
-     * Resuelve el ID de usuario autenticado a partir del JWT del principal o del header Authorization.
-     *
-     * @param jwt token JWT inyectado por Spring (puede ser null)
-     * @param authorizationHeader encabezado Authorization Bearer opcional
-     * @return identificador interno del usuario
-     * @throws UnauthorizedException si no se puede determinar el usuario
-     */
-    private Long resolveUsuarioId(Jwt jwt, String authorizationHeader) {
-        if (jwt != null) {
-            return JwtExtractorUtil.extractUsuarioId(jwt);
-        }
-        if (authorizationHeader != null && authorizationHeader.startsWith("Bearer ")) {
-            String token = authorizationHeader.substring(7);
-            return jwtUtil.extraerUsuarioId(token);
-        }
-        throw new UnauthorizedException("No se pudo determinar el usuario autenticado");
-    }
 
     /**
      * Lista todas las etiquetas del usuario autenticado.
      *
-     * @param jwt JWT actual
-     * @param authorizationHeader header Authorization Bearer opcional
+     * @param autenticado usuario autenticado
      * @return etiquetas del usuario
      */
     @Operation(summary = "Obtener todas las etiquetas del usuario", description = "Lista completa de etiquetas personalizadas.")
@@ -80,9 +55,8 @@ public class EtiquetaController {
     })
     @GetMapping
     public ResponseEntity<ApiResponse<List<EtiquetaDto>>> obtenerEtiquetas(
-            @Parameter(hidden = true) @AuthenticationPrincipal Jwt jwt,
-            @RequestHeader(value = "Authorization", required = false) String authorizationHeader) {
-        Long usuarioId = resolveUsuarioId(jwt, authorizationHeader);
+            @Parameter(hidden = true) UsuarioAutenticado autenticado) {
+        Long usuarioId = autenticado.usuarioId();
         log.info("GET /api/v1/etiquetas - Usuario ID: {}", usuarioId);
 
         List<Etiqueta> etiquetas = etiquetaService.obtenerEtiquetasPorUsuarioId(usuarioId);
@@ -96,8 +70,7 @@ public class EtiquetaController {
     /**
      * Obtiene el detalle de una etiqueta del usuario autenticado.
      *
-     * @param jwt JWT actual
-     * @param authorizationHeader header Authorization Bearer opcional
+     * @param autenticado usuario autenticado
      * @param id identificador de la etiqueta
      * @return etiqueta encontrada
      */
@@ -112,11 +85,10 @@ public class EtiquetaController {
     })
     @GetMapping("/{id}")
     public ResponseEntity<ApiResponse<EtiquetaDto>> obtenerEtiquetaPorId(
-            @Parameter(hidden = true) @AuthenticationPrincipal Jwt jwt,
-            @RequestHeader(value = "Authorization", required = false) String authorizationHeader,
+            @Parameter(hidden = true) UsuarioAutenticado autenticado,
             @Parameter(description = "ID de la etiqueta", example = "3") @PathVariable Long id
     ) {
-        Long usuarioId = resolveUsuarioId(jwt, authorizationHeader);
+        Long usuarioId = autenticado.usuarioId();
         log.info("GET /api/v1/etiquetas/{} - Usuario ID: {}", id, usuarioId);
 
         Etiqueta etiqueta = etiquetaService.obtenerEtiquetaPorIdYUsuarioId(id, usuarioId);
@@ -128,8 +100,7 @@ public class EtiquetaController {
     /**
      * Crea una nueva etiqueta para el usuario autenticado.
      *
-     * @param jwt JWT actual
-     * @param authorizationHeader header Authorization Bearer opcional
+     * @param autenticado usuario autenticado
      * @param etiquetaDto datos de la etiqueta (nombre y color)
      * @return etiqueta creada
      */
@@ -144,11 +115,10 @@ public class EtiquetaController {
     })
     @PostMapping
     public ResponseEntity<ApiResponse<EtiquetaDto>> crearEtiqueta(
-            @Parameter(hidden = true) @AuthenticationPrincipal Jwt jwt,
-            @RequestHeader(value = "Authorization", required = false) String authorizationHeader,
+            @Parameter(hidden = true) UsuarioAutenticado autenticado,
             @Valid @RequestBody EtiquetaDto etiquetaDto
     ) {
-        Long usuarioId = resolveUsuarioId(jwt, authorizationHeader);
+        Long usuarioId = autenticado.usuarioId();
         log.info("POST /api/v1/etiquetas - Usuario ID: {}, Nombre: '{}'", usuarioId, etiquetaDto.getNombre());
 
         var usuario = usuarioService.obtenerUsuarioPorId(usuarioId);
@@ -164,8 +134,7 @@ public class EtiquetaController {
     /**
      * Actualiza nombre y color de una etiqueta existente del usuario autenticado.
      *
-     * @param jwt JWT actual
-     * @param authorizationHeader header Authorization Bearer opcional
+     * @param autenticado usuario autenticado
      * @param id identificador de la etiqueta
      * @param etiquetaDto datos actualizados
      * @return etiqueta actualizada
@@ -183,12 +152,11 @@ public class EtiquetaController {
     })
     @PutMapping("/{id}")
     public ResponseEntity<ApiResponse<EtiquetaDto>> actualizarEtiqueta(
-            @Parameter(hidden = true) @AuthenticationPrincipal Jwt jwt,
-            @RequestHeader(value = "Authorization", required = false) String authorizationHeader,
+            @Parameter(hidden = true) UsuarioAutenticado autenticado,
             @Parameter(description = "ID de la etiqueta", example = "3") @PathVariable Long id,
             @Valid @RequestBody EtiquetaDto etiquetaDto
     ) {
-        Long usuarioId = resolveUsuarioId(jwt, authorizationHeader);
+        Long usuarioId = autenticado.usuarioId();
         log.info("PUT /api/v1/etiquetas/{} - Usuario ID: {}", id, usuarioId);
 
         Etiqueta etiquetaActualizada = etiquetaMapper.toEntity(etiquetaDto);
@@ -201,8 +169,7 @@ public class EtiquetaController {
     /**
      * Elimina una etiqueta del usuario y la desvincula de sus tareas.
      *
-     * @param jwt JWT actual
-     * @param authorizationHeader header Authorization Bearer opcional
+     * @param autenticado usuario autenticado
      * @param id identificador de la etiqueta
      * @return respuesta sin cuerpo al eliminar
      */
@@ -217,11 +184,10 @@ public class EtiquetaController {
     })
     @DeleteMapping("/{id}")
     public ResponseEntity<ApiResponse<Void>> eliminarEtiqueta(
-            @Parameter(hidden = true) @AuthenticationPrincipal Jwt jwt,
-            @RequestHeader(value = "Authorization", required = false) String authorizationHeader,
+            @Parameter(hidden = true) UsuarioAutenticado autenticado,
             @Parameter(description = "ID de la etiqueta", example = "3") @PathVariable Long id
     ) {
-        Long usuarioId = resolveUsuarioId(jwt, authorizationHeader);
+        Long usuarioId = autenticado.usuarioId();
         log.info("DELETE /api/v1/etiquetas/{} - Usuario ID: {}", id, usuarioId);
 
         etiquetaService.eliminarEtiqueta(id, usuarioId);
@@ -4,11 +4,10 @@ import io.github.jaredmcc4.gtm.domain.Subtarea;
 import io.github.jaredmcc4.gtm.dto.response.ApiResponse;
 import io.github.jaredmcc4.gtm.dto.response.ErrorResponse;
 import io.github.jaredmcc4.gtm.dto.subtarea.SubtareaDto;
-import io.github.jaredmcc4.gtm.exception.UnauthorizedException;
+import io.github.jaredmcc4.gtm.dto.tarea.MoverPosicionRequest;
 import io.github.jaredmcc4.gtm.mapper.SubtareaMapper;
+import io.github.jaredmcc4.gtm.security.UsuarioAutenticado;
 import io.github.jaredmcc4.gtm.services.SubtareaService;
-import io.github.jaredmcc4.gtm.util.JwtExtractorUtil;
-import io.github.jaredmcc4.gtm.util.JwtUtil;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.media.Content;
@@ -21,8 +20,6 @@ import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
-import org.springframework.security.core.annotation.AuthenticationPrincipal;
-import org.springframework.security.oauth2.jwt.Jwt;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.List;
@@ -41,32 +38,11 @@ public class SubtareaController {
 
     private final SubtareaService subtareaService;
     private final SubtareaMapper subtareaMapper;
-    private final JwtUtil jwtUtil;
-
-    /**
-     * Resuelve el ID de usuario autenticado desde el JWT recibido o el header Authorization.
-     *
-     * @param jwt token JWT inyectado por Spring Security (puede ser null)
-     * @param authorizationHeader encabezado Authorization con formato Bearer (opcional)
-     * @return identificador interno del usuario
-     * @throws UnauthorizedException si no se puede determinar el usuario
-     */
-    private Long resolveUsuarioId(Jwt jwt, String authorizationHeader) {
-        if (jwt != null) {
-            return JwtExtractorUtil.extractUsuarioId(jwt);
-        }
-        if (authorizationHeader != null && authorizationHeader.startsWith("Bearer ")) {
-            String token = authorizationHeader.substring(7);
-            return jwtUtil.extraerUsuarioId(token);
-        }
-        throw new UnauthorizedException("No se pudo determinar el usuario autenticado");
-    }
 
     /**
      * Obtiene todas las subtareas de una tarea especifica para el usuario autenticado.
      *
-     * @param jwt JWT actual
-     * @param authorizationHeader header Authorization con Bearer token (opcional)
+     * @param autenticado usuario autenticado
      * @param tareaId identificador de la tarea
      * @return lista de subtareas asociadas
      */
@@ -84,11 +60,10 @@ public class SubtareaController {
     })
     @GetMapping("/tarea/{tareaId}")
     public ResponseEntity<ApiResponse<List<SubtareaDto>>> obtenerSubtareasPorTarea(
-            @Parameter(hidden = true) @AuthenticationPrincipal Jwt jwt,
-            @RequestHeader(value = "Authorization", required = false) String authorizationHeader,
+            @Parameter(hidden = true) UsuarioAutenticado autenticado,
             @Parameter(description = "ID de la tarea", example = "10") @PathVariable Long tareaId
     ) {
-        Long usuarioId = resolveUsuarioId(jwt, authorizationHeader);
+        Long usuarioId = autenticado.usuarioId();
         log.info("GET /api/v1/subtareas/tarea/{} - Usuario ID: {}", tareaId, usuarioId);
 
         List<Subtarea> subtareas = subtareaService.mostrarSubtareas(tareaId, usuarioId);
@@ -102,8 +77,7 @@ public class SubtareaController {
     /**
      * Crea una nueva subtarea bajo una tarea existente.
      *
-     * @param jwt JWT actual
-     * @param authorizationHeader header Authorization con Bearer token (opcional)
+     * @param autenticado usuario autenticado
      * @param tareaId identificador de la tarea padre
      * @param subtareaDto datos de la subtarea a crear
      * @return subtarea creada
@@ -124,12 +98,11 @@ public class SubtareaController {
     })
     @PostMapping("/tarea/{tareaId}")
     public ResponseEntity<ApiResponse<SubtareaDto>> crearSubtarea(
-            @Parameter(hidden = true) @AuthenticationPrincipal Jwt jwt,
-            @RequestHeader(value = "Authorization", required = false) String authorizationHeader,
+            @Parameter(hidden = true) UsuarioAutenticado autenticado,
             @Parameter(description = "ID de la tarea", example = "10") @PathVariable Long tareaId,
             @Valid @RequestBody SubtareaDto subtareaDto
     ) {
-        Long usuarioId = resolveUsuarioId(jwt, authorizationHeader);
+        Long usuarioId = autenticado.usuarioId();
         log.info("POST /api/v1/subtareas/tarea/{} - Usuario ID: {}, Titulo: '{}'",
                 tareaId, usuarioId, subtareaDto.getTitulo());
 
@@ -144,8 +117,7 @@ public class SubtareaController {
     /**
      * Actualiza titulo o estado de una subtarea del usuario autenticado.
      *
-     * @param jwt JWT actual
-     * @param authorizationHeader header Authorization con Bearer token (opcional)
+     * @param autenticado usuario autenticado
      * @param id identificador de la subtarea
      * @param subtareaDto datos a actualizar
      * @return subtarea actualizada
@@ -166,12 +138,11 @@ public class SubtareaController {
     })
     @PutMapping("/{id}")
     public ResponseEntity<ApiResponse<SubtareaDto>> actualizarSubtarea(
-            @Parameter(hidden = true) @AuthenticationPrincipal Jwt jwt,
-            @RequestHeader(value = "Authorization", required = false) String authorizationHeader,
+            @Parameter(hidden = true) UsuarioAutenticado autenticado,
             @Parameter(description = "ID de la subtarea", example = "15") @PathVariable Long id,
             @Valid @RequestBody SubtareaDto subtareaDto
     ) {
-        Long usuarioId = resolveUsuarioId(jwt, authorizationHeader);
+        Long usuarioId = autenticado.usuarioId();
         log.info("PUT /api/v1/subtareas/{} - Usuario ID: {}", id, usuarioId);
 
         Subtarea subtareaActualizada = subtareaMapper.toEntity(subtareaDto);
@@ -181,11 +152,45 @@ public class SubtareaController {
         return ResponseEntity.ok(ApiResponse.success("Subtarea actualizada exitosamente", subtareaDtoActualizada));
     }
 
+    /**
+     * Mueve una subtarea en el orden manual de su tarea (arrastrar y soltar).
+     *
+     * @param autenticado usuario autenticado
+     * @param id identificador de la subtarea
+     * @param request vecino que quedara antes de la subtarea
+     * @return subtarea con su nueva posicion
+     */
+    @Operation(
+            summary = "Mover subtarea",
+            description = "Coloca la subtarea justo despues de anteriorId (o al inicio si es null) dentro de la misma tarea."
+    )
+    @io.swagger.v3.oas.annotations.responses.ApiResponses({
+            @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "200", description = "Subtarea movida",
+                    content = @Content(schema = @Schema(implementation = ApiResponse.class))),
+            @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "400", description = "Datos invalidos",
+                    content = @Content(schema = @Schema(implementation = ErrorResponse.class))),
+            @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "401", description = "No autenticado",
+                    content = @Content(schema = @Schema(implementation = ErrorResponse.class))),
+            @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "404", description = "Subtarea no encontrada",
+                    content = @Content(schema = @Schema(implementation = ErrorResponse.class)))
+    })
+    @PutMapping("/{id}/posicion")
+    public ResponseEntity<ApiResponse<SubtareaDto>> moverSubtarea(
+            @Parameter(hidden = true) UsuarioAutenticado autenticado,
+            @Parameter(description = "ID de la subtarea", example = "15") @PathVariable Long id,
+            @RequestBody MoverPosicionRequest request
+    ) {
+        Long usuarioId = autenticado.usuarioId();
+        log.info("PUT /api/v1/subtareas/{}/posicion - Usuario ID: {}, Anterior: {}", id, usuarioId, request.getAnteriorId());
+
+        Subtarea subtarea = subtareaService.moverSubtarea(id, request.getAnteriorId(), usuarioId);
+        return ResponseEntity.ok(ApiResponse.success("Subtarea movida exitosamente", subtareaMapper.toDto(subtarea)));
+    }
+
     /**
      * Elimina una subtarea del usuario autenticado.
      *
-     * @param jwt JWT actual
-     * @param authorizationHeader header Authorization con Bearer token (opcional)
+     * @param autenticado usuario autenticado
      * @param id identificador de la subtarea
      * @return respuesta sin datos si la eliminacion fue exitosa
      */
@@ -203,11 +208,10 @@ public class SubtareaController {
     })
     @DeleteMapping("/{id}")
     public ResponseEntity<ApiResponse<Void>> eliminarSubtarea(
-            @Parameter(hidden = true) @AuthenticationPrincipal Jwt jwt,
-            @RequestHeader(value = "Authorization", required = false) String authorizationHeader,
+            @Parameter(hidden = true) UsuarioAutenticado autenticado,
             @Parameter(description = "ID de la subtarea", example = "15") @PathVariable Long id
     ) {
-        Long usuarioId = resolveUsuarioId(jwt, authorizationHeader);
+        Long usuarioId = autenticado.usuarioId();
         log.info("DELETE /api/v1/subtareas/{} - Usuario ID: {}", id, usuarioId);
 
         subtareaService.eliminarSubtarea(id, usuarioId);
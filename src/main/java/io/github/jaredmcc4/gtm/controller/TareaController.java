@@ -1,18 +1,25 @@
 package io.github.jaredmcc4.gtm.controller;
 
+import io.github.jaredmcc4.gtm.config.VersionDatosInterceptor;
 import io.github.jaredmcc4.gtm.domain.Tarea;
 import io.github.jaredmcc4.gtm.dto.response.ApiResponse;
 import io.github.jaredmcc4.gtm.dto.response.ErrorResponse;
 import io.github.jaredmcc4.gtm.dto.response.PageResponse;
 import io.github.jaredmcc4.gtm.dto.tarea.CrearTareaRequest;
+import io.github.jaredmcc4.gtm.dto.tarea.ActualizacionLoteRequest;
 import io.github.jaredmcc4.gtm.dto.tarea.ActualizarTareaRequest;
 import io.github.jaredmcc4.gtm.dto.tarea.EstadisticasDto;
+import io.github.jaredmcc4.gtm.dto.tarea.MoverPosicionRequest;
+import io.github.jaredmcc4.gtm.dto.tarea.ResultadoLoteDto;
 import io.github.jaredmcc4.gtm.dto.tarea.TareaDto;
 import io.github.jaredmcc4.gtm.exception.UnauthorizedException;
 import io.github.jaredmcc4.gtm.mapper.TareaMapper;
+import io.github.jaredmcc4.gtm.security.UsuarioAutenticado;
+import io.github.jaredmcc4.gtm.services.IdempotenciaService;
+import io.github.jaredmcc4.gtm.services.SingleFlight;
 import io.github.jaredmcc4.gtm.services.TareaService;
 import io.github.jaredmcc4.gtm.services.UsuarioService;
-import io.github.jaredmcc4.gtm.util.JwtUtil;
+import io.github.jaredmcc4.gtm.services.VersionDatosService;
 import io.github.jaredmcc4.gtm.util.PageUtil;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
@@ -30,14 +37,15 @@ import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
-import org.springframework.security.core.Authentication;
-import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.security.oauth2.jwt.Jwt;
-import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationToken;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
 
+import java.util.Arrays;
 import java.util.List;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
 /**
@@ -55,26 +63,41 @@ public class TareaController {
     private final TareaService tareaService;
     private final UsuarioService usuarioService;
     private final TareaMapper tareaMapper;
-    private final JwtUtil jwtUtil;
+    private final IdempotenciaService idempotenciaService;
+    private final SingleFlight singleFlight;
+    private final VersionDatosService versionDatosService;
 
     /**
-     * Obtiene el ID del usuario autenticado a partir del JWT actual.
-     * Lee el token del principal o del contexto de seguridad y valida su presencia.
+     * Obtiene el ID del usuario autenticado desde el principal construido al validar el JWT,
+     * sin volver a verificar la firma ni parsear el token.
      *
      * @param jwt token extraido por {@link AuthenticationPrincipal} (puede ser null)
      * @return identificador interno del usuario autenticado
      * @throws UnauthorizedException si no hay JWT valido en el contexto
      */
     private Long resolverUsuarioId(Jwt jwt) {
-        if (jwt != null) {
-            return jwtUtil.extraerUsuarioId(jwt.getTokenValue());
-        }
-
-        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-        if (authentication instanceof JwtAuthenticationToken jwtAuth) {
-            return jwtUtil.extraerUsuarioId(jwtAuth.getToken().getTokenValue());
-        }
-        throw new UnauthorizedException("Token JWT requerido.");
+        return UsuarioAutenticado.actual(jwt)
+                .map(UsuarioAutenticado::usuarioId)
+                .orElseThrow(() -> new UnauthorizedException("Token JWT requerido."));
+    }
+
+    /**
+     * Devuelve la version de datos del usuario para incluirla en la clave de {@link SingleFlight}:
+     * una lectura posterior a una escritura nunca se une a un calculo iniciado antes de ella.
+     * Reutiliza la que dejo {@link VersionDatosInterceptor} en la peticion y solo la consulta si falta.
+     *
+     * @param usuarioId identificador del usuario autenticado
+     * @return numero de version de datos del usuario
+     */
+    private long versionDatos(Long usuarioId) {
+        RequestAttributes atributos = RequestContextHolder.getRequestAttributes();
+        Object leida = atributos != null
+                ? atributos.getAttribute(VersionDatosInterceptor.ATRIBUTO_VERSION, RequestAttributes.SCOPE_REQUEST)
+                : null;
+        VersionDatosService.Version version = leida instanceof VersionDatosService.Version v
+                ? v
+                : versionDatosService.obtener(usuarioId);
+        return version != null ? version.numero() : 0L;
     }
 
     /**
@@ -112,19 +135,26 @@ public class TareaController {
         Long usuarioId = resolverUsuarioId(jwt);
 
         log.info("GET /api/v1/tareas - Usuario ID: {}, Page: {}, Size: {}", usuarioId, page, size);
-        Sort sort = Sort.by(Sort.Direction.fromString(direction), sortBy);
-        Pageable pageable = PageRequest.of(page, size, sort);
-
-        Page<Tarea> tareaPage;
-        if (search != null) {
-            tareaPage = tareaService.buscarTareasPorTexto(usuarioId, search, pageable);
-        } else if (estado != null) {
-            tareaPage = tareaService.filtrarTareas(usuarioId, estado, null, null, pageable);
-        } else {
-            tareaPage = tareaService.obtenerTareasPorUsuarioId(usuarioId, pageable);
-        }
-
-        PageResponse<TareaDto> pageResponse = PageUtil.toPageResponse(tareaPage, tareaMapper::toDto);
+        Sort.Direction sortDirection = Sort.Direction.fromString(direction);
+        Pageable pageable = PageRequest.of(page, size, Sort.by(sortDirection, sortBy));
+
+        Supplier<PageResponse<TareaDto>> consulta = () -> {
+            Page<Tarea> tareaPage;
+            if (search != null) {
+                tareaPage = tareaService.buscarTareasPorTexto(usuarioId, search, pageable);
+            } else if (estado != null) {
+                tareaPage = tareaService.filtrarTareas(usuarioId, estado, null, null, pageable);
+            } else {
+                tareaPage = tareaService.obtenerTareasPorUsuarioId(usuarioId, pageable);
+            }
+            return PageUtil.toPageResponse(tareaPage, tareaMapper::toDto);
+        };
+
+        // Solo la primera pagina se agrupa: es la que piden a la vez varias pestanas y el dashboard
+        PageResponse<TareaDto> pageResponse = page == 0
+                ? singleFlight.ejecutar(usuarioId, "tareas",
+                        Arrays.asList(versionDatos(usuarioId), size, sortBy, sortDirection, estado, search), consulta)
+                : consulta.get();
         return ResponseEntity.ok(ApiResponse.success("Tareas obtenidas exitosamente", pageResponse));
     }
 
@@ -268,8 +298,10 @@ public class TareaController {
         Long usuarioId = resolverUsuarioId(jwt);
         log.info("GET /api/v1/tareas/proximas-vencer - Usuario ID: {}, Dias: {}", usuarioId, dias);
 
-        List<Tarea> tareas = tareaService.obtenerTareasProximasVencimiento(usuarioId, dias);
-        List<TareaDto> tareasDto = tareas.stream().map(tareaMapper::toDto).collect(Collectors.toList());
+        List<TareaDto> tareasDto = singleFlight.ejecutar(usuarioId, "proximas-vencer", List.of(versionDatos(usuarioId), dias), () ->
+                tareaService.obtenerTareasProximasVencimiento(usuarioId, dias).stream()
+                        .map(tareaMapper::toDto)
+                        .collect(Collectors.toList()));
 
         return ResponseEntity.ok(ApiResponse.success("Tareas proximas a vencer obtenidas", tareasDto));
     }
@@ -295,17 +327,18 @@ public class TareaController {
         Long usuarioId = resolverUsuarioId(jwt);
         log.info("GET /api/v1/tareas/estadisticas - Usuario ID: {}", usuarioId);
 
-        long pendientes = tareaService.contarTareasPorEstado(usuarioId, Tarea.EstadoTarea.PENDIENTE);
-        long completadas = tareaService.contarTareasPorEstado(usuarioId, Tarea.EstadoTarea.COMPLETADA);
-        long canceladas = tareaService.contarTareasPorEstado(usuarioId, Tarea.EstadoTarea.CANCELADA);
-        long total = pendientes + completadas + canceladas;
+        EstadisticasDto estadisticas = singleFlight.ejecutar(usuarioId, "estadisticas", List.of(versionDatos(usuarioId)), () -> {
+            long pendientes = tareaService.contarTareasPorEstado(usuarioId, Tarea.EstadoTarea.PENDIENTE);
+            long completadas = tareaService.contarTareasPorEstado(usuarioId, Tarea.EstadoTarea.COMPLETADA);
+            long canceladas = tareaService.contarTareasPorEstado(usuarioId, Tarea.EstadoTarea.CANCELADA);
 
-        EstadisticasDto estadisticas = EstadisticasDto.builder()
-                .pendientes(pendientes)
-                .completadas(completadas)
-                .canceladas(canceladas)
-                .total(total)
-                .build();
+            return EstadisticasDto.builder()
+                    .pendientes(pendientes)
+                    .completadas(completadas)
+                    .canceladas(canceladas)
+                    .total(pendientes + completadas + canceladas)
+                    .build();
+        });
 
         return ResponseEntity.ok(ApiResponse.success("Estadisticas obtenidas", estadisticas));
     }
@@ -347,12 +380,13 @@ public class TareaController {
      * Crea una nueva tarea (estado PENDIENTE) para el usuario autenticado.
      *
      * @param jwt JWT actual
+     * @param idempotencyKey clave opcional para reintentos seguros
      * @param request datos de la tarea a crear
      * @return tarea creada
      */
     @Operation(
             summary = "Crear nueva tarea",
-            description = "Crea una tarea con estado PENDIENTE por defecto."
+            description = "Crea una tarea con estado PENDIENTE por defecto. Con Idempotency-Key, los reintentos devuelven la respuesta original."
     )
     @io.swagger.v3.oas.annotations.responses.ApiResponses({
         @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "201", description = "Tarea creada",
@@ -360,30 +394,36 @@ public class TareaController {
         @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "400", description = "Datos invalidos",
                 content = @Content(schema = @Schema(implementation = ErrorResponse.class))),
         @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "401", description = "No autenticado",
+                content = @Content(schema = @Schema(implementation = ErrorResponse.class))),
+        @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "409", description = "Solicitud con la misma Idempotency-Key en proceso",
                 content = @Content(schema = @Schema(implementation = ErrorResponse.class)))
     })
     @PostMapping
     public ResponseEntity<ApiResponse<TareaDto>> crearTarea(
             @Parameter(hidden = true) @AuthenticationPrincipal Jwt jwt,
+            @Parameter(description = "Clave de idempotencia generada por el cliente", example = "3f1c2a9e-7d7b-4b8e-9a51-0c6f1e2d4a10")
+            @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey,
             @Valid @RequestBody CrearTareaRequest request
     ) {
         Long usuarioId = resolverUsuarioId(jwt);
         log.info("POST /api/v1/tareas - Usuario ID: {}, Titulo: '{}'", usuarioId, request.getTitulo());
 
-        var usuario = usuarioService.obtenerUsuarioPorId(usuarioId);
+        return idempotenciaService.ejecutar(usuarioId, idempotencyKey, "POST /api/v1/tareas", request, TareaDto.class, () -> {
+            var usuario = usuarioService.obtenerUsuarioPorId(usuarioId);
 
-        Tarea tarea = Tarea.builder()
-                .titulo(request.getTitulo())
-                .descripcion(request.getDescripcion())
-                .prioridad(request.getPrioridad())
-                .fechaVencimiento(request.getFechaVencimiento())
-                .build();
+            Tarea tarea = Tarea.builder()
+                    .titulo(request.getTitulo())
+                    .descripcion(request.getDescripcion())
+                    .prioridad(request.getPrioridad())
+                    .fechaVencimiento(request.getFechaVencimiento())
+                    .build();
 
-        Tarea tareaCreada = tareaService.crearTarea(tarea, usuario);
-        TareaDto tareaDto = tareaMapper.toDto(tareaCreada);
+            Tarea tareaCreada = tareaService.crearTarea(tarea, usuario);
+            TareaDto tareaDto = tareaMapper.toDto(tareaCreada);
 
-        return ResponseEntity.status(HttpStatus.CREATED)
-                .body(ApiResponse.success("Tarea creada exitosamente", tareaDto));
+            return ResponseEntity.status(HttpStatus.CREATED)
+                    .body(ApiResponse.success("Tarea creada exitosamente", tareaDto));
+        });
     }
 
     /**
@@ -431,6 +471,73 @@ public class TareaController {
         return ResponseEntity.ok(ApiResponse.success("Tarea actualizada exitosamente", tareaDto));
     }
 
+    /**
+     * Aplica un mismo cambio a todas las tareas del usuario que cumplen un filtro.
+     *
+     * @param jwt JWT actual
+     * @param request filtro y cambio a aplicar
+     * @return cantidad de tareas modificadas
+     */
+    @Operation(
+            summary = "Actualizar tareas en lote",
+            description = "Pospone vencimientos y/o cambia estado o prioridad de las tareas que cumplen el filtro, en una sola operacion."
+    )
+    @io.swagger.v3.oas.annotations.responses.ApiResponses({
+            @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "200", description = "Lote aplicado",
+                    content = @Content(schema = @Schema(implementation = ApiResponse.class))),
+            @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "400", description = "Datos invalidos",
+                    content = @Content(schema = @Schema(implementation = ErrorResponse.class))),
+            @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "401", description = "No autenticado",
+                    content = @Content(schema = @Schema(implementation = ErrorResponse.class)))
+    })
+    @PostMapping("/lote")
+    public ResponseEntity<ApiResponse<ResultadoLoteDto>> actualizarTareasEnLote(
+            @Parameter(hidden = true) @AuthenticationPrincipal Jwt jwt,
+            @Valid @RequestBody ActualizacionLoteRequest request
+    ) {
+        Long usuarioId = resolverUsuarioId(jwt);
+        log.info("POST /api/v1/tareas/lote - Usuario ID: {}", usuarioId);
+
+        int actualizadas = tareaService.actualizarTareasEnLote(usuarioId, request);
+        return ResponseEntity.ok(ApiResponse.success("Lote aplicado exitosamente",
+                ResultadoLoteDto.builder().actualizadas(actualizadas).build()));
+    }
+
+    /**
+     * Mueve una tarea en el orden manual del usuario (arrastrar y soltar).
+     *
+     * @param jwt JWT actual
+     * @param id identificador de la tarea
+     * @param request vecino que quedara antes de la tarea
+     * @return tarea con su nueva posicion
+     */
+    @Operation(
+            summary = "Mover tarea",
+            description = "Coloca la tarea justo despues de anteriorId (o al inicio si es null). Solo se reescribe la posicion de la tarea movida."
+    )
+    @io.swagger.v3.oas.annotations.responses.ApiResponses({
+            @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "200", description = "Tarea movida",
+                    content = @Content(schema = @Schema(implementation = ApiResponse.class))),
+            @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "400", description = "Datos invalidos",
+                    content = @Content(schema = @Schema(implementation = ErrorResponse.class))),
+            @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "401", description = "No autenticado",
+                    content = @Content(schema = @Schema(implementation = ErrorResponse.class))),
+            @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "404", description = "Tarea no encontrada",
+                    content = @Content(schema = @Schema(implementation = ErrorResponse.class)))
+    })
+    @PutMapping("/{id}/posicion")
+    public ResponseEntity<ApiResponse<TareaDto>> moverTarea(
+            @Parameter(hidden = true) @AuthenticationPrincipal Jwt jwt,
+            @Parameter(description = "ID de la tarea", example = "10") @PathVariable Long id,
+            @RequestBody MoverPosicionRequest request
+    ) {
+        Long usuarioId = resolverUsuarioId(jwt);
+        log.info("PUT /api/v1/tareas/{}/posicion - Usuario ID: {}, Anterior: {}", id, usuarioId, request.getAnteriorId());
+
+        Tarea tarea = tareaService.moverTarea(id, request.getAnteriorId(), usuarioId);
+        return ResponseEntity.ok(ApiResponse.success("Tarea movida exitosamente", tareaMapper.toDto(tarea)));
+    }
+
     /**
      * Elimina una tarea y sus recursos asociados para el usuario autenticado.
      *
@@ -6,11 +6,9 @@ import io.github.jaredmcc4.gtm.dto.response.ErrorResponse;
 import io.github.jaredmcc4.gtm.dto.usuario.ActualizarUsuarioRequest;
 import io.github.jaredmcc4.gtm.dto.usuario.CambiarPasswordRequest;
 import io.github.jaredmcc4.gtm.dto.usuario.UsuarioDto;
-import io.github.jaredmcc4.gtm.exception.UnauthorizedException;
 import io.github.jaredmcc4.gtm.mapper.UsuarioMapper;
+import io.github.jaredmcc4.gtm.security.UsuarioAutenticado;
 import io.github.jaredmcc4.gtm.services.UsuarioService;
-import io.github.jaredmcc4.gtm.util.JwtExtractorUtil;
-import io.github.jaredmcc4.gtm.util.JwtUtil;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.media.Content;
@@ -22,8 +20,6 @@ import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.ResponseEntity;
-import org.springframework.security.core.annotation.AuthenticationPrincipal;
-import org.springframework.security.oauth2.jwt.Jwt;
 import org.springframework.web.bind.annotation.*;
 
 /**
@@ -39,32 +35,11 @@ public class UsuarioController {
 
     private final UsuarioService usuarioService;
     private final UsuarioMapper usuarioMapper;
-    private final JwtUtil jwtUtil;
-
-    /**
-     * Determina el ID de usuario autenticado leyendo el JWT del principal o del header Authorization.
-     *
-     * @param jwt token JWT inyectado (puede ser null)
-     * @param authorizationHeader header Authorization Bearer opcional
-     * @return identificador interno del usuario
-     * @throws UnauthorizedException si no se puede resolver el usuario
-     */
-    private Long resolverUsuarioId(Jwt jwt, String authorizationHeader) {
-        if (jwt != null) {
-            return JwtExtractorUtil.extractUsuarioId(jwt);
-        }
-        if (authorizationHeader != null && authorizationHeader.startsWith("Bearer ")) {
-            String token = authorizationHeader.substring(7);
-            return jwtUtil.extraerUsuarioId(token);
-        }
-        throw new UnauthorizedException("No se pudo determinar el usuario autenticado");
-    }
 
     /**
      * Devuelve el perfil del usuario autenticado.
      *
-     * @param jwt JWT actual
-     * @param authorizationHeader header Authorization Bearer opcional
+     * @param autenticado usuario autenticado
      * @return DTO con datos visibles del usuario
      */
     @Operation(summary = "Obtener perfil del usuario autenticado", description = "Informacion completa del usuario.")
@@ -76,9 +51,8 @@ public class UsuarioController {
     })
     @GetMapping("/perfil")
     public ResponseEntity<ApiResponse<UsuarioDto>> obtenerPerfil(
-            @Parameter(hidden = true) @AuthenticationPrincipal Jwt jwt,
-            @RequestHeader(value = "Authorization", required = false) String authorizationHeader) {
-        Long usuarioId = resolverUsuarioId(jwt, authorizationHeader);
+            @Parameter(hidden = true) UsuarioAutenticado autenticado) {
+        Long usuarioId = autenticado.usuarioId();
         log.info("GET /api/v1/usuarios/perfil - Usuario ID: {}", usuarioId);
 
         Usuario usuario = usuarioService.obtenerUsuarioPorId(usuarioId);
@@ -90,8 +64,7 @@ public class UsuarioController {
     /**
      * Actualiza nombre y zona horaria del usuario autenticado.
      *
-     * @param jwt JWT actual
-     * @param authorizationHeader header Authorization Bearer opcional
+     * @param autenticado usuario autenticado
      * @param request datos de actualizacion
      * @return perfil actualizado
      */
@@ -106,11 +79,10 @@ public class UsuarioController {
     })
     @PutMapping("/perfil")
     public ResponseEntity<ApiResponse<UsuarioDto>> actualizarPerfil(
-            @Parameter(hidden = true) @AuthenticationPrincipal Jwt jwt,
-            @RequestHeader(value = "Authorization", required = false) String authorizationHeader,
+            @Parameter(hidden = true) UsuarioAutenticado autenticado,
             @Valid @RequestBody ActualizarUsuarioRequest request
     ) {
-        Long usuarioId = resolverUsuarioId(jwt, authorizationHeader);
+        Long usuarioId = autenticado.usuarioId();
         log.info("PUT /api/v1/usuarios/perfil - Usuario ID: {}", usuarioId);
 
         Usuario datosActualizados = Usuario.builder()
@@ -127,8 +99,7 @@ public class UsuarioController {
     /**
      * Cambia la contrasena del usuario autenticado validando la contrasena actual.
      *
-     * @param jwt JWT actual
-     * @param authorizationHeader header Authorization Bearer opcional
+     * @param autenticado usuario autenticado
      * @param request request con contrasena actual y nueva
      * @return respuesta sin cuerpo cuando se actualiza correctamente
      */
@@ -143,15 +114,37 @@ public class UsuarioController {
     })
     @PatchMapping("/cambiar-password")
     public ResponseEntity<ApiResponse<Void>> cambiarPassword(
-            @Parameter(hidden = true) @AuthenticationPrincipal Jwt jwt,
-            @RequestHeader(value = "Authorization", required = false) String authorizationHeader,
+            @Parameter(hidden = true) UsuarioAutenticado autenticado,
             @Valid @RequestBody CambiarPasswordRequest request
     ) {
-        Long usuarioId = resolverUsuarioId(jwt, authorizationHeader);
+        Long usuarioId = autenticado.usuarioId();
         log.info("PATCH /api/v1/usuarios/cambiar-password - Usuario ID: {}", usuarioId);
 
         usuarioService.cambiarPassword(usuarioId, request.getContrasenaActual(), request.getNuevaContrasena());
         return ResponseEntity.ok(ApiResponse.success("Contrasena cambiada exitosamente", null));
     }
-}
 
+    /**
+     * Cierra todas las sesiones del usuario autenticado, incluida la actual: los JWT y
+     * refresh tokens emitidos dejan de aceptarse de inmediato.
+     *
+     * @param autenticado usuario autenticado
+     * @return respuesta sin cuerpo
+     */
+    @Operation(summary = "Cerrar todas las sesiones", description = "Invalida todos los tokens emitidos al usuario autenticado.")
+    @io.swagger.v3.oas.annotations.responses.ApiResponses({
+            @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "200", description = "Sesiones cerradas",
+                    content = @Content(schema = @Schema(implementation = ApiResponse.class))),
+            @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "401", description = "No autenticado",
+                    content = @Content(schema = @Schema(implementation = ErrorResponse.class)))
+    })
+    @PostMapping("/cerrar-sesiones")
+    public ResponseEntity<ApiResponse<Void>> cerrarSesiones(
+            @Parameter(hidden = true) UsuarioAutenticado autenticado) {
+        Long usuarioId = autenticado.usuarioId();
+        log.info("POST /api/v1/usuarios/cerrar-sesiones - Usuario ID: {}", usuarioId);
+
+        usuarioService.cerrarSesiones(usuarioId);
+        return ResponseEntity.ok(ApiResponse.success("Sesiones cerradas exitosamente", null));
+    }
+}
@@ -0,0 +1,65 @@
+package io.github.jaredmcc4.gtm.domain;
+
+import jakarta.persistence.*;
+import lombok.*;
+import org.hibernate.annotations.UpdateTimestamp;
+
+import java.time.LocalDateTime;
+
+/**
+ * Progreso persistido de un backfill: ultimo id procesado, id objetivo y lease del nodo que lo ejecuta.
+ */
+@Getter
+@Setter
+@NoArgsConstructor(access = AccessLevel.PROTECTED)
+@AllArgsConstructor
+@Builder
+@EqualsAndHashCode(onlyExplicitlyIncluded = true)
+@Entity
+@Table(name = "backfill_checkpoints")
+public class BackfillCheckpoint {
+
+    @Id
+    @EqualsAndHashCode.Include
+    @Column(name = "nombre", length = 100)
+    private String nombre;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "estado", nullable = false, length = 20)
+    @Builder.Default
+    private Estado estado = Estado.PENDIENTE;
+
+    @Column(name = "ultimo_id", nullable = false)
+    @Builder.Default
+    private Long ultimoId = 0L;
+
+    @Column(name = "objetivo_id")
+    private Long objetivoId;
+
+    @Column(name = "procesadas", nullable = false)
+    @Builder.Default
+    private Long procesadas = 0L;
+
+    @Column(name = "propietario", length = 100)
+    private String propietario;
+
+    @Column(name = "lease_hasta")
+    private LocalDateTime leaseHasta;
+
+    @Column(name = "error", length = 500)
+    private String error;
+
+    @Column(name = "iniciado_en")
+    private LocalDateTime iniciadoEn;
+
+    @Column(name = "completado_en")
+    private LocalDateTime completadoEn;
+
+    @UpdateTimestamp
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+
+    public enum Estado {
+        PENDIENTE, EN_CURSO, COMPLETADO, FALLIDO
+    }
+}
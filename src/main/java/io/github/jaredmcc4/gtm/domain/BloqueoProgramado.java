@@ -0,0 +1,36 @@
+package io.github.jaredmcc4.gtm.domain;
+
+import jakarta.persistence.*;
+import lombok.*;
+import org.hibernate.annotations.UpdateTimestamp;
+
+import java.time.LocalDateTime;
+
+/**
+ * Lease de un job programado: nodo que lo ejecuta y hasta cuando.
+ */
+@Getter
+@Setter
+@NoArgsConstructor(access = AccessLevel.PROTECTED)
+@AllArgsConstructor
+@Builder
+@EqualsAndHashCode(onlyExplicitlyIncluded = true)
+@Entity
+@Table(name = "bloqueos_programados")
+public class BloqueoProgramado {
+
+    @Id
+    @EqualsAndHashCode.Include
+    @Column(name = "nombre", length = 100)
+    private String nombre;
+
+    @Column(name = "propietario", length = 100)
+    private String propietario;
+
+    @Column(name = "lease_hasta")
+    private LocalDateTime leaseHasta;
+
+    @UpdateTimestamp
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+}
@@ -0,0 +1,43 @@
+package io.github.jaredmcc4.gtm.domain;
+
+import jakarta.persistence.*;
+import lombok.*;
+import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.SourceType;
+
+import java.time.LocalDateTime;
+
+/**
+ * Invalidacion de una clave de cache publicada por un nodo para el resto. {@code createdAt}
+ * lo asigna el reloj de la base de datos para que todos los nodos lo comparen con la misma referencia.
+ */
+@Getter
+@Setter
+@NoArgsConstructor(access = AccessLevel.PROTECTED)
+@AllArgsConstructor
+@Builder
+@EqualsAndHashCode(onlyExplicitlyIncluded = true)
+@Entity
+@Table(name = "cache_invalidaciones", indexes = {
+        @Index(name = "idx_cache_invalidaciones_created", columnList = "created_at")
+})
+public class CacheInvalidacion {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @EqualsAndHashCode.Include
+    private Long id;
+
+    @Column(name = "nodo", nullable = false, length = 100)
+    private String nodo;
+
+    @Column(name = "cache", nullable = false, length = 50)
+    private String cache;
+
+    @Column(name = "clave", nullable = false)
+    private Long clave;
+
+    @CreationTimestamp(source = SourceType.DB)
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+}
@@ -0,0 +1,30 @@
+package io.github.jaredmcc4.gtm.domain;
+
+import java.time.LocalDateTime;
+
+/**
+ * Evento publicado en el contexto de Spring por el despachador del outbox.
+ * Los listeners lo reciben una vez confirmada la transaccion original, en orden por usuario
+ * y con garantia al-menos-una-vez, por lo que deben ser idempotentes.
+ *
+ * @param id identificador del evento en el outbox (creciente)
+ * @param usuarioId propietario de los datos afectados
+ * @param agregado tipo de entidad afectada
+ * @param agregadoId id de la entidad (null en operaciones en lote)
+ * @param tipo tipo de cambio
+ * @param payload datos adicionales en JSON (puede ser null)
+ * @param ocurridoEn momento de la mutacion
+ */
+public record EventoDominio(Long id,
+                            Long usuarioId,
+                            OutboxEvento.Agregado agregado,
+                            Long agregadoId,
+                            OutboxEvento.Tipo tipo,
+                            String payload,
+                            LocalDateTime ocurridoEn) {
+
+    public static EventoDominio desde(OutboxEvento evento) {
+        return new EventoDominio(evento.getId(), evento.getUsuarioId(), evento.getAgregado(), evento.getAgregadoId(),
+                evento.getTipo(), evento.getPayload(), evento.getCreatedAt());
+    }
+}
@@ -0,0 +1,73 @@
+package io.github.jaredmcc4.gtm.domain;
+
+import jakarta.persistence.*;
+import jakarta.validation.constraints.NotNull;
+import lombok.*;
+import org.hibernate.annotations.CreationTimestamp;
+
+import java.time.LocalDateTime;
+
+/**
+ * Evento de dominio escrito en la misma transaccion que la mutacion que lo origina;
+ * el despachador lo entrega despues a los listeners en orden por usuario.
+ */
+@Getter
+@Setter
+@NoArgsConstructor(access = AccessLevel.PROTECTED)
+@AllArgsConstructor
+@Builder
+@EqualsAndHashCode(onlyExplicitlyIncluded = true)
+@Entity
+@Table(name = "outbox_eventos", indexes = {
+        @Index(name = "idx_outbox_particion", columnList = "particion, id"),
+        @Index(name = "idx_outbox_created", columnList = "created_at"),
+        @Index(name = "idx_outbox_pendientes", columnList = "particion, entregado_en, id")
+})
+public class OutboxEvento {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @EqualsAndHashCode.Include
+    private Long id;
+
+    @NotNull
+    @Column(name = "usuario_id", nullable = false)
+    private Long usuarioId;
+
+    @Column(name = "particion", nullable = false)
+    private int particion;
+
+    @NotNull
+    @Enumerated(EnumType.STRING)
+    @Column(name = "agregado", nullable = false, length = 20)
+    private Agregado agregado;
+
+    @Column(name = "agregado_id")
+    private Long agregadoId;
+
+    @NotNull
+    @Enumerated(EnumType.STRING)
+    @Column(name = "tipo", nullable = false, length = 30)
+    private Tipo tipo;
+
+    @Column(name = "payload", columnDefinition = "TEXT")
+    private String payload;
+
+    @CreationTimestamp
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+
+    @Column(name = "entregado_en")
+    private LocalDateTime entregadoEn;
+
+    @Column(name = "intentos", nullable = false)
+    private int intentos;
+
+    public enum Agregado {
+        TAREA, SUBTAREA, ETIQUETA, ADJUNTO
+    }
+
+    public enum Tipo {
+        CREADO, ACTUALIZADO, ELIMINADO, MOVIDO, LOTE_ACTUALIZADO
+    }
+}
@@ -0,0 +1,35 @@
+package io.github.jaredmcc4.gtm.domain;
+
+import jakarta.persistence.*;
+import lombok.*;
+import org.hibernate.annotations.UpdateTimestamp;
+
+import java.time.LocalDateTime;
+
+/**
+ * Fila de bloqueo de una particion del outbox; {@code ultimoId} solo informa del ultimo
+ * evento entregado, los pendientes se identifican por {@code entregado_en}.
+ */
+@Getter
+@Setter
+@NoArgsConstructor(access = AccessLevel.PROTECTED)
+@AllArgsConstructor
+@Builder
+@EqualsAndHashCode(onlyExplicitlyIncluded = true)
+@Entity
+@Table(name = "outbox_offsets")
+public class OutboxOffset {
+
+    @Id
+    @EqualsAndHashCode.Include
+    @Column(name = "particion")
+    private Integer particion;
+
+    @Column(name = "ultimo_id", nullable = false)
+    @Builder.Default
+    private Long ultimoId = 0L;
+
+    @UpdateTimestamp
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+}
@@ -1,7 +1,6 @@
 package io.github.jaredmcc4.gtm.domain;
 
 import jakarta.persistence.*;
-import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Size;
 import lombok.*;
@@ -35,11 +34,25 @@ public class RefreshToken {
     @JoinColumn(name = "usuario_id", nullable = false)
     private Usuario usuario;
 
-    @NotBlank
+    /**
+     * Valor en texto plano de filas anteriores a {@code V10}; las nuevas solo guardan el hash.
+     */
     @Size(max = 500)
-    @Column(name = "token", nullable = false, unique = true, length = 500)
+    @Column(name = "token", unique = true, length = 500)
     private String token;
 
+    /**
+     * SHA-256 del token, usado para buscarlo.
+     */
+    @Column(name = "token_hash", unique = true, columnDefinition = "BINARY(32)")
+    private byte[] tokenHash;
+
+    /**
+     * Valor en texto plano recien generado; no se persiste y solo esta disponible al crearlo.
+     */
+    @Transient
+    private String valor;
+
     @NotNull
     @Column(name = "expires_at", nullable = false)
     private LocalDateTime expiresAt;
@@ -0,0 +1,45 @@
+package io.github.jaredmcc4.gtm.domain;
+
+import jakarta.persistence.*;
+import lombok.*;
+import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.SourceType;
+
+import java.time.LocalDateTime;
+
+/**
+ * Familia de refresh tokens firmados revocada al cerrar sesion; se conserva hasta que
+ * el token expira. {@code createdAt} lo asigna la base de datos para que los nodos comparen
+ * instantes de un mismo reloj al releer la ventana de revocaciones.
+ */
+@Getter
+@Setter
+@NoArgsConstructor(access = AccessLevel.PROTECTED)
+@AllArgsConstructor
+@Builder
+@EqualsAndHashCode(onlyExplicitlyIncluded = true)
+@Entity
+@Table(name = "refresh_tokens_revocados", indexes = {
+        @Index(name = "idx_rtr_exp", columnList = "expires_at"),
+        @Index(name = "idx_rtr_created", columnList = "created_at")
+})
+public class RefreshTokenRevocado {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @EqualsAndHashCode.Include
+    private Long id;
+
+    @Column(name = "familia", nullable = false, length = 36)
+    private String familia;
+
+    @Column(name = "usuario_id", nullable = false)
+    private Long usuarioId;
+
+    @Column(name = "expires_at", nullable = false)
+    private LocalDateTime expiresAt;
+
+    @CreationTimestamp(source = SourceType.DB)
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+}
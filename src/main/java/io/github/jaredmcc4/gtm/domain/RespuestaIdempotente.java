@@ -0,0 +1,72 @@
+package io.github.jaredmcc4.gtm.domain;
+
+import jakarta.persistence.*;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import lombok.*;
+import org.hibernate.annotations.CreationTimestamp;
+
+import java.time.LocalDateTime;
+
+/**
+ * Respuesta almacenada para una {@code Idempotency-Key}; mientras {@code estadoHttp}
+ * es null la solicitud original sigue en proceso.
+ */
+@Getter
+@Setter
+@NoArgsConstructor(access = AccessLevel.PROTECTED)
+@AllArgsConstructor
+@Builder
+@EqualsAndHashCode(onlyExplicitlyIncluded = true)
+@Entity
+@Table(name = "idempotencia_respuestas",
+        uniqueConstraints = @UniqueConstraint(name = "uk_idem_usuario_clave", columnNames = {"usuario_id", "clave"}),
+        indexes = @Index(name = "idx_idem_exp", columnList = "expires_at"))
+public class RespuestaIdempotente {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @EqualsAndHashCode.Include
+    private Long id;
+
+    @NotNull
+    @Column(name = "usuario_id", nullable = false)
+    private Long usuarioId;
+
+    @NotBlank
+    @Size(max = 100)
+    @Column(name = "clave", nullable = false, length = 100)
+    private String clave;
+
+    @NotBlank
+    @Size(max = 120)
+    @Column(name = "operacion", nullable = false, length = 120)
+    private String operacion;
+
+    /**
+     * SHA-256 (hex) de la operacion y el contenido de la solicitud; null en claves anteriores a {@code V19}.
+     */
+    @Column(name = "huella", length = 64)
+    private String huella;
+
+    /**
+     * Token de la reserva en curso; solo su duenio puede completarla, renovarla o liberarla.
+     */
+    @Column(name = "propietario", length = 36)
+    private String propietario;
+
+    @Column(name = "estado_http")
+    private Integer estadoHttp;
+
+    @Column(name = "cuerpo", columnDefinition = "TEXT")
+    private String cuerpo;
+
+    @NotNull
+    @Column(name = "expires_at", nullable = false)
+    private LocalDateTime expiresAt;
+
+    @CreationTimestamp
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+}
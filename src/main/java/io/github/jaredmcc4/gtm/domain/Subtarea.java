@@ -4,6 +4,7 @@ import jakarta.persistence.*;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Size;
+import io.github.jaredmcc4.gtm.util.PosicionUtil;
 import lombok.*;
 
 /**
@@ -17,7 +18,8 @@ import lombok.*;
 @EqualsAndHashCode(onlyExplicitlyIncluded = true)
 @Entity
 @Table(name = "subtareas", indexes = {
-        @Index(name = "idx_sub_tarea", columnList = "tarea_id")
+        @Index(name = "idx_sub_tarea", columnList = "tarea_id"),
+        @Index(name = "idx_sub_tarea_posicion", columnList = "tarea_id, posicion")
 })
 public class Subtarea {
 
@@ -39,4 +41,11 @@ public class Subtarea {
     @Column(name = "completada", nullable = false)
     @Builder.Default
     private Boolean completada = false;
+
+    /**
+     * Clave fraccionaria del orden manual dentro de la tarea padre (ver {@link PosicionUtil}).
+     */
+    @Column(name = "posicion", nullable = false, length = PosicionUtil.LONGITUD_MAXIMA)
+    @Builder.Default
+    private String posicion = PosicionUtil.INICIAL;
 }
@@ -4,7 +4,9 @@ import jakarta.persistence.*;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Size;
+import io.github.jaredmcc4.gtm.util.PosicionUtil;
 import lombok.*;
+import org.hibernate.annotations.ColumnDefault;
 import org.hibernate.annotations.CreationTimestamp;
 import org.hibernate.annotations.UpdateTimestamp;
 
@@ -24,7 +26,8 @@ import java.util.Set;
 @Table(name = "tareas", indexes = {
         @Index(name = "idx_tareas_user_estado", columnList = "usuario_id, estado"),
         @Index(name = "idx_tareas_user_prioridad", columnList = "usuario_id, prioridad"),
-        @Index(name = "idx_tareas_vencimiento", columnList = "fecha_vencimiento")
+        @Index(name = "idx_tareas_vencimiento", columnList = "fecha_vencimiento"),
+        @Index(name = "idx_tareas_user_posicion", columnList = "usuario_id, posicion")
 })
 public class Tarea {
 
@@ -68,6 +71,32 @@ public class Tarea {
     @Setter(AccessLevel.NONE)
     private Set<Etiqueta> etiquetas = new HashSet<>();
 
+    /**
+     * Clave fraccionaria del orden manual dentro de las tareas del usuario (ver {@link PosicionUtil}).
+     */
+    @Column(name = "posicion", nullable = false, length = PosicionUtil.LONGITUD_MAXIMA)
+    private String posicion = PosicionUtil.INICIAL;
+
+    /**
+     * Contadores denormalizados; solo se modifican con UPDATE atomicos desde los
+     * servicios de subtareas/adjuntos, por eso no se escriben al guardar la tarea.
+     */
+    @ColumnDefault("0")
+    @Column(name = "subtareas_total", nullable = false, insertable = false, updatable = false)
+    private Integer subtareasTotal = 0;
+
+    @ColumnDefault("0")
+    @Column(name = "subtareas_completadas", nullable = false, insertable = false, updatable = false)
+    private Integer subtareasCompletadas = 0;
+
+    @ColumnDefault("0")
+    @Column(name = "adjuntos_total", nullable = false, insertable = false, updatable = false)
+    private Integer adjuntosTotal = 0;
+
+    @ColumnDefault("0")
+    @Column(name = "adjuntos_bytes", nullable = false, insertable = false, updatable = false)
+    private Long adjuntosBytes = 0L;
+
     @CreationTimestamp
     @Column(name = "created_at", nullable = false, updatable = false)
     private LocalDateTime createdAt;
@@ -5,7 +5,12 @@ import jakarta.validation.constraints.Email;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.Size;
 import lombok.*;
+import org.hibernate.annotations.BatchSize;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.Fetch;
+import org.hibernate.annotations.FetchMode;
 import org.hibernate.annotations.UpdateTimestamp;
 
 import java.time.LocalDateTime;
@@ -27,6 +32,12 @@ import java.util.Set;
 })
 public class Usuario {
 
+    /**
+     * Valor de {@code password_hash} de las cuentas creadas por login social; no es un hash
+     * valido, por lo que ninguna contrasena coincide con el.
+     */
+    public static final String SIN_CONTRASENA = "!oauth";
+
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     @EqualsAndHashCode.Include
@@ -56,7 +67,21 @@ public class Usuario {
     @Builder.Default
     private boolean activo = true;
 
+    /**
+     * Version de los tokens del usuario; los JWT con una version menor (claim {@code tv}) se rechazan.
+     */
+    @Column(name = "token_version", nullable = false)
+    @Builder.Default
+    private int tokenVersion = 0;
+
+    /**
+     * Se carga con una consulta aparte (no con join) para que la lea de la cache de
+     * segundo nivel (region {@code usuarios.roles}); los ids resuelven contra la region de {@link Rol}.
+     */
     @ManyToMany(fetch = FetchType.EAGER, cascade = {CascadeType.PERSIST, CascadeType.MERGE})
+    @Fetch(FetchMode.SELECT)
+    @BatchSize(size = 50)
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "usuarios.roles")
     @JoinTable(
         name = "usuarios_roles",
         joinColumns = @JoinColumn(name = "usuario_id"),
@@ -73,6 +98,13 @@ public class Usuario {
         this.roles = roles == null ? new HashSet<>() : new HashSet<>(roles);
     }
 
+    /**
+     * Indica si la cuenta tiene contrasena propia (no fue creada solo por login social).
+     */
+    public boolean tieneContrasena() {
+        return !SIN_CONTRASENA.equals(contrasenaHash);
+    }
+
     public static class UsuarioBuilder {
 
         public UsuarioBuilder roles(Set<Rol> roles) {
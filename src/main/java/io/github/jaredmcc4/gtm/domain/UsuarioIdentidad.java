@@ -0,0 +1,44 @@
+package io.github.jaredmcc4.gtm.domain;
+
+import jakarta.persistence.*;
+import lombok.*;
+import org.hibernate.annotations.CreationTimestamp;
+
+import java.time.LocalDateTime;
+
+/**
+ * Cuenta de un proveedor OAuth ({@code proveedor}, {@code sujeto}) vinculada a un usuario.
+ */
+@Getter
+@Setter
+@NoArgsConstructor(access = AccessLevel.PROTECTED)
+@AllArgsConstructor
+@Builder
+@EqualsAndHashCode(onlyExplicitlyIncluded = true)
+@Entity
+@Table(name = "usuarios_identidades", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_ui_proveedor_sujeto", columnNames = {"proveedor", "sujeto"})
+}, indexes = {
+        @Index(name = "idx_ui_user", columnList = "usuario_id")
+})
+public class UsuarioIdentidad {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @EqualsAndHashCode.Include
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "usuario_id", nullable = false)
+    private Usuario usuario;
+
+    @Column(name = "proveedor", nullable = false, length = 20)
+    private String proveedor;
+
+    @Column(name = "sujeto", nullable = false, length = 255)
+    private String sujeto;
+
+    @CreationTimestamp
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+}
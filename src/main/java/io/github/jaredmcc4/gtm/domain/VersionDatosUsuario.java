@@ -0,0 +1,32 @@
+package io.github.jaredmcc4.gtm.domain;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * Contador de escrituras de los datos de un usuario; sirve de validador para GET condicionales.
+ */
+@Getter
+@Setter
+@NoArgsConstructor(access = AccessLevel.PROTECTED)
+@AllArgsConstructor
+@Builder
+@EqualsAndHashCode(onlyExplicitlyIncluded = true)
+@Entity
+@Table(name = "usuarios_version_datos")
+public class VersionDatosUsuario {
+
+    @Id
+    @EqualsAndHashCode.Include
+    @Column(name = "usuario_id")
+    private Long usuarioId;
+
+    @Column(name = "version", nullable = false)
+    @Builder.Default
+    private Long version = 0L;
+
+    @Column(name = "modificado_en", nullable = false)
+    private LocalDateTime modificadoEn;
+}
@@ -26,4 +26,7 @@ public class SubtareaDto {
 
     @Schema(description = "Estado de completado", example = "false")
     private Boolean completada;
+
+    @Schema(description = "Clave del orden manual dentro de la tarea", example = "00001", accessMode = Schema.AccessMode.READ_ONLY)
+    private String posicion;
 }
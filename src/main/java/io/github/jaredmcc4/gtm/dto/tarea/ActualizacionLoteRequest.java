@@ -0,0 +1,74 @@
+package io.github.jaredmcc4.gtm.dto.tarea;
+
+import io.github.jaredmcc4.gtm.domain.Tarea;
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+/**
+ * Payload para actualizar en bloque las tareas del usuario que cumplen un filtro.
+ */
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class ActualizacionLoteRequest {
+
+    @Valid
+    @Schema(description = "Tareas a las que se aplica el cambio (sin filtro: todas las del usuario)")
+    private Filtro filtro;
+
+    @Valid
+    @NotNull(message = "Debe indicar el cambio a aplicar")
+    @Schema(description = "Cambio a aplicar")
+    private Cambio cambio;
+
+    /**
+     * Criterios opcionales; se combinan con AND.
+     */
+    @Data
+    @Builder
+    @AllArgsConstructor
+    @NoArgsConstructor
+    public static class Filtro {
+        @Schema(description = "Estado actual de la tarea")
+        private Tarea.EstadoTarea estado;
+
+        @Schema(description = "Prioridad actual de la tarea")
+        private Tarea.Prioridad prioridad;
+
+        @Schema(description = "ID de etiqueta asociada", example = "3")
+        private Long etiquetaId;
+
+        @Schema(description = "Vencimiento desde (inclusive)", example = "2025-01-01T00:00:00")
+        private LocalDateTime venceDesde;
+
+        @Schema(description = "Vencimiento hasta (inclusive)", example = "2025-12-31T23:59:59")
+        private LocalDateTime venceHasta;
+    }
+
+    /**
+     * Cambios a aplicar; al menos uno es obligatorio.
+     */
+    @Data
+    @Builder
+    @AllArgsConstructor
+    @NoArgsConstructor
+    public static class Cambio {
+        @Schema(description = "Desplazamiento ISO-8601 de la fecha de vencimiento", example = "P7D")
+        private Duration desplazarVencimiento;
+
+        @Schema(description = "Nuevo estado")
+        private Tarea.EstadoTarea estado;
+
+        @Schema(description = "Nueva prioridad")
+        private Tarea.Prioridad prioridad;
+    }
+}
@@ -0,0 +1,19 @@
+package io.github.jaredmcc4.gtm.dto.tarea;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Payload para mover una tarea o subtarea dentro de su orden manual.
+ */
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class MoverPosicionRequest {
+    @Schema(description = "ID del elemento que quedara justo antes; null para mover al inicio", example = "12")
+    private Long anteriorId;
+}
@@ -0,0 +1,19 @@
+package io.github.jaredmcc4.gtm.dto.tarea;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Resultado de una operacion masiva sobre tareas.
+ */
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class ResultadoLoteDto {
+    @Schema(description = "Cantidad de tareas modificadas", example = "14")
+    private int actualizadas;
+}
@@ -40,6 +40,21 @@ public class TareaDto {
     @Schema(description = "Etiquetas asociadas")
     private Set<EtiquetaDto> etiquetas;
 
+    @Schema(description = "Clave del orden manual (orden lexicografico ascendente)", example = "00001")
+    private String posicion;
+
+    @Schema(description = "Total de subtareas", example = "7")
+    private Integer subtareasTotal;
+
+    @Schema(description = "Subtareas completadas", example = "3")
+    private Integer subtareasCompletadas;
+
+    @Schema(description = "Cantidad de adjuntos", example = "2")
+    private Integer adjuntosTotal;
+
+    @Schema(description = "Tamano acumulado de los adjuntos en bytes", example = "524288")
+    private Long adjuntosBytes;
+
     private LocalDateTime createdAt;
     private LocalDateTime updatedAt;
 }
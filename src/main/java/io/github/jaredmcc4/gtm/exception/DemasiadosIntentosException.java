@@ -0,0 +1,23 @@
+package io.github.jaredmcc4.gtm.exception;
+
+/**
+ * Excepcion para rechazar un intento de autenticacion que supera el limite por IP o por
+ * email antes de consultar la base de datos o calcular hashes.
+ */
+public class DemasiadosIntentosException extends RuntimeException {
+
+    private final long retryAfterSegundos;
+
+    /**
+     * @param message detalle del motivo
+     * @param retryAfterSegundos segundos hasta que se admite otro intento
+     */
+    public DemasiadosIntentosException(String message, long retryAfterSegundos) {
+        super(message);
+        this.retryAfterSegundos = retryAfterSegundos;
+    }
+
+    public long getRetryAfterSegundos() {
+        return retryAfterSegundos;
+    }
+}
@@ -2,6 +2,7 @@ package io.github.jaredmcc4.gtm.exception;
 
 import io.github.jaredmcc4.gtm.dto.response.ApiResponse;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.authentication.BadCredentialsException;
@@ -122,6 +123,34 @@ public class GlobalExceptionHandler {
                 .body(ApiResponse.error(ex.getMessage(), null));
     }
 
+    /**
+     * Rechaza peticiones cuando un recurso acotado esta saturado, indicando cuando reintentar.
+     *
+     * @param ex excepcion con el tiempo sugerido de reintento
+     * @return respuesta HTTP 503 con cabecera Retry-After
+     */
+    @ExceptionHandler(ServicioSaturadoException.class)
+    public ResponseEntity<ApiResponse<Void>> handleServicioSaturado(ServicioSaturadoException ex) {
+        log.warn("Servicio saturado: {}", ex.getMessage());
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(ex.getRetryAfterSegundos()))
+                .body(ApiResponse.error(ex.getMessage(), null));
+    }
+
+    /**
+     * Rechaza intentos de autenticacion por encima del limite, indicando cuando reintentar.
+     *
+     * @param ex excepcion con el tiempo hasta el siguiente intento admitido
+     * @return respuesta HTTP 429 con cabecera Retry-After
+     */
+    @ExceptionHandler(DemasiadosIntentosException.class)
+    public ResponseEntity<ApiResponse<Void>> handleDemasiadosIntentos(DemasiadosIntentosException ex) {
+        log.warn("Limite de intentos superado: {}", ex.getMessage());
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(ex.getRetryAfterSegundos()))
+                .body(ApiResponse.error(ex.getMessage(), null));
+    }
+
     /**
      * Maneja casos de duplicidad de recursos (ej. email ya existente).
      *
@@ -0,0 +1,23 @@
+package io.github.jaredmcc4.gtm.exception;
+
+/**
+ * Excepcion para rechazar de inmediato una peticion cuando un recurso acotado
+ * (por ejemplo, el pool de hashing) no admite mas trabajo.
+ */
+public class ServicioSaturadoException extends RuntimeException {
+
+    private final long retryAfterSegundos;
+
+    /**
+     * @param message detalle del motivo
+     * @param retryAfterSegundos segundos sugeridos al cliente antes de reintentar
+     */
+    public ServicioSaturadoException(String message, long retryAfterSegundos) {
+        super(message);
+        this.retryAfterSegundos = retryAfterSegundos;
+    }
+
+    public long getRetryAfterSegundos() {
+        return retryAfterSegundos;
+    }
+}
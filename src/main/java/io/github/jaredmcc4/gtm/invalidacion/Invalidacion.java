@@ -0,0 +1,11 @@
+package io.github.jaredmcc4.gtm.invalidacion;
+
+/**
+ * Clave de cache que debe descartarse en todos los nodos.
+ *
+ * @param nodo nodo que la publico
+ * @param cache nombre de la cache ({@code usuarios}, {@code etiquetas}, ...)
+ * @param clave clave a descartar (id de usuario o de entidad)
+ */
+public record Invalidacion(String nodo, String cache, Long clave) {
+}
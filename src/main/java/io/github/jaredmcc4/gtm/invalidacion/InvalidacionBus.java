@@ -0,0 +1,76 @@
+package io.github.jaredmcc4.gtm.invalidacion;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+/**
+ * Bus de invalidacion de caches locales entre nodos.
+ * <p>
+ * Cada cache en memoria se registra con un nombre y una accion de descarte; al modificar
+ * datos, quien invalida la cache local publica tambien la clave y el resto de nodos la
+ * descarta al recibirla por el {@link InvalidacionTransporte} configurado. Las
+ * invalidaciones propias se ignoran al volver. Sirve para activar caches en despliegues
+ * con varias replicas; el TTL de cada cache sigue acotando el peor caso si se pierde un aviso.
+ */
+@Slf4j
+@Component
+public class InvalidacionBus {
+
+    private final InvalidacionTransporte transporte;
+    private final String nodo = UUID.randomUUID().toString();
+    private final Map<String, Consumer<Long>> caches = new ConcurrentHashMap<>();
+    private final Counter publicadas;
+    private final Counter recibidas;
+
+    public InvalidacionBus(InvalidacionTransporte transporte, MeterRegistry meterRegistry) {
+        this.transporte = transporte;
+        this.publicadas = Counter.builder("gtm.invalidacion.publicadas")
+                .description("Invalidaciones de cache publicadas para otros nodos")
+                .register(meterRegistry);
+        this.recibidas = Counter.builder("gtm.invalidacion.recibidas")
+                .description("Invalidaciones de cache recibidas de otros nodos")
+                .register(meterRegistry);
+        transporte.suscribir(this::recibir);
+    }
+
+    /**
+     * Registra una cache local.
+     *
+     * @param cache nombre de la cache
+     * @param descartar accion que elimina una clave de la cache
+     */
+    public void registrar(String cache, Consumer<Long> descartar) {
+        caches.put(cache, descartar);
+    }
+
+    /**
+     * Publica una clave modificada para que el resto de nodos la descarte.
+     *
+     * @param cache nombre de la cache
+     * @param clave clave modificada
+     */
+    public void publicar(String cache, Long clave) {
+        transporte.publicar(new Invalidacion(nodo, cache, clave));
+        publicadas.increment();
+    }
+
+    void recibir(Invalidacion invalidacion) {
+        if (nodo.equals(invalidacion.nodo())) {
+            return;
+        }
+        Consumer<Long> descartar = caches.get(invalidacion.cache());
+        if (descartar == null) {
+            log.debug("Invalidacion para cache desconocida: {}", invalidacion.cache());
+            return;
+        }
+        descartar.accept(invalidacion.clave());
+        recibidas.increment();
+    }
+}
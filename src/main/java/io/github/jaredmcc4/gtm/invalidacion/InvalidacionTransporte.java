@@ -0,0 +1,29 @@
+package io.github.jaredmcc4.gtm.invalidacion;
+
+import java.util.function.Consumer;
+
+/**
+ * Medio por el que las invalidaciones de cache llegan a los demas nodos.
+ * <p>
+ * La implementacion por defecto ({@link TablaInvalidacionTransporte}) usa una tabla sondeada
+ * y no requiere infraestructura adicional; un transporte sobre un broker solo necesita
+ * implementar esta interfaz y registrarse en {@code InvalidacionConfig}. La entrega puede
+ * repetirse: descartar una clave dos veces es inocuo.
+ */
+public interface InvalidacionTransporte {
+
+    /**
+     * Difunde una invalidacion. Se invoca dentro de la transaccion de la escritura si existe,
+     * de modo que el resto de nodos no la vea antes del commit.
+     *
+     * @param invalidacion clave a descartar
+     */
+    void publicar(Invalidacion invalidacion);
+
+    /**
+     * Registra el receptor de las invalidaciones publicadas (incluidas las propias).
+     *
+     * @param receptor destino de las invalidaciones recibidas
+     */
+    void suscribir(Consumer<Invalidacion> receptor);
+}
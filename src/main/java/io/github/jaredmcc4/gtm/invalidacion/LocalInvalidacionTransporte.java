@@ -0,0 +1,18 @@
+package io.github.jaredmcc4.gtm.invalidacion;
+
+import java.util.function.Consumer;
+
+/**
+ * Transporte para despliegues de un solo nodo: no hay otros nodos que avisar, asi que
+ * publicar no hace nada (la cache local ya se invalido al escribir).
+ */
+public class LocalInvalidacionTransporte implements InvalidacionTransporte {
+
+    @Override
+    public void publicar(Invalidacion invalidacion) {
+    }
+
+    @Override
+    public void suscribir(Consumer<Invalidacion> receptor) {
+    }
+}
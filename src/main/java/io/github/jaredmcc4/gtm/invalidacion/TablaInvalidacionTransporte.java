@@ -0,0 +1,139 @@
+package io.github.jaredmcc4.gtm.invalidacion;
+
+import io.github.jaredmcc4.gtm.domain.CacheInvalidacion;
+import io.github.jaredmcc4.gtm.repository.CacheInvalidacionRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * Transporte de invalidaciones sobre la tabla {@code cache_invalidaciones}.
+ * <p>
+ * Publicar inserta una fila en la transaccion de la escritura; cada nodo relee en cada
+ * sondeo la ventana de filas creadas desde {@code ventana} antes de la mas reciente que ya
+ * vio, y entrega solo las que no habia entregado. Una fila de una transaccion que confirma
+ * tarde aparece con su {@code created_at} original dentro de la ventana, siempre que la
+ * transaccion dure menos que la ventana. Los instantes los asigna la base de datos y solo se
+ * comparan entre si, sin usar el reloj del nodo. El retraso maximo de una invalidacion es
+ * aproximadamente el intervalo de sondeo.
+ * <p>
+ * Al arrancar, el nodo marca como vistas las filas de la ventana sin entregarlas: su cache
+ * esta vacia y no necesita el historial.
+ */
+@Slf4j
+public class TablaInvalidacionTransporte implements InvalidacionTransporte {
+
+    private final CacheInvalidacionRepository repository;
+    private final int tamanoLote;
+    private final Duration ventana;
+    private final Duration retencion;
+    private final Map<Long, LocalDateTime> vistas = new HashMap<>();
+    private volatile Consumer<Invalidacion> receptor;
+    private boolean iniciado;
+    private LocalDateTime ultimaVista;
+
+    public TablaInvalidacionTransporte(CacheInvalidacionRepository repository,
+                                       int tamanoLote,
+                                       Duration ventana,
+                                       Duration retencion) {
+        this.repository = repository;
+        this.tamanoLote = tamanoLote;
+        this.ventana = ventana;
+        this.retencion = retencion;
+    }
+
+    @Override
+    public void publicar(Invalidacion invalidacion) {
+        repository.save(CacheInvalidacion.builder()
+                .nodo(invalidacion.nodo())
+                .cache(invalidacion.cache())
+                .clave(invalidacion.clave())
+                .build());
+    }
+
+    @Override
+    public void suscribir(Consumer<Invalidacion> receptor) {
+        this.receptor = receptor;
+    }
+
+    /**
+     * Relee la ventana de invalidaciones y entrega al receptor las que no habia visto.
+     *
+     * @return invalidaciones entregadas
+     */
+    @Scheduled(fixedDelayString = "${app.invalidacion.sondeo-ms:1000}")
+    public synchronized int sondear() {
+        if (receptor == null) {
+            return 0;
+        }
+        try {
+            if (!iniciado) {
+                ultimaVista = repository.maxCreatedAt();
+                leerVentana(false);
+                iniciado = true;
+                return 0;
+            }
+            return leerVentana(true);
+        } catch (RuntimeException ex) {
+            log.warn("No se pudieron leer las invalidaciones de cache: {}", ex.getMessage());
+            return 0;
+        }
+    }
+
+    /**
+     * Elimina las invalidaciones que superan la retencion.
+     */
+    @Scheduled(cron = "${app.invalidacion.purga-cron:0 */10 * * * *}")
+    public void purgar() {
+        int eliminadas = repository.purgar(LocalDateTime.now().minus(retencion));
+        if (eliminadas > 0) {
+            log.debug("Invalidaciones de cache purgadas: {}", eliminadas);
+        }
+    }
+
+    private int leerVentana(boolean entregarNuevas) {
+        LocalDateTime desde = ultimaVista != null ? ultimaVista.minus(ventana) : null;
+        int entregadas = 0;
+        long despuesDe = 0L;
+        List<CacheInvalidacion> filas;
+        do {
+            filas = desde != null
+                    ? repository.findByCreatedAtGreaterThanEqualAndIdGreaterThanOrderByIdAsc(desde, despuesDe, Limit.of(tamanoLote))
+                    : repository.findByIdGreaterThanOrderByIdAsc(despuesDe, Limit.of(tamanoLote));
+            for (CacheInvalidacion fila : filas) {
+                despuesDe = fila.getId();
+                if (vistas.putIfAbsent(fila.getId(), fila.getCreatedAt()) != null) {
+                    continue;
+                }
+                if (ultimaVista == null || fila.getCreatedAt().isAfter(ultimaVista)) {
+                    ultimaVista = fila.getCreatedAt();
+                }
+                if (entregarNuevas) {
+                    entregar(fila);
+                    entregadas++;
+                }
+            }
+        } while (filas.size() == tamanoLote);
+
+        if (ultimaVista != null) {
+            LocalDateTime corte = ultimaVista.minus(ventana);
+            vistas.values().removeIf(creada -> creada.isBefore(corte));
+        }
+        return entregadas;
+    }
+
+    private void entregar(CacheInvalidacion fila) {
+        try {
+            receptor.accept(new Invalidacion(fila.getNodo(), fila.getCache(), fila.getClave()));
+        } catch (RuntimeException ex) {
+            log.warn("Fallo al aplicar la invalidacion {}: {}", fila.getId(), ex.getMessage());
+        }
+    }
+}
@@ -21,6 +21,7 @@ public class SubtareaMapper {
                 .id(subtarea.getId())
                 .titulo(subtarea.getTitulo())
                 .completada(Boolean.TRUE.equals(subtarea.getCompletada()))
+                .posicion(subtarea.getPosicion())
                 .build();
     }
 
@@ -33,6 +33,11 @@ public class TareaMapper {
                 .etiquetas(tarea.getEtiquetas().stream()
                         .map(etiquetaMapper::toDto)
                         .collect(Collectors.toSet()))
+                .posicion(tarea.getPosicion())
+                .subtareasTotal(tarea.getSubtareasTotal() != null ? tarea.getSubtareasTotal() : 0)
+                .subtareasCompletadas(tarea.getSubtareasCompletadas() != null ? tarea.getSubtareasCompletadas() : 0)
+                .adjuntosTotal(tarea.getAdjuntosTotal() != null ? tarea.getAdjuntosTotal() : 0)
+                .adjuntosBytes(tarea.getAdjuntosBytes() != null ? tarea.getAdjuntosBytes() : 0L)
                 .createdAt(tarea.getCreatedAt())
                 .updatedAt(tarea.getUpdatedAt())
                 .build();
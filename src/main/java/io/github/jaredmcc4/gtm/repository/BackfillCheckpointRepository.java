@@ -0,0 +1,77 @@
+package io.github.jaredmcc4.gtm.repository;
+
+import io.github.jaredmcc4.gtm.domain.BackfillCheckpoint;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+
+/**
+ * Acceso a los checkpoints de backfills. Todas las escrituras de progreso estan condicionadas
+ * al propietario del lease para que un nodo que lo perdio no sobrescriba a otro.
+ */
+public interface BackfillCheckpointRepository extends JpaRepository<BackfillCheckpoint, String> {
+
+    /**
+     * Toma o renueva el lease de un backfill no completado si esta libre, vencido o ya es propio.
+     *
+     * @param nombre backfill
+     * @param propietario identificador del nodo
+     * @param ahora instante actual
+     * @param hasta vencimiento del lease
+     * @return 1 si el nodo es ahora el propietario, 0 en caso contrario
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE BackfillCheckpoint b SET b.propietario = :propietario, b.leaseHasta = :hasta, " +
+            "b.estado = io.github.jaredmcc4.gtm.domain.BackfillCheckpoint.Estado.EN_CURSO, " +
+            "b.iniciadoEn = COALESCE(b.iniciadoEn, :ahora), b.error = NULL " +
+            "WHERE b.nombre = :nombre AND b.estado <> io.github.jaredmcc4.gtm.domain.BackfillCheckpoint.Estado.COMPLETADO " +
+            "AND (b.propietario IS NULL OR b.propietario = :propietario OR b.leaseHasta < :ahora)")
+    public int reclamar(@Param("nombre") String nombre,
+                        @Param("propietario") String propietario,
+                        @Param("ahora") LocalDateTime ahora,
+                        @Param("hasta") LocalDateTime hasta);
+
+    /**
+     * Fija el id objetivo la primera vez que se ejecuta el backfill.
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE BackfillCheckpoint b SET b.objetivoId = :objetivoId " +
+            "WHERE b.nombre = :nombre AND b.propietario = :propietario AND b.objetivoId IS NULL")
+    public int fijarObjetivo(@Param("nombre") String nombre,
+                             @Param("propietario") String propietario,
+                             @Param("objetivoId") Long objetivoId);
+
+    /**
+     * Registra el avance de un lote y renueva el lease.
+     *
+     * @return 1 si se registro, 0 si el nodo ya no es el propietario
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE BackfillCheckpoint b SET b.ultimoId = :ultimoId, b.procesadas = b.procesadas + :filas, " +
+            "b.leaseHasta = :hasta WHERE b.nombre = :nombre AND b.propietario = :propietario")
+    public int avanzar(@Param("nombre") String nombre,
+                       @Param("propietario") String propietario,
+                       @Param("ultimoId") Long ultimoId,
+                       @Param("filas") long filas,
+                       @Param("hasta") LocalDateTime hasta);
+
+    /**
+     * Cierra la ejecucion liberando el lease con el estado final.
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE BackfillCheckpoint b SET b.estado = :estado, b.error = :error, b.completadoEn = :completadoEn, " +
+            "b.propietario = NULL, b.leaseHasta = NULL WHERE b.nombre = :nombre AND b.propietario = :propietario")
+    public int finalizar(@Param("nombre") String nombre,
+                         @Param("propietario") String propietario,
+                         @Param("estado") BackfillCheckpoint.Estado estado,
+                         @Param("error") String error,
+                         @Param("completadoEn") LocalDateTime completadoEn);
+}
@@ -0,0 +1,44 @@
+package io.github.jaredmcc4.gtm.repository;
+
+import io.github.jaredmcc4.gtm.domain.BloqueoProgramado;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+
+/**
+ * Leases de jobs programados para que cada pasada se ejecute en un solo nodo.
+ */
+public interface BloqueoProgramadoRepository extends JpaRepository<BloqueoProgramado, String> {
+
+    /**
+     * Toma o renueva el lease si esta libre, vencido o ya es propio.
+     *
+     * @param nombre job programado
+     * @param propietario identificador del nodo
+     * @param ahora instante actual
+     * @param hasta vencimiento del lease
+     * @return 1 si el nodo es ahora el propietario, 0 en caso contrario
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE BloqueoProgramado b SET b.propietario = :propietario, b.leaseHasta = :hasta " +
+            "WHERE b.nombre = :nombre " +
+            "AND (b.propietario IS NULL OR b.propietario = :propietario OR b.leaseHasta < :ahora)")
+    public int reclamar(@Param("nombre") String nombre,
+                        @Param("propietario") String propietario,
+                        @Param("ahora") LocalDateTime ahora,
+                        @Param("hasta") LocalDateTime hasta);
+
+    /**
+     * Libera el lease si sigue siendo del nodo.
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE BloqueoProgramado b SET b.propietario = NULL, b.leaseHasta = NULL " +
+            "WHERE b.nombre = :nombre AND b.propietario = :propietario")
+    public int liberar(@Param("nombre") String nombre, @Param("propietario") String propietario);
+}
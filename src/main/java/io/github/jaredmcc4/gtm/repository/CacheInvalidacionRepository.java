@@ -0,0 +1,55 @@
+package io.github.jaredmcc4.gtm.repository;
+
+import io.github.jaredmcc4.gtm.domain.CacheInvalidacion;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Acceso a las invalidaciones de cache entre nodos.
+ */
+public interface CacheInvalidacionRepository extends JpaRepository<CacheInvalidacion, Long> {
+
+    /**
+     * Invalidaciones posteriores a un id, en orden.
+     *
+     * @param id ultimo id ya leido (exclusivo)
+     * @param limite tamano maximo del lote
+     * @return invalidaciones ordenadas por id
+     */
+    public List<CacheInvalidacion> findByIdGreaterThanOrderByIdAsc(Long id, Limit limite);
+
+    /**
+     * Invalidaciones creadas desde un instante y posteriores a un id, en orden.
+     *
+     * @param desde instante minimo de creacion (reloj de la base de datos)
+     * @param id ultimo id ya leido en la pasada (exclusivo)
+     * @param limite tamano maximo del lote
+     * @return invalidaciones ordenadas por id
+     */
+    public List<CacheInvalidacion> findByCreatedAtGreaterThanEqualAndIdGreaterThanOrderByIdAsc(LocalDateTime desde, Long id,
+                                                                                             Limit limite);
+
+    /**
+     * Instante de creacion mas reciente o null si la tabla esta vacia.
+     */
+    @Query("SELECT MAX(c.createdAt) FROM CacheInvalidacion c")
+    public LocalDateTime maxCreatedAt();
+
+    /**
+     * Elimina las invalidaciones anteriores a la fecha de retencion.
+     *
+     * @param limite fecha de corte
+     * @return filas eliminadas
+     */
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM CacheInvalidacion c WHERE c.createdAt < :limite")
+    public int purgar(@Param("limite") LocalDateTime limite);
+}
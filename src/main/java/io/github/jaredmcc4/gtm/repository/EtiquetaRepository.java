@@ -29,15 +29,12 @@ public interface EtiquetaRepository extends JpaRepository<Etiqueta, Long> {
     public Optional<Etiqueta> findByUsuarioIdAndNombre(Long usuarioId, String nombre);
 
     /**
-     * Indica si un usuario ya tiene una etiqueta con el nombre dado.
+     * Indica si un usuario ya tiene una etiqueta con el nombre dado, con una consulta
+     * {@code SELECT ... LIMIT 1} resuelta sobre el indice unico (usuario_id, nombre).
      *
      * @param usuarioId id del propietario
      * @param nombre nombre a validar
      * @return true si ya existe
      */
-    default boolean existsByUsuarioIdAndNombre(Long usuarioId, String nombre) {
-        return findByUsuarioIdAndNombre(usuarioId, nombre)
-                .map(etiqueta -> etiqueta.getNombre().equals(nombre))
-                .orElse(false);
-    }
+    public boolean existsByUsuarioIdAndNombre(Long usuarioId, String nombre);
 }
@@ -0,0 +1,59 @@
+package io.github.jaredmcc4.gtm.repository;
+
+import io.github.jaredmcc4.gtm.domain.OutboxEvento;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Acceso al outbox de eventos de dominio.
+ */
+public interface OutboxEventoRepository extends JpaRepository<OutboxEvento, Long> {
+
+    /**
+     * Reclama el siguiente lote de eventos pendientes de una particion con
+     * {@code FOR UPDATE SKIP LOCKED}. Un evento confirmado tarde sigue pendiente hasta
+     * entregarse, sin importar su id ni su {@code created_at}.
+     *
+     * @param particion particion a leer
+     * @param limite tamano maximo del lote
+     * @return eventos sin entregar ordenados por id
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "-2"))
+    @Query("SELECT e FROM OutboxEvento e WHERE e.particion = :particion AND e.entregadoEn IS NULL ORDER BY e.id ASC")
+    public List<OutboxEvento> reclamarPendientes(@Param("particion") int particion, Limit limite);
+
+    /**
+     * Marca eventos como entregados.
+     *
+     * @param ids eventos entregados o descartados
+     * @param ahora instante de la entrega
+     * @return filas actualizadas
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE OutboxEvento e SET e.entregadoEn = :ahora WHERE e.id IN :ids")
+    public int marcarEntregados(@Param("ids") List<Long> ids, @Param("ahora") LocalDateTime ahora);
+
+    /**
+     * Elimina eventos entregados antes de la fecha de retencion.
+     *
+     * @param limite fecha de corte
+     * @return filas eliminadas
+     */
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM OutboxEvento e WHERE e.entregadoEn IS NOT NULL AND e.entregadoEn < :limite")
+    public int purgarEntregados(@Param("limite") LocalDateTime limite);
+}
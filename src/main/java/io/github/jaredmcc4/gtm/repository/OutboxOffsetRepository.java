@@ -0,0 +1,30 @@
+package io.github.jaredmcc4.gtm.repository;
+
+import io.github.jaredmcc4.gtm.domain.OutboxOffset;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+
+import java.util.Optional;
+
+/**
+ * Filas de bloqueo por particion del outbox.
+ */
+public interface OutboxOffsetRepository extends JpaRepository<OutboxOffset, Integer> {
+
+    /**
+     * Bloquea la fila de una particion con {@code FOR UPDATE SKIP LOCKED}; si otro nodo
+     * la esta despachando devuelve vacio en lugar de esperar.
+     *
+     * @param particion particion a reclamar
+     * @return offset bloqueado o vacio si esta tomado
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "-2"))
+    @Query("SELECT o FROM OutboxOffset o WHERE o.particion = :particion")
+    public Optional<OutboxOffset> reclamar(@Param("particion") int particion);
+}
@@ -1,11 +1,15 @@
 package io.github.jaredmcc4.gtm.repository;
 
 import io.github.jaredmcc4.gtm.domain.RefreshToken;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 /**
@@ -14,7 +18,23 @@ import java.util.Optional;
 public interface RefreshTokenRepository extends JpaRepository<RefreshToken, Long> {
 
     /**
-     * Busca un token especifico por su valor (puede estar revocado).
+     * Busca un token por el SHA-256 de su valor (puede estar revocado).
+     *
+     * @param tokenHash hash de 32 bytes del token
+     * @return token encontrado o vacio
+     */
+    public Optional<RefreshToken> findByTokenHash(byte[] tokenHash);
+
+    /**
+     * Busca un token por el SHA-256 de su valor solo si no ha sido revocado.
+     *
+     * @param tokenHash hash de 32 bytes del token
+     * @return token activo o vacio
+     */
+    public Optional<RefreshToken> findByTokenHashAndRevokedFalse(byte[] tokenHash);
+
+    /**
+     * Busca un token especifico por su valor en texto plano (filas anteriores a {@code V10}).
      *
      * @param token token JWT de refresco en texto plano
      * @return token encontrado o vacio
@@ -22,7 +42,7 @@ public interface RefreshTokenRepository extends JpaRepository<RefreshToken, Long
     public Optional<RefreshToken> findByToken(String token);
 
     /**
-     * Busca un token solo si no ha sido revocado.
+     * Busca un token en texto plano solo si no ha sido revocado (filas anteriores a {@code V10}).
      *
      * @param token token JWT de refresco en texto plano
      * @return token activo o vacio
@@ -38,6 +58,68 @@ public interface RefreshTokenRepository extends JpaRepository<RefreshToken, Long
     @Query("DELETE FROM RefreshToken rt WHERE rt.expiresAt < :now")
     public void deleteExpiredTokens(LocalDateTime now);
 
+    /**
+     * Siguiente lote de ids expirados o revocados a partir de un id, para purgar por claves.
+     *
+     * @param desdeId ultimo id ya procesado (exclusivo)
+     * @param ahora instante limite a considerar vencido
+     * @param limite tamano maximo del lote
+     * @return ids ordenados ascendentemente
+     */
+    @Query("SELECT rt.id FROM RefreshToken rt WHERE rt.id > :desdeId AND (rt.expiresAt < :ahora OR rt.revoked = true) ORDER BY rt.id")
+    public List<Long> findIdsPurgables(long desdeId, LocalDateTime ahora, Limit limite);
+
+    /**
+     * Elimina los tokens indicados.
+     *
+     * @param ids ids a eliminar
+     * @return filas eliminadas
+     */
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM RefreshToken rt WHERE rt.id IN :ids")
+    public int eliminarPorIds(Collection<Long> ids);
+
+    /**
+     * Ids de las sesiones activas de un usuario, de la mas reciente a la mas antigua.
+     *
+     * @param usuarioId propietario
+     * @param ahora instante limite de vigencia
+     * @return ids de tokens no revocados ni expirados
+     */
+    @Query("SELECT rt.id FROM RefreshToken rt WHERE rt.usuario.id = :usuarioId AND rt.revoked = false " +
+            "AND rt.expiresAt > :ahora ORDER BY rt.createdAt DESC, rt.id DESC")
+    public List<Long> findIdsActivosPorUsuario(Long usuarioId, LocalDateTime ahora);
+
+    /**
+     * Marca como revocados los tokens indicados.
+     *
+     * @param ids ids a revocar
+     * @return filas actualizadas
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE RefreshToken rt SET rt.revoked = true WHERE rt.id IN :ids")
+    public int revocarPorIds(Collection<Long> ids);
+
+    /**
+     * Mayor id de refresh token, o 0 si no hay.
+     *
+     * @return id maximo
+     */
+    @Query("SELECT COALESCE(MAX(rt.id), 0) FROM RefreshToken rt")
+    public Long findMaxId();
+
+    /**
+     * Tokens del rango que aun no tienen hash.
+     *
+     * @param desdeId id inicial inclusivo
+     * @param hastaId id final inclusivo
+     * @return tokens pendientes de hashear
+     */
+    @Query("SELECT rt FROM RefreshToken rt WHERE rt.id BETWEEN :desdeId AND :hastaId AND rt.tokenHash IS NULL AND rt.token IS NOT NULL")
+    public List<RefreshToken> findSinHash(long desdeId, long hastaId);
+
     /**
      * Borra todos los refresh tokens asociados a un usuario.
      *
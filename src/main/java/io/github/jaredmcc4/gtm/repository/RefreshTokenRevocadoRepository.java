@@ -0,0 +1,52 @@
+package io.github.jaredmcc4.gtm.repository;
+
+import io.github.jaredmcc4.gtm.domain.RefreshTokenRevocado;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Acceso a las familias de refresh tokens firmados revocadas.
+ */
+public interface RefreshTokenRevocadoRepository extends JpaRepository<RefreshTokenRevocado, Long> {
+
+    /**
+     * Revocaciones vigentes posteriores a un id, en orden.
+     *
+     * @param id ultimo id ya leido (exclusivo)
+     * @param ahora solo revocaciones de tokens que aun no expiraron
+     * @param limite tamano maximo del lote
+     * @return revocaciones ordenadas por id
+     */
+    public List<RefreshTokenRevocado> findByIdGreaterThanAndExpiresAtAfterOrderByIdAsc(Long id, LocalDateTime ahora,
+                                                                                       Limit limite);
+
+    /**
+     * Revocaciones vigentes creadas desde un instante y posteriores a un id, en orden.
+     *
+     * @param desde instante minimo de creacion (reloj de la base de datos)
+     * @param ahora solo revocaciones de tokens que aun no expiraron
+     * @param id ultimo id ya leido en la pasada (exclusivo)
+     * @param limite tamano maximo del lote
+     * @return revocaciones ordenadas por id
+     */
+    public List<RefreshTokenRevocado> findByCreatedAtGreaterThanEqualAndExpiresAtAfterAndIdGreaterThanOrderByIdAsc(
+            LocalDateTime desde, LocalDateTime ahora, Long id, Limit limite);
+
+    /**
+     * Elimina las revocaciones de tokens ya expirados.
+     *
+     * @param ahora fecha de corte
+     * @return filas eliminadas
+     */
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM RefreshTokenRevocado r WHERE r.expiresAt < :ahora")
+    public int purgar(@Param("ahora") LocalDateTime ahora);
+}
@@ -0,0 +1,97 @@
+package io.github.jaredmcc4.gtm.repository;
+
+import io.github.jaredmcc4.gtm.domain.RespuestaIdempotente;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.Optional;
+
+/**
+ * Almacen persistente de respuestas asociadas a claves de idempotencia.
+ */
+public interface RespuestaIdempotenteRepository extends JpaRepository<RespuestaIdempotente, Long> {
+
+    /**
+     * Busca la respuesta registrada para una clave del usuario.
+     *
+     * @param usuarioId propietario de la clave
+     * @param clave valor del header Idempotency-Key
+     * @return registro encontrado o vacio
+     */
+    public Optional<RespuestaIdempotente> findByUsuarioIdAndClave(Long usuarioId, String clave);
+
+    /**
+     * Reserva la clave marcandola en proceso. La restriccion unica (usuario_id, clave)
+     * hace que una reserva repetida falle con {@code DataIntegrityViolationException}.
+     *
+     * @return filas insertadas
+     */
+    @Modifying
+    @Transactional
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "idempotencia_respuestas"))
+    @Query(value = "INSERT INTO idempotencia_respuestas (usuario_id, clave, operacion, huella, propietario, expires_at, created_at) " +
+            "VALUES (:usuarioId, :clave, :operacion, :huella, :propietario, :expiresAt, CURRENT_TIMESTAMP)", nativeQuery = true)
+    public int reservar(Long usuarioId, String clave, String operacion, String huella, String propietario, LocalDateTime expiresAt);
+
+    /**
+     * Guarda la respuesta final de una reserva propia en curso y extiende su vigencia.
+     *
+     * @return filas afectadas (0 si la reserva ya no pertenece a {@code propietario})
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE RespuestaIdempotente r SET r.estadoHttp = :estadoHttp, r.cuerpo = :cuerpo, r.expiresAt = :expiresAt " +
+            "WHERE r.usuarioId = :usuarioId AND r.clave = :clave AND r.propietario = :propietario AND r.estadoHttp IS NULL")
+    public int completar(Long usuarioId, String clave, String propietario, Integer estadoHttp, String cuerpo, LocalDateTime expiresAt);
+
+    /**
+     * Libera una reserva propia que no llego a completarse (la operacion fallo).
+     *
+     * @return filas afectadas
+     */
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM RespuestaIdempotente r WHERE r.usuarioId = :usuarioId AND r.clave = :clave " +
+            "AND r.propietario = :propietario AND r.estadoHttp IS NULL")
+    public int liberar(Long usuarioId, String clave, String propietario);
+
+    /**
+     * Extiende el plazo de las reservas en curso de los propietarios indicados.
+     *
+     * @param propietarios tokens de las reservas activas de este nodo
+     * @param expiresAt nuevo vencimiento
+     * @return filas afectadas
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE RespuestaIdempotente r SET r.expiresAt = :expiresAt WHERE r.propietario IN :propietarios AND r.estadoHttp IS NULL")
+    public int renovar(Collection<String> propietarios, LocalDateTime expiresAt);
+
+    /**
+     * Elimina una clave concreta si ya expiro.
+     *
+     * @return filas afectadas
+     */
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM RespuestaIdempotente r WHERE r.usuarioId = :usuarioId AND r.clave = :clave AND r.expiresAt < :now")
+    public int eliminarSiExpirada(Long usuarioId, String clave, LocalDateTime now);
+
+    /**
+     * Elimina todas las claves vencidas.
+     *
+     * @param now instante limite
+     * @return filas eliminadas
+     */
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM RespuestaIdempotente r WHERE r.expiresAt < :now")
+    public int eliminarExpiradas(LocalDateTime now);
+}
@@ -1,7 +1,10 @@
 package io.github.jaredmcc4.gtm.repository;
 
 import io.github.jaredmcc4.gtm.domain.Rol;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.QueryHints;
 
 import java.util.Optional;
 
@@ -11,11 +14,13 @@ import java.util.Optional;
 public interface RolRepository extends JpaRepository<Rol, Long> {
 
     /**
-     * Busca un rol por su nombre (ej. ROLE_USER).
+     * Busca un rol por su nombre (ej. ROLE_USER). El resultado se guarda en la cache de consultas
+     * de Hibernate, que se invalida al escribir en la tabla {@code roles}.
      *
      * @param nombreRol nombre exacto del rol
      * @return rol encontrado o vacio
      */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     public Optional<Rol> findByNombreRol(String nombreRol);
 
     /**
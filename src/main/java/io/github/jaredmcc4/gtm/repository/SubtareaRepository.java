@@ -2,7 +2,12 @@ package io.github.jaredmcc4.gtm.repository;
 
 import io.github.jaredmcc4.gtm.domain.Subtarea;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collection;
 import java.util.List;
 
 /**
@@ -18,10 +23,91 @@ public interface SubtareaRepository extends JpaRepository<Subtarea, Long> {
      */
     public List<Subtarea> findByTareaId(Long tareaId);
 
+    /**
+     * Recupera las subtareas de una tarea en su orden manual (desempate por id).
+     *
+     * @param tareaId id de la tarea padre
+     * @return lista ordenada de subtareas
+     */
+    public List<Subtarea> findByTareaIdOrderByPosicionAscIdAsc(Long tareaId);
+
     /**
      * Borra todas las subtareas de una tarea (cascada manual).
      *
      * @param tareaId id de la tarea padre
      */
     public void deleteByTareaId(Long tareaId);
+
+    /**
+     * Aplica el mismo estado de completado a un lote de subtareas en una sola sentencia.
+     *
+     * @param ids identificadores de las subtareas
+     * @param completada estado a persistir
+     * @return filas afectadas
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE Subtarea s SET s.completada = :completada WHERE s.id IN :ids")
+    public int actualizarCompletadaEnLote(Collection<Long> ids, boolean completada);
+
+    /**
+     * Mayor clave de orden manual entre las subtareas de una tarea.
+     *
+     * @param tareaId tarea padre
+     * @return clave maxima o null si no tiene subtareas
+     */
+    @Query("SELECT MAX(s.posicion) FROM Subtarea s WHERE s.tarea.id = :tareaId")
+    public String findUltimaPosicion(@Param("tareaId") Long tareaId);
+
+    /**
+     * Menor clave de orden manual de la tarea, ignorando la subtarea que se mueve.
+     *
+     * @param tareaId tarea padre
+     * @param excluirId subtarea a ignorar
+     * @return clave minima o null
+     */
+    @Query("SELECT MIN(s.posicion) FROM Subtarea s WHERE s.tarea.id = :tareaId AND s.id <> :excluirId")
+    public String findPrimeraPosicion(@Param("tareaId") Long tareaId, @Param("excluirId") Long excluirId);
+
+    /**
+     * Clave inmediatamente posterior a {@code posicion} dentro de la tarea.
+     *
+     * @param tareaId tarea padre
+     * @param posicion clave de referencia (exclusiva)
+     * @param excluirId subtarea a ignorar
+     * @return clave siguiente o null si {@code posicion} es la ultima
+     */
+    @Query("SELECT MIN(s.posicion) FROM Subtarea s WHERE s.tarea.id = :tareaId AND s.posicion > :posicion AND s.id <> :excluirId")
+    public String findPosicionSiguiente(@Param("tareaId") Long tareaId,
+                                        @Param("posicion") String posicion,
+                                        @Param("excluirId") Long excluirId);
+
+    /**
+     * Clave de orden manual de una subtarea.
+     *
+     * @param id subtarea
+     * @return clave actual
+     */
+    @Query("SELECT s.posicion FROM Subtarea s WHERE s.id = :id")
+    public String findPosicionById(@Param("id") Long id);
+
+    /**
+     * Ids de las subtareas de una tarea en su orden manual (desempate por id).
+     *
+     * @param tareaId tarea padre
+     * @return ids ordenados
+     */
+    @Query("SELECT s.id FROM Subtarea s WHERE s.tarea.id = :tareaId ORDER BY s.posicion ASC, s.id ASC")
+    public List<Long> findIdsOrdenadosPorPosicion(@Param("tareaId") Long tareaId);
+
+    /**
+     * Reescribe la clave de orden manual de una subtarea.
+     *
+     * @param id subtarea
+     * @param posicion nueva clave
+     * @return filas afectadas
+     */
+    @Modifying
+    @Query("UPDATE Subtarea s SET s.posicion = :posicion WHERE s.id = :id")
+    public int actualizarPosicion(@Param("id") Long id, @Param("posicion") String posicion);
 }
@@ -4,11 +4,14 @@ import io.github.jaredmcc4.gtm.domain.Tarea;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -141,4 +144,200 @@ public interface TareaRepository extends JpaRepository<Tarea, Long> {
      * @return total de tareas en ese estado
      */
     public long countByUsuarioIdAndEstado(Long usuarioId, Tarea.EstadoTarea estado);
+
+    /**
+     * Ajusta de forma atomica los contadores de subtareas de una tarea.
+     *
+     * @param tareaId tarea a actualizar
+     * @param total variacion del total de subtareas
+     * @param completadas variacion de subtareas completadas
+     * @return filas afectadas
+     */
+    @Modifying
+    @Query("UPDATE Tarea t SET t.subtareasTotal = t.subtareasTotal + :total, " +
+            "t.subtareasCompletadas = t.subtareasCompletadas + :completadas WHERE t.id = :tareaId")
+    public int ajustarContadoresSubtareas(@Param("tareaId") Long tareaId,
+                                          @Param("total") int total,
+                                          @Param("completadas") int completadas);
+
+    /**
+     * Ajusta de forma atomica los contadores de adjuntos de una tarea.
+     *
+     * @param tareaId tarea a actualizar
+     * @param cantidad variacion de adjuntos
+     * @param bytes variacion del tamano acumulado
+     * @return filas afectadas
+     */
+    @Modifying
+    @Query("UPDATE Tarea t SET t.adjuntosTotal = t.adjuntosTotal + :cantidad, " +
+            "t.adjuntosBytes = t.adjuntosBytes + :bytes WHERE t.id = :tareaId")
+    public int ajustarContadoresAdjuntos(@Param("tareaId") Long tareaId,
+                                         @Param("cantidad") int cantidad,
+                                         @Param("bytes") long bytes);
+
+    /**
+     * Recalcula las subtareas completadas de varias tareas a partir de la tabla de subtareas.
+     *
+     * @param tareaIds tareas a recalcular
+     * @return filas afectadas
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE Tarea t SET t.subtareasCompletadas = " +
+            "CAST((SELECT COUNT(s) FROM Subtarea s WHERE s.tarea.id = t.id AND s.completada = true) AS Integer) " +
+            "WHERE t.id IN :tareaIds")
+    public int recalcularSubtareasCompletadas(@Param("tareaIds") Collection<Long> tareaIds);
+
+    /**
+     * Recalcula todos los contadores denormalizados para un rango de ids (job de reconciliacion).
+     *
+     * @param desdeId id inicial inclusivo
+     * @param hastaId id final inclusivo
+     * @return filas afectadas
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE Tarea t SET " +
+            "t.subtareasTotal = CAST((SELECT COUNT(s) FROM Subtarea s WHERE s.tarea.id = t.id) AS Integer), " +
+            "t.subtareasCompletadas = CAST((SELECT COUNT(s) FROM Subtarea s WHERE s.tarea.id = t.id AND s.completada = true) AS Integer), " +
+            "t.adjuntosTotal = CAST((SELECT COUNT(a) FROM Adjunto a WHERE a.tarea.id = t.id) AS Integer), " +
+            "t.adjuntosBytes = (SELECT COALESCE(SUM(a.sizeBytes), 0) FROM Adjunto a WHERE a.tarea.id = t.id) " +
+            "WHERE t.id BETWEEN :desdeId AND :hastaId")
+    public int reconciliarContadores(@Param("desdeId") Long desdeId, @Param("hastaId") Long hastaId);
+
+    /**
+     * Mayor id de tarea existente (0 si no hay tareas).
+     *
+     * @return id maximo
+     */
+    @Query("SELECT COALESCE(MAX(t.id), 0) FROM Tarea t")
+    public Long findMaxId();
+
+    /**
+     * Usuarios con tareas en el rango cuyo orden manual tiene la clave repetida (filas
+     * anteriores a {@code V5} que aun conservan la clave por defecto).
+     *
+     * @param desdeId id inicial (inclusivo)
+     * @param hastaId id final (inclusivo)
+     * @param posicion clave por defecto
+     * @return ids de usuario
+     */
+    @Query("SELECT DISTINCT t.usuario.id FROM Tarea t WHERE t.id BETWEEN :desdeId AND :hastaId AND t.posicion = :posicion " +
+            "AND (SELECT COUNT(o) FROM Tarea o WHERE o.usuario = t.usuario AND o.posicion = :posicion) > 1")
+    public List<Long> findUsuariosConPosicionRepetida(@Param("desdeId") Long desdeId,
+                                                      @Param("hastaId") Long hastaId,
+                                                      @Param("posicion") String posicion);
+
+    /**
+     * Tareas del rango cuyas subtareas tienen la clave de orden repetida.
+     *
+     * @param desdeId id inicial (inclusivo)
+     * @param hastaId id final (inclusivo)
+     * @param posicion clave por defecto
+     * @return tareas afectadas
+     */
+    @Query("SELECT t FROM Tarea t WHERE t.id BETWEEN :desdeId AND :hastaId " +
+            "AND (SELECT COUNT(s) FROM Subtarea s WHERE s.tarea = t AND s.posicion = :posicion) > 1")
+    public List<Tarea> findConPosicionSubtareaRepetida(@Param("desdeId") Long desdeId,
+                                                       @Param("hastaId") Long hastaId,
+                                                       @Param("posicion") String posicion);
+
+    /**
+     * Mayor clave de orden manual entre las tareas del usuario.
+     *
+     * @param usuarioId propietario
+     * @return clave maxima o null si no tiene tareas
+     */
+    @Query("SELECT MAX(t.posicion) FROM Tarea t WHERE t.usuario.id = :usuarioId")
+    public String findUltimaPosicion(@Param("usuarioId") Long usuarioId);
+
+    /**
+     * Menor clave de orden manual del usuario, ignorando la tarea que se mueve.
+     *
+     * @param usuarioId propietario
+     * @param excluirId tarea a ignorar
+     * @return clave minima o null
+     */
+    @Query("SELECT MIN(t.posicion) FROM Tarea t WHERE t.usuario.id = :usuarioId AND t.id <> :excluirId")
+    public String findPrimeraPosicion(@Param("usuarioId") Long usuarioId, @Param("excluirId") Long excluirId);
+
+    /**
+     * Clave inmediatamente posterior a {@code posicion} en las tareas del usuario.
+     *
+     * @param usuarioId propietario
+     * @param posicion clave de referencia (exclusiva)
+     * @param excluirId tarea a ignorar
+     * @return clave siguiente o null si {@code posicion} es la ultima
+     */
+    @Query("SELECT MIN(t.posicion) FROM Tarea t WHERE t.usuario.id = :usuarioId AND t.posicion > :posicion AND t.id <> :excluirId")
+    public String findPosicionSiguiente(@Param("usuarioId") Long usuarioId,
+                                        @Param("posicion") String posicion,
+                                        @Param("excluirId") Long excluirId);
+
+    /**
+     * Clave de orden manual de una tarea.
+     *
+     * @param id tarea
+     * @return clave actual
+     */
+    @Query("SELECT t.posicion FROM Tarea t WHERE t.id = :id")
+    public String findPosicionById(@Param("id") Long id);
+
+    /**
+     * Ids de las tareas del usuario en su orden manual (desempate por id).
+     *
+     * @param usuarioId propietario
+     * @return ids ordenados
+     */
+    @Query("SELECT t.id FROM Tarea t WHERE t.usuario.id = :usuarioId ORDER BY t.posicion ASC, t.id ASC")
+    public List<Long> findIdsOrdenadosPorPosicion(@Param("usuarioId") Long usuarioId);
+
+    /**
+     * Reescribe la clave de orden manual de una tarea.
+     *
+     * @param id tarea
+     * @param posicion nueva clave
+     * @return filas afectadas
+     */
+    @Modifying
+    @Query("UPDATE Tarea t SET t.posicion = :posicion WHERE t.id = :id")
+    public int actualizarPosicion(@Param("id") Long id, @Param("posicion") String posicion);
+
+    /**
+     * Actualizacion masiva de las tareas del usuario que cumplen el filtro, en una sola sentencia.
+     * Los filtros y cambios nulos se ignoran; {@code segundos} desplaza la fecha de vencimiento.
+     *
+     * @param usuarioId propietario
+     * @param estado estado actual opcional
+     * @param prioridad prioridad actual opcional
+     * @param etiquetaId etiqueta opcional
+     * @param venceDesde vencimiento minimo inclusivo opcional
+     * @param venceHasta vencimiento maximo inclusivo opcional
+     * @param segundos desplazamiento del vencimiento (0 para no cambiarlo)
+     * @param nuevoEstado estado a asignar opcional
+     * @param nuevaPrioridad prioridad a asignar opcional
+     * @return filas afectadas
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE Tarea t SET " +
+            "t.fechaVencimiento = t.fechaVencimiento + :segundos second, " +
+            "t.estado = COALESCE(:nuevoEstado, t.estado), " +
+            "t.prioridad = COALESCE(:nuevaPrioridad, t.prioridad), " +
+            "t.updatedAt = LOCAL DATETIME " +
+            "WHERE t.usuario.id = :usuarioId " +
+            "AND (:estado IS NULL OR t.estado = :estado) " +
+            "AND (:prioridad IS NULL OR t.prioridad = :prioridad) " +
+            "AND (:venceDesde IS NULL OR t.fechaVencimiento >= :venceDesde) " +
+            "AND (:venceHasta IS NULL OR t.fechaVencimiento <= :venceHasta) " +
+            "AND (:etiquetaId IS NULL OR EXISTS (SELECT 1 FROM t.etiquetas e WHERE e.id = :etiquetaId))")
+    public int actualizarEnLote(@Param("usuarioId") Long usuarioId,
+                                @Param("estado") Tarea.EstadoTarea estado,
+                                @Param("prioridad") Tarea.Prioridad prioridad,
+                                @Param("etiquetaId") Long etiquetaId,
+                                @Param("venceDesde") LocalDateTime venceDesde,
+                                @Param("venceHasta") LocalDateTime venceHasta,
+                                @Param("segundos") long segundos,
+                                @Param("nuevoEstado") Tarea.EstadoTarea nuevoEstado,
+                                @Param("nuevaPrioridad") Tarea.Prioridad nuevaPrioridad);
 }
@@ -0,0 +1,24 @@
+package io.github.jaredmcc4.gtm.repository;
+
+import io.github.jaredmcc4.gtm.domain.Usuario;
+import io.github.jaredmcc4.gtm.domain.UsuarioIdentidad;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+
+import java.util.Optional;
+
+/**
+ * Acceso a las identidades de proveedores OAuth vinculadas a usuarios.
+ */
+public interface UsuarioIdentidadRepository extends JpaRepository<UsuarioIdentidad, Long> {
+
+    /**
+     * Usuario vinculado a la cuenta del proveedor, por el indice unico (proveedor, sujeto).
+     *
+     * @param proveedor nombre del proveedor
+     * @param sujeto identificador de la cuenta en el proveedor
+     * @return usuario vinculado
+     */
+    @Query("SELECT i.usuario FROM UsuarioIdentidad i WHERE i.proveedor = :proveedor AND i.sujeto = :sujeto")
+    public Optional<Usuario> findUsuario(String proveedor, String sujeto);
+}
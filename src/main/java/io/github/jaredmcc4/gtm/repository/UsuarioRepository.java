@@ -1,9 +1,11 @@
 package io.github.jaredmcc4.gtm.repository;
 
 import io.github.jaredmcc4.gtm.domain.Usuario;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 
+import java.util.List;
 import java.util.Optional;
 
 /**
@@ -35,4 +37,43 @@ public interface UsuarioRepository extends JpaRepository<Usuario, Long> {
      */
     @Query("SELECT DISTINCT u FROM Usuario u LEFT JOIN FETCH u.roles WHERE u.email = :email")
     public Optional<Usuario> findByEmailWithRoles(String email);
+
+    /**
+     * Obtiene un usuario por id junto con sus roles usando fetch join.
+     *
+     * @param id identificador del usuario
+     * @return usuario con roles cargados o vacio
+     */
+    @Query("SELECT DISTINCT u FROM Usuario u LEFT JOIN FETCH u.roles WHERE u.id = :id")
+    public Optional<Usuario> findByIdWithRoles(Long id);
+
+    /**
+     * Version de tokens de un usuario, sin cargar la entidad.
+     *
+     * @param id identificador del usuario
+     * @return version o vacio si el usuario no existe
+     */
+    @Query("SELECT u.tokenVersion FROM Usuario u WHERE u.id = :id")
+    public Optional<Integer> findTokenVersionById(Long id);
+
+    /**
+     * Usuarios con version de tokens mayor a 0 e id posterior al indicado, ordenados por id,
+     * para recorrerlos por lotes.
+     *
+     * @param desdeId ultimo id leido
+     * @param limite tamano del lote
+     * @return id y version de cada usuario
+     */
+    @Query("SELECT u.id AS id, u.tokenVersion AS tokenVersion FROM Usuario u WHERE u.tokenVersion > 0 AND u.id > :desdeId ORDER BY u.id")
+    public List<VersionToken> findVersionesToken(long desdeId, Limit limite);
+
+    /**
+     * Proyeccion de la version de tokens de un usuario.
+     */
+    interface VersionToken {
+
+        Long getId();
+
+        int getTokenVersion();
+    }
 }
@@ -0,0 +1,61 @@
+package io.github.jaredmcc4.gtm.repository;
+
+import io.github.jaredmcc4.gtm.domain.VersionDatosUsuario;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+/**
+ * Acceso a la version de datos por usuario.
+ */
+public interface VersionDatosUsuarioRepository extends JpaRepository<VersionDatosUsuario, Long> {
+
+    /**
+     * Incrementa la version del usuario si ya tiene fila.
+     *
+     * @param usuarioId propietario de los datos
+     * @param ahora instante de la escritura
+     * @return 1 si se incremento, 0 si el usuario aun no tiene fila
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE VersionDatosUsuario v SET v.version = v.version + 1, v.modificadoEn = :ahora " +
+            "WHERE v.usuarioId = :usuarioId")
+    public int incrementar(@Param("usuarioId") Long usuarioId, @Param("ahora") LocalDateTime ahora);
+
+    /**
+     * Bloquea la fila del usuario con {@code FOR UPDATE} hasta el fin de la transaccion.
+     *
+     * @param usuarioId propietario de los datos
+     * @return fila bloqueada o vacio si el usuario aun no tiene fila
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT v FROM VersionDatosUsuario v WHERE v.usuarioId = :usuarioId")
+    public Optional<VersionDatosUsuario> bloquear(@Param("usuarioId") Long usuarioId);
+
+    /**
+     * Crea la fila del usuario con version 0. Si otra transaccion ya la creo falla con
+     * {@code DataIntegrityViolationException} sin tocar la version existente.
+     * <p>
+     * Se declara su tabla como unico espacio afectado para que Hibernate no vacie toda la
+     * cache de segundo nivel, como hace con las sentencias nativas sin espacios.
+     *
+     * @return filas insertadas
+     */
+    @Modifying
+    @Transactional
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "usuarios_version_datos"))
+    @Query(value = "INSERT INTO usuarios_version_datos (usuario_id, version, modificado_en) VALUES (:usuarioId, 0, :ahora)",
+            nativeQuery = true)
+    public int crear(@Param("usuarioId") Long usuarioId, @Param("ahora") LocalDateTime ahora);
+}
@@ -0,0 +1,121 @@
+package io.github.jaredmcc4.gtm.security;
+
+import org.springframework.security.crypto.bcrypt.BCrypt;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.DelegatingPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Elige el costo de BCrypt segun la CPU donde corre la aplicacion y construye el codificador
+ * de contrasenas con formato {@code {id}hash}.
+ * <p>
+ * Los hashes anteriores sin prefijo se verifican como BCrypt. {@code upgradeEncoding}
+ * devuelve {@code true} si el hash no tiene prefijo, usa otro algoritmo o su costo esta por
+ * debajo del minimo comun de la flota, para que el login lo recalcule. Nunca pide bajar un
+ * costo: un nodo con CPU mas lenta acepta los hashes de un nodo calibrado mas alto.
+ */
+public final class BcryptCalibrado {
+
+    /**
+     * Identificador del formato por defecto.
+     */
+    public static final String ID = "bcrypt";
+
+    /**
+     * Piso de costo por defecto; igual al costo fijo que usaba la version anterior.
+     */
+    public static final int COSTO_MINIMO = 12;
+
+    private static final Pattern COSTO = Pattern.compile("^\\$2[abxy]?\\$(\\d\\d)\\$");
+    private static final int MUESTRAS = 3;
+
+    private BcryptCalibrado() {
+    }
+
+    /**
+     * Mayor costo cuyo hash tarda como mucho el objetivo en esta CPU, acotado al rango dado.
+     * Mide el costo minimo y extrapola sabiendo que cada punto de costo duplica el tiempo.
+     *
+     * @param objetivo latencia deseada por hash
+     * @param minimo costo minimo admitido
+     * @param maximo costo maximo admitido
+     * @return costo elegido
+     */
+    public static int calibrar(Duration objetivo, int minimo, int maximo) {
+        String sal = BCrypt.gensalt(minimo);
+        BCrypt.hashpw("calibracion", sal);
+        long mejor = Long.MAX_VALUE;
+        for (int i = 0; i < MUESTRAS; i++) {
+            long inicio = System.nanoTime();
+            BCrypt.hashpw("calibracion", sal);
+            mejor = Math.min(mejor, System.nanoTime() - inicio);
+        }
+        int costo = minimo;
+        long estimado = mejor;
+        while (costo < maximo && estimado * 2 <= objetivo.toNanos()) {
+            estimado *= 2;
+            costo++;
+        }
+        return costo;
+    }
+
+    /**
+     * Codificador delegante con BCrypt del costo indicado como formato por defecto, que solo
+     * pide recalcular hashes de costo menor.
+     *
+     * @param costo costo de BCrypt para hashes nuevos
+     * @return codificador de contrasenas
+     */
+    public static PasswordEncoder crear(int costo) {
+        return crear(costo, costo);
+    }
+
+    /**
+     * Codificador delegante con BCrypt del costo indicado como formato por defecto.
+     *
+     * @param costo costo de BCrypt para hashes nuevos (calibrado, nunca menor que el minimo)
+     * @param costoMinimo costo comun de la flota por debajo del cual se recalcula el hash
+     * @return codificador de contrasenas
+     */
+    public static PasswordEncoder crear(int costo, int costoMinimo) {
+        DelegatingPasswordEncoder encoder = new DelegatingPasswordEncoder(ID,
+                Map.of(ID, new BcryptCostoMinimo(Math.max(costo, costoMinimo), costoMinimo)));
+        encoder.setDefaultPasswordEncoderForMatches(new BCryptPasswordEncoder(Math.max(costo, costoMinimo)));
+        return encoder;
+    }
+
+    /**
+     * Costo de un hash BCrypt, con o sin prefijo, o -1 si no es BCrypt.
+     */
+    static int costo(String hash) {
+        if (hash == null) {
+            return -1;
+        }
+        String valor = hash.startsWith("{" + ID + "}") ? hash.substring(ID.length() + 2) : hash;
+        Matcher matcher = COSTO.matcher(valor);
+        return matcher.find() ? Integer.parseInt(matcher.group(1)) : -1;
+    }
+
+    /**
+     * BCrypt que pide recalcular solo los hashes cuyo costo esta por debajo del minimo.
+     */
+    private static final class BcryptCostoMinimo extends BCryptPasswordEncoder {
+
+        private final int costoMinimo;
+
+        private BcryptCostoMinimo(int costo, int costoMinimo) {
+            super(costo);
+            this.costoMinimo = costoMinimo;
+        }
+
+        @Override
+        public boolean upgradeEncoding(String encodedPassword) {
+            return costo(encodedPassword) < costoMinimo;
+        }
+    }
+}
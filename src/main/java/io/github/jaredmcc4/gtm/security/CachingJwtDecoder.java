@@ -0,0 +1,109 @@
+package io.github.jaredmcc4.gtm.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+import org.springframework.security.oauth2.jwt.JwtException;
+
+import java.time.Duration;
+import java.time.Instant;
+
+/**
+ * Decodificador JWT que recuerda los tokens ya verificados para no repetir la decodificacion,
+ * el parseo y el HMAC en cada peticion que presenta el mismo token.
+ * <p>
+ * La clave es el token completo (hash de {@link String} y comparacion exacta, sin colisiones);
+ * cada entrada vive hasta el {@code exp} del token o el TTL maximo configurado, lo que ocurra
+ * antes, y el total esta acotado por numero de entradas. Solo se guardan tokens que el
+ * decodificador delegado acepto; los rechazos se propagan sin cachear. La revocacion no depende
+ * de esta cache: {@link UsuarioAutenticadoConverter} comprueba la version de tokens del usuario
+ * en cada peticion, tambien para los tokens recordados.
+ * Las estadisticas se publican como {@code cache.*{cache="jwt"}}.
+ */
+public class CachingJwtDecoder implements JwtDecoder {
+
+    /**
+     * Nombre de la cache en metricas.
+     */
+    public static final String CACHE = "jwt";
+
+    private final JwtDecoder delegado;
+    private final Cache<String, Jwt> tokens;
+    private final boolean habilitado;
+
+    /**
+     * @param delegado decodificador que verifica firma y claims
+     * @param meterRegistry registro de metricas
+     * @param habilitado si es false delega siempre
+     * @param maxEntradas maximo de tokens recordados
+     * @param ttlMaximo vida maxima de una entrada aunque el token expire despues
+     */
+    public CachingJwtDecoder(JwtDecoder delegado,
+                             MeterRegistry meterRegistry,
+                             boolean habilitado,
+                             long maxEntradas,
+                             Duration ttlMaximo) {
+        this.delegado = delegado;
+        this.tokens = Caffeine.newBuilder()
+                .maximumSize(maxEntradas)
+                .expireAfter(new HastaExpiracion(ttlMaximo))
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, tokens, CACHE);
+        this.habilitado = habilitado;
+    }
+
+    @Override
+    public Jwt decode(String token) throws JwtException {
+        if (!habilitado) {
+            return delegado.decode(token);
+        }
+        Jwt recordado = tokens.getIfPresent(token);
+        if (recordado != null && (recordado.getExpiresAt() == null || recordado.getExpiresAt().isAfter(Instant.now()))) {
+            return recordado;
+        }
+        Jwt jwt = delegado.decode(token);
+        tokens.put(token, jwt);
+        return jwt;
+    }
+
+    /**
+     * Cantidad aproximada de tokens recordados.
+     */
+    public long tamano() {
+        return tokens.estimatedSize();
+    }
+
+    /**
+     * Expira cada entrada en el {@code exp} del token, acotado por el TTL maximo.
+     */
+    private record HastaExpiracion(Duration ttlMaximo) implements Expiry<String, Jwt> {
+
+        @Override
+        public long expireAfterCreate(String token, Jwt jwt, long currentTime) {
+            Instant expira = jwt.getExpiresAt();
+            if (expira == null) {
+                return ttlMaximo.toNanos();
+            }
+            Duration restante = Duration.between(Instant.now(), expira);
+            if (restante.isNegative()) {
+                return 0;
+            }
+            return Math.min(restante.toNanos(), ttlMaximo.toNanos());
+        }
+
+        @Override
+        public long expireAfterUpdate(String token, Jwt jwt, long currentTime, long currentDuration) {
+            return expireAfterCreate(token, jwt, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(String token, Jwt jwt, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
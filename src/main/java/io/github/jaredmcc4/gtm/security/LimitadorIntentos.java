@@ -0,0 +1,156 @@
+package io.github.jaredmcc4.gtm.security;
+
+import io.github.jaredmcc4.gtm.exception.DemasiadosIntentosException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Locale;
+import java.util.function.LongSupplier;
+
+/**
+ * Limita los intentos de login y refresh por IP y por email en memoria, antes de consultar
+ * la base de datos o verificar contrasenas. Cada fallo reduce el cupo de forma progresiva
+ * hasta que la clave pasa {@code olvido-minutos} sin actividad. El refresh tiene su propio
+ * cupo por IP para que los clientes que renuevan tokens no consuman el del login.
+ * <p>
+ * La memoria es fija ({@link SketchLimitador}) sin importar cuantas IPs o emails distintos
+ * lleguen. Publica los rechazos ({@code gtm.auth.limite.rechazados} por limite), los fallos
+ * registrados ({@code gtm.auth.limite.fallos}) y las celdas reservadas
+ * ({@code gtm.auth.limite.celdas}).
+ */
+@Component
+public class LimitadorIntentos {
+
+    private final boolean habilitado;
+    private final SketchLimitador porIp;
+    private final SketchLimitador porEmail;
+    private final SketchLimitador porIpRefresh;
+    private final LongSupplier reloj;
+    private final Counter rechazadosIp;
+    private final Counter rechazadosEmail;
+    private final Counter rechazadosRefresh;
+    private final Counter fallos;
+
+    @Autowired
+    public LimitadorIntentos(MeterRegistry meterRegistry,
+                             @Value("${app.auth.limite.habilitado:true}") boolean habilitado,
+                             @Value("${app.auth.limite.ip.capacidad:30}") int capacidadIp,
+                             @Value("${app.auth.limite.ip.recarga-por-minuto:30}") int recargaIp,
+                             @Value("${app.auth.limite.email.capacidad:5}") int capacidadEmail,
+                             @Value("${app.auth.limite.email.recarga-por-minuto:2}") int recargaEmail,
+                             @Value("${app.auth.limite.refresh.capacidad:60}") int capacidadRefresh,
+                             @Value("${app.auth.limite.refresh.recarga-por-minuto:60}") int recargaRefresh,
+                             @Value("${app.auth.limite.olvido-minutos:15}") long olvidoMinutos,
+                             @Value("${app.auth.limite.max-fallos:6}") int maxFallos,
+                             @Value("${app.auth.limite.slots:16384}") int slots) {
+        this(meterRegistry, habilitado,
+                new SketchLimitador(3, slots, capacidadIp, recargaIp, olvidoMinutos * 60_000, maxFallos),
+                new SketchLimitador(3, slots, capacidadEmail, recargaEmail, olvidoMinutos * 60_000, maxFallos),
+                new SketchLimitador(3, slots, capacidadRefresh, recargaRefresh, olvidoMinutos * 60_000, maxFallos),
+                System::currentTimeMillis);
+    }
+
+    LimitadorIntentos(MeterRegistry meterRegistry, boolean habilitado, SketchLimitador porIp,
+                      SketchLimitador porEmail, SketchLimitador porIpRefresh, LongSupplier reloj) {
+        this.habilitado = habilitado;
+        this.porIp = porIp;
+        this.porEmail = porEmail;
+        this.porIpRefresh = porIpRefresh;
+        this.reloj = reloj;
+        this.rechazadosIp = Counter.builder("gtm.auth.limite.rechazados")
+                .description("Intentos de autenticacion rechazados por limite")
+                .tag("limite", "ip")
+                .register(meterRegistry);
+        this.rechazadosEmail = Counter.builder("gtm.auth.limite.rechazados")
+                .description("Intentos de autenticacion rechazados por limite")
+                .tag("limite", "email")
+                .register(meterRegistry);
+        this.rechazadosRefresh = Counter.builder("gtm.auth.limite.rechazados")
+                .description("Intentos de autenticacion rechazados por limite")
+                .tag("limite", "refresh")
+                .register(meterRegistry);
+        this.fallos = Counter.builder("gtm.auth.limite.fallos")
+                .description("Fallos de autenticacion registrados en el limitador")
+                .register(meterRegistry);
+        Gauge.builder("gtm.auth.limite.celdas", this, limitador -> limitador.porIp.tamano() + limitador.porEmail.tamano()
+                        + limitador.porIpRefresh.tamano())
+                .description("Celdas reservadas por el limitador de intentos")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Consume un intento de login para la IP y el email.
+     *
+     * @param ip IP del cliente
+     * @param email email recibido
+     * @throws DemasiadosIntentosException si alguno de los dos supera su limite
+     */
+    public void verificarLogin(String ip, String email) {
+        if (!habilitado) {
+            return;
+        }
+        long ahora = reloj.getAsLong();
+        rechazarSiExcede(porIp.consumir(ip, ahora), rechazadosIp);
+        rechazarSiExcede(porEmail.consumir(normalizar(email), ahora), rechazadosEmail);
+    }
+
+    /**
+     * Consume un intento de refresh del cupo propio de la IP.
+     *
+     * @param ip IP del cliente
+     * @throws DemasiadosIntentosException si supera el limite
+     */
+    public void verificarRefresh(String ip) {
+        if (!habilitado) {
+            return;
+        }
+        rechazarSiExcede(porIpRefresh.consumir(ip, reloj.getAsLong()), rechazadosRefresh);
+    }
+
+    /**
+     * Registra un refresh fallido (token desconocido, revocado o expirado) para la IP.
+     *
+     * @param ip IP del cliente
+     */
+    public void registrarFalloRefresh(String ip) {
+        if (!habilitado) {
+            return;
+        }
+        porIpRefresh.penalizar(ip, reloj.getAsLong());
+        fallos.increment();
+    }
+
+    /**
+     * Registra un intento fallido de login para la IP y, si se indica, el email.
+     *
+     * @param ip IP del cliente
+     * @param email email recibido, o {@code null} si no se conoce
+     */
+    public void registrarFallo(String ip, String email) {
+        if (!habilitado) {
+            return;
+        }
+        long ahora = reloj.getAsLong();
+        porIp.penalizar(ip, ahora);
+        if (email != null) {
+            porEmail.penalizar(normalizar(email), ahora);
+        }
+        fallos.increment();
+    }
+
+    private static void rechazarSiExcede(long esperaMs, Counter rechazados) {
+        if (esperaMs > 0) {
+            rechazados.increment();
+            throw new DemasiadosIntentosException("Demasiados intentos, intente de nuevo mas tarde.",
+                    Math.max(1, (esperaMs + 999) / 1000));
+        }
+    }
+
+    private static String normalizar(String email) {
+        return email == null ? "" : email.trim().toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,134 @@
+package io.github.jaredmcc4.gtm.security;
+
+import java.util.concurrent.locks.StampedLock;
+
+/**
+ * Mapa {@code long -> int} de direccionamiento abierto sin boxing, para claves positivas.
+ * <p>
+ * Las lecturas son optimistas ({@link StampedLock#tryOptimisticRead()}) y solo toman el
+ * bloqueo de lectura si coinciden con una escritura; las escrituras son exclusivas. La tabla
+ * se mantiene como mucho a la mitad de su capacidad para que los sondeos sean cortos.
+ */
+final class MapaLongInt {
+
+    private static final long VACIO = 0L;
+
+    private final StampedLock lock = new StampedLock();
+    private Tabla tabla = new Tabla(new long[64], new int[64]);
+    private int tamano;
+
+    private record Tabla(long[] claves, int[] valores) {
+    }
+
+    /**
+     * Valor de la clave, o 0 si no esta.
+     */
+    int obtener(long clave) {
+        long sello = lock.tryOptimisticRead();
+        int valor = buscar(tabla, clave);
+        if (lock.validate(sello)) {
+            return valor;
+        }
+        sello = lock.readLock();
+        try {
+            return buscar(tabla, clave);
+        } finally {
+            lock.unlockRead(sello);
+        }
+    }
+
+    /**
+     * Guarda el valor si es mayor que el actual.
+     *
+     * @return valor resultante para la clave
+     */
+    int subir(long clave, int valor) {
+        if (clave <= VACIO) {
+            throw new IllegalArgumentException("Clave no valida: " + clave);
+        }
+        long sello = lock.writeLock();
+        try {
+            int indice = indice(tabla, clave);
+            if (tabla.claves()[indice] == clave) {
+                int actual = tabla.valores()[indice];
+                if (valor > actual) {
+                    tabla.valores()[indice] = valor;
+                    return valor;
+                }
+                return actual;
+            }
+            if ((tamano + 1) * 2 > tabla.claves().length) {
+                redimensionar();
+                indice = indice(tabla, clave);
+            }
+            tabla.valores()[indice] = valor;
+            tabla.claves()[indice] = clave;
+            tamano++;
+            return valor;
+        } finally {
+            lock.unlockWrite(sello);
+        }
+    }
+
+    /**
+     * Cantidad de claves guardadas.
+     */
+    int tamano() {
+        long sello = lock.readLock();
+        try {
+            return tamano;
+        } finally {
+            lock.unlockRead(sello);
+        }
+    }
+
+    private void redimensionar() {
+        Tabla anterior = tabla;
+        Tabla nueva = new Tabla(new long[anterior.claves().length * 2], new int[anterior.claves().length * 2]);
+        for (int i = 0; i < anterior.claves().length; i++) {
+            long clave = anterior.claves()[i];
+            if (clave != VACIO) {
+                int indice = indice(nueva, clave);
+                nueva.claves()[indice] = clave;
+                nueva.valores()[indice] = anterior.valores()[i];
+            }
+        }
+        tabla = nueva;
+    }
+
+    /**
+     * Busca sin bloqueo; con una escritura concurrente el resultado puede ser incoherente,
+     * pero el recorrido esta acotado y el llamador lo descarta al validar el sello.
+     */
+    private static int buscar(Tabla tabla, long clave) {
+        long[] claves = tabla.claves();
+        int mascara = claves.length - 1;
+        int indice = dispersar(clave) & mascara;
+        for (int sondeos = 0; sondeos < claves.length; sondeos++) {
+            long actual = claves[indice];
+            if (actual == clave) {
+                return tabla.valores()[indice];
+            }
+            if (actual == VACIO) {
+                return 0;
+            }
+            indice = (indice + 1) & mascara;
+        }
+        return 0;
+    }
+
+    private static int indice(Tabla tabla, long clave) {
+        long[] claves = tabla.claves();
+        int mascara = claves.length - 1;
+        int indice = dispersar(clave) & mascara;
+        while (claves[indice] != VACIO && claves[indice] != clave) {
+            indice = (indice + 1) & mascara;
+        }
+        return indice;
+    }
+
+    private static int dispersar(long clave) {
+        long h = clave * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+}
@@ -0,0 +1,140 @@
+package io.github.jaredmcc4.gtm.security;
+
+import io.github.jaredmcc4.gtm.exception.ServicioSaturadoException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * {@link PasswordEncoder} que ejecuta el codificador delegado (BCrypt) en un pool propio de
+ * tamano fijo con cola acotada, para que una rafaga de logins no ocupe todos los nucleos y
+ * deje sin CPU al resto de la API.
+ * <p>
+ * El hilo de la peticion espera el resultado sin consumir CPU. Si la cola esta llena la
+ * operacion se rechaza de inmediato con {@link ServicioSaturadoException} (503 con
+ * {@code Retry-After}). Publica la espera en cola ({@code gtm.password.espera}), el tiempo
+ * de hash por operacion ({@code gtm.password.hash}), los rechazos
+ * ({@code gtm.password.rechazados}) y la cola actual ({@code gtm.password.cola}).
+ */
+public class PasswordEncoderAcotado implements PasswordEncoder, AutoCloseable {
+
+    private final PasswordEncoder delegado;
+    private final ThreadPoolExecutor executor;
+    private final long retryAfterSegundos;
+    private final Timer espera;
+    private final Timer hashEncode;
+    private final Timer hashMatches;
+    private final Counter rechazados;
+
+    /**
+     * @param delegado codificador real
+     * @param meterRegistry registro de metricas
+     * @param hilos hilos del pool; 0 o menos usa {@link #hilosPorDefecto()}
+     * @param capacidadCola operaciones que pueden esperar en cola
+     * @param retryAfterSegundos segundos sugeridos al cliente cuando se rechaza
+     */
+    public PasswordEncoderAcotado(PasswordEncoder delegado,
+                                  MeterRegistry meterRegistry,
+                                  int hilos,
+                                  int capacidadCola,
+                                  long retryAfterSegundos) {
+        int tamano = hilos > 0 ? hilos : hilosPorDefecto();
+        AtomicInteger secuencia = new AtomicInteger();
+        this.delegado = delegado;
+        this.executor = new ThreadPoolExecutor(tamano, tamano, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(capacidadCola),
+                tarea -> {
+                    Thread hilo = new Thread(tarea, "password-hash-" + secuencia.incrementAndGet());
+                    hilo.setDaemon(true);
+                    return hilo;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+        this.retryAfterSegundos = retryAfterSegundos;
+        this.espera = Timer.builder("gtm.password.espera")
+                .description("Espera en cola antes de calcular un hash de contrasena")
+                .register(meterRegistry);
+        this.hashEncode = Timer.builder("gtm.password.hash")
+                .description("Tiempo de calculo de hash de contrasena")
+                .tag("operacion", "encode")
+                .register(meterRegistry);
+        this.hashMatches = Timer.builder("gtm.password.hash")
+                .description("Tiempo de calculo de hash de contrasena")
+                .tag("operacion", "matches")
+                .register(meterRegistry);
+        this.rechazados = Counter.builder("gtm.password.rechazados")
+                .description("Operaciones de hash rechazadas por cola llena")
+                .register(meterRegistry);
+        Gauge.builder("gtm.password.cola", executor, pool -> pool.getQueue().size())
+                .description("Operaciones de hash en cola")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public String encode(CharSequence rawPassword) {
+        return ejecutar(hashEncode, () -> delegado.encode(rawPassword));
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        return ejecutar(hashMatches, () -> delegado.matches(rawPassword, encodedPassword));
+    }
+
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        return delegado.upgradeEncoding(encodedPassword);
+    }
+
+    /**
+     * Tamano del pool si no se configura: la mitad de los nucleos (al menos uno), para que
+     * una rafaga de hashes deje CPU libre al resto de peticiones.
+     */
+    static int hilosPorDefecto() {
+        return Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+    }
+
+    /**
+     * Detiene el pool al cerrar el contexto.
+     */
+    @Override
+    public void close() {
+        executor.shutdownNow();
+    }
+
+    private <T> T ejecutar(Timer hash, Supplier<T> operacion) {
+        long encolado = System.nanoTime();
+        Future<T> resultado;
+        try {
+            resultado = executor.submit(() -> {
+                espera.record(System.nanoTime() - encolado, TimeUnit.NANOSECONDS);
+                return hash.record(operacion);
+            });
+        } catch (RejectedExecutionException ex) {
+            rechazados.increment();
+            throw new ServicioSaturadoException("Demasiadas solicitudes de autenticacion en curso, intente de nuevo en unos segundos.",
+                    retryAfterSegundos);
+        }
+        try {
+            return resultado.get();
+        } catch (InterruptedException ex) {
+            resultado.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrumpido esperando el hash de contrasena", ex);
+        } catch (ExecutionException ex) {
+            if (ex.getCause() instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            throw new IllegalStateException(ex.getCause());
+        }
+    }
+}
@@ -0,0 +1,247 @@
+package io.github.jaredmcc4.gtm.security;
+
+import io.github.jaredmcc4.gtm.domain.RefreshTokenRevocado;
+import io.github.jaredmcc4.gtm.repository.RefreshTokenRevocadoRepository;
+import io.github.jaredmcc4.gtm.util.JwtUtil;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import javax.crypto.Mac;
+import javax.crypto.SecretKey;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Refresh tokens firmados y autocontenidos (usuario, familia y expiracion) para el modo
+ * {@code app.auth.refresh-token.modo=firmado}.
+ * <p>
+ * Se verifican con una llave HMAC derivada del secreto JWT, distinta de la de los tokens de
+ * acceso, de modo que ninguno de los dos se acepta en lugar del otro. La familia identifica
+ * la sesion iniciada en el login; cerrar sesion inserta la familia en
+ * {@code refresh_tokens_revocados} y cada nodo la incorpora a un conjunto en memoria. El
+ * conjunto se carga completo antes de la primera verificacion; despues cada sondeo relee,
+ * como el transporte de invalidaciones, las filas creadas desde {@code ventana} antes de la
+ * mas reciente ya vista, de modo que una revocacion confirmada tarde se recoge siempre que
+ * su transaccion dure menos que la ventana. Solo guarda familias de tokens sin expirar y su
+ * tamano se publica como {@code gtm.refresh-tokens.revocaciones}.
+ */
+@Slf4j
+@Component
+public class RefreshTokenFirmador {
+
+    private static final String TIPO = "refresh";
+    private static final byte[] CONTEXTO_CLAVE = "gtm-refresh-token".getBytes(StandardCharsets.UTF_8);
+
+    private final JwtUtil jwtUtil;
+    private final RefreshTokenRevocadoRepository repository;
+    private final Duration validez;
+    private final int tamanoLote;
+    private final Duration ventana;
+    private final Map<UUID, Instant> revocadas = new ConcurrentHashMap<>();
+    private volatile SecretKey clave;
+    private volatile boolean cargado;
+    private LocalDateTime ultimaVista;
+
+    public RefreshTokenFirmador(JwtUtil jwtUtil,
+                                RefreshTokenRevocadoRepository repository,
+                                MeterRegistry meterRegistry,
+                                @Value("${app.auth.refresh-token.validez-dias:30}") long validezDias,
+                                @Value("${app.auth.refresh-token.revocaciones-lote:500}") int tamanoLote,
+                                @Value("${app.auth.refresh-token.revocaciones-ventana-ms:60000}") long ventanaMs) {
+        this.jwtUtil = jwtUtil;
+        this.repository = repository;
+        this.validez = Duration.ofDays(validezDias);
+        this.tamanoLote = tamanoLote;
+        this.ventana = Duration.ofMillis(ventanaMs);
+        Gauge.builder("gtm.refresh-tokens.revocaciones", revocadas, Map::size)
+                .description("Familias de refresh tokens firmados revocadas en memoria")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Sesion contenida en un refresh token firmado valido.
+     *
+     * @param usuarioId propietario
+     * @param familia sesion iniciada en el login
+     * @param expira expiracion del token
+     * @param tokenVersion version de tokens del usuario al emitirlo
+     */
+    public record Sesion(Long usuarioId, UUID familia, Instant expira, int tokenVersion) {
+    }
+
+    /**
+     * Emite un refresh token firmado para una sesion nueva del usuario.
+     *
+     * @param usuarioId propietario
+     * @param tokenVersion version vigente de los tokens del usuario
+     * @return token compacto
+     */
+    public String emitir(Long usuarioId, int tokenVersion) {
+        Instant ahora = Instant.now();
+        return Jwts.builder()
+                .subject(usuarioId.toString())
+                .claim("tipo", TIPO)
+                .claim("fam", UUID.randomUUID().toString())
+                .claim(JwtUtil.CLAIM_VERSION, tokenVersion)
+                .issuedAt(Date.from(ahora))
+                .expiration(Date.from(ahora.plus(validez)))
+                .signWith(clave())
+                .compact();
+    }
+
+    /**
+     * Indica si el valor tiene forma de token firmado; los refresh tokens persistidos son UUID.
+     */
+    public boolean esFirmado(String token) {
+        return token != null && token.chars().filter(c -> c == '.').count() == 2;
+    }
+
+    /**
+     * Verifica firma, tipo y expiracion y que la familia no este revocada.
+     *
+     * @param token refresh token presentado
+     * @return sesion del token o vacio si es invalido, expiro o fue revocado
+     */
+    public Optional<Sesion> verificar(String token) {
+        Optional<Sesion> sesion = leer(token);
+        if (sesion.isEmpty()) {
+            return sesion;
+        }
+        if (!cargado) {
+            sincronizar();
+        }
+        return revocadas.containsKey(sesion.get().familia()) ? Optional.empty() : sesion;
+    }
+
+    /**
+     * Revoca la familia del token en este nodo y la registra para el resto.
+     *
+     * @param token refresh token presentado
+     * @return {@code false} si el token no es valido o ya expiro
+     */
+    public boolean revocar(String token) {
+        Optional<Sesion> sesion = leer(token);
+        if (sesion.isEmpty()) {
+            return false;
+        }
+        Sesion actual = sesion.get();
+        if (revocadas.putIfAbsent(actual.familia(), actual.expira()) == null) {
+            repository.save(RefreshTokenRevocado.builder()
+                    .familia(actual.familia().toString())
+                    .usuarioId(actual.usuarioId())
+                    .expiresAt(LocalDateTime.ofInstant(actual.expira(), ZoneId.systemDefault()))
+                    .build());
+        }
+        return true;
+    }
+
+    /**
+     * Incorpora las revocaciones nuevas y olvida las de tokens ya expirados. La primera vez lee
+     * todas las vigentes; despues relee la ventana, y volver a anadir una familia ya conocida
+     * no tiene efecto.
+     *
+     * @return revocaciones leidas
+     */
+    @Scheduled(fixedDelayString = "${app.auth.refresh-token.revocaciones-sondeo-ms:1000}")
+    public synchronized int sincronizar() {
+        Instant ahora = Instant.now();
+        revocadas.values().removeIf(expira -> expira.isBefore(ahora));
+        int leidas = 0;
+        try {
+            LocalDateTime vigentes = LocalDateTime.ofInstant(ahora, ZoneId.systemDefault());
+            LocalDateTime desde = cargado && ultimaVista != null ? ultimaVista.minus(ventana) : null;
+            long despuesDe = 0L;
+            List<RefreshTokenRevocado> filas;
+            do {
+                filas = desde != null
+                        ? repository.findByCreatedAtGreaterThanEqualAndExpiresAtAfterAndIdGreaterThanOrderByIdAsc(
+                                desde, vigentes, despuesDe, Limit.of(tamanoLote))
+                        : repository.findByIdGreaterThanAndExpiresAtAfterOrderByIdAsc(despuesDe, vigentes, Limit.of(tamanoLote));
+                for (RefreshTokenRevocado fila : filas) {
+                    revocadas.put(UUID.fromString(fila.getFamilia()),
+                            fila.getExpiresAt().atZone(ZoneId.systemDefault()).toInstant());
+                    if (fila.getCreatedAt() != null && (ultimaVista == null || fila.getCreatedAt().isAfter(ultimaVista))) {
+                        ultimaVista = fila.getCreatedAt();
+                    }
+                    despuesDe = fila.getId();
+                }
+                leidas += filas.size();
+            } while (filas.size() == tamanoLote);
+            cargado = true;
+        } catch (RuntimeException ex) {
+            log.warn("No se pudieron leer las revocaciones de refresh tokens: {}", ex.getMessage());
+        }
+        return leidas;
+    }
+
+    /**
+     * Elimina las revocaciones de tokens ya expirados.
+     */
+    @Scheduled(cron = "${app.auth.refresh-token.purga-cron:0 */10 * * * *}")
+    public void purgar() {
+        int eliminadas = repository.purgar(LocalDateTime.now());
+        if (eliminadas > 0) {
+            log.debug("Revocaciones de refresh tokens purgadas: {}", eliminadas);
+        }
+    }
+
+    private Optional<Sesion> leer(String token) {
+        if (!esFirmado(token)) {
+            return Optional.empty();
+        }
+        try {
+            Claims claims = Jwts.parser()
+                    .verifyWith(clave())
+                    .build()
+                    .parseSignedClaims(token)
+                    .getPayload();
+            String familia = claims.get("fam", String.class);
+            if (!TIPO.equals(claims.get("tipo", String.class)) || familia == null || claims.getExpiration() == null) {
+                return Optional.empty();
+            }
+            Number version = claims.get(JwtUtil.CLAIM_VERSION, Number.class);
+            return Optional.of(new Sesion(Long.valueOf(claims.getSubject()), UUID.fromString(familia),
+                    claims.getExpiration().toInstant(), version == null ? 0 : version.intValue()));
+        } catch (JwtException | IllegalArgumentException ex) {
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Llave HMAC propia de los refresh tokens: HMAC-SHA256 de un contexto fijo con la llave JWT.
+     */
+    private SecretKey clave() {
+        SecretKey actual = clave;
+        if (actual == null) {
+            try {
+                Mac mac = Mac.getInstance("HmacSHA256");
+                mac.init(new SecretKeySpec(jwtUtil.getClave().getEncoded(), "HmacSHA256"));
+                actual = Keys.hmacShaKeyFor(mac.doFinal(CONTEXTO_CLAVE));
+            } catch (GeneralSecurityException ex) {
+                throw new IllegalStateException("No se pudo derivar la llave de refresh tokens", ex);
+            }
+            clave = actual;
+        }
+        return actual;
+    }
+}
@@ -0,0 +1,130 @@
+package io.github.jaredmcc4.gtm.security;
+
+import java.security.SecureRandom;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Limitador de tasa por clave con memoria fija: varias filas de celdas GCRA (equivalente a un
+ * token bucket) indexadas con hashes con semilla aleatoria, al estilo count-min. Cada celda es
+ * un {@code long} con el instante teorico de la proxima llegada (TAT) y un contador de fallos,
+ * actualizado con CAS sin bloqueos.
+ * <p>
+ * Las colisiones solo retrasan el TAT, por lo que el minimo entre filas nunca es mas
+ * permisivo que el real. Las celdas inactivas durante {@code olvidoMs} vuelven a su estado
+ * inicial sin necesidad de desalojo explicito. La comprobacion y el consumo no son atomicos
+ * entre filas, asi que bajo concurrencia puede admitirse algun intento de mas.
+ */
+final class SketchLimitador {
+
+    private static final int BITS_TAT = 56;
+    private static final long MASCARA_TAT = (1L << BITS_TAT) - 1;
+
+    private final AtomicLongArray celdas;
+    private final long[] semillas;
+    private final int slotsPorFila;
+    private final long intervaloMs;
+    private final long toleranciaMs;
+    private final long olvidoMs;
+    private final int maxFallos;
+
+    /**
+     * @param filas filas del sketch
+     * @param slotsPorFila celdas por fila (se redondea a potencia de dos)
+     * @param capacidad intentos seguidos admitidos con la celda llena
+     * @param recargaPorMinuto intentos que se recuperan por minuto
+     * @param olvidoMs inactividad tras la que se olvidan los fallos
+     * @param maxFallos tope del contador de fallos para el castigo progresivo
+     */
+    SketchLimitador(int filas, int slotsPorFila, int capacidad, int recargaPorMinuto, long olvidoMs, int maxFallos) {
+        this.slotsPorFila = Integer.highestOneBit(Math.max(slotsPorFila - 1, 1)) << 1;
+        this.celdas = new AtomicLongArray(filas * this.slotsPorFila);
+        this.semillas = new SecureRandom().longs(filas).toArray();
+        this.intervaloMs = Math.max(1, 60_000L / Math.max(1, recargaPorMinuto));
+        this.toleranciaMs = intervaloMs * Math.max(0, capacidad - 1);
+        this.olvidoMs = olvidoMs;
+        this.maxFallos = Math.max(1, Math.min(maxFallos, 30));
+    }
+
+    /**
+     * Consume un intento para la clave si queda cupo.
+     *
+     * @param clave clave limitada
+     * @param ahora instante actual en ms
+     * @return 0 si se admite, o ms hasta que se admitira el siguiente intento
+     */
+    long consumir(String clave, long ahora) {
+        int[] indices = indices(clave);
+        long tat = Long.MAX_VALUE;
+        for (int indice : indices) {
+            tat = Math.min(tat, tat(celdas.get(indice), ahora));
+        }
+        long espera = tat - ahora - toleranciaMs;
+        if (espera > 0) {
+            return espera;
+        }
+        for (int indice : indices) {
+            actualizar(indice, ahora, 0, 0);
+        }
+        return 0;
+    }
+
+    /**
+     * Registra un fallo para la clave: el contador de fallos sube y el TAT se retrasa
+     * {@code intervalo * (2^(fallos-1) - 1)}, de forma que cada fallo seguido castiga el doble.
+     *
+     * @param clave clave limitada
+     * @param ahora instante actual en ms
+     */
+    void penalizar(String clave, long ahora) {
+        for (int indice : indices(clave)) {
+            actualizar(indice, ahora, 1, intervaloMs);
+        }
+    }
+
+    /**
+     * Celdas totales del sketch.
+     */
+    int tamano() {
+        return celdas.length();
+    }
+
+    private void actualizar(int indice, long ahora, int incrementoFallos, long unidadCastigo) {
+        while (true) {
+            long actual = celdas.get(indice);
+            int fallos = Math.min(fallos(actual, ahora) + incrementoFallos, maxFallos);
+            long castigo = incrementoFallos > 0 ? unidadCastigo * ((1L << (fallos - 1)) - 1) : 0;
+            long avance = incrementoFallos > 0 ? castigo : intervaloMs;
+            long nuevoTat = Math.max(tat(actual, ahora), ahora) + avance;
+            long nuevo = ((long) fallos << BITS_TAT) | (nuevoTat & MASCARA_TAT);
+            if (celdas.compareAndSet(indice, actual, nuevo)) {
+                return;
+            }
+        }
+    }
+
+    private long tat(long celda, long ahora) {
+        long tat = celda & MASCARA_TAT;
+        return tat + olvidoMs < ahora ? ahora : tat;
+    }
+
+    private int fallos(long celda, long ahora) {
+        long tat = celda & MASCARA_TAT;
+        return tat + olvidoMs < ahora ? 0 : (int) (celda >>> BITS_TAT);
+    }
+
+    private int[] indices(String clave) {
+        int[] indices = new int[semillas.length];
+        for (int fila = 0; fila < semillas.length; fila++) {
+            long h = semillas[fila];
+            for (int i = 0; i < clave.length(); i++) {
+                h = (h ^ clave.charAt(i)) * 0x9E3779B97F4A7C15L;
+                h ^= h >>> 29;
+            }
+            h ^= h >>> 33;
+            h *= 0xFF51AFD7ED558CCDL;
+            h ^= h >>> 33;
+            indices[fila] = fila * slotsPorFila + (int) (h & (slotsPorFila - 1));
+        }
+        return indices;
+    }
+}
@@ -0,0 +1,61 @@
+package io.github.jaredmcc4.gtm.security;
+
+import io.github.jaredmcc4.gtm.util.JwtExtractorUtil;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationToken;
+
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+
+/**
+ * Principal inmutable del usuario autenticado, construido una sola vez por peticion a partir
+ * del JWT ya verificado por el resource server.
+ *
+ * @param usuarioId identificador interno del usuario
+ * @param email correo (subject del token)
+ * @param roles roles del claim {@code roles}, sin prefijo
+ */
+public record UsuarioAutenticado(Long usuarioId, String email, List<String> roles) {
+
+    public UsuarioAutenticado {
+        roles = List.copyOf(roles);
+    }
+
+    /**
+     * Construye el principal leyendo los claims de un JWT ya validado, sin volver a verificar la firma.
+     *
+     * @param jwt token validado
+     * @return principal del usuario
+     * @throws io.github.jaredmcc4.gtm.exception.UnauthorizedException si falta o es invalido el claim {@code usuarioId}
+     */
+    public static UsuarioAutenticado desde(Jwt jwt) {
+        List<String> roles = Optional.ofNullable(jwt.getClaimAsStringList("roles")).orElse(List.of()).stream()
+                .filter(Objects::nonNull)
+                .toList();
+        return new UsuarioAutenticado(JwtExtractorUtil.extractUsuarioId(jwt), jwt.getSubject(), roles);
+    }
+
+    /**
+     * Principal de la peticion actual: el construido por {@link UsuarioAutenticadoConverter} si el
+     * contexto lo contiene, o el derivado de los claims de {@code jwt} o del token del contexto.
+     *
+     * @param jwt token inyectado en el controlador (puede ser null)
+     * @return principal o vacio si no hay JWT disponible
+     */
+    public static Optional<UsuarioAutenticado> actual(Jwt jwt) {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication instanceof UsuarioAutenticadoToken token && (jwt == null || jwt == token.getToken())) {
+            return Optional.of(token.getUsuario());
+        }
+        if (jwt != null) {
+            return Optional.of(desde(jwt));
+        }
+        if (authentication instanceof JwtAuthenticationToken jwtAuth) {
+            return Optional.of(desde(jwtAuth.getToken()));
+        }
+        return Optional.empty();
+    }
+}
@@ -0,0 +1,28 @@
+package io.github.jaredmcc4.gtm.security;
+
+import io.github.jaredmcc4.gtm.exception.UnauthorizedException;
+import org.springframework.core.MethodParameter;
+import org.springframework.web.bind.support.WebDataBinderFactory;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.method.support.HandlerMethodArgumentResolver;
+import org.springframework.web.method.support.ModelAndViewContainer;
+
+/**
+ * Inyecta el {@link UsuarioAutenticado} de la peticion en los parametros de los controladores.
+ * Solo usa el JWT que ya valido el resource server (firma y version de tokens); si no hay
+ * ninguno responde 401 en lugar de leer el header Authorization por su cuenta.
+ */
+public class UsuarioAutenticadoArgumentResolver implements HandlerMethodArgumentResolver {
+
+    @Override
+    public boolean supportsParameter(MethodParameter parameter) {
+        return UsuarioAutenticado.class.equals(parameter.getParameterType());
+    }
+
+    @Override
+    public UsuarioAutenticado resolveArgument(MethodParameter parameter, ModelAndViewContainer mavContainer,
+                                              NativeWebRequest webRequest, WebDataBinderFactory binderFactory) {
+        return UsuarioAutenticado.actual(null)
+                .orElseThrow(() -> new UnauthorizedException("Token JWT requerido."));
+    }
+}
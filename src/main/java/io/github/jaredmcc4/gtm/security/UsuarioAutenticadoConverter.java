@@ -0,0 +1,52 @@
+package io.github.jaredmcc4.gtm.security;
+
+import io.github.jaredmcc4.gtm.exception.UnauthorizedException;
+import io.github.jaredmcc4.gtm.util.JwtExtractorUtil;
+import org.springframework.core.convert.converter.Converter;
+import org.springframework.security.authentication.AbstractAuthenticationToken;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.server.resource.InvalidBearerTokenException;
+
+import java.util.List;
+
+/**
+ * Convierte el JWT verificado en un {@link UsuarioAutenticadoToken}: lee los claims una sola vez
+ * y mapea {@code roles} a autoridades con prefijo {@code ROLE_}. Si recibe {@link VersionesToken},
+ * rechaza los tokens cuya version ({@code tv}) es anterior a la vigente del usuario.
+ */
+public class UsuarioAutenticadoConverter implements Converter<Jwt, AbstractAuthenticationToken> {
+
+    private static final String PREFIJO_ROL = "ROLE_";
+
+    private final VersionesToken versionesToken;
+
+    public UsuarioAutenticadoConverter() {
+        this(null);
+    }
+
+    /**
+     * @param versionesToken versiones vigentes por usuario, o null para no comprobarlas
+     */
+    public UsuarioAutenticadoConverter(VersionesToken versionesToken) {
+        this.versionesToken = versionesToken;
+    }
+
+    @Override
+    public AbstractAuthenticationToken convert(Jwt jwt) {
+        UsuarioAutenticado usuario;
+        try {
+            usuario = UsuarioAutenticado.desde(jwt);
+            if (versionesToken != null && !versionesToken.vigente(usuario.usuarioId(), JwtExtractorUtil.extractTokenVersion(jwt))) {
+                throw new UnauthorizedException("Token revocado");
+            }
+        } catch (UnauthorizedException ex) {
+            throw new InvalidBearerTokenException(ex.getMessage(), ex);
+        }
+        List<GrantedAuthority> authorities = usuario.roles().stream()
+                .map(rol -> (GrantedAuthority) new SimpleGrantedAuthority(PREFIJO_ROL + rol))
+                .toList();
+        return new UsuarioAutenticadoToken(jwt, authorities, usuario);
+    }
+}
@@ -0,0 +1,25 @@
+package io.github.jaredmcc4.gtm.security;
+
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationToken;
+
+import java.util.Collection;
+
+/**
+ * Autenticacion JWT que ademas conserva el {@link UsuarioAutenticado} ya extraido del token.
+ * Sigue exponiendo el {@link Jwt} como principal para no romper {@code @AuthenticationPrincipal Jwt}.
+ */
+public class UsuarioAutenticadoToken extends JwtAuthenticationToken {
+
+    private final UsuarioAutenticado usuario;
+
+    public UsuarioAutenticadoToken(Jwt jwt, Collection<? extends GrantedAuthority> authorities, UsuarioAutenticado usuario) {
+        super(jwt, authorities, usuario.email());
+        this.usuario = usuario;
+    }
+
+    public UsuarioAutenticado getUsuario() {
+        return usuario;
+    }
+}
@@ -0,0 +1,163 @@
+package io.github.jaredmcc4.gtm.security;
+
+import io.github.jaredmcc4.gtm.domain.Usuario;
+import io.github.jaredmcc4.gtm.invalidacion.InvalidacionBus;
+import io.github.jaredmcc4.gtm.repository.UsuarioRepository;
+import io.github.jaredmcc4.gtm.util.TransaccionUtil;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Version vigente de los tokens de cada usuario ({@code usuarios.token_version}) en memoria,
+ * para rechazar en cada peticion, sin consultas, los JWT emitidos antes de cambiar la
+ * contrasena, desactivar al usuario o cerrar todas sus sesiones.
+ * <p>
+ * Solo se guardan los usuarios con version mayor a 0 en un {@link MapaLongInt}. Al subir una
+ * version el nodo la aplica tras el commit y la publica en el {@link InvalidacionBus}; el
+ * resto la relee de la base de datos al recibirla. Ademas se recarga completa al arrancar
+ * ({@link ApplicationReadyEvent}) y cada {@code app.auth.token-version.sincronizacion-ms}, lo
+ * que acota el peor caso si se pierde un aviso; la peticion nunca lanza la recarga. Las
+ * versiones solo crecen, por lo que aplicar un aviso repetido o atrasado es inocuo.
+ * <p>
+ * Mientras la primera carga no haya terminado (arranque o base de datos caida) la version de
+ * cada usuario se lee por id en la propia peticion y un error se propaga: nunca se acepta un
+ * token sin comprobarlo. La carga fallida se reintenta cada
+ * {@code app.auth.token-version.reintento-ms}.
+ */
+@Slf4j
+@Component
+public class VersionesToken {
+
+    /**
+     * Nombre en el {@link InvalidacionBus}.
+     */
+    public static final String CACHE = "token-version";
+
+    private final UsuarioRepository usuarioRepository;
+    private final InvalidacionBus invalidacionBus;
+    private final int tamanoLote;
+    private final MapaLongInt versiones = new MapaLongInt();
+    private final Counter rechazados;
+    private volatile boolean cargado;
+
+    public VersionesToken(UsuarioRepository usuarioRepository,
+                          InvalidacionBus invalidacionBus,
+                          MeterRegistry meterRegistry,
+                          @Value("${app.auth.token-version.lote:1000}") int tamanoLote) {
+        this.usuarioRepository = usuarioRepository;
+        this.invalidacionBus = invalidacionBus;
+        this.tamanoLote = tamanoLote;
+        this.rechazados = Counter.builder("gtm.auth.token-version.rechazados")
+                .description("JWT rechazados por version de tokens antigua")
+                .register(meterRegistry);
+        Gauge.builder("gtm.auth.token-version.usuarios", versiones, MapaLongInt::tamano)
+                .description("Usuarios con version de tokens en memoria")
+                .register(meterRegistry);
+        invalidacionBus.registrar(CACHE, this::recargar);
+    }
+
+    /**
+     * Version vigente de los tokens del usuario (0 si nunca se subio).
+     *
+     * @param usuarioId id del usuario
+     * @return version vigente
+     */
+    public int actual(Long usuarioId) {
+        if (!cargado) {
+            recargar(usuarioId);
+        }
+        return versiones.obtener(usuarioId);
+    }
+
+    /**
+     * Indica si un token con la version dada sigue vigente; cuenta los rechazos.
+     *
+     * @param usuarioId id del usuario
+     * @param versionToken version del claim {@code tv}
+     * @return {@code false} si el token es anterior a la version vigente
+     */
+    public boolean vigente(Long usuarioId, int versionToken) {
+        if (versionToken >= actual(usuarioId)) {
+            return true;
+        }
+        rechazados.increment();
+        return false;
+    }
+
+    /**
+     * Sube la version de tokens del usuario gestionado; el llamador guarda la entidad. La
+     * memoria local se actualiza al confirmar la transaccion y el resto de nodos recibe el aviso.
+     *
+     * @param usuario entidad gestionada
+     * @return nueva version
+     */
+    public int incrementar(Usuario usuario) {
+        int nueva = Math.max(usuario.getTokenVersion(), actual(usuario.getId())) + 1;
+        usuario.setTokenVersion(nueva);
+        Long usuarioId = usuario.getId();
+        TransaccionUtil.despuesDelCommit(() -> versiones.subir(usuarioId, nueva));
+        invalidacionBus.publicar(CACHE, usuarioId);
+        return nueva;
+    }
+
+    /**
+     * Carga las versiones al terminar el arranque, antes de depender de la sincronizacion periodica.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void cargar() {
+        sincronizar();
+    }
+
+    /**
+     * Reintenta la carga completa mientras no haya terminado ninguna.
+     */
+    @Scheduled(initialDelayString = "${app.auth.token-version.reintento-ms:5000}",
+            fixedDelayString = "${app.auth.token-version.reintento-ms:5000}")
+    public void reintentarCarga() {
+        if (!cargado) {
+            sincronizar();
+        }
+    }
+
+    /**
+     * Recarga todas las versiones mayores a 0 por lotes de id.
+     *
+     * @return usuarios leidos
+     */
+    @Scheduled(fixedDelayString = "${app.auth.token-version.sincronizacion-ms:300000}")
+    public synchronized int sincronizar() {
+        int leidos = 0;
+        try {
+            long cursor = 0;
+            List<UsuarioRepository.VersionToken> filas;
+            do {
+                filas = usuarioRepository.findVersionesToken(cursor, Limit.of(tamanoLote));
+                for (UsuarioRepository.VersionToken fila : filas) {
+                    versiones.subir(fila.getId(), fila.getTokenVersion());
+                    cursor = fila.getId();
+                }
+                leidos += filas.size();
+            } while (filas.size() == tamanoLote);
+            cargado = true;
+        } catch (RuntimeException ex) {
+            log.warn("No se pudieron leer las versiones de tokens: {}", ex.getMessage());
+        }
+        return leidos;
+    }
+
+    private void recargar(Long usuarioId) {
+        usuarioRepository.findTokenVersionById(usuarioId)
+                .filter(version -> version > 0)
+                .ifPresent(version -> versiones.subir(usuarioId, version));
+    }
+}
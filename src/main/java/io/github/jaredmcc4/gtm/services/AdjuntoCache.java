@@ -0,0 +1,189 @@
+package io.github.jaredmcc4.gtm.services;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.github.jaredmcc4.gtm.invalidacion.InvalidacionBus;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.AbstractResource;
+import org.springframework.core.io.Resource;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Optional;
+
+/**
+ * Cache LRU fuera del heap con el contenido de los adjuntos pequenos mas descargados.
+ * <p>
+ * Cada entrada es un {@link ByteBuffer} directo con el archivo completo, asociado a la
+ * version de contenido del adjunto (su ruta en disco, unica por subida); una version
+ * distinta se trata como fallo. El presupuesto total se mide en bytes y solo se cachean
+ * archivos por debajo del umbral. Los aciertos se sirven como vistas de solo lectura
+ * del buffer, sin leer disco ni copiar el archivo al heap. La memoria nativa de una
+ * entrada desalojada se libera cuando el GC recoge su buffer.
+ */
+@Slf4j
+@Component
+public class AdjuntoCache {
+
+    private static final String CACHE = "adjuntos";
+
+    private final Cache<Long, Entrada> contenidos;
+    private final InvalidacionBus invalidacionBus;
+    private final boolean habilitado;
+    private final long umbralBytes;
+
+    public AdjuntoCache(MeterRegistry meterRegistry,
+                        InvalidacionBus invalidacionBus,
+                        @Value("${app.adjuntos.cache.enabled:true}") boolean habilitado,
+                        @Value("${app.adjuntos.cache.umbral-bytes:262144}") long umbralBytes,
+                        @Value("${app.adjuntos.cache.max-bytes:67108864}") long maxBytes) {
+        this.contenidos = Caffeine.newBuilder()
+                .maximumWeight(maxBytes)
+                .weigher((Long id, Entrada entrada) -> entrada.contenido().capacity())
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, contenidos, CACHE);
+        this.invalidacionBus = invalidacionBus;
+        this.habilitado = habilitado;
+        this.umbralBytes = umbralBytes;
+        invalidacionBus.registrar(CACHE, contenidos::invalidate);
+    }
+
+    private record Entrada(String version, ByteBuffer contenido) {
+    }
+
+    /**
+     * Contenido del adjunto desde memoria, cargandolo del disco si es elegible y no esta en cache.
+     *
+     * @param adjuntoId identificador del adjunto
+     * @param version version de contenido (ruta en disco)
+     * @param sizeBytes tamano registrado, para descartar archivos grandes sin abrirlos
+     * @return recurso en memoria o vacio si el archivo no es cacheable o no se pudo leer
+     */
+    public Optional<Resource> obtener(Long adjuntoId, String version, Long sizeBytes) {
+        if (!habilitado || sizeBytes == null || sizeBytes > umbralBytes) {
+            return Optional.empty();
+        }
+        Entrada entrada = contenidos.getIfPresent(adjuntoId);
+        if (entrada == null || !entrada.version().equals(version)) {
+            entrada = cargar(Path.of(version));
+            if (entrada == null) {
+                return Optional.empty();
+            }
+            contenidos.put(adjuntoId, entrada);
+        }
+        return Optional.of(new BufferResource(entrada.contenido().asReadOnlyBuffer(),
+                Path.of(version).getFileName().toString()));
+    }
+
+    /**
+     * Descarta el contenido del adjunto en este nodo y en el resto.
+     */
+    public void invalidar(Long adjuntoId) {
+        contenidos.invalidate(adjuntoId);
+        invalidacionBus.publicar(CACHE, adjuntoId);
+    }
+
+    /**
+     * Bytes fuera del heap ocupados por las entradas actuales.
+     */
+    public long bytesEnUso() {
+        return contenidos.asMap().values().stream().mapToLong(entrada -> entrada.contenido().capacity()).sum();
+    }
+
+    private Entrada cargar(Path ruta) {
+        try (FileChannel canal = FileChannel.open(ruta, StandardOpenOption.READ)) {
+            long tamano = canal.size();
+            if (tamano > umbralBytes) {
+                return null;
+            }
+            ByteBuffer buffer = ByteBuffer.allocateDirect((int) tamano);
+            while (buffer.hasRemaining() && canal.read(buffer) >= 0) {
+                // lectura completa del archivo
+            }
+            buffer.flip();
+            return new Entrada(ruta.toString(), buffer);
+        } catch (IOException e) {
+            log.debug("No se pudo cachear el adjunto {}: {}", ruta, e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Recurso de solo lectura sobre una vista del buffer; cada lectura usa su propia vista.
+     */
+    private static final class BufferResource extends AbstractResource {
+
+        private final ByteBuffer contenido;
+        private final String nombre;
+
+        private BufferResource(ByteBuffer contenido, String nombre) {
+            this.contenido = contenido;
+            this.nombre = nombre;
+        }
+
+        @Override
+        public boolean exists() {
+            return true;
+        }
+
+        @Override
+        public long contentLength() {
+            return contenido.remaining();
+        }
+
+        @Override
+        public String getFilename() {
+            return nombre;
+        }
+
+        @Override
+        public String getDescription() {
+            return "Adjunto en memoria [" + nombre + "]";
+        }
+
+        @Override
+        public ReadableByteChannel readableChannel() {
+            ByteBuffer vista = contenido.duplicate();
+            return new ReadableByteChannel() {
+                private boolean abierto = true;
+
+                @Override
+                public int read(ByteBuffer destino) {
+                    if (!vista.hasRemaining()) {
+                        return -1;
+                    }
+                    int n = Math.min(destino.remaining(), vista.remaining());
+                    destino.put(vista.slice(vista.position(), n));
+                    vista.position(vista.position() + n);
+                    return n;
+                }
+
+                @Override
+                public boolean isOpen() {
+                    return abierto;
+                }
+
+                @Override
+                public void close() {
+                    abierto = false;
+                }
+            };
+        }
+
+        @Override
+        public InputStream getInputStream() {
+            return Channels.newInputStream(readableChannel());
+        }
+    }
+}
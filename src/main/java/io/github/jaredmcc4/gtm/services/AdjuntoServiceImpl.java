@@ -1,10 +1,12 @@
 package io.github.jaredmcc4.gtm.services;
 
 import io.github.jaredmcc4.gtm.domain.Adjunto;
+import io.github.jaredmcc4.gtm.domain.OutboxEvento;
 import io.github.jaredmcc4.gtm.domain.Tarea;
 import io.github.jaredmcc4.gtm.exception.ResourceNotFoundException;
 import io.github.jaredmcc4.gtm.exception.UnauthorizedException;
 import io.github.jaredmcc4.gtm.repository.AdjuntoRepository;
+import io.github.jaredmcc4.gtm.repository.TareaRepository;
 import io.github.jaredmcc4.gtm.validator.FileValidator;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -22,6 +24,8 @@ import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.nio.file.StandardCopyOption;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
 import java.util.UUID;
 
 /**
@@ -36,6 +40,9 @@ public class AdjuntoServiceImpl implements AdjuntoService {
 
     private final AdjuntoRepository adjuntoRepository;
     private final TareaService tareaService;
+    private final TareaRepository tareaRepository;
+    private final OutboxService outboxService;
+    private final AdjuntoCache adjuntoCache;
 
     @Value("${app.upload.dir}")
     private String uploadDir;
@@ -68,7 +75,11 @@ public class AdjuntoServiceImpl implements AdjuntoService {
                     .path(rutaDestino.toString())
                     .build();
 
-            return adjuntoRepository.save(adjunto);
+            Adjunto guardado = adjuntoRepository.save(adjunto);
+            tareaRepository.ajustarContadoresAdjuntos(tarea.getId(), 1, file.getSize());
+            outboxService.registrar(usuarioId, OutboxEvento.Agregado.ADJUNTO, guardado.getId(), OutboxEvento.Tipo.CREADO,
+                    Map.of("tareaId", tarea.getId()));
+            return guardado;
 
         } catch (IOException e) {
             log.error("Error al guardar el archivo: {}", e.getMessage());
@@ -98,7 +109,12 @@ public class AdjuntoServiceImpl implements AdjuntoService {
         try {
             Path ruta = Paths.get(adjunto.getPath());
             Files.deleteIfExists(ruta);
+            adjuntoCache.invalidar(adjuntoId);
             adjuntoRepository.delete(adjunto);
+            long bytes = adjunto.getSizeBytes() != null ? adjunto.getSizeBytes() : 0L;
+            tareaRepository.ajustarContadoresAdjuntos(adjunto.getTarea().getId(), -1, -bytes);
+            outboxService.registrar(usuarioId, OutboxEvento.Agregado.ADJUNTO, adjuntoId, OutboxEvento.Tipo.ELIMINADO,
+                    Map.of("tareaId", adjunto.getTarea().getId()));
         } catch (IOException e) {
             log.error("Error al eliminar el archivo fisico: {}", e.getMessage());
             throw new RuntimeException("Error al eliminar el archivo: " + e.getMessage());
@@ -107,6 +123,7 @@ public class AdjuntoServiceImpl implements AdjuntoService {
 
     /**
      * Devuelve el recurso binario del adjunto, validando que pertenezca al usuario.
+     * Los archivos pequenos se sirven desde {@link AdjuntoCache} cuando es posible.
      */
     @Override
     public Resource descargarAdjunto(Long adjuntoId, Long usuarioId) {
@@ -114,6 +131,11 @@ public class AdjuntoServiceImpl implements AdjuntoService {
 
         Adjunto adjunto = obtenerAdjuntoPorId(adjuntoId, usuarioId);
 
+        Optional<Resource> enMemoria = adjuntoCache.obtener(adjuntoId, adjunto.getPath(), adjunto.getSizeBytes());
+        if (enMemoria.isPresent()) {
+            return enMemoria.get();
+        }
+
         try {
             Path ruta = Paths.get(adjunto.getPath());
             Resource resource = new UrlResource(ruta.toUri());
@@ -11,12 +11,13 @@ import io.github.jaredmcc4.gtm.dto.auth.RegistroRequest;
 public interface AuthService {
 
     /**
-     * Crea un nuevo usuario con los datos suministrados.
+     * Verifica el captcha y crea un nuevo usuario con los datos suministrados.
      *
      * @param registroRequest datos de registro
+     * @param clientIp IP del cliente para la verificacion del captcha
      * @return usuario persistido
      */
-    Usuario registrarUsuario(RegistroRequest registroRequest);
+    Usuario registrarUsuario(RegistroRequest registroRequest, String clientIp);
 
     /**
      * Autentica credenciales y genera JWT + refresh token.
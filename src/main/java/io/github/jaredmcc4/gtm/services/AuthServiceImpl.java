@@ -11,20 +11,30 @@ import io.github.jaredmcc4.gtm.exception.UnauthorizedException;
 import io.github.jaredmcc4.gtm.repository.RefreshTokenRepository;
 import io.github.jaredmcc4.gtm.repository.RolRepository;
 import io.github.jaredmcc4.gtm.repository.UsuarioRepository;
+import io.github.jaredmcc4.gtm.security.RefreshTokenFirmador;
+import io.github.jaredmcc4.gtm.security.VersionesToken;
 import io.github.jaredmcc4.gtm.util.JwtUtil;
+import io.github.jaredmcc4.gtm.util.TokenHashUtil;
+import jakarta.annotation.PreDestroy;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.authentication.BadCredentialsException;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Optional;
 import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.stream.Collectors;
 
 /**
@@ -37,28 +47,64 @@ import java.util.stream.Collectors;
 @Transactional(readOnly = true)
 public class AuthServiceImpl implements AuthService {
 
+    private static final String MODO_FIRMADO = "firmado";
+
     private final UsuarioRepository usuarioRepository;
     private final RolRepository rolRepository;
     private final RefreshTokenRepository refreshTokenRepository;
+    private final RefreshTokenService refreshTokenService;
+    private final RefreshTokenFirmador refreshTokenFirmador;
+    private final UsuarioCache usuarioCache;
     private final PasswordEncoder passwordEncoder;
     private final JwtUtil jwtUtil;
+    private final TurnstileService turnstileService;
+    private final VersionesToken versionesToken;
+    private final ExecutorService etapasRegistro = Executors.newVirtualThreadPerTaskExecutor();
 
     @Value("${jwt.expiration}")
     private Long jwtExpiration;
 
+    @Value("${app.auth.refresh-token.doble-escritura:false}")
+    private boolean dobleEscritura;
+
+    @Value("${app.auth.refresh-token.modo:persistido}")
+    private String modoRefreshToken;
+
     /**
-     * Registra un nuevo usuario con rol USER y contraseña cifrada.
+     * Registra un nuevo usuario con rol USER y contraseña cifrada. La comprobacion del email y
+     * el hash de la contraseña corren en hilos virtuales mientras se verifica el captcha, asi la
+     * latencia se acerca a la mayor de las etapas. Si el captcha o el email fallan se cancela el
+     * hash, que ademas libera su lugar en la cola acotada del pool de hashing; esa cola responde
+     * 503 cuando se llena, lo que acota el trabajo de captchas invalidos. Un email repetido solo
+     * se informa cuando el captcha ya es valido, para no revelar cuentas sin resolverlo.
      *
      * @param registroRequest datos de registro
+     * @param clientIp IP del cliente para la verificacion del captcha
      * @return usuario creado
      */
     @Override
-    @Transactional
-    public Usuario registrarUsuario(RegistroRequest registroRequest) {
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public Usuario registrarUsuario(RegistroRequest registroRequest, String clientIp) {
         log.info("Registrando usuario nuevo con el email: {}", registroRequest.getEmail());
 
-        if (usuarioRepository.existsByEmail(registroRequest.getEmail())) {
-            throw new IllegalArgumentException("Ya existe un usuario con el email proporcionado.");
+        Future<Boolean> emailExiste = etapasRegistro.submit(() -> usuarioRepository.existsByEmail(registroRequest.getEmail()));
+        Future<String> hash = null;
+        String contrasenaHash;
+        try {
+            hash = etapasRegistro.submit(() -> passwordEncoder.encode(registroRequest.getPassword()));
+            turnstileService.verificarToken(registroRequest.getTurnstileToken(), clientIp);
+            if (Boolean.TRUE.equals(resultadoEtapa(emailExiste))) {
+                throw new IllegalArgumentException("Ya existe un usuario con el email proporcionado.");
+            }
+            contrasenaHash = resultadoEtapa(hash);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Registro interrumpido", ex);
+        } finally {
+            emailExiste.cancel(true);
+            if (hash != null) {
+                hash.cancel(true);
+            }
         }
 
         Rol rol = rolRepository.findByNombreRol("USER").orElseThrow(() -> new ResourceNotFoundException("El rol de usuario no existe."));
@@ -68,7 +114,7 @@ public class AuthServiceImpl implements AuthService {
 
         Usuario usuario = Usuario.builder()
                 .email(registroRequest.getEmail())
-                .contrasenaHash(passwordEncoder.encode(registroRequest.getPassword()))
+                .contrasenaHash(contrasenaHash)
                 .nombreUsuario(registroRequest.getNombreUsuario())
                 .zonaHoraria(registroRequest.getZonaHoraria())
                 .activo(true)
@@ -78,7 +124,9 @@ public class AuthServiceImpl implements AuthService {
     }
 
     /**
-     * Autentica credenciales, valida usuario activo y genera JWT + refresh token.
+     * Autentica credenciales, valida usuario activo y genera JWT + refresh token. Si el hash
+     * guardado no usa el formato o costo actual se recalcula con la contrasena recibida. Las
+     * cuentas creadas por login social no tienen contrasena y se rechazan sin verificarla.
      *
      * @param loginRequest email y contraseña
      * @return respuesta con tokens y expiraciones
@@ -91,7 +139,7 @@ public class AuthServiceImpl implements AuthService {
         Usuario usuario = usuarioRepository.findByEmail(loginRequest.getEmail())
                 .orElseThrow(() -> new BadCredentialsException("Credenciales inválidas."));
 
-        if (!passwordEncoder.matches(loginRequest.getPassword(), usuario.getContrasenaHash())) {
+        if (!usuario.tieneContrasena() || !passwordEncoder.matches(loginRequest.getPassword(), usuario.getContrasenaHash())) {
             throw new BadCredentialsException("Credenciales inválidas.");
         }
 
@@ -99,37 +147,35 @@ public class AuthServiceImpl implements AuthService {
             throw new BadCredentialsException("El usuario no está activo.");
         }
 
+        actualizarHashSiCorresponde(usuario, loginRequest.getPassword());
         return emitirTokensParaUsuario(usuario);
     }
 
     /**
-     * Valida un refresh token y emite un nuevo JWT manteniendo el refresh.
+     * Valida un refresh token y emite un nuevo JWT manteniendo el refresh. Los tokens firmados
+     * se verifican sin transaccion ni consultas salvo la carga de roles si no estan en cache;
+     * los persistidos se buscan en {@code refresh_tokens}.
      *
      * @param refreshToken token de refresco actual
      * @return nuevos datos de autentificacion
      */
     @Override
-    @Transactional
+    @Transactional(propagation = Propagation.SUPPORTS)
     public JwtResponse refrescarToken(String refreshToken) {
         log.info("Refrescando el token.");
 
-        RefreshToken token = refreshTokenRepository.findByToken(refreshToken)
+        if (refreshTokenFirmador.esFirmado(refreshToken)) {
+            return refrescarTokenFirmado(refreshToken);
+        }
+
+        RefreshToken token = buscarRefreshToken(refreshToken, true)
                 .orElseThrow(() -> new ResourceNotFoundException("El refresh token es inválido."));
 
         if (token.getRevoked() || token.getExpiresAt().isBefore(LocalDateTime.now())) {
             throw new UnauthorizedException("El refresh token ha sido revocado o expirado.");
         }
 
-        Usuario usuario = token.getUsuario();
-        List<String> roles = usuario.getRoles().stream().map(Rol::getNombreRol).collect(Collectors.toList());
-        String jwtTokenGenerado = jwtUtil.generarToken(usuario.getEmail(), usuario.getId(), roles);
-
-        return JwtResponse.builder()
-                .jwtToken(jwtTokenGenerado)
-                .type("Bearer")
-                .expiresIn(jwtExpiration)
-                .refreshToken(refreshToken)
-                .build();
+        return emitirAcceso(token.getUsuario().getId(), refreshToken);
     }
 
     /**
@@ -142,7 +188,14 @@ public class AuthServiceImpl implements AuthService {
     public void cerrarSesion(String refreshToken) {
         log.info("Cerrando sesión");
 
-        RefreshToken token = refreshTokenRepository.findByToken(refreshToken)
+        if (refreshTokenFirmador.esFirmado(refreshToken)) {
+            if (!refreshTokenFirmador.revocar(refreshToken)) {
+                throw new ResourceNotFoundException("Refresh token no encontrado.");
+            }
+            return;
+        }
+
+        RefreshToken token = buscarRefreshToken(refreshToken, false)
                 .orElseThrow(() -> new ResourceNotFoundException("Refresh token no encontrado."));
 
         token.setRevoked(true);
@@ -174,8 +227,11 @@ public class AuthServiceImpl implements AuthService {
     public JwtResponse emitirTokensParaUsuario(Usuario usuario) {
         List<String> roles = usuario.getRoles().stream().map(Rol::getNombreRol).collect(Collectors.toList());
 
-        String jwtToken = jwtUtil.generarToken(usuario.getEmail(), usuario.getId(), roles);
-        String refreshToken = crearRefreshToken(usuario);
+        int tokenVersion = versionToken(usuario);
+        String jwtToken = jwtUtil.generarToken(usuario.getEmail(), usuario.getId(), roles, tokenVersion);
+        String refreshToken = MODO_FIRMADO.equals(modoRefreshToken)
+                ? refreshTokenFirmador.emitir(usuario.getId(), tokenVersion)
+                : crearRefreshToken(usuario);
 
         return JwtResponse.builder()
                 .jwtToken(jwtToken)
@@ -186,7 +242,95 @@ public class AuthServiceImpl implements AuthService {
     }
 
     /**
-     * Genera y persiste un refresh token con vigencia de 30 días para el usuario.
+     * Detiene el executor de etapas del registro al cerrar el contexto.
+     */
+    @PreDestroy
+    public void cerrar() {
+        etapasRegistro.shutdownNow();
+    }
+
+    /**
+     * Resultado de una etapa del registro, relanzando su excepcion original.
+     */
+    private static <T> T resultadoEtapa(Future<T> etapa) throws InterruptedException {
+        try {
+            return etapa.get();
+        } catch (ExecutionException ex) {
+            if (ex.getCause() instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            throw new IllegalStateException(ex.getCause());
+        }
+    }
+
+    /**
+     * Recalcula el hash de la contrasena si el codificador lo pide. Un fallo (por ejemplo el
+     * pool de hashing saturado) no impide el login; se reintenta en el siguiente.
+     */
+    private void actualizarHashSiCorresponde(Usuario usuario, String password) {
+        if (!passwordEncoder.upgradeEncoding(usuario.getContrasenaHash())) {
+            return;
+        }
+        try {
+            usuario.setContrasenaHash(passwordEncoder.encode(password));
+            usuarioRepository.save(usuario);
+            log.info("Hash de contraseña actualizado para el usuario {}", usuario.getId());
+        } catch (RuntimeException ex) {
+            log.warn("No se pudo actualizar el hash de contraseña del usuario {}: {}", usuario.getId(), ex.getMessage());
+        }
+    }
+
+    /**
+     * Verifica un refresh token firmado contra su firma, las revocaciones y la version de
+     * tokens del usuario en memoria.
+     *
+     * @param refreshToken token firmado presentado
+     * @return nuevo JWT con el mismo refresh token
+     */
+    private JwtResponse refrescarTokenFirmado(String refreshToken) {
+        RefreshTokenFirmador.Sesion sesion = refreshTokenFirmador.verificar(refreshToken)
+                .filter(valida -> versionesToken.vigente(valida.usuarioId(), valida.tokenVersion()))
+                .orElseThrow(() -> new UnauthorizedException("El refresh token es inválido, ha sido revocado o expiró."));
+
+        return emitirAcceso(sesion.usuarioId(), refreshToken);
+    }
+
+    /**
+     * Emite un JWT para el usuario manteniendo el refresh token; el usuario y sus roles salen
+     * de {@link UsuarioCache}, que solo consulta la base de datos si no los tiene.
+     *
+     * @param usuarioId propietario del refresh token
+     * @param refreshToken refresh token presentado
+     * @return nuevo JWT con el mismo refresh token
+     */
+    private JwtResponse emitirAcceso(Long usuarioId, String refreshToken) {
+        Usuario usuario = usuarioCache.obtener(usuarioId, id -> usuarioRepository.findByIdWithRoles(id)
+                .orElseThrow(() -> new UnauthorizedException("El refresh token es inválido.")));
+        if (!usuario.isActivo()) {
+            throw new UnauthorizedException("El usuario no está activo.");
+        }
+        List<String> roles = usuario.getRoles().stream().map(Rol::getNombreRol).collect(Collectors.toList());
+
+        return JwtResponse.builder()
+                .jwtToken(jwtUtil.generarToken(usuario.getEmail(), usuario.getId(), roles, versionToken(usuario)))
+                .type("Bearer")
+                .expiresIn(jwtExpiration)
+                .refreshToken(refreshToken)
+                .build();
+    }
+
+    /**
+     * Version de tokens con la que emitir: la mayor entre la leida con el usuario y la
+     * conocida en memoria, por si el usuario viene de una cache anterior al ultimo aumento.
+     */
+    private int versionToken(Usuario usuario) {
+        return Math.max(usuario.getTokenVersion(), versionesToken.actual(usuario.getId()));
+    }
+
+    /**
+     * Genera y persiste un refresh token con vigencia de 30 días para el usuario. Se guarda
+     * el hash y, solo con doble escritura activa, tambien el valor para nodos sin {@code V10};
+     * las sesiones activas que excedan el maximo se revocan de la mas antigua a la mas nueva.
      *
      * @param usuario propietario
      * @return cadena del refresh token
@@ -196,12 +340,40 @@ public class AuthServiceImpl implements AuthService {
 
         RefreshToken refreshToken = RefreshToken.builder()
                 .usuario(usuario)
-                .token(token)
+                .tokenHash(TokenHashUtil.sha256(token))
+                .token(dobleEscritura ? token : null)
                 .expiresAt(LocalDateTime.now().plusDays(30))
                 .revoked(false)
                 .build();
 
         refreshTokenRepository.save(refreshToken);
+        refreshTokenService.limitarSesionesActivas(usuario.getId());
         return token;
     }
+
+    /**
+     * Busca un refresh token por hash y, si no existe, por su valor en texto plano (filas
+     * anteriores a {@code V10}); en ese caso le asigna el hash.
+     *
+     * @param refreshToken valor presentado por el cliente
+     * @param guardar guarda el hash asignado; sin transaccion en curso no se persistiria solo
+     * @return token encontrado o vacio
+     */
+    private Optional<RefreshToken> buscarRefreshToken(String refreshToken, boolean guardar) {
+        byte[] hash = TokenHashUtil.sha256(refreshToken);
+        Optional<RefreshToken> porHash = refreshTokenRepository.findByTokenHash(hash);
+        if (porHash.isPresent()) {
+            return porHash;
+        }
+        return refreshTokenRepository.findByToken(refreshToken).map(legado -> {
+            legado.setTokenHash(hash);
+            if (!dobleEscritura) {
+                legado.setToken(null);
+            }
+            if (guardar) {
+                refreshTokenRepository.save(legado);
+            }
+            return legado;
+        });
+    }
 }
@@ -0,0 +1,76 @@
+package io.github.jaredmcc4.gtm.services;
+
+import io.github.jaredmcc4.gtm.repository.BloqueoProgramadoRepository;
+import io.github.jaredmcc4.gtm.repository.TareaRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Job que recalcula los contadores denormalizados de las tareas (subtareas y adjuntos)
+ * por rangos de id, corrigiendo cualquier desviacion respecto a las tablas hijas.
+ * <p>
+ * El cron se dispara en todos los nodos, pero solo el que reclama el lease
+ * {@value #BLOQUEO} en {@code bloqueos_programados} recorre las tareas; el lease se
+ * renueva en cada lote y, si el nodo cae, vence para la siguiente pasada.
+ */
+@Slf4j
+@Component
+public class ContadoresTareaReconciliador {
+
+    static final String BLOQUEO = "contadores-tareas";
+
+    private final TareaRepository tareaRepository;
+    private final BloqueoProgramadoRepository bloqueoRepository;
+    private final int tamanoLote;
+    private final Duration lease;
+    private final String nodo = UUID.randomUUID().toString();
+
+    public ContadoresTareaReconciliador(TareaRepository tareaRepository,
+                                        BloqueoProgramadoRepository bloqueoRepository,
+                                        @Value("${app.contadores.reconciliacion-lote:1000}") int tamanoLote,
+                                        @Value("${app.contadores.reconciliacion-lease-segundos:300}") long leaseSegundos) {
+        this.tareaRepository = tareaRepository;
+        this.bloqueoRepository = bloqueoRepository;
+        this.tamanoLote = tamanoLote;
+        this.lease = Duration.ofSeconds(leaseSegundos);
+    }
+
+    /**
+     * Recorre todas las tareas en lotes de ids, cada lote en su propia transaccion.
+     *
+     * @return filas actualizadas (0 si otro nodo tiene el lease)
+     */
+    @Scheduled(cron = "${app.contadores.reconciliacion-cron:0 30 3 * * *}")
+    public long reconciliar() {
+        if (!reclamar()) {
+            log.debug("Reconciliacion de contadores en ejecucion en otro nodo");
+            return 0;
+        }
+        long actualizadas = 0;
+        try {
+            long maxId = tareaRepository.findMaxId();
+            for (long desde = 1; desde <= maxId; desde += tamanoLote) {
+                if (desde > 1 && !reclamar()) {
+                    log.warn("Reconciliacion de contadores perdio el lease en id {}", desde);
+                    return actualizadas;
+                }
+                actualizadas += tareaRepository.reconciliarContadores(desde, desde + tamanoLote - 1);
+            }
+        } finally {
+            bloqueoRepository.liberar(BLOQUEO, nodo);
+        }
+        log.info("Reconciliacion de contadores de tareas completada: {} filas", actualizadas);
+        return actualizadas;
+    }
+
+    private boolean reclamar() {
+        LocalDateTime ahora = LocalDateTime.now();
+        return bloqueoRepository.reclamar(BLOQUEO, nodo, ahora, ahora.plus(lease)) == 1;
+    }
+}
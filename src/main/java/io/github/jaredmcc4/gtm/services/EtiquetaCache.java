@@ -0,0 +1,126 @@
+package io.github.jaredmcc4.gtm.services;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.github.jaredmcc4.gtm.domain.Etiqueta;
+import io.github.jaredmcc4.gtm.domain.Usuario;
+import io.github.jaredmcc4.gtm.invalidacion.InvalidacionBus;
+import io.github.jaredmcc4.gtm.util.TransaccionUtil;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.text.Collator;
+import java.time.Duration;
+import java.util.List;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.function.Function;
+
+/**
+ * Cache en memoria del conjunto de etiquetas de cada usuario (id, nombre, color).
+ * <p>
+ * Se carga completa al listar y responde desde memoria las busquedas por id y las
+ * comprobaciones de nombre mientras esta caliente; si no lo esta, devuelve vacio y el
+ * servicio consulta la base de datos. Las mutaciones invalidan el conjunto del usuario
+ * en la misma transaccion y de nuevo tras el commit, y la publican en el
+ * {@link InvalidacionBus} para el resto de nodos.
+ */
+@Component
+public class EtiquetaCache {
+
+    private static final String CACHE = "etiquetas";
+
+    /**
+     * Igualdad primaria (sin mayusculas ni acentos), como la intercalacion utf8mb4_unicode_ci
+     * que aplica la restriccion unica de {@code etiquetas}.
+     */
+    private static final Collator INTERCALACION = Collator.getInstance(Locale.ROOT);
+
+    static {
+        INTERCALACION.setStrength(Collator.PRIMARY);
+    }
+
+    private final Cache<Long, List<EtiquetaSnapshot>> etiquetas;
+    private final InvalidacionBus invalidacionBus;
+
+    public EtiquetaCache(MeterRegistry meterRegistry,
+                         InvalidacionBus invalidacionBus,
+                         @Value("${app.etiquetas.cache.max-usuarios:10000}") long maxUsuarios,
+                         @Value("${app.etiquetas.cache.ttl-segundos:600}") long ttlSegundos) {
+        this.etiquetas = Caffeine.newBuilder()
+                .maximumSize(maxUsuarios)
+                .expireAfterAccess(Duration.ofSeconds(ttlSegundos))
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, etiquetas, CACHE);
+        this.invalidacionBus = invalidacionBus;
+        invalidacionBus.registrar(CACHE, etiquetas::invalidate);
+    }
+
+    private record EtiquetaSnapshot(Long id, String nombre, String colorHex) {
+
+        Etiqueta aEtiqueta(Long usuarioId) {
+            return Etiqueta.builder()
+                    .id(id)
+                    .usuario(Usuario.builder().id(usuarioId).build())
+                    .nombre(nombre)
+                    .colorHex(colorHex)
+                    .build();
+        }
+    }
+
+    /**
+     * Etiquetas del usuario, cargandolas con {@code cargador} si no estan en cache.
+     *
+     * @return copias desacopladas del contexto de persistencia
+     */
+    public List<Etiqueta> listar(Long usuarioId, Function<Long, List<Etiqueta>> cargador) {
+        return etiquetas.get(usuarioId, id -> cargador.apply(id).stream()
+                        .map(etiqueta -> new EtiquetaSnapshot(etiqueta.getId(), etiqueta.getNombre(), etiqueta.getColorHex()))
+                        .toList())
+                .stream()
+                .map(snapshot -> snapshot.aEtiqueta(usuarioId))
+                .toList();
+    }
+
+    /**
+     * Etiqueta del usuario si su conjunto esta en cache y la contiene.
+     */
+    public Optional<Etiqueta> buscar(Long usuarioId, Long etiquetaId) {
+        List<EtiquetaSnapshot> conjunto = etiquetas.getIfPresent(usuarioId);
+        if (conjunto == null) {
+            return Optional.empty();
+        }
+        return conjunto.stream()
+                .filter(snapshot -> snapshot.id().equals(etiquetaId))
+                .findFirst()
+                .map(snapshot -> snapshot.aEtiqueta(usuarioId));
+    }
+
+    /**
+     * Indica si el usuario tiene una etiqueta con ese nombre, comparando como la base de datos:
+     * sin distinguir mayusculas ni acentos e ignorando espacios finales.
+     *
+     * @return vacio si el conjunto del usuario no esta en cache
+     */
+    public Optional<Boolean> existeNombre(Long usuarioId, String nombre) {
+        List<EtiquetaSnapshot> conjunto = etiquetas.getIfPresent(usuarioId);
+        if (conjunto == null) {
+            return Optional.empty();
+        }
+        String buscado = nombre.stripTrailing();
+        return Optional.of(conjunto.stream()
+                .anyMatch(snapshot -> INTERCALACION.compare(snapshot.nombre().stripTrailing(), buscado) == 0));
+    }
+
+    /**
+     * Descarta el conjunto del usuario ahora y al confirmar la transaccion en curso.
+     */
+    public void invalidar(Long usuarioId) {
+        etiquetas.invalidate(usuarioId);
+        TransaccionUtil.despuesDelCommit(() -> etiquetas.invalidate(usuarioId));
+        invalidacionBus.publicar(CACHE, usuarioId);
+    }
+}
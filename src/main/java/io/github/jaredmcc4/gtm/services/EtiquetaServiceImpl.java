@@ -1,6 +1,7 @@
 package io.github.jaredmcc4.gtm.services;
 
 import io.github.jaredmcc4.gtm.domain.Etiqueta;
+import io.github.jaredmcc4.gtm.domain.OutboxEvento;
 import io.github.jaredmcc4.gtm.domain.Usuario;
 import io.github.jaredmcc4.gtm.exception.DuplicateResourceException;
 import io.github.jaredmcc4.gtm.exception.UnauthorizedException;
@@ -15,7 +16,8 @@ import java.util.regex.Pattern;
 
 /**
  * Implementacion de {@link EtiquetaService} que gestiona etiquetas con reglas de unicidad
- * por usuario y validacion de color hexadecimal.
+ * por usuario y validacion de color hexadecimal. Las lecturas se sirven desde {@link EtiquetaCache}
+ * cuando el conjunto del usuario esta cargado.
  */
 @Slf4j
 @Service
@@ -24,6 +26,8 @@ import java.util.regex.Pattern;
 public class EtiquetaServiceImpl implements EtiquetaService {
 
     private final EtiquetaRepository etiquetaRepository;
+    private final OutboxService outboxService;
+    private final EtiquetaCache etiquetaCache;
     private static final Pattern COLOR_HEX_PATTERN = Pattern.compile("^#[0-9A-Fa-f]{6}$");
 
     /**
@@ -32,7 +36,7 @@ public class EtiquetaServiceImpl implements EtiquetaService {
     @Override
     public List<Etiqueta> obtenerEtiquetasPorUsuarioId(Long usuarioId) {
         log.debug("Obteniendo etiquetas para el usuario con ID: {}", usuarioId);
-        return etiquetaRepository.findByUsuarioId(usuarioId);
+        return etiquetaCache.listar(usuarioId, etiquetaRepository::findByUsuarioId);
     }
 
     /**
@@ -49,7 +53,10 @@ public class EtiquetaServiceImpl implements EtiquetaService {
 
         etiqueta.setUsuario(usuario);
         validarEtiqueta(etiqueta);
-        return etiquetaRepository.save(etiqueta);
+        Etiqueta creada = etiquetaRepository.save(etiqueta);
+        etiquetaCache.invalidar(usuario.getId());
+        outboxService.registrar(usuario.getId(), OutboxEvento.Agregado.ETIQUETA, creada.getId(), OutboxEvento.Tipo.CREADO, null);
+        return creada;
     }
 
     /**
@@ -58,14 +65,8 @@ public class EtiquetaServiceImpl implements EtiquetaService {
     @Override
     public Etiqueta obtenerEtiquetaPorIdYUsuarioId(Long etiquetaId, Long usuarioId) {
         log.debug("Obteniendo etiqueta con ID: {} Usuario ID: {}", etiquetaId, usuarioId);
-        Etiqueta etiqueta = etiquetaRepository.findById(etiquetaId)
-                .orElseThrow(() -> new IllegalArgumentException("Etiqueta no encontrada con ID: " + etiquetaId));
-
-        if (!etiqueta.getUsuario().getId().equals(usuarioId)) {
-            throw new UnauthorizedException("No cuenta con permisos para acceder a esta etiqueta.");
-        }
-
-        return etiqueta;
+        return etiquetaCache.buscar(usuarioId, etiquetaId)
+                .orElseGet(() -> cargarEtiqueta(etiquetaId, usuarioId));
     }
 
     /**
@@ -75,7 +76,7 @@ public class EtiquetaServiceImpl implements EtiquetaService {
     @Transactional
     public Etiqueta actualizarEtiqueta(Long etiquetaId, Etiqueta etiquetaActualizada, Long usuarioId) {
         log.info("Actualizando etiqueta con ID: {} Usuario ID: {}", etiquetaId, usuarioId);
-        Etiqueta etiquetaActual = obtenerEtiquetaPorIdYUsuarioId(etiquetaId, usuarioId);
+        Etiqueta etiquetaActual = cargarEtiqueta(etiquetaId, usuarioId);
 
         if (!etiquetaActual.getNombre().equals(etiquetaActualizada.getNombre()) &&
                 existeEtiquetaPorNombreYUsuarioId(etiquetaActualizada.getNombre(), usuarioId)) {
@@ -85,7 +86,10 @@ public class EtiquetaServiceImpl implements EtiquetaService {
         etiquetaActual.setNombre(etiquetaActualizada.getNombre());
         etiquetaActual.setColorHex(etiquetaActualizada.getColorHex());
         validarEtiqueta(etiquetaActual);
-        return etiquetaRepository.save(etiquetaActual);
+        Etiqueta guardada = etiquetaRepository.save(etiquetaActual);
+        etiquetaCache.invalidar(usuarioId);
+        outboxService.registrar(usuarioId, OutboxEvento.Agregado.ETIQUETA, etiquetaId, OutboxEvento.Tipo.ACTUALIZADO, null);
+        return guardada;
     }
 
     /**
@@ -95,8 +99,10 @@ public class EtiquetaServiceImpl implements EtiquetaService {
     @Transactional
     public void eliminarEtiqueta(Long etiquetaId, Long usuarioId) {
         log.info("Eliminando etiqueta con ID: {} Usuario ID: {}", etiquetaId, usuarioId);
-        Etiqueta etiquetaExistente = obtenerEtiquetaPorIdYUsuarioId(etiquetaId, usuarioId);
+        Etiqueta etiquetaExistente = cargarEtiqueta(etiquetaId, usuarioId);
         etiquetaRepository.delete(etiquetaExistente);
+        etiquetaCache.invalidar(usuarioId);
+        outboxService.registrar(usuarioId, OutboxEvento.Agregado.ETIQUETA, etiquetaId, OutboxEvento.Tipo.ELIMINADO, null);
     }
 
     /**
@@ -105,7 +111,8 @@ public class EtiquetaServiceImpl implements EtiquetaService {
     @Override
     public boolean existeEtiquetaPorNombreYUsuarioId(String nombre, Long usuarioId) {
         log.debug("Verificando existencia de etiqueta con nombre: {} Usuario ID: {}", nombre, usuarioId);
-        return etiquetaRepository.existsByUsuarioIdAndNombre(usuarioId, nombre);
+        return etiquetaCache.existeNombre(usuarioId, nombre)
+                .orElseGet(() -> etiquetaRepository.existsByUsuarioIdAndNombre(usuarioId, nombre));
     }
 
     /**
@@ -127,5 +134,18 @@ public class EtiquetaServiceImpl implements EtiquetaService {
             throw new IllegalArgumentException("El color hexadecimal de la etiqueta no es válido. Debe tener el formato #RRGGBB.");
         }
     }
-}
 
+    /**
+     * Carga la entidad gestionada y verifica que pertenezca al usuario.
+     */
+    private Etiqueta cargarEtiqueta(Long etiquetaId, Long usuarioId) {
+        Etiqueta etiqueta = etiquetaRepository.findById(etiquetaId)
+                .orElseThrow(() -> new IllegalArgumentException("Etiqueta no encontrada con ID: " + etiquetaId));
+
+        if (!etiqueta.getUsuario().getId().equals(usuarioId)) {
+            throw new UnauthorizedException("No cuenta con permisos para acceder a esta etiqueta.");
+        }
+
+        return etiqueta;
+    }
+}
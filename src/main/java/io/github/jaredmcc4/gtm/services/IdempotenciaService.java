@@ -0,0 +1,38 @@
+package io.github.jaredmcc4.gtm.services;
+
+import io.github.jaredmcc4.gtm.dto.response.ApiResponse;
+import org.springframework.http.ResponseEntity;
+
+import java.util.function.Supplier;
+
+/**
+ * Contrato para ejecutar operaciones POST de forma idempotente a partir del header
+ * {@code Idempotency-Key}, reutilizando la respuesta original en los reintentos.
+ */
+public interface IdempotenciaService {
+
+    /**
+     * Ejecuta la accion una sola vez por clave y usuario; los reintentos con la misma clave
+     * reciben la respuesta almacenada sin repetir el trabajo.
+     *
+     * @param usuarioId propietario autenticado
+     * @param clave valor del header (null o vacio ejecuta la accion sin registrar nada)
+     * @param operacion identificador de la operacion (metodo + ruta)
+     * @param solicitud contenido de la solicitud; la misma clave con otro contenido se rechaza
+     * @param tipoDato tipo del payload de {@link ApiResponse} para reconstruir la respuesta
+     * @param accion operacion a ejecutar
+     * @return respuesta original o recien generada
+     */
+    <T> ResponseEntity<ApiResponse<T>> ejecutar(Long usuarioId, String clave, String operacion, Object solicitud,
+                                                Class<T> tipoDato, Supplier<ResponseEntity<ApiResponse<T>>> accion);
+
+    /**
+     * Extiende las reservas en curso de este nodo y reintenta guardar respuestas pendientes.
+     */
+    void renovarReservas();
+
+    /**
+     * Elimina las claves cuya vigencia ya termino.
+     */
+    void purgarExpiradas();
+}
@@ -0,0 +1,262 @@
+package io.github.jaredmcc4.gtm.services;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.github.jaredmcc4.gtm.domain.RespuestaIdempotente;
+import io.github.jaredmcc4.gtm.dto.response.ApiResponse;
+import io.github.jaredmcc4.gtm.exception.DuplicateResourceException;
+import io.github.jaredmcc4.gtm.repository.RespuestaIdempotenteRepository;
+import io.github.jaredmcc4.gtm.util.TokenHashUtil;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.ResponseEntity;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Implementacion de {@link IdempotenciaService} con un frente en memoria acotado
+ * y la tabla {@code idempotencia_respuestas} como respaldo compartido entre nodos.
+ * <p>
+ * La clave se reserva con un INSERT protegido por la restriccion unica antes de ejecutar la accion, de modo que
+ * dos solicitudes concurrentes con la misma clave no dupliquen el trabajo: la segunda
+ * recibe 409 mientras la primera sigue en proceso.
+ * <p>
+ * Cada reserva lleva un token de propietario: solo quien la tomo puede completarla o liberarla,
+ * asi una solicitud no pisa ni borra la fila de otra. La reserva vence tras un plazo corto para
+ * que una caida del nodo no bloquee la clave, y el nodo la renueva periodicamente mientras la
+ * accion sigue en curso (por ejemplo una subida lenta). Al completar se extiende al TTL completo;
+ * si guardar la respuesta falla tras una accion exitosa la clave no se libera: la reserva se
+ * sigue renovando y el guardado se reintenta en segundo plano.
+ * <p>
+ * La fila guarda ademas una huella (SHA-256) de la operacion y la solicitud; reutilizar la
+ * clave con otro contenido se rechaza en lugar de repetir una respuesta ajena.
+ */
+@Slf4j
+@Service
+@Transactional(readOnly = true)
+public class IdempotenciaServiceImpl implements IdempotenciaService {
+
+    static final String HEADER_REPETIDA = "Idempotent-Replayed";
+    private static final int MAX_LONGITUD_CLAVE = 100;
+
+    private final RespuestaIdempotenteRepository respuestaRepository;
+    private final ObjectMapper objectMapper;
+    private final Duration ttl;
+    private final Duration reserva;
+    private final Cache<String, RespuestaGuardada> respuestasRecientes;
+    private final Map<String, Reserva> reservasActivas = new ConcurrentHashMap<>();
+
+    public IdempotenciaServiceImpl(RespuestaIdempotenteRepository respuestaRepository,
+                                   ObjectMapper objectMapper,
+                                   @Value("${app.idempotencia.ttl-horas:24}") long ttlHoras,
+                                   @Value("${app.idempotencia.reserva-segundos:60}") long reservaSegundos,
+                                   @Value("${app.idempotencia.max-en-memoria:10000}") long maxEnMemoria) {
+        this.respuestaRepository = respuestaRepository;
+        this.objectMapper = objectMapper;
+        this.ttl = Duration.ofHours(ttlHoras);
+        this.reserva = Duration.ofSeconds(reservaSegundos);
+        this.respuestasRecientes = Caffeine.newBuilder()
+                .maximumSize(maxEnMemoria)
+                .expireAfterWrite(ttl)
+                .build();
+    }
+
+    /**
+     * Respuesta serializada lista para repetirse.
+     */
+    private record RespuestaGuardada(String operacion, String huella, int estadoHttp, String cuerpo) {
+    }
+
+    /**
+     * Reserva tomada por este nodo; {@code respuesta} queda pendiente de guardar si completar fallo.
+     */
+    private record Reserva(Long usuarioId, String clave, RespuestaGuardada respuesta) {
+    }
+
+    /**
+     * Reserva la clave, ejecuta la accion y guarda su respuesta; si la clave ya existe
+     * devuelve la respuesta almacenada o 409 si sigue en proceso.
+     */
+    @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public <T> ResponseEntity<ApiResponse<T>> ejecutar(Long usuarioId, String clave, String operacion, Object solicitud,
+                                                       Class<T> tipoDato, Supplier<ResponseEntity<ApiResponse<T>>> accion) {
+        if (clave == null || clave.isBlank()) {
+            return accion.get();
+        }
+        if (clave.length() > MAX_LONGITUD_CLAVE) {
+            throw new IllegalArgumentException("El header Idempotency-Key no puede exceder los 100 caracteres.");
+        }
+
+        String huella = huella(operacion, solicitud);
+        String claveCache = usuarioId + ":" + clave;
+        RespuestaGuardada guardada = respuestasRecientes.getIfPresent(claveCache);
+        if (guardada != null) {
+            return repetir(guardada, operacion, huella, tipoDato);
+        }
+
+        String propietario = UUID.randomUUID().toString();
+        if (!reservar(usuarioId, clave, operacion, huella, propietario)) {
+            RespuestaIdempotente existente = respuestaRepository.findByUsuarioIdAndClave(usuarioId, clave)
+                    .orElseThrow(() -> new DuplicateResourceException("La solicitud con esta Idempotency-Key está en proceso."));
+            if (existente.getEstadoHttp() == null) {
+                throw new DuplicateResourceException("La solicitud con esta Idempotency-Key está en proceso.");
+            }
+            guardada = new RespuestaGuardada(existente.getOperacion(), existente.getHuella(), existente.getEstadoHttp(), existente.getCuerpo());
+            respuestasRecientes.put(claveCache, guardada);
+            return repetir(guardada, operacion, huella, tipoDato);
+        }
+        reservasActivas.put(propietario, new Reserva(usuarioId, clave, null));
+
+        ResponseEntity<ApiResponse<T>> respuesta;
+        try {
+            respuesta = accion.get();
+        } catch (RuntimeException ex) {
+            liberar(usuarioId, clave, propietario);
+            throw ex;
+        }
+
+        if (!respuesta.getStatusCode().is2xxSuccessful()) {
+            liberar(usuarioId, clave, propietario);
+            return respuesta;
+        }
+        guardada = new RespuestaGuardada(operacion, huella, respuesta.getStatusCode().value(), serializar(respuesta.getBody()));
+        respuestasRecientes.put(claveCache, guardada);
+        try {
+            if (completar(propietario, usuarioId, clave, guardada) == 0) {
+                log.warn("La reserva idempotente de {} ya no pertenecia a esta solicitud", operacion);
+            }
+            reservasActivas.remove(propietario);
+        } catch (RuntimeException ex) {
+            log.warn("No se pudo persistir la respuesta idempotente de {}, se reintentara: {}", operacion, ex.getMessage());
+            reservasActivas.put(propietario, new Reserva(usuarioId, clave, guardada));
+        }
+        return respuesta;
+    }
+
+    /**
+     * Renueva las reservas en curso de este nodo y reintenta guardar las respuestas que no se
+     * pudieron completar; el intervalo debe ser menor que el plazo de reserva.
+     */
+    @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    @Scheduled(fixedDelayString = "${app.idempotencia.renovacion-ms:20000}")
+    public void renovarReservas() {
+        if (reservasActivas.isEmpty()) {
+            return;
+        }
+        List<String> enCurso = new ArrayList<>();
+        reservasActivas.forEach((propietario, activa) -> {
+            if (activa.respuesta() == null) {
+                enCurso.add(propietario);
+                return;
+            }
+            try {
+                completar(propietario, activa.usuarioId(), activa.clave(), activa.respuesta());
+                reservasActivas.remove(propietario, activa);
+            } catch (RuntimeException ex) {
+                log.warn("Reintento fallido al guardar la respuesta idempotente {}: {}", activa.clave(), ex.getMessage());
+                enCurso.add(propietario);
+            }
+        });
+        if (!enCurso.isEmpty()) {
+            respuestaRepository.renovar(enCurso, LocalDateTime.now().plus(reserva));
+        }
+    }
+
+    /**
+     * Purga periodica de claves vencidas en la tabla.
+     */
+    @Override
+    @Transactional
+    @Scheduled(cron = "${app.idempotencia.purga-cron:0 */15 * * * *}")
+    public void purgarExpiradas() {
+        int eliminadas = respuestaRepository.eliminarExpiradas(LocalDateTime.now());
+        if (eliminadas > 0) {
+            log.info("Claves de idempotencia expiradas eliminadas: {}", eliminadas);
+        }
+    }
+
+    /**
+     * Intenta reservar la clave por el plazo de reserva; una reserva vencida se descarta y se reintenta una vez.
+     */
+    private boolean reservar(Long usuarioId, String clave, String operacion, String huella, String propietario) {
+        LocalDateTime ahora = LocalDateTime.now();
+        LocalDateTime expiracion = ahora.plus(reserva);
+        if (intentarReserva(usuarioId, clave, operacion, huella, propietario, expiracion)) {
+            return true;
+        }
+        return respuestaRepository.eliminarSiExpirada(usuarioId, clave, ahora) == 1
+                && intentarReserva(usuarioId, clave, operacion, huella, propietario, expiracion);
+    }
+
+    private boolean intentarReserva(Long usuarioId, String clave, String operacion, String huella, String propietario,
+                                    LocalDateTime expiracion) {
+        try {
+            return respuestaRepository.reservar(usuarioId, clave, operacion, huella, propietario, expiracion) == 1;
+        } catch (DataIntegrityViolationException ex) {
+            return false;
+        }
+    }
+
+    private int completar(String propietario, Long usuarioId, String clave, RespuestaGuardada guardada) {
+        return respuestaRepository.completar(usuarioId, clave, propietario, guardada.estadoHttp(), guardada.cuerpo(),
+                LocalDateTime.now().plus(ttl));
+    }
+
+    private void liberar(Long usuarioId, String clave, String propietario) {
+        reservasActivas.remove(propietario);
+        respuestaRepository.liberar(usuarioId, clave, propietario);
+    }
+
+    private <T> ResponseEntity<ApiResponse<T>> repetir(RespuestaGuardada guardada, String operacion, String huella,
+                                                       Class<T> tipoDato) {
+        if (!guardada.operacion().equals(operacion)) {
+            throw new IllegalArgumentException("La Idempotency-Key ya fue utilizada para otra operación.");
+        }
+        if (guardada.huella() != null && !guardada.huella().equals(huella)) {
+            throw new IllegalArgumentException("La Idempotency-Key ya fue utilizada con otro contenido.");
+        }
+        log.debug("Repitiendo respuesta idempotente para {}", operacion);
+        JavaType tipo = objectMapper.getTypeFactory().constructParametricType(ApiResponse.class, tipoDato);
+        try {
+            ApiResponse<T> cuerpo = objectMapper.readValue(guardada.cuerpo(), tipo);
+            return ResponseEntity.status(guardada.estadoHttp())
+                    .header(HEADER_REPETIDA, "true")
+                    .body(cuerpo);
+        } catch (JsonProcessingException ex) {
+            throw new IllegalStateException("No se pudo reconstruir la respuesta idempotente", ex);
+        }
+    }
+
+    /**
+     * SHA-256 en hexadecimal de la operacion y la solicitud serializada.
+     */
+    private String huella(String operacion, Object solicitud) {
+        return HexFormat.of().formatHex(TokenHashUtil.sha256(operacion + "\n" + serializar(solicitud)));
+    }
+
+    private String serializar(Object cuerpo) {
+        try {
+            return objectMapper.writeValueAsString(cuerpo);
+        } catch (JsonProcessingException ex) {
+            throw new IllegalStateException("No se pudo serializar la respuesta idempotente", ex);
+        }
+    }
+}
@@ -0,0 +1,173 @@
+package io.github.jaredmcc4.gtm.services;
+
+import io.github.jaredmcc4.gtm.domain.EventoDominio;
+import io.github.jaredmcc4.gtm.domain.OutboxEvento;
+import io.github.jaredmcc4.gtm.domain.OutboxOffset;
+import io.github.jaredmcc4.gtm.repository.OutboxEventoRepository;
+import io.github.jaredmcc4.gtm.repository.OutboxOffsetRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Entrega en lotes los eventos del outbox a los listeners de {@link EventoDominio}.
+ * <p>
+ * Cada particion tiene una fila propia que se bloquea con {@code FOR UPDATE SKIP LOCKED}
+ * mientras se despacha: solo un nodo procesa una particion a la vez y los eventos de un
+ * mismo usuario se entregan en orden de id. Los eventos pendientes ({@code entregado_en}
+ * nulo) se reclaman con {@code SKIP LOCKED} y se marcan en la misma transaccion al
+ * entregarlos, asi un evento confirmado tarde se entrega en la siguiente pasada en lugar de
+ * quedar detras de un offset. La entrega es al-menos-una-vez: si el proceso cae antes de
+ * confirmar la marca, el lote se repite.
+ * <p>
+ * Cada entrega corre en su propia transaccion ({@code REQUIRES_NEW}), asi un listener que
+ * falla no deja el lote marcado como rollback-only. El fallo detiene la particion y suma un
+ * intento en la fila del evento, que se confirma con el lote: cualquier nodo retoma la cuenta
+ * en la siguiente pasada y, tras el maximo de intentos, el evento se registra en el log y se
+ * descarta.
+ */
+@Slf4j
+@Component
+public class OutboxDispatcher {
+
+    private final OutboxEventoRepository outboxEventoRepository;
+    private final OutboxOffsetRepository outboxOffsetRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TransactionTemplate transactionTemplate;
+    private final TransactionTemplate entregaTemplate;
+    private final int tamanoLote;
+    private final int maxIntentos;
+    private final Counter despachados;
+    private final Counter descartados;
+    private final AtomicBoolean notificado = new AtomicBoolean();
+
+    public OutboxDispatcher(OutboxEventoRepository outboxEventoRepository,
+                            OutboxOffsetRepository outboxOffsetRepository,
+                            ApplicationEventPublisher eventPublisher,
+                            PlatformTransactionManager transactionManager,
+                            MeterRegistry meterRegistry,
+                            @Value("${app.outbox.lote:200}") int tamanoLote,
+                            @Value("${app.outbox.max-reintentos:5}") int maxIntentos) {
+        this.outboxEventoRepository = outboxEventoRepository;
+        this.outboxOffsetRepository = outboxOffsetRepository;
+        this.eventPublisher = eventPublisher;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.entregaTemplate = new TransactionTemplate(transactionManager);
+        this.entregaTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.tamanoLote = tamanoLote;
+        this.maxIntentos = maxIntentos;
+        this.despachados = Counter.builder("gtm.outbox.despachados")
+                .description("Eventos de outbox entregados a los listeners")
+                .register(meterRegistry);
+        this.descartados = Counter.builder("gtm.outbox.descartados")
+                .description("Eventos de outbox descartados tras agotar los reintentos")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Avisa de que hay eventos recien confirmados en este nodo.
+     */
+    public void notificar() {
+        notificado.set(true);
+    }
+
+    /**
+     * Pasada rapida: solo despacha si hubo commits recientes en este nodo.
+     */
+    @Scheduled(fixedDelayString = "${app.outbox.intervalo-ms:250}")
+    public void despacharNotificados() {
+        if (notificado.getAndSet(false)) {
+            despacharTodo();
+        }
+    }
+
+    /**
+     * Pasada completa: recoge eventos de otros nodos y reintentos pendientes.
+     */
+    @Scheduled(fixedDelayString = "${app.outbox.sondeo-ms:5000}")
+    public void sondear() {
+        despacharTodo();
+    }
+
+    /**
+     * Drena todas las particiones libres.
+     *
+     * @return eventos entregados
+     */
+    public int despacharTodo() {
+        int total = 0;
+        for (int particion = 0; particion < OutboxService.PARTICIONES; particion++) {
+            try {
+                int entregados;
+                do {
+                    entregados = despacharLote(particion);
+                    total += entregados;
+                } while (entregados == tamanoLote);
+            } catch (RuntimeException ex) {
+                log.warn("No se pudo despachar la particion {} del outbox: {}", particion, ex.getMessage());
+            }
+        }
+        return total;
+    }
+
+    /**
+     * Entrega el siguiente lote de pendientes de una particion y los marca como entregados.
+     *
+     * @param particion particion a despachar
+     * @return eventos entregados (0 si esta vacia, tomada por otro nodo o detenida por un fallo)
+     */
+    public int despacharLote(int particion) {
+        Integer entregados = transactionTemplate.execute(status -> {
+            OutboxOffset offset = outboxOffsetRepository.reclamar(particion).orElse(null);
+            if (offset == null) {
+                return 0;
+            }
+            List<OutboxEvento> eventos = outboxEventoRepository.reclamarPendientes(particion, Limit.of(tamanoLote));
+            List<Long> ids = new ArrayList<>();
+            for (OutboxEvento evento : eventos) {
+                if (!entregar(evento)) {
+                    break;
+                }
+                ids.add(evento.getId());
+            }
+            if (!ids.isEmpty()) {
+                outboxEventoRepository.marcarEntregados(ids, LocalDateTime.now());
+                offset.setUltimoId(Math.max(offset.getUltimoId(), ids.getLast()));
+                outboxOffsetRepository.save(offset);
+            }
+            return ids.size();
+        });
+        return entregados != null ? entregados : 0;
+    }
+
+    private boolean entregar(OutboxEvento evento) {
+        try {
+            entregaTemplate.executeWithoutResult(status -> eventPublisher.publishEvent(EventoDominio.desde(evento)));
+            despachados.increment();
+            return true;
+        } catch (RuntimeException ex) {
+            int intento = evento.getIntentos() + 1;
+            evento.setIntentos(intento);
+            if (intento < maxIntentos) {
+                log.warn("Fallo al entregar evento {} (intento {}): {}", evento.getId(), intento, ex.getMessage());
+                return false;
+            }
+            log.error("Evento {} {} {} descartado tras {} intentos", evento.getId(), evento.getAgregado(), evento.getTipo(), intento, ex);
+            descartados.increment();
+            return true;
+        }
+    }
+}
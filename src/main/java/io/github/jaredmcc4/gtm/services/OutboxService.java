@@ -0,0 +1,42 @@
+package io.github.jaredmcc4.gtm.services;
+
+import io.github.jaredmcc4.gtm.domain.OutboxEvento;
+
+import java.util.Map;
+
+/**
+ * Contrato para registrar eventos de dominio en el outbox transaccional.
+ */
+public interface OutboxService {
+
+    /**
+     * Numero de particiones del outbox; cada usuario cae siempre en la misma.
+     */
+    int PARTICIONES = 16;
+
+    /**
+     * Inserta un evento en la transaccion en curso; solo se entrega si esa transaccion confirma.
+     * Tambien incrementa la version de datos del usuario ({@link VersionDatosService}).
+     *
+     * @param usuarioId propietario de los datos afectados
+     * @param agregado tipo de entidad afectada
+     * @param agregadoId id de la entidad (null en operaciones en lote)
+     * @param tipo tipo de cambio
+     * @param datos datos adicionales para los listeners (puede ser null)
+     * @throws org.springframework.transaction.IllegalTransactionStateException si no hay transaccion activa
+     */
+    void registrar(Long usuarioId, OutboxEvento.Agregado agregado, Long agregadoId,
+                   OutboxEvento.Tipo tipo, Map<String, ?> datos);
+
+    /**
+     * Elimina los eventos ya entregados que superan la retencion configurada.
+     */
+    void purgarEntregados();
+
+    /**
+     * Particion asignada a un usuario.
+     */
+    static int particion(Long usuarioId) {
+        return (int) Math.floorMod(usuarioId, (long) PARTICIONES);
+    }
+}
@@ -0,0 +1,87 @@
+package io.github.jaredmcc4.gtm.services;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.github.jaredmcc4.gtm.domain.OutboxEvento;
+import io.github.jaredmcc4.gtm.repository.OutboxEventoRepository;
+import io.github.jaredmcc4.gtm.util.TransaccionUtil;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+
+/**
+ * Implementacion de {@link OutboxService} sobre la tabla {@code outbox_eventos}.
+ * <p>
+ * El evento se escribe en la misma transaccion que la mutacion, por lo que no hay eventos
+ * de cambios revertidos ni cambios confirmados sin evento. Tras el commit se avisa al
+ * {@link OutboxDispatcher} para que lo entregue sin esperar al siguiente sondeo. Como toda
+ * escritura pasa por aqui, tambien se incrementa la version de datos del usuario.
+ */
+@Slf4j
+@Service
+public class OutboxServiceImpl implements OutboxService {
+
+    private final OutboxEventoRepository outboxEventoRepository;
+    private final OutboxDispatcher outboxDispatcher;
+    private final ObjectMapper objectMapper;
+    private final VersionDatosService versionDatosService;
+    private final long retencionHoras;
+
+    public OutboxServiceImpl(OutboxEventoRepository outboxEventoRepository,
+                             OutboxDispatcher outboxDispatcher,
+                             ObjectMapper objectMapper,
+                             VersionDatosService versionDatosService,
+                             @Value("${app.outbox.retencion-horas:72}") long retencionHoras) {
+        this.outboxEventoRepository = outboxEventoRepository;
+        this.outboxDispatcher = outboxDispatcher;
+        this.objectMapper = objectMapper;
+        this.versionDatosService = versionDatosService;
+        this.retencionHoras = retencionHoras;
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void registrar(Long usuarioId, OutboxEvento.Agregado agregado, Long agregadoId,
+                          OutboxEvento.Tipo tipo, Map<String, ?> datos) {
+        OutboxEvento evento = OutboxEvento.builder()
+                .usuarioId(usuarioId)
+                .particion(OutboxService.particion(usuarioId))
+                .agregado(agregado)
+                .agregadoId(agregadoId)
+                .tipo(tipo)
+                .payload(serializar(datos))
+                .build();
+        outboxEventoRepository.save(evento);
+        versionDatosService.incrementar(usuarioId);
+        log.debug("Evento {} {} {} registrado para usuario {}", agregado, tipo, agregadoId, usuarioId);
+
+        TransaccionUtil.despuesDelCommit(outboxDispatcher::notificar);
+    }
+
+    @Override
+    @Transactional
+    @Scheduled(cron = "${app.outbox.purga-cron:0 15 * * * *}")
+    public void purgarEntregados() {
+        int eliminados = outboxEventoRepository.purgarEntregados(LocalDateTime.now().minusHours(retencionHoras));
+        if (eliminados > 0) {
+            log.info("Eventos de outbox purgados: {}", eliminados);
+        }
+    }
+
+    private String serializar(Map<String, ?> datos) {
+        if (datos == null || datos.isEmpty()) {
+            return null;
+        }
+        try {
+            return objectMapper.writeValueAsString(datos);
+        } catch (JsonProcessingException ex) {
+            throw new IllegalStateException("No se pudo serializar el evento de outbox", ex);
+        }
+    }
+}
@@ -0,0 +1,166 @@
+package io.github.jaredmcc4.gtm.services;
+
+import io.github.jaredmcc4.gtm.repository.SubtareaRepository;
+import io.github.jaredmcc4.gtm.repository.TareaRepository;
+import io.github.jaredmcc4.gtm.util.PosicionUtil;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Reescribe las claves de orden manual de un padre (usuario para tareas, tarea para subtareas)
+ * cuando las inserciones repetidas en el mismo hueco las alargan demasiado.
+ * <p>
+ * Los servicios marcan el padre al generar una clave que supera el umbral configurado y el
+ * rebalanceo se hace en segundo plano; solo si la clave no cabe en la columna se rebalancea
+ * en linea antes de mover. Rebalancear tareas cambia las claves que ve el cliente, asi que
+ * incrementa la version de datos del usuario.
+ * <p>
+ * Crear, mover y rebalancear toman el mismo bloqueo por usuario ({@link #bloquear(Long)})
+ * antes de leer claves, para que dos altas concurrentes no calculen la misma clave al final
+ * ni un movimiento la calcule con vecinos que el rebalanceo esta reescribiendo.
+ */
+@Slf4j
+@Component
+public class PosicionRebalanceador {
+
+    private final TareaRepository tareaRepository;
+    private final SubtareaRepository subtareaRepository;
+    private final VersionDatosService versionDatosService;
+    private final TransactionTemplate transactionTemplate;
+    private final int longitudUmbral;
+    private final Set<Long> usuariosPendientes = ConcurrentHashMap.newKeySet();
+    private final Map<Long, Long> tareasPendientes = new ConcurrentHashMap<>();
+
+    public PosicionRebalanceador(TareaRepository tareaRepository,
+                                 SubtareaRepository subtareaRepository,
+                                 VersionDatosService versionDatosService,
+                                 PlatformTransactionManager transactionManager,
+                                 @Value("${app.posiciones.longitud-rebalanceo:24}") int longitudUmbral) {
+        this.tareaRepository = tareaRepository;
+        this.subtareaRepository = subtareaRepository;
+        this.versionDatosService = versionDatosService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.longitudUmbral = longitudUmbral;
+    }
+
+    /**
+     * Bloquea el orden manual del usuario (tareas y subtareas) hasta el fin de la transaccion en curso.
+     *
+     * @param usuarioId propietario
+     */
+    public void bloquear(Long usuarioId) {
+        versionDatosService.bloquear(usuarioId);
+    }
+
+    /**
+     * Marca las tareas del usuario para rebalanceo si la clave generada es demasiado larga.
+     */
+    public void revisarTareas(Long usuarioId, String posicion) {
+        if (posicion.length() > longitudUmbral) {
+            usuariosPendientes.add(usuarioId);
+        }
+    }
+
+    /**
+     * Marca las subtareas de la tarea para rebalanceo si la clave generada es demasiado larga.
+     */
+    public void revisarSubtareas(Long usuarioId, Long tareaId, String posicion) {
+        if (posicion.length() > longitudUmbral) {
+            tareasPendientes.put(tareaId, usuarioId);
+        }
+    }
+
+    /**
+     * Rebalancea los padres marcados; no hace nada si no hay claves largas.
+     */
+    @Scheduled(fixedDelayString = "${app.posiciones.rebalanceo-interval-ms:60000}")
+    public void rebalancearPendientes() {
+        List<Long> usuariosFallidos = new ArrayList<>();
+        for (Long usuarioId : usuariosPendientes) {
+            if (usuariosPendientes.remove(usuarioId) && !procesar(usuarioId, () -> rebalancearTareas(usuarioId))) {
+                usuariosFallidos.add(usuarioId);
+            }
+        }
+        usuariosPendientes.addAll(usuariosFallidos);
+
+        Map<Long, Long> tareasFallidas = new HashMap<>();
+        for (Long tareaId : tareasPendientes.keySet()) {
+            Long usuarioId = tareasPendientes.remove(tareaId);
+            if (usuarioId != null && !procesar(tareaId, () -> rebalancearSubtareas(usuarioId, tareaId))) {
+                tareasFallidas.put(tareaId, usuarioId);
+            }
+        }
+        tareasPendientes.putAll(tareasFallidas);
+    }
+
+    /**
+     * Reasigna claves equiespaciadas a todas las tareas del usuario conservando su orden.
+     *
+     * @param usuarioId propietario
+     * @return tareas reescritas
+     */
+    public int rebalancearTareas(Long usuarioId) {
+        return reescribir(usuarioId, usuarioId, tareaRepository::findIdsOrdenadosPorPosicion, tareaRepository::actualizarPosicion,
+                versionDatosService::incrementar);
+    }
+
+    /**
+     * Reasigna claves equiespaciadas a todas las subtareas de la tarea conservando su orden.
+     *
+     * @param usuarioId propietario de la tarea
+     * @param tareaId tarea padre
+     * @return subtareas reescritas
+     */
+    public int rebalancearSubtareas(Long usuarioId, Long tareaId) {
+        return reescribir(usuarioId, tareaId, subtareaRepository::findIdsOrdenadosPorPosicion, subtareaRepository::actualizarPosicion,
+                padreId -> { });
+    }
+
+    private int reescribir(Long usuarioId, Long padreId, Function<Long, List<Long>> ordenados, PosicionEscritor escritor,
+                           Consumer<Long> alReescribir) {
+        Integer total = transactionTemplate.execute(status -> {
+            bloquear(usuarioId);
+            List<Long> ids = ordenados.apply(padreId);
+            for (int i = 0; i < ids.size(); i++) {
+                escritor.actualizar(ids.get(i), PosicionUtil.secuencia(i));
+            }
+            if (!ids.isEmpty()) {
+                alReescribir.accept(padreId);
+            }
+            return ids.size();
+        });
+        log.debug("Posiciones rebalanceadas para padre {}: {}", padreId, total);
+        return total != null ? total : 0;
+    }
+
+    /**
+     * @return {@code false} si el rebalanceo fallo y debe reintentarse en la siguiente pasada
+     */
+    private boolean procesar(Long padreId, Runnable rebalanceo) {
+        try {
+            rebalanceo.run();
+            return true;
+        } catch (RuntimeException ex) {
+            log.warn("No se pudo rebalancear posiciones del padre {}: {}", padreId, ex.getMessage());
+            return false;
+        }
+    }
+
+    @FunctionalInterface
+    private interface PosicionEscritor {
+        int actualizar(Long id, String posicion);
+    }
+}
@@ -0,0 +1,102 @@
+package io.github.jaredmcc4.gtm.services;
+
+import io.github.jaredmcc4.gtm.repository.BloqueoProgramadoRepository;
+import io.github.jaredmcc4.gtm.repository.RefreshTokenRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Job que elimina los refresh tokens expirados o revocados en lotes pequenos recorridos por
+ * id, cada lote en su propia transaccion, para no bloquear la tabla con un unico
+ * {@code DELETE}. Publica {@code gtm.refresh-tokens.purgados} y el tamano de la tabla tras
+ * cada pasada como {@code gtm.refresh-tokens.filas}.
+ * <p>
+ * Solo recorre la tabla el nodo que reclama el lease {@value #BLOQUEO} en
+ * {@code bloqueos_programados}; el lease se renueva en cada lote.
+ */
+@Slf4j
+@Component
+public class RefreshTokenPurgador {
+
+    static final String BLOQUEO = "refresh-tokens-purga";
+
+    private final RefreshTokenRepository refreshTokenRepository;
+    private final BloqueoProgramadoRepository bloqueoRepository;
+    private final int tamanoLote;
+    private final Duration lease;
+    private final String nodo = UUID.randomUUID().toString();
+    private final Counter purgados;
+    private final AtomicLong filas = new AtomicLong();
+
+    public RefreshTokenPurgador(RefreshTokenRepository refreshTokenRepository,
+                                BloqueoProgramadoRepository bloqueoRepository,
+                                MeterRegistry meterRegistry,
+                                @Value("${app.auth.refresh-token.purga-lote:500}") int tamanoLote,
+                                @Value("${app.auth.refresh-token.purga-lease-segundos:300}") long leaseSegundos) {
+        this.refreshTokenRepository = refreshTokenRepository;
+        this.bloqueoRepository = bloqueoRepository;
+        this.tamanoLote = tamanoLote;
+        this.lease = Duration.ofSeconds(leaseSegundos);
+        this.purgados = Counter.builder("gtm.refresh-tokens.purgados")
+                .description("Refresh tokens expirados o revocados eliminados")
+                .register(meterRegistry);
+        Gauge.builder("gtm.refresh-tokens.filas", filas, AtomicLong::get)
+                .description("Filas en refresh_tokens tras la ultima purga")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Recorre los tokens purgables en lotes de ids hasta agotarlos.
+     *
+     * @return filas eliminadas (0 si otro nodo tiene el lease)
+     */
+    @Scheduled(cron = "${app.auth.refresh-token.purga-cron:0 */10 * * * *}")
+    public long purgar() {
+        if (!reclamar()) {
+            log.debug("Purga de refresh tokens en ejecucion en otro nodo");
+            return 0;
+        }
+        LocalDateTime ahora = LocalDateTime.now();
+        long ultimoId = 0;
+        long eliminados = 0;
+        try {
+            List<Long> ids;
+            do {
+                ids = refreshTokenRepository.findIdsPurgables(ultimoId, ahora, Limit.of(tamanoLote));
+                if (!ids.isEmpty()) {
+                    eliminados += refreshTokenRepository.eliminarPorIds(ids);
+                    ultimoId = ids.get(ids.size() - 1);
+                }
+                if (ids.size() == tamanoLote && !reclamar()) {
+                    log.warn("Purga de refresh tokens perdio el lease en id {}", ultimoId);
+                    break;
+                }
+            } while (ids.size() == tamanoLote);
+            filas.set(refreshTokenRepository.count());
+        } finally {
+            bloqueoRepository.liberar(BLOQUEO, nodo);
+            purgados.increment(eliminados);
+        }
+        if (eliminados > 0) {
+            log.info("Refresh tokens purgados: {}", eliminados);
+        }
+        return eliminados;
+    }
+
+    private boolean reclamar() {
+        LocalDateTime ahora = LocalDateTime.now();
+        return bloqueoRepository.reclamar(BLOQUEO, nodo, ahora, ahora.plus(lease)) == 1;
+    }
+}
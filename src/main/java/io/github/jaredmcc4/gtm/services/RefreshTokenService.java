@@ -35,7 +35,23 @@ public interface RefreshTokenService {
     void revocarRefreshToken(String token);
 
     /**
-     * Elimina o marca como revocados los refresh tokens ya expirados.
+     * Revoca las sesiones activas mas antiguas del usuario por encima del maximo permitido.
+     *
+     * @param usuarioId propietario
+     * @return sesiones revocadas
+     */
+    int limitarSesionesActivas(Long usuarioId);
+
+    /**
+     * Revoca todos los refresh tokens activos del usuario.
+     *
+     * @param usuarioId id del usuario
+     * @return cantidad de tokens revocados
+     */
+    int revocarSesionesUsuario(Long usuarioId);
+
+    /**
+     * Elimina los refresh tokens expirados o revocados.
      */
     void limpiarRefreshTokensExpirados();
 
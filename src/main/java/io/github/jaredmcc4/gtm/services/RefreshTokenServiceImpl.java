@@ -3,12 +3,16 @@ package io.github.jaredmcc4.gtm.services;
 import io.github.jaredmcc4.gtm.domain.RefreshToken;
 import io.github.jaredmcc4.gtm.domain.Usuario;
 import io.github.jaredmcc4.gtm.repository.RefreshTokenRepository;
+import io.github.jaredmcc4.gtm.util.TokenHashUtil;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
+import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
@@ -22,27 +26,38 @@ import java.util.UUID;
 public class RefreshTokenServiceImpl implements RefreshTokenService {
 
     private final RefreshTokenRepository refreshTokenRepository;
+    private final RefreshTokenPurgador refreshTokenPurgador;
+
+    @Value("${app.auth.refresh-token.max-sesiones:10}")
+    private int maxSesiones;
 
     /**
-     * Crea y guarda un refresh token para el usuario con la vigencia indicada.
+     * Crea y guarda un refresh token para el usuario con la vigencia indicada. Solo se
+     * persiste el hash; el valor queda en {@link RefreshToken#getValor()}.
      */
     @Override
     @Transactional
     public RefreshToken crearRefreshToken(Usuario usuario, long validezTiempo) {
+        String valor = UUID.randomUUID().toString();
         RefreshToken refreshToken = RefreshToken.builder()
                 .usuario(usuario)
-                .token(UUID.randomUUID().toString())
+                .tokenHash(TokenHashUtil.sha256(valor))
+                .valor(valor)
                 .expiresAt(LocalDateTime.now().plusMinutes(validezTiempo))
                 .build();
-        return refreshTokenRepository.save(refreshToken);
+        RefreshToken guardado = refreshTokenRepository.save(refreshToken);
+        limitarSesionesActivas(usuario.getId());
+        return guardado;
     }
 
     /**
-     * Valida que el token exista, no este revocado y no haya expirado.
+     * Valida que el token exista, no este revocado y no haya expirado. Busca por hash y,
+     * si no lo encuentra, por el valor en texto plano de las filas anteriores a {@code V10}.
      */
     @Override
     public Optional<RefreshToken> validarRefreshToken(String token) {
-        return refreshTokenRepository.findByTokenAndRevokedFalse(token)
+        return refreshTokenRepository.findByTokenHashAndRevokedFalse(TokenHashUtil.sha256(token))
+                .or(() -> refreshTokenRepository.findByTokenAndRevokedFalse(token))
                 .filter(rt -> rt.getExpiresAt().isAfter(LocalDateTime.now()));
     }
 
@@ -52,19 +67,55 @@ public class RefreshTokenServiceImpl implements RefreshTokenService {
     @Override
     @Transactional
     public void revocarRefreshToken(String token) {
-        refreshTokenRepository.findByToken(token).ifPresent(rt -> {
-            rt.setRevoked(true);
-            refreshTokenRepository.save(rt);
-        });
+        refreshTokenRepository.findByTokenHash(TokenHashUtil.sha256(token))
+                .or(() -> refreshTokenRepository.findByToken(token))
+                .ifPresent(rt -> {
+                    rt.setRevoked(true);
+                    refreshTokenRepository.save(rt);
+                });
+    }
+
+    /**
+     * Revoca las sesiones activas mas antiguas del usuario que excedan el maximo configurado;
+     * un maximo de 0 o menos desactiva el limite.
+     */
+    @Override
+    @Transactional
+    public int limitarSesionesActivas(Long usuarioId) {
+        if (maxSesiones <= 0) {
+            return 0;
+        }
+        List<Long> activos = refreshTokenRepository.findIdsActivosPorUsuario(usuarioId, LocalDateTime.now());
+        if (activos.size() <= maxSesiones) {
+            return 0;
+        }
+        int revocados = refreshTokenRepository.revocarPorIds(activos.subList(maxSesiones, activos.size()));
+        log.debug("Sesiones antiguas revocadas para usuario {}: {}", usuarioId, revocados);
+        return revocados;
     }
 
     /**
-     * Elimina los tokens cuya fecha de expiracion ya paso.
+     * Revoca todas las sesiones activas del usuario (cerrar sesion en todos los dispositivos).
      */
     @Override
     @Transactional
+    public int revocarSesionesUsuario(Long usuarioId) {
+        List<Long> activos = refreshTokenRepository.findIdsActivosPorUsuario(usuarioId, LocalDateTime.now());
+        if (activos.isEmpty()) {
+            return 0;
+        }
+        int revocados = refreshTokenRepository.revocarPorIds(activos);
+        log.debug("Sesiones revocadas para usuario {}: {}", usuarioId, revocados);
+        return revocados;
+    }
+
+    /**
+     * Elimina los tokens expirados o revocados en lotes, cada uno en su propia transaccion.
+     */
+    @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public void limpiarRefreshTokensExpirados() {
-        refreshTokenRepository.deleteExpiredTokens(LocalDateTime.now());
+        refreshTokenPurgador.purgar();
     }
 }
 
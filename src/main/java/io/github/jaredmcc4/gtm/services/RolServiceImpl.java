@@ -23,6 +23,7 @@ public class RolServiceImpl implements RolService {
 
     private final RolRepository rolRepository;
     private final UsuarioRepository usuarioRepository;
+    private final UsuarioCache usuarioCache;
 
     /**
      * Crea un rol si no existe otro con el mismo nombre.
@@ -56,6 +57,7 @@ public class RolServiceImpl implements RolService {
                 .orElseThrow(() -> new ResourceNotFoundException("Rol no encontrado."));
         usuario.getRoles().add(rol);
         usuarioRepository.save(usuario);
+        usuarioCache.invalidar(usuarioId);
     }
 }
 
@@ -0,0 +1,123 @@
+package io.github.jaredmcc4.gtm.services;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * Agrupa lecturas identicas concurrentes: mientras una llamada con la misma clave
+ * (usuario, operacion, argumentos normalizados) esta en curso, las siguientes esperan
+ * su resultado en lugar de repetir las consultas.
+ * <p>
+ * No es una cache: la entrada se elimina al terminar el calculo, asi que solo se comparten
+ * resultados entre llamadas simultaneas. El resultado se entrega a varios hilos, por lo que
+ * debe ser inmutable en la practica (DTOs ya mapeados o valores), nunca entidades ligadas al
+ * contexto de persistencia del hilo que lo calculo. Si la espera supera el limite, el llamador
+ * calcula por su cuenta; si el calculo falla, la excepcion se propaga a todos los que esperaban.
+ * Metricas: {@code gtm.single-flight.ejecuciones}, {@code gtm.single-flight.colapsadas} y
+ * {@code gtm.single-flight.esperas-agotadas}.
+ */
+@Slf4j
+@Component
+public class SingleFlight {
+
+    private final Map<Clave, CompletableFuture<Object>> enCurso = new ConcurrentHashMap<>();
+    private final boolean habilitado;
+    private final long esperaMs;
+    private final Counter ejecuciones;
+    private final Counter colapsadas;
+    private final Counter esperasAgotadas;
+
+    public SingleFlight(MeterRegistry meterRegistry,
+                        @Value("${app.single-flight.enabled:true}") boolean habilitado,
+                        @Value("${app.single-flight.espera-ms:2000}") long esperaMs) {
+        this.habilitado = habilitado;
+        this.esperaMs = esperaMs;
+        this.ejecuciones = Counter.builder("gtm.single-flight.ejecuciones")
+                .description("Lecturas calculadas por el primer llamador")
+                .register(meterRegistry);
+        this.colapsadas = Counter.builder("gtm.single-flight.colapsadas")
+                .description("Lecturas que reutilizaron un calculo en curso")
+                .register(meterRegistry);
+        this.esperasAgotadas = Counter.builder("gtm.single-flight.esperas-agotadas")
+                .description("Lecturas que dejaron de esperar y calcularon por su cuenta")
+                .register(meterRegistry);
+    }
+
+    private record Clave(Long usuarioId, String operacion, List<?> argumentos) {
+    }
+
+    /**
+     * Ejecuta {@code calculo} o se une a una ejecucion identica en curso.
+     *
+     * @param usuarioId usuario propietario de los datos
+     * @param operacion nombre estable de la lectura
+     * @param argumentos argumentos ya normalizados (admite nulls)
+     * @param calculo lectura a realizar
+     * @return resultado propio o compartido
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T ejecutar(Long usuarioId, String operacion, List<?> argumentos, Supplier<T> calculo) {
+        if (!habilitado) {
+            return calculo.get();
+        }
+        Clave clave = new Clave(usuarioId, operacion, argumentos);
+        CompletableFuture<Object> propio = new CompletableFuture<>();
+        CompletableFuture<Object> existente = enCurso.putIfAbsent(clave, propio);
+        if (existente == null) {
+            return calcular(clave, propio, calculo);
+        }
+
+        colapsadas.increment();
+        try {
+            return (T) existente.get(esperaMs, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException ex) {
+            esperasAgotadas.increment();
+            log.debug("Espera agotada para {} del usuario {}, se calcula aparte", operacion, usuarioId);
+            return calculo.get();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Lectura interrumpida mientras esperaba un calculo en curso", ex);
+        } catch (ExecutionException ex) {
+            if (ex.getCause() instanceof RuntimeException causa) {
+                throw causa;
+            }
+            if (ex.getCause() instanceof Error error) {
+                throw error;
+            }
+            throw new IllegalStateException(ex.getCause());
+        }
+    }
+
+    /**
+     * Llamadas en curso; sirve para diagnostico y pruebas.
+     */
+    public int enCurso() {
+        return enCurso.size();
+    }
+
+    private <T> T calcular(Clave clave, CompletableFuture<Object> propio, Supplier<T> calculo) {
+        ejecuciones.increment();
+        try {
+            T resultado = calculo.get();
+            propio.complete(resultado);
+            return resultado;
+        } catch (RuntimeException | Error ex) {
+            propio.completeExceptionally(ex);
+            throw ex;
+        } finally {
+            enCurso.remove(clave, propio);
+        }
+    }
+}
@@ -3,6 +3,7 @@ package io.github.jaredmcc4.gtm.services;
 import io.github.jaredmcc4.gtm.config.OAuthProviderProperties;
 import io.github.jaredmcc4.gtm.domain.Rol;
 import io.github.jaredmcc4.gtm.domain.Usuario;
+import io.github.jaredmcc4.gtm.domain.UsuarioIdentidad;
 import io.github.jaredmcc4.gtm.dto.auth.JwtResponse;
 import io.github.jaredmcc4.gtm.dto.auth.OAuthProvider;
 import io.github.jaredmcc4.gtm.dto.auth.OAuthUserInfo;
@@ -10,16 +11,20 @@ import io.github.jaredmcc4.gtm.dto.auth.SocialLoginRequest;
 import io.github.jaredmcc4.gtm.exception.ResourceNotFoundException;
 import io.github.jaredmcc4.gtm.exception.UnauthorizedException;
 import io.github.jaredmcc4.gtm.repository.RolRepository;
+import io.github.jaredmcc4.gtm.repository.UsuarioIdentidadRepository;
 import io.github.jaredmcc4.gtm.repository.UsuarioRepository;
-import lombok.RequiredArgsConstructor;
+import jakarta.annotation.PreDestroy;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.security.authentication.BadCredentialsException;
-import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.util.LinkedMultiValueMap;
 import org.springframework.util.MultiValueMap;
 import org.springframework.util.StringUtils;
@@ -29,37 +34,68 @@ import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
-import java.util.UUID;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 /**
  * Login social: intercambia el code/access token con el proveedor, obtiene el perfil y emite JWT propios.
+ * El usuario se busca por la identidad del proveedor ({@link UsuarioIdentidad}) y, si aun no esta
+ * vinculada, por email; las cuentas nuevas se crean sin contrasena ({@link Usuario#SIN_CONTRASENA}).
+ * Las llamadas al proveedor quedan fuera de transaccion; la busqueda o creacion va en una propia
+ * y, si un primer login simultaneo del mismo usuario gana la clave unica, se repite en otra
+ * transaccion que ya encuentra la cuenta o la identidad creada.
  */
 @Service
-@RequiredArgsConstructor
 @Slf4j
 public class SocialAuthServiceImpl implements SocialAuthService {
 
     private final OAuthProviderProperties oauthProperties;
     private final UsuarioRepository usuarioRepository;
     private final RolRepository rolRepository;
-    private final PasswordEncoder passwordEncoder;
+    private final UsuarioIdentidadRepository usuarioIdentidadRepository;
     private final AuthService authService;
     private final RestClient.Builder restClientBuilder;
+    private final TransactionTemplate transactionTemplate;
+    private final ExecutorService llamadasProveedor = Executors.newVirtualThreadPerTaskExecutor();
+
+    public SocialAuthServiceImpl(OAuthProviderProperties oauthProperties,
+                                 UsuarioRepository usuarioRepository,
+                                 RolRepository rolRepository,
+                                 UsuarioIdentidadRepository usuarioIdentidadRepository,
+                                 AuthService authService,
+                                 RestClient.Builder restClientBuilder,
+                                 PlatformTransactionManager transactionManager) {
+        this.oauthProperties = oauthProperties;
+        this.usuarioRepository = usuarioRepository;
+        this.rolRepository = rolRepository;
+        this.usuarioIdentidadRepository = usuarioIdentidadRepository;
+        this.authService = authService;
+        this.restClientBuilder = restClientBuilder;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
 
     @Override
-    @Transactional
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public JwtResponse login(SocialLoginRequest request) {
         OAuthProvider provider = Objects.requireNonNull(request.getProvider(), "El proveedor es obligatorio");
         OAuthProviderProperties.Provider cfg = oauthProperties.getProvider(provider);
         validarConfiguracion(cfg, provider);
 
+        RestClient restClient = restClientBuilder.build();
         String accessToken = StringUtils.hasText(request.getAccessToken())
                 ? request.getAccessToken()
-                : intercambiarCodigoPorToken(cfg, provider, request);
+                : intercambiarCodigoPorToken(restClient, cfg, provider, request);
 
-        OAuthUserInfo userInfo = obtenerPerfil(provider, cfg, accessToken);
-        Usuario usuario = usuarioRepository.findByEmail(userInfo.email())
-                .orElseGet(() -> crearUsuarioDesdeOAuth(userInfo, provider));
+        OAuthUserInfo userInfo = obtenerPerfil(restClient, provider, cfg, accessToken);
+        Usuario usuario;
+        try {
+            usuario = transactionTemplate.execute(status -> buscarOCrearUsuario(userInfo, provider));
+        } catch (DataIntegrityViolationException ex) {
+            log.debug("Cuenta o identidad de {} creada en paralelo por otro login", provider);
+            usuario = transactionTemplate.execute(status -> buscarOCrearUsuario(userInfo, provider));
+        }
 
         if (!usuario.isActivo()) {
             throw new UnauthorizedException("El usuario está desactivado.");
@@ -68,6 +104,14 @@ public class SocialAuthServiceImpl implements SocialAuthService {
         return authService.emitirTokensParaUsuario(usuario);
     }
 
+    /**
+     * Detiene el executor de llamadas al proveedor al cerrar el contexto.
+     */
+    @PreDestroy
+    public void cerrar() {
+        llamadasProveedor.shutdownNow();
+    }
+
     private void validarConfiguracion(OAuthProviderProperties.Provider cfg, OAuthProvider provider) {
         if (!StringUtils.hasText(cfg.getClientId()) || !StringUtils.hasText(cfg.getClientSecret())) {
             log.error("OAuth {} - clientId presente: {}, clientSecret presente: {}", 
@@ -79,7 +123,8 @@ public class SocialAuthServiceImpl implements SocialAuthService {
         }
     }
 
-    private String intercambiarCodigoPorToken(OAuthProviderProperties.Provider cfg, OAuthProvider provider, SocialLoginRequest request) {
+    private String intercambiarCodigoPorToken(RestClient restClient, OAuthProviderProperties.Provider cfg,
+                                              OAuthProvider provider, SocialLoginRequest request) {
         if (!StringUtils.hasText(request.getCode())) {
             throw new BadCredentialsException("No se recibió authorization code ni access token.");
         }
@@ -99,7 +144,7 @@ public class SocialAuthServiceImpl implements SocialAuthService {
         }
 
         log.info("Intercambiando authorization code con {}", provider);
-        Map<String, Object> tokenResponse = restClientBuilder.build()
+        Map<String, Object> tokenResponse = restClient
                 .post()
                 .uri(cfg.getTokenUri())
                 .contentType(MediaType.APPLICATION_FORM_URLENCODED)
@@ -117,15 +162,16 @@ public class SocialAuthServiceImpl implements SocialAuthService {
         return token;
     }
 
-    private OAuthUserInfo obtenerPerfil(OAuthProvider provider, OAuthProviderProperties.Provider cfg, String accessToken) {
+    private OAuthUserInfo obtenerPerfil(RestClient restClient, OAuthProvider provider,
+                                        OAuthProviderProperties.Provider cfg, String accessToken) {
         return switch (provider) {
-            case GOOGLE -> parseOpenIdProfile(requestUserInfo(cfg.getUserInfoUri(), accessToken), provider);
-            case GITHUB -> parseGithubProfile(cfg, accessToken);
+            case GOOGLE -> parseOpenIdProfile(requestUserInfo(restClient, cfg.getUserInfoUri(), accessToken), provider);
+            case GITHUB -> parseGithubProfile(restClient, cfg, accessToken);
         };
     }
 
-    private Map<String, Object> requestUserInfo(String uri, String accessToken) {
-        return restClientBuilder.build()
+    private Map<String, Object> requestUserInfo(RestClient restClient, String uri, String accessToken) {
+        return restClient
                 .get()
                 .uri(uri)
                 .accept(MediaType.APPLICATION_JSON)
@@ -147,23 +193,42 @@ public class SocialAuthServiceImpl implements SocialAuthService {
         return new OAuthUserInfo(email, name, sub);
     }
 
-    private OAuthUserInfo parseGithubProfile(OAuthProviderProperties.Provider cfg, String accessToken) {
-        Map<String, Object> userProfile = restClientBuilder.build()
-                .get()
-                .uri(cfg.getUserInfoUri())
-                .accept(MediaType.APPLICATION_JSON)
-                .header(HttpHeaders.AUTHORIZATION, "token " + accessToken)
-                .retrieve()
-                .body(new ParameterizedTypeReference<Map<String, Object>>() {});
+    /**
+     * Pide {@code /user} y {@code /user/emails} a la vez: el email del perfil suele ser nulo
+     * (email privado), y esperar a conocerlo antes de pedir la lista suma otra ida y vuelta.
+     * Si el perfil trae email, la lista se descarta aunque haya fallado.
+     */
+    private OAuthUserInfo parseGithubProfile(RestClient restClient, OAuthProviderProperties.Provider cfg,
+                                             String accessToken) {
+        Future<String> emailPrimario = StringUtils.hasText(cfg.getEmailsUri())
+                ? llamadasProveedor.submit(() -> obtenerEmailPrimarioGithub(restClient, cfg.getEmailsUri(), accessToken))
+                : null;
+        try {
+            Map<String, Object> userProfile = restClient
+                    .get()
+                    .uri(cfg.getUserInfoUri())
+                    .accept(MediaType.APPLICATION_JSON)
+                    .header(HttpHeaders.AUTHORIZATION, "token " + accessToken)
+                    .retrieve()
+                    .body(new ParameterizedTypeReference<Map<String, Object>>() {});
 
-        if (userProfile == null) {
-            throw new IllegalStateException("No se pudo obtener el perfil de GitHub.");
-        }
+            if (userProfile == null) {
+                throw new IllegalStateException("No se pudo obtener el perfil de GitHub.");
+            }
 
-        String email = Objects.toString(userProfile.get("email"), null);
-        if (!StringUtils.hasText(email) && StringUtils.hasText(cfg.getEmailsUri())) {
-            email = obtenerEmailPrimarioGithub(cfg.getEmailsUri(), accessToken);
+            String email = Objects.toString(userProfile.get("email"), null);
+            if (!StringUtils.hasText(email) && emailPrimario != null) {
+                email = esperarEmail(emailPrimario);
+            }
+            return perfilGithub(userProfile, email);
+        } finally {
+            if (emailPrimario != null) {
+                emailPrimario.cancel(true);
+            }
         }
+    }
+
+    private static OAuthUserInfo perfilGithub(Map<String, Object> userProfile, String email) {
         if (!StringUtils.hasText(email)) {
             throw new IllegalStateException("GitHub no devolvió un email. Asegúrate de pedir el scope user:email.");
         }
@@ -177,8 +242,22 @@ public class SocialAuthServiceImpl implements SocialAuthService {
         return new OAuthUserInfo(email, name, id);
     }
 
-    private String obtenerEmailPrimarioGithub(String emailsUri, String accessToken) {
-        List<Map<String, Object>> emails = restClientBuilder.build()
+    private static String esperarEmail(Future<String> emailPrimario) {
+        try {
+            return emailPrimario.get();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Se interrumpio la consulta de emails de GitHub.", ex);
+        } catch (ExecutionException ex) {
+            if (ex.getCause() instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            throw new IllegalStateException(ex.getCause());
+        }
+    }
+
+    private static String obtenerEmailPrimarioGithub(RestClient restClient, String emailsUri, String accessToken) {
+        List<Map<String, Object>> emails = restClient
                 .get()
                 .uri(emailsUri)
                 .accept(MediaType.APPLICATION_JSON)
@@ -202,14 +281,36 @@ public class SocialAuthServiceImpl implements SocialAuthService {
                         .orElse(null));
     }
 
-    private Usuario crearUsuarioDesdeOAuth(OAuthUserInfo userInfo, OAuthProvider provider) {
+    /**
+     * Busca al usuario por la identidad del proveedor; si no esta vinculada lo busca por email
+     * (o lo crea) y guarda la identidad para los siguientes logins.
+     */
+    private Usuario buscarOCrearUsuario(OAuthUserInfo userInfo, OAuthProvider provider) {
+        String sujeto = userInfo.providerId();
+        if (!StringUtils.hasText(sujeto)) {
+            return usuarioRepository.findByEmail(userInfo.email())
+                    .orElseGet(() -> crearUsuarioDesdeOAuth(userInfo));
+        }
+        return usuarioIdentidadRepository.findUsuario(provider.name(), sujeto)
+                .orElseGet(() -> {
+                    Usuario usuario = usuarioRepository.findByEmail(userInfo.email())
+                            .orElseGet(() -> crearUsuarioDesdeOAuth(userInfo));
+                    usuarioIdentidadRepository.save(UsuarioIdentidad.builder()
+                            .usuario(usuario)
+                            .proveedor(provider.name())
+                            .sujeto(sujeto)
+                            .build());
+                    return usuario;
+                });
+    }
+
+    private Usuario crearUsuarioDesdeOAuth(OAuthUserInfo userInfo) {
         Rol rolUser = rolRepository.findByNombreRol("USER")
                 .orElseThrow(() -> new ResourceNotFoundException("El rol de usuario no existe."));
 
-        String randomPassword = "oauth-" + provider.name().toLowerCase() + "-" + UUID.randomUUID();
         Usuario usuario = Usuario.builder()
                 .email(userInfo.email())
-                .contrasenaHash(passwordEncoder.encode(randomPassword))
+                .contrasenaHash(Usuario.SIN_CONTRASENA)
                 .nombreUsuario(StringUtils.hasText(userInfo.displayName()) ? userInfo.displayName() : userInfo.email())
                 .activo(true)
                 .roles(new HashSet<>(List.of(rolUser)))
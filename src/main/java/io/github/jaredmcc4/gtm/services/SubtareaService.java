@@ -45,4 +45,14 @@ public interface SubtareaService {
      * @return lista de subtareas (puede ser vacia)
      */
     List<Subtarea> mostrarSubtareas(Long tareaId, Long usuarioId);
+
+    /**
+     * Mueve una subtarea en el orden manual de su tarea, reescribiendo solo su posicion.
+     *
+     * @param subtareaId subtarea a mover
+     * @param anteriorId subtarea que quedara justo antes o null para moverla al inicio
+     * @param usuarioId propietario autenticado
+     * @return subtarea con su nueva posicion
+     */
+    Subtarea moverSubtarea(Long subtareaId, Long anteriorId, Long usuarioId);
 }
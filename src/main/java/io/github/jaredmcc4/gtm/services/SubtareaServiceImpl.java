@@ -1,20 +1,23 @@
 package io.github.jaredmcc4.gtm.services;
 
+import io.github.jaredmcc4.gtm.domain.OutboxEvento;
 import io.github.jaredmcc4.gtm.domain.Subtarea;
 import io.github.jaredmcc4.gtm.domain.Tarea;
 import io.github.jaredmcc4.gtm.exception.ResourceNotFoundException;
 import io.github.jaredmcc4.gtm.repository.SubtareaRepository;
 import io.github.jaredmcc4.gtm.repository.TareaRepository;
+import io.github.jaredmcc4.gtm.util.PosicionUtil;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
+import java.util.Map;
 
 /**
  * Implementacion de {@link SubtareaService} que valida propiedad del usuario
- * y reglas de longitud/titulo para subtareas.
+ * y reglas de longitud/titulo para subtareas, manteniendo los contadores de la tarea padre.
  */
 @Slf4j
 @Service
@@ -24,9 +27,13 @@ public class SubtareaServiceImpl implements SubtareaService {
 
     private final TareaRepository tareaRepository;
     private final SubtareaRepository subtareaRepository;
+    private final SubtareaToggleBuffer subtareaToggleBuffer;
+    private final PosicionRebalanceador posicionRebalanceador;
+    private final OutboxService outboxService;
 
     /**
-     * Crea una subtarea en una tarea del usuario, validando titulo.
+     * Crea una subtarea en una tarea del usuario, validando titulo. Toma el bloqueo de orden
+     * del usuario antes de leer la ultima posicion para que dos altas no repitan clave.
      */
     @Override
     @Transactional
@@ -35,18 +42,37 @@ public class SubtareaServiceImpl implements SubtareaService {
                 .orElseThrow(() -> new ResourceNotFoundException("Tarea no encontrada o no pertenece al usuario."));
         validarSubtarea(subtarea);
         subtarea.setTarea(tarea);
-        return subtareaRepository.save(subtarea);
+        posicionRebalanceador.bloquear(usuarioId);
+        subtarea.setPosicion(PosicionUtil.despuesDe(subtareaRepository.findUltimaPosicion(tarea.getId())));
+        Subtarea creada = subtareaRepository.save(subtarea);
+        tareaRepository.ajustarContadoresSubtareas(tarea.getId(), 1, Boolean.TRUE.equals(creada.getCompletada()) ? 1 : 0);
+        outboxService.registrar(usuarioId, OutboxEvento.Agregado.SUBTAREA, creada.getId(), OutboxEvento.Tipo.CREADO,
+                Map.of("tareaId", tarea.getId()));
+        return creada;
     }
 
     /**
-     * Actualiza titulo o estado de una subtarea del usuario.
+     * Actualiza titulo o estado de una subtarea del usuario. Un cambio solo de estado
+     * se difiere al {@link SubtareaToggleBuffer} cuando esta habilitado; el resto bloquea la
+     * subtarea frente al vaciado antes de leerla.
      */
     @Override
     @Transactional
     public Subtarea actualizarSubtarea(Long subtareaId, Subtarea subtareaActualizada, Long usuarioId) {
         log.info("Actualizando subtarea con ID: {} Usuario ID: {}", subtareaId, usuarioId);
+        subtareaToggleBuffer.bloquear(subtareaId);
         Subtarea actual = obtenerSubtareaPropia(subtareaId, usuarioId);
 
+        String titulo = subtareaActualizada.getTitulo();
+        boolean soloEstado = subtareaActualizada.getCompletada() != null
+                && (titulo == null || titulo.isBlank() || titulo.equals(actual.getTitulo()));
+        if (soloEstado && subtareaToggleBuffer.registrar(actual.getId(), actual.getTarea().getId(), usuarioId, subtareaActualizada.getCompletada())) {
+            return copiarConEstado(actual, subtareaActualizada.getCompletada());
+        }
+
+        boolean completadaAntes = Boolean.TRUE.equals(actual.getCompletada());
+        subtareaToggleBuffer.extraer(subtareaId)
+                .ifPresent(pendiente -> actual.setCompletada(pendiente.completada()));
         if (subtareaActualizada.getTitulo() != null && !subtareaActualizada.getTitulo().isBlank()) {
             if (subtareaActualizada.getTitulo().length() > 120) {
                 throw new IllegalArgumentException("El título de la subtarea no puede ser mayor a 120 caracteres.");
@@ -57,7 +83,14 @@ public class SubtareaServiceImpl implements SubtareaService {
             actual.setCompletada(subtareaActualizada.getCompletada());
         }
 
-        return subtareaRepository.save(actual);
+        Subtarea guardada = subtareaRepository.save(actual);
+        boolean completadaDespues = Boolean.TRUE.equals(guardada.getCompletada());
+        if (completadaAntes != completadaDespues) {
+            tareaRepository.ajustarContadoresSubtareas(actual.getTarea().getId(), 0, completadaDespues ? 1 : -1);
+        }
+        outboxService.registrar(usuarioId, OutboxEvento.Agregado.SUBTAREA, subtareaId, OutboxEvento.Tipo.ACTUALIZADO,
+                Map.of("tareaId", actual.getTarea().getId()));
+        return guardada;
     }
 
     /**
@@ -66,8 +99,13 @@ public class SubtareaServiceImpl implements SubtareaService {
     @Override
     @Transactional
     public void eliminarSubtarea(Long subtareaId, Long usuarioId) {
+        subtareaToggleBuffer.bloquear(subtareaId);
         Subtarea actual = obtenerSubtareaPropia(subtareaId, usuarioId);
+        subtareaToggleBuffer.extraer(subtareaId);
         subtareaRepository.delete(actual);
+        tareaRepository.ajustarContadoresSubtareas(actual.getTarea().getId(), -1, Boolean.TRUE.equals(actual.getCompletada()) ? -1 : 0);
+        outboxService.registrar(usuarioId, OutboxEvento.Agregado.SUBTAREA, subtareaId, OutboxEvento.Tipo.ELIMINADO,
+                Map.of("tareaId", actual.getTarea().getId()));
     }
 
     /**
@@ -77,7 +115,57 @@ public class SubtareaServiceImpl implements SubtareaService {
     public List<Subtarea> mostrarSubtareas(Long tareaId, Long usuarioId) {
         tareaRepository.findByIdAndUsuarioId(tareaId, usuarioId)
                 .orElseThrow(() -> new ResourceNotFoundException("Tarea no encontrada o no pertenece al usuario."));
-        return subtareaRepository.findByTareaId(tareaId);
+        return subtareaRepository.findByTareaIdOrderByPosicionAscIdAsc(tareaId).stream()
+                .map(subtarea -> subtareaToggleBuffer.consultar(subtarea.getId())
+                        .map(pendiente -> copiarConEstado(subtarea, pendiente.completada()))
+                        .orElse(subtarea))
+                .toList();
+    }
+
+    /**
+     * Mueve una subtarea dentro de su tarea; el vecino anterior debe pertenecer a la misma tarea.
+     */
+    @Override
+    @Transactional
+    public Subtarea moverSubtarea(Long subtareaId, Long anteriorId, Long usuarioId) {
+        log.info("Moviendo subtarea con ID: {} despues de: {} Usuario ID: {}", subtareaId, anteriorId, usuarioId);
+        posicionRebalanceador.bloquear(usuarioId);
+        Subtarea subtarea = obtenerSubtareaPropia(subtareaId, usuarioId);
+        Long tareaId = subtarea.getTarea().getId();
+        if (anteriorId != null) {
+            if (anteriorId.equals(subtareaId)) {
+                throw new IllegalArgumentException("Una subtarea no puede colocarse despues de si misma.");
+            }
+            Subtarea anterior = obtenerSubtareaPropia(anteriorId, usuarioId);
+            if (!tareaId.equals(anterior.getTarea().getId())) {
+                throw new IllegalArgumentException("Las subtareas deben pertenecer a la misma tarea.");
+            }
+        }
+
+        String posicion = calcularPosicion(tareaId, subtareaId, anteriorId);
+        if (posicion.length() > PosicionUtil.LONGITUD_MAXIMA) {
+            posicionRebalanceador.rebalancearSubtareas(usuarioId, tareaId);
+            posicion = calcularPosicion(tareaId, subtareaId, anteriorId);
+        }
+        posicionRebalanceador.revisarSubtareas(usuarioId, tareaId, posicion);
+        subtarea.setPosicion(posicion);
+        Subtarea guardada = subtareaRepository.save(subtarea);
+        outboxService.registrar(usuarioId, OutboxEvento.Agregado.SUBTAREA, subtareaId, OutboxEvento.Tipo.MOVIDO,
+                Map.of("tareaId", tareaId, "posicion", posicion));
+        return subtareaToggleBuffer.consultar(subtareaId)
+                .map(pendiente -> copiarConEstado(guardada, pendiente.completada()))
+                .orElse(guardada);
+    }
+
+    /**
+     * Clave entre la subtarea anterior indicada y la que hoy le sigue (ignorando la subtarea movida).
+     */
+    private String calcularPosicion(Long tareaId, Long subtareaId, Long anteriorId) {
+        if (anteriorId == null) {
+            return PosicionUtil.calcular(null, subtareaRepository.findPrimeraPosicion(tareaId, subtareaId));
+        }
+        String anterior = subtareaRepository.findPosicionById(anteriorId);
+        return PosicionUtil.calcular(anterior, subtareaRepository.findPosicionSiguiente(tareaId, anterior, subtareaId));
     }
 
     /**
@@ -93,6 +181,20 @@ public class SubtareaServiceImpl implements SubtareaService {
         }
     }
 
+    /**
+     * Copia no gestionada de la subtarea con el estado pendiente de persistir,
+     * para no provocar escrituras por dirty checking.
+     */
+    private Subtarea copiarConEstado(Subtarea subtarea, boolean completada) {
+        return Subtarea.builder()
+                .id(subtarea.getId())
+                .tarea(subtarea.getTarea())
+                .titulo(subtarea.getTitulo())
+                .completada(completada)
+                .posicion(subtarea.getPosicion())
+                .build();
+    }
+
     /**
      * Recupera una subtarea asegurando que pertenece al usuario.
      *
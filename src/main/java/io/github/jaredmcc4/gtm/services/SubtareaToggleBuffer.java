@@ -0,0 +1,249 @@
+package io.github.jaredmcc4.gtm.services;
+
+import io.github.jaredmcc4.gtm.domain.OutboxEvento;
+import io.github.jaredmcc4.gtm.repository.SubtareaRepository;
+import io.github.jaredmcc4.gtm.repository.TareaRepository;
+import io.github.jaredmcc4.gtm.util.TransaccionUtil;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Predicate;
+
+/**
+ * Buffer de escritura diferida para los cambios de estado (completada) de subtareas.
+ * <p>
+ * Los toggles repetidos sobre la misma subtarea se fusionan en memoria y solo el ultimo
+ * valor se persiste en el siguiente vaciado, agrupado en sentencias {@code UPDATE ... IN};
+ * despues se recalcula el contador de completadas de las tareas afectadas y se registra un
+ * evento en el outbox por subtarea, todo en la misma transaccion.
+ * Es opt-in: si esta deshabilitado o lleno, {@link #registrar} devuelve {@code false} y el
+ * llamador debe escribir de forma sincrona. Los cambios pendientes se pierden si el proceso
+ * termina abruptamente antes del vaciado (ventana acotada por el intervalo configurado).
+ * <p>
+ * Las escrituras sincronas llaman a {@link #bloquear} antes de leer la subtarea: el vaciado
+ * no toma subtareas bloqueadas y la escritura espera a que termine un vaciado en curso, de
+ * modo que un UPDATE diferido nunca se confirma despues de un valor mas reciente.
+ * <p>
+ * Las lecturas de tareas vacian antes los pendientes del usuario ({@link #vaciarUsuario}) para que
+ * los contadores y la version de datos ya reflejen los toggles; eliminar una tarea descarta los
+ * pendientes de sus subtareas ({@link #descartarTarea}).
+ */
+@Slf4j
+@Component
+public class SubtareaToggleBuffer {
+
+    private static final int TAMANO_LOTE = 500;
+    private static final int FRANJAS = 64;
+
+    private final SubtareaRepository subtareaRepository;
+    private final TareaRepository tareaRepository;
+    private final OutboxService outboxService;
+    private final TransactionTemplate transactionTemplate;
+    private final boolean habilitado;
+    private final int maxPendientes;
+    private final Map<Long, Pendiente> pendientes = new ConcurrentHashMap<>();
+    private final ReentrantLock[] franjas = new ReentrantLock[FRANJAS];
+
+    public SubtareaToggleBuffer(SubtareaRepository subtareaRepository,
+                                TareaRepository tareaRepository,
+                                OutboxService outboxService,
+                                PlatformTransactionManager transactionManager,
+                                @Value("${app.subtareas.write-behind.enabled:false}") boolean habilitado,
+                                @Value("${app.subtareas.write-behind.max-pendientes:10000}") int maxPendientes) {
+        this.subtareaRepository = subtareaRepository;
+        this.tareaRepository = tareaRepository;
+        this.outboxService = outboxService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.habilitado = habilitado;
+        this.maxPendientes = maxPendientes;
+        for (int i = 0; i < FRANJAS; i++) {
+            franjas[i] = new ReentrantLock();
+        }
+    }
+
+    /**
+     * Estado pendiente de persistir para una subtarea.
+     *
+     * @param tareaId tarea padre de la subtarea
+     * @param usuarioId propietario, para el evento de outbox
+     * @param completada ultimo valor solicitado
+     */
+    public record Pendiente(Long tareaId, Long usuarioId, boolean completada) {
+    }
+
+    /**
+     * Registra el nuevo estado de una subtarea ya validada para el usuario.
+     *
+     * @return {@code true} si quedo en el buffer; {@code false} si debe escribirse en linea
+     */
+    public boolean registrar(Long subtareaId, Long tareaId, Long usuarioId, boolean completada) {
+        if (!habilitado) {
+            return false;
+        }
+        if (pendientes.size() >= maxPendientes && !pendientes.containsKey(subtareaId)) {
+            log.debug("Buffer de subtareas lleno ({}), escritura sincrona para {}", maxPendientes, subtareaId);
+            return false;
+        }
+        pendientes.put(subtareaId, new Pendiente(tareaId, usuarioId, completada));
+        return true;
+    }
+
+    /**
+     * Estado pendiente de una subtarea, si existe.
+     */
+    public Optional<Pendiente> consultar(Long subtareaId) {
+        return Optional.ofNullable(pendientes.get(subtareaId));
+    }
+
+    /**
+     * Bloquea la subtarea frente al vaciado hasta que termine la transaccion en curso; si hay un
+     * vaciado en curso que la incluye, espera a que se confirme. Debe llamarse antes de leerla.
+     */
+    public void bloquear(Long subtareaId) {
+        if (!habilitado) {
+            return;
+        }
+        ReentrantLock franja = franja(subtareaId);
+        franja.lock();
+        TransaccionUtil.alTerminar(franja::unlock);
+    }
+
+    /**
+     * Retira el estado pendiente de una subtarea para que la escritura sincrona lo incorpore.
+     */
+    public Optional<Pendiente> extraer(Long subtareaId) {
+        return Optional.ofNullable(pendientes.remove(subtareaId));
+    }
+
+    /**
+     * Cantidad de subtareas con cambios sin persistir.
+     */
+    public int pendientes() {
+        return pendientes.size();
+    }
+
+    /**
+     * Persiste todos los cambios pendientes; se ejecuta periodicamente y al apagar la aplicacion.
+     */
+    @PreDestroy
+    @Scheduled(fixedDelayString = "${app.subtareas.write-behind.flush-interval-ms:250}")
+    public synchronized void vaciar() {
+        vaciar(pendiente -> true);
+    }
+
+    /**
+     * Persiste en el momento los cambios pendientes del usuario; no hace nada si no tiene.
+     * Debe llamarse fuera de una transaccion, antes de leer sus tareas o su version de datos.
+     */
+    public void vaciarUsuario(Long usuarioId) {
+        if (pendientes.values().stream().noneMatch(pendiente -> pendiente.usuarioId().equals(usuarioId))) {
+            return;
+        }
+        synchronized (this) {
+            vaciar(pendiente -> pendiente.usuarioId().equals(usuarioId));
+        }
+    }
+
+    /**
+     * Descarta los cambios pendientes de las subtareas de una tarea que se va a eliminar, para que
+     * un vaciado posterior no registre eventos sobre subtareas borradas. Bloquea sus subtareas
+     * hasta que termine la transaccion en curso (en orden de franja, esperando a un vaciado que
+     * las incluya).
+     */
+    public void descartarTarea(Long tareaId) {
+        if (!habilitado) {
+            return;
+        }
+        List<Long> subtareas = subtareaRepository.findIdsOrdenadosPorPosicion(tareaId);
+        Set<Integer> indices = new TreeSet<>();
+        subtareas.forEach(subtareaId -> indices.add(indice(subtareaId)));
+        for (int indice : indices) {
+            ReentrantLock franja = franjas[indice];
+            franja.lock();
+            TransaccionUtil.alTerminar(franja::unlock);
+        }
+        subtareas.forEach(pendientes::remove);
+    }
+
+    private void vaciar(Predicate<Pendiente> filtro) {
+        if (pendientes.isEmpty()) {
+            return;
+        }
+        List<Long> completadas = new ArrayList<>();
+        List<Long> pendientesDeCompletar = new ArrayList<>();
+        Map<Long, Pendiente> tomados = new HashMap<>();
+        List<ReentrantLock> bloqueadas = new ArrayList<>();
+
+        try {
+            for (Map.Entry<Long, Pendiente> entry : pendientes.entrySet()) {
+                if (!filtro.test(entry.getValue())) {
+                    continue;
+                }
+                ReentrantLock franja = franja(entry.getKey());
+                if (!franja.isHeldByCurrentThread()) {
+                    if (!franja.tryLock()) {
+                        continue;
+                    }
+                    bloqueadas.add(franja);
+                }
+                if (pendientes.remove(entry.getKey(), entry.getValue())) {
+                    tomados.put(entry.getKey(), entry.getValue());
+                    (entry.getValue().completada() ? completadas : pendientesDeCompletar).add(entry.getKey());
+                }
+            }
+            if (!tomados.isEmpty()) {
+                persistir(completadas, pendientesDeCompletar, tomados);
+            }
+        } finally {
+            bloqueadas.forEach(ReentrantLock::unlock);
+        }
+    }
+
+    private void persistir(List<Long> completadas, List<Long> pendientesDeCompletar, Map<Long, Pendiente> tomados) {
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                escribir(completadas, true);
+                escribir(pendientesDeCompletar, false);
+                Set<Long> tareas = new HashSet<>();
+                tomados.values().forEach(pendiente -> tareas.add(pendiente.tareaId()));
+                tareaRepository.recalcularSubtareasCompletadas(tareas);
+                tomados.forEach((subtareaId, pendiente) -> outboxService.registrar(pendiente.usuarioId(),
+                        OutboxEvento.Agregado.SUBTAREA, subtareaId, OutboxEvento.Tipo.ACTUALIZADO,
+                        Map.of("tareaId", pendiente.tareaId())));
+            });
+            log.debug("Subtareas vaciadas: {} completadas, {} pendientes", completadas.size(), pendientesDeCompletar.size());
+        } catch (RuntimeException ex) {
+            log.warn("No se pudo vaciar el buffer de subtareas, se reintentara: {}", ex.getMessage());
+            tomados.forEach(pendientes::putIfAbsent);
+        }
+    }
+
+    private ReentrantLock franja(Long subtareaId) {
+        return franjas[indice(subtareaId)];
+    }
+
+    private int indice(Long subtareaId) {
+        return Math.floorMod(Long.hashCode(subtareaId), FRANJAS);
+    }
+
+    private void escribir(List<Long> ids, boolean completada) {
+        for (int i = 0; i < ids.size(); i += TAMANO_LOTE) {
+            subtareaRepository.actualizarCompletadaEnLote(ids.subList(i, Math.min(i + TAMANO_LOTE, ids.size())), completada);
+        }
+    }
+}
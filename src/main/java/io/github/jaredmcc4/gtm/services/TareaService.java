@@ -2,6 +2,7 @@ package io.github.jaredmcc4.gtm.services;
 
 import io.github.jaredmcc4.gtm.domain.Tarea;
 import io.github.jaredmcc4.gtm.domain.Usuario;
+import io.github.jaredmcc4.gtm.dto.tarea.ActualizacionLoteRequest;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 
@@ -106,4 +107,24 @@ public interface TareaService {
      * @return total de tareas en ese estado
      */
     long contarTareasPorEstado(Long usuarioId, Tarea.EstadoTarea estado);
+
+    /**
+     * Mueve una tarea en el orden manual del usuario, reescribiendo solo su posicion.
+     *
+     * @param tareaId tarea a mover
+     * @param anteriorId tarea que quedara justo antes o null para moverla al inicio
+     * @param usuarioId propietario autenticado
+     * @return tarea con su nueva posicion
+     */
+    Tarea moverTarea(Long tareaId, Long anteriorId, Long usuarioId);
+
+    /**
+     * Aplica un mismo cambio a todas las tareas del usuario que cumplen el filtro
+     * con una unica sentencia UPDATE.
+     *
+     * @param usuarioId propietario autenticado
+     * @param request filtro y cambio a aplicar
+     * @return cantidad de tareas modificadas
+     */
+    int actualizarTareasEnLote(Long usuarioId, ActualizacionLoteRequest request);
 }
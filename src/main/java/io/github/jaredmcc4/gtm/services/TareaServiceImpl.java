@@ -1,9 +1,12 @@
 package io.github.jaredmcc4.gtm.services;
 
+import io.github.jaredmcc4.gtm.domain.OutboxEvento;
 import io.github.jaredmcc4.gtm.domain.Tarea;
 import io.github.jaredmcc4.gtm.domain.Usuario;
+import io.github.jaredmcc4.gtm.dto.tarea.ActualizacionLoteRequest;
 import io.github.jaredmcc4.gtm.exception.ResourceNotFoundException;
 import io.github.jaredmcc4.gtm.repository.TareaRepository;
+import io.github.jaredmcc4.gtm.util.PosicionUtil;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.Page;
@@ -11,8 +14,10 @@ import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
 
 /**
  * Implementacion de {@link TareaService} que aplica validaciones de negocio para tareas.
@@ -24,6 +29,9 @@ import java.util.List;
 public class TareaServiceImpl implements TareaService {
 
     private final TareaRepository tareaRepository;
+    private final PosicionRebalanceador posicionRebalanceador;
+    private final SubtareaToggleBuffer subtareaToggleBuffer;
+    private final OutboxService outboxService;
 
     @Override
     public Page<Tarea> obtenerTareasPorUsuarioId(Long usuarioId, Pageable pageable) {
@@ -74,7 +82,11 @@ public class TareaServiceImpl implements TareaService {
         log.info("Creando nueva tarea para el usuario con ID: {}", usuario.getId());
         tarea.setUsuario(usuario);
         validarTarea(tarea);
-        return tareaRepository.save(tarea);
+        posicionRebalanceador.bloquear(usuario.getId());
+        tarea.setPosicion(PosicionUtil.despuesDe(tareaRepository.findUltimaPosicion(usuario.getId())));
+        Tarea creada = tareaRepository.save(tarea);
+        outboxService.registrar(usuario.getId(), OutboxEvento.Agregado.TAREA, creada.getId(), OutboxEvento.Tipo.CREADO, null);
+        return creada;
     }
 
     @Override
@@ -84,7 +96,9 @@ public class TareaServiceImpl implements TareaService {
         Tarea tareaExistente = obtenerTareaPorIdYUsuarioId(tareaId, usuarioId);
         actualizarCamposTarea(tareaExistente, tareaActualizada);
         validarTarea(tareaExistente);
-        return tareaRepository.save(tareaExistente);
+        Tarea guardada = tareaRepository.save(tareaExistente);
+        outboxService.registrar(usuarioId, OutboxEvento.Agregado.TAREA, tareaId, OutboxEvento.Tipo.ACTUALIZADO, null);
+        return guardada;
     }
 
     @Override
@@ -92,7 +106,56 @@ public class TareaServiceImpl implements TareaService {
     public void eliminarTarea(Long tareaId, Long usuarioId) {
         log.info("Eliminando tarea con ID: {} Usuario ID: {}", tareaId, usuarioId);
         Tarea tareaExistente = obtenerTareaPorIdYUsuarioId(tareaId, usuarioId);
+        subtareaToggleBuffer.descartarTarea(tareaId);
         tareaRepository.delete(tareaExistente);
+        outboxService.registrar(usuarioId, OutboxEvento.Agregado.TAREA, tareaId, OutboxEvento.Tipo.ELIMINADO, null);
+    }
+
+    @Override
+    @Transactional
+    public Tarea moverTarea(Long tareaId, Long anteriorId, Long usuarioId) {
+        log.info("Moviendo tarea con ID: {} despues de: {} Usuario ID: {}", tareaId, anteriorId, usuarioId);
+        posicionRebalanceador.bloquear(usuarioId);
+        Tarea tarea = obtenerTareaPorIdYUsuarioId(tareaId, usuarioId);
+        if (anteriorId != null) {
+            if (anteriorId.equals(tareaId)) {
+                throw new IllegalArgumentException("Una tarea no puede colocarse despues de si misma");
+            }
+            obtenerTareaPorIdYUsuarioId(anteriorId, usuarioId);
+        }
+
+        String posicion = calcularPosicion(tareaId, anteriorId, usuarioId);
+        if (posicion.length() > PosicionUtil.LONGITUD_MAXIMA) {
+            posicionRebalanceador.rebalancearTareas(usuarioId);
+            posicion = calcularPosicion(tareaId, anteriorId, usuarioId);
+        }
+        posicionRebalanceador.revisarTareas(usuarioId, posicion);
+        tarea.setPosicion(posicion);
+        Tarea guardada = tareaRepository.save(tarea);
+        outboxService.registrar(usuarioId, OutboxEvento.Agregado.TAREA, tareaId, OutboxEvento.Tipo.MOVIDO,
+                Map.of("posicion", posicion));
+        return guardada;
+    }
+
+    @Override
+    @Transactional
+    public int actualizarTareasEnLote(Long usuarioId, ActualizacionLoteRequest request) {
+        ActualizacionLoteRequest.Filtro filtro = request.getFiltro() != null
+                ? request.getFiltro() : new ActualizacionLoteRequest.Filtro();
+        ActualizacionLoteRequest.Cambio cambio = request.getCambio();
+        validarLote(filtro, cambio);
+
+        Duration desplazamiento = cambio.getDesplazarVencimiento() != null ? cambio.getDesplazarVencimiento() : Duration.ZERO;
+        int actualizadas = tareaRepository.actualizarEnLote(usuarioId,
+                filtro.getEstado(), filtro.getPrioridad(), filtro.getEtiquetaId(),
+                filtro.getVenceDesde(), filtro.getVenceHasta(),
+                desplazamiento.getSeconds(), cambio.getEstado(), cambio.getPrioridad());
+        log.info("Actualizacion en lote Usuario ID: {} Filtro: {} Cambio: {} Filas: {}", usuarioId, filtro, cambio, actualizadas);
+        if (actualizadas > 0) {
+            outboxService.registrar(usuarioId, OutboxEvento.Agregado.TAREA, null, OutboxEvento.Tipo.LOTE_ACTUALIZADO,
+                    Map.of("actualizadas", actualizadas));
+        }
+        return actualizadas;
     }
 
     @Override
@@ -112,6 +175,33 @@ public class TareaServiceImpl implements TareaService {
         }
     }
 
+    /**
+     * Clave entre la tarea anterior indicada y la que hoy le sigue (ignorando la tarea movida).
+     */
+    private String calcularPosicion(Long tareaId, Long anteriorId, Long usuarioId) {
+        if (anteriorId == null) {
+            return PosicionUtil.calcular(null, tareaRepository.findPrimeraPosicion(usuarioId, tareaId));
+        }
+        String anterior = tareaRepository.findPosicionById(anteriorId);
+        return PosicionUtil.calcular(anterior, tareaRepository.findPosicionSiguiente(usuarioId, anterior, tareaId));
+    }
+
+    /**
+     * Valida que el lote tenga al menos un cambio y un rango de vencimiento coherente.
+     */
+    private void validarLote(ActualizacionLoteRequest.Filtro filtro, ActualizacionLoteRequest.Cambio cambio) {
+        if (cambio == null || (cambio.getDesplazarVencimiento() == null && cambio.getEstado() == null && cambio.getPrioridad() == null)) {
+            throw new IllegalArgumentException("Debe indicar al menos un cambio para la actualizacion en lote");
+        }
+        if (cambio.getDesplazarVencimiento() != null && cambio.getDesplazarVencimiento().getSeconds() == 0) {
+            throw new IllegalArgumentException("El desplazamiento del vencimiento debe ser de al menos un segundo");
+        }
+        if (filtro.getVenceDesde() != null && filtro.getVenceHasta() != null
+                && filtro.getVenceDesde().isAfter(filtro.getVenceHasta())) {
+            throw new IllegalArgumentException("El rango de vencimiento es invalido");
+        }
+    }
+
     /**
      * Aplica actualizaciones parciales a la tarea existente.
      */
@@ -0,0 +1,115 @@
+package io.github.jaredmcc4.gtm.services;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.github.jaredmcc4.gtm.domain.Rol;
+import io.github.jaredmcc4.gtm.domain.Usuario;
+import io.github.jaredmcc4.gtm.invalidacion.InvalidacionBus;
+import io.github.jaredmcc4.gtm.util.TransaccionUtil;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Cache acotada en memoria de usuarios por id para las lecturas frecuentes
+ * (creacion de tareas/etiquetas, perfil).
+ * <p>
+ * Guarda una instantanea inmutable sin el hash de contrasena y cada lectura devuelve una
+ * copia desacoplada del contexto de persistencia: sirve como referencia de FK y para
+ * mapear a DTO, pero no debe modificarse ni guardarse. Quien modifique un usuario debe
+ * cargarlo del repositorio y llamar a {@link #invalidar} en la misma transaccion.
+ * Las estadisticas se publican en Micrometer como {@code cache.*{cache="usuarios"}}.
+ * Las invalidaciones se publican en el {@link InvalidacionBus} para el resto de nodos.
+ */
+@Component
+public class UsuarioCache {
+
+    private static final String CACHE = "usuarios";
+
+    private final Cache<Long, UsuarioSnapshot> usuarios;
+    private final InvalidacionBus invalidacionBus;
+
+    public UsuarioCache(MeterRegistry meterRegistry,
+                        InvalidacionBus invalidacionBus,
+                        @Value("${app.usuarios.cache.max-entradas:10000}") long maxEntradas,
+                        @Value("${app.usuarios.cache.ttl-segundos:300}") long ttlSegundos) {
+        this.usuarios = Caffeine.newBuilder()
+                .maximumSize(maxEntradas)
+                .expireAfterWrite(Duration.ofSeconds(ttlSegundos))
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, usuarios, CACHE);
+        this.invalidacionBus = invalidacionBus;
+        invalidacionBus.registrar(CACHE, usuarios::invalidate);
+    }
+
+    /**
+     * Datos cacheados de un usuario.
+     */
+    private record UsuarioSnapshot(Long id,
+                                   String email,
+                                   String nombreUsuario,
+                                   String zonaHoraria,
+                                   boolean activo,
+                                   int tokenVersion,
+                                   List<RolSnapshot> roles,
+                                   LocalDateTime createdAt,
+                                   LocalDateTime updatedAt) {
+
+        static UsuarioSnapshot desde(Usuario usuario) {
+            return new UsuarioSnapshot(usuario.getId(), usuario.getEmail(), usuario.getNombreUsuario(),
+                    usuario.getZonaHoraria(), usuario.isActivo(), usuario.getTokenVersion(),
+                    usuario.getRoles().stream().map(rol -> new RolSnapshot(rol.getId(), rol.getNombreRol())).toList(),
+                    usuario.getCreatedAt(), usuario.getUpdatedAt());
+        }
+
+        Usuario aUsuario() {
+            return Usuario.builder()
+                    .id(id)
+                    .email(email)
+                    .nombreUsuario(nombreUsuario)
+                    .zonaHoraria(zonaHoraria)
+                    .activo(activo)
+                    .tokenVersion(tokenVersion)
+                    .roles(roles.stream().map(rol -> new Rol(rol.id(), rol.nombre())).collect(Collectors.toSet()))
+                    .createdAt(createdAt)
+                    .updatedAt(updatedAt)
+                    .build();
+        }
+    }
+
+    private record RolSnapshot(Long id, String nombre) {
+    }
+
+    /**
+     * Devuelve el usuario cacheado o lo carga con {@code cargador} si no esta.
+     * Las excepciones del cargador se propagan y no se cachean.
+     *
+     * @param usuarioId id del usuario
+     * @param cargador lectura desde la base de datos
+     * @return copia desacoplada del usuario
+     */
+    public Usuario obtener(Long usuarioId, Function<Long, Usuario> cargador) {
+        return usuarios.get(usuarioId, id -> UsuarioSnapshot.desde(cargador.apply(id))).aUsuario();
+    }
+
+    /**
+     * Descarta la entrada ahora y de nuevo al confirmar la transaccion en curso, para que
+     * una lectura concurrente no vuelva a cachear el estado anterior al commit; los demas
+     * nodos la descartan al recibirla por el bus.
+     *
+     * @param usuarioId id del usuario modificado
+     */
+    public void invalidar(Long usuarioId) {
+        usuarios.invalidate(usuarioId);
+        TransaccionUtil.despuesDelCommit(() -> usuarios.invalidate(usuarioId));
+        invalidacionBus.publicar(CACHE, usuarioId);
+    }
+}
@@ -32,4 +32,19 @@ public interface UsuarioService {
      * @param passwordNueva nueva contrasena
      */
     void cambiarPassword(Long usuarioId, String passwordActual, String passwordNueva);
+
+    /**
+     * Cierra todas las sesiones del usuario invalidando sus JWT y refresh tokens.
+     *
+     * @param usuarioId identificador del usuario
+     */
+    void cerrarSesiones(Long usuarioId);
+
+    /**
+     * Desactiva al usuario e invalida sus JWT y refresh tokens.
+     *
+     * @param usuarioId identificador del usuario
+     * @return usuario desactivado
+     */
+    Usuario desactivarUsuario(Long usuarioId);
 }
@@ -3,6 +3,7 @@ package io.github.jaredmcc4.gtm.services;
 import io.github.jaredmcc4.gtm.domain.Usuario;
 import io.github.jaredmcc4.gtm.exception.ResourceNotFoundException;
 import io.github.jaredmcc4.gtm.repository.UsuarioRepository;
+import io.github.jaredmcc4.gtm.security.VersionesToken;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.security.crypto.password.PasswordEncoder;
@@ -11,6 +12,10 @@ import org.springframework.transaction.annotation.Transactional;
 
 /**
  * Implementacion de {@link UsuarioService} orientada a perfil y cambio de contraseña.
+ * Las lecturas por id pasan por {@link UsuarioCache}; las escrituras cargan la entidad
+ * gestionada e invalidan la cache. Cambiar la contraseña, cerrar todas las sesiones o
+ * desactivar al usuario sube su version de tokens ({@link VersionesToken}) y revoca sus
+ * refresh tokens persistidos.
  */
 @Slf4j
 @Service
@@ -20,15 +25,17 @@ public class UsuarioServiceImpl implements UsuarioService {
 
     private final UsuarioRepository usuarioRepository;
     private final PasswordEncoder passwordEncoder;
+    private final UsuarioCache usuarioCache;
+    private final VersionesToken versionesToken;
+    private final RefreshTokenService refreshTokenService;
 
     /**
-     * Recupera un usuario por ID o lanza excepcion si no existe.
+     * Recupera un usuario por ID (desde la cache si esta) o lanza excepcion si no existe.
      */
     @Override
     public Usuario obtenerUsuarioPorId(Long usuarioId) {
         log.debug("Obteniendo usuario con ID: {}", usuarioId);
-        return usuarioRepository.findById(usuarioId)
-                .orElseThrow(() -> new ResourceNotFoundException("Usuario no encontrado."));
+        return usuarioCache.obtener(usuarioId, this::cargarUsuario);
     }
 
     /**
@@ -38,7 +45,7 @@ public class UsuarioServiceImpl implements UsuarioService {
     @Transactional
     public Usuario actualizarUsuario(Long usuarioId, Usuario datosActualizados) {
         log.info("Actualizando usuario con ID: {}", usuarioId);
-        Usuario usuario = obtenerUsuarioPorId(usuarioId);
+        Usuario usuario = cargarUsuario(usuarioId);
         if (datosActualizados.getNombreUsuario() != null && !datosActualizados.getNombreUsuario().isBlank()) {
             if (datosActualizados.getNombreUsuario().length() > 120) {
                 throw new IllegalArgumentException("El nombre de usuario no puede ser mayor a 120 caracteres.");
@@ -50,7 +57,9 @@ public class UsuarioServiceImpl implements UsuarioService {
             usuario.setZonaHoraria(datosActualizados.getZonaHoraria());
         }
 
-        return usuarioRepository.save(usuario);
+        Usuario guardado = usuarioRepository.save(usuario);
+        usuarioCache.invalidar(usuarioId);
+        return guardado;
     }
 
     /**
@@ -60,8 +69,8 @@ public class UsuarioServiceImpl implements UsuarioService {
     @Transactional
     public void cambiarPassword(Long usuarioId, String passwordActual, String passwordNueva) {
         log.info("Cambiando contraseña del usuario con ID: {}", usuarioId);
-        Usuario usuario = obtenerUsuarioPorId(usuarioId);
-        if (!passwordEncoder.matches(passwordActual, usuario.getContrasenaHash())) {
+        Usuario usuario = cargarUsuario(usuarioId);
+        if (!usuario.tieneContrasena() || !passwordEncoder.matches(passwordActual, usuario.getContrasenaHash())) {
             throw new IllegalArgumentException("La contraseña actual es incorrecta.");
         }
         if (passwordEncoder.matches(passwordNueva, usuario.getContrasenaHash())) {
@@ -72,7 +81,50 @@ public class UsuarioServiceImpl implements UsuarioService {
         }
 
         usuario.setContrasenaHash(passwordEncoder.encode(passwordNueva));
+        revocarTokens(usuario);
         usuarioRepository.save(usuario);
+        usuarioCache.invalidar(usuarioId);
+    }
+
+    /**
+     * Invalida todos los JWT y refresh tokens emitidos al usuario.
+     */
+    @Override
+    @Transactional
+    public void cerrarSesiones(Long usuarioId) {
+        log.info("Cerrando todas las sesiones del usuario con ID: {}", usuarioId);
+        Usuario usuario = cargarUsuario(usuarioId);
+        revocarTokens(usuario);
+        usuarioRepository.save(usuario);
+        usuarioCache.invalidar(usuarioId);
+    }
+
+    /**
+     * Desactiva al usuario e invalida sus tokens; no hace nada si ya esta inactivo.
+     */
+    @Override
+    @Transactional
+    public Usuario desactivarUsuario(Long usuarioId) {
+        log.info("Desactivando usuario con ID: {}", usuarioId);
+        Usuario usuario = cargarUsuario(usuarioId);
+        if (!usuario.isActivo()) {
+            return usuario;
+        }
+        usuario.setActivo(false);
+        revocarTokens(usuario);
+        Usuario guardado = usuarioRepository.save(usuario);
+        usuarioCache.invalidar(usuarioId);
+        return guardado;
+    }
+
+    private void revocarTokens(Usuario usuario) {
+        versionesToken.incrementar(usuario);
+        refreshTokenService.revocarSesionesUsuario(usuario.getId());
+    }
+
+    private Usuario cargarUsuario(Long usuarioId) {
+        return usuarioRepository.findById(usuarioId)
+                .orElseThrow(() -> new ResourceNotFoundException("Usuario no encontrado."));
     }
 }
 
@@ -0,0 +1,45 @@
+package io.github.jaredmcc4.gtm.services;
+
+import java.time.LocalDateTime;
+
+/**
+ * Contrato de la version de datos por usuario usada como validador de GET condicionales
+ * sobre tareas y etiquetas.
+ */
+public interface VersionDatosService {
+
+    /**
+     * Version actual de los datos de un usuario.
+     *
+     * @param numero contador de escrituras (0 si nunca escribio)
+     * @param modificadoEn instante de la ultima escritura o null si no hubo
+     */
+    record Version(long numero, LocalDateTime modificadoEn) {
+    }
+
+    /**
+     * Incrementa la version del usuario dentro de la transaccion en curso; varias llamadas
+     * para el mismo usuario en una transaccion cuentan como una sola.
+     *
+     * @param usuarioId propietario de los datos modificados
+     * @throws org.springframework.transaction.IllegalTransactionStateException si no hay transaccion activa
+     */
+    void incrementar(Long usuarioId);
+
+    /**
+     * Bloquea la fila de version del usuario hasta el fin de la transaccion en curso, sin
+     * incrementarla; serializa las escrituras que dependen del orden de sus datos.
+     *
+     * @param usuarioId propietario de los datos
+     * @throws org.springframework.transaction.IllegalTransactionStateException si no hay transaccion activa
+     */
+    void bloquear(Long usuarioId);
+
+    /**
+     * Lee la version confirmada de un usuario sin tocar tareas ni etiquetas.
+     *
+     * @param usuarioId usuario autenticado
+     * @return version actual
+     */
+    Version obtener(Long usuarioId);
+}
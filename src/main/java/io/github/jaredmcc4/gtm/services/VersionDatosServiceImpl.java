@@ -0,0 +1,103 @@
+package io.github.jaredmcc4.gtm.services;
+
+import io.github.jaredmcc4.gtm.repository.VersionDatosUsuarioRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Implementacion de {@link VersionDatosService} sobre la tabla {@code usuarios_version_datos}.
+ * <p>
+ * El incremento va en la misma transaccion que la escritura: una lectura concurrente ve la
+ * version anterior junto con los datos anteriores, nunca una version nueva con datos viejos.
+ * La fila de un usuario se crea con version 0 en una transaccion aparte la primera vez que
+ * escribe, de modo que dos primeras escrituras concurrentes no fallen por la clave primaria;
+ * se comprueba antes de incrementar porque un UPDATE sin fila dejaria un bloqueo de hueco
+ * que la insercion aparte tendria que esperar.
+ */
+@Slf4j
+@Service
+public class VersionDatosServiceImpl implements VersionDatosService {
+
+    private final VersionDatosUsuarioRepository versionDatosUsuarioRepository;
+    private final TransactionTemplate transaccionNueva;
+
+    public VersionDatosServiceImpl(VersionDatosUsuarioRepository versionDatosUsuarioRepository,
+                                   PlatformTransactionManager transactionManager) {
+        this.versionDatosUsuarioRepository = versionDatosUsuarioRepository;
+        this.transaccionNueva = new TransactionTemplate(transactionManager);
+        this.transaccionNueva.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void incrementar(Long usuarioId) {
+        if (!marcar(usuarioId)) {
+            return;
+        }
+        if (!versionDatosUsuarioRepository.existsById(usuarioId)) {
+            crearFila(usuarioId);
+        }
+        versionDatosUsuarioRepository.incrementar(usuarioId, LocalDateTime.now());
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void bloquear(Long usuarioId) {
+        if (!versionDatosUsuarioRepository.existsById(usuarioId)) {
+            crearFila(usuarioId);
+        }
+        versionDatosUsuarioRepository.bloquear(usuarioId);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Version obtener(Long usuarioId) {
+        return versionDatosUsuarioRepository.findById(usuarioId)
+                .map(version -> new Version(version.getVersion(), version.getModificadoEn()))
+                .orElse(new Version(0L, null));
+    }
+
+    private void crearFila(Long usuarioId) {
+        try {
+            transaccionNueva.executeWithoutResult(status -> versionDatosUsuarioRepository.crear(usuarioId, LocalDateTime.now()));
+        } catch (DataIntegrityViolationException ex) {
+            log.debug("Fila de version de datos del usuario {} creada en paralelo", usuarioId);
+        }
+    }
+
+    /**
+     * Registra el usuario como ya incrementado en la transaccion actual.
+     *
+     * @return {@code true} si es la primera vez en esta transaccion
+     */
+    @SuppressWarnings("unchecked")
+    private boolean marcar(Long usuarioId) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return true;
+        }
+        Set<Long> marcados = (Set<Long>) TransactionSynchronizationManager.getResource(this);
+        if (marcados == null) {
+            marcados = new HashSet<>();
+            TransactionSynchronizationManager.bindResource(this, marcados);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(VersionDatosServiceImpl.this);
+                }
+            });
+        }
+        return marcados.add(usuarioId);
+    }
+}
@@ -0,0 +1,26 @@
+package io.github.jaredmcc4.gtm.util;
+
+import jakarta.servlet.http.HttpServletRequest;
+
+/**
+ * Resolucion de la IP del cliente detras de proxies.
+ */
+public final class ClientIpUtil {
+
+    private ClientIpUtil() {
+    }
+
+    /**
+     * IP del cliente: la direccion remota de la conexion. {@code X-Forwarded-For} y
+     * {@code X-Real-IP} los controla el cliente y no se leen aqui; con
+     * {@code server.forward-headers-strategy=native} el contenedor reemplaza la direccion
+     * remota por la del cliente solo si la peticion llega desde un proxy de confianza
+     * ({@code server.tomcat.remoteip.internal-proxies}).
+     *
+     * @param request peticion HTTP
+     * @return IP del cliente
+     */
+    public static String obtener(HttpServletRequest request) {
+        return request.getRemoteAddr();
+    }
+}
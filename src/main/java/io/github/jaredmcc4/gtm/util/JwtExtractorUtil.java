@@ -66,5 +66,26 @@ public class JwtExtractorUtil {
 
         return email;
     }
-}
 
+    /**
+     * Lee la version de tokens del claim {@code tv}; los tokens emitidos antes de existir el
+     * claim cuentan como version 0.
+     *
+     * @param jwt token JWT ya validado por el resource server
+     * @return version de tokens del usuario al emitirse el JWT
+     */
+    public static int extractTokenVersion(Jwt jwt) {
+        Object version = jwt.getClaim(JwtUtil.CLAIM_VERSION);
+        if (version instanceof Number numero) {
+            return numero.intValue();
+        }
+        if (version instanceof String texto) {
+            try {
+                return Integer.parseInt(texto);
+            } catch (NumberFormatException e) {
+                throw new UnauthorizedException("La version del token no es valida");
+            }
+        }
+        return 0;
+    }
+}
@@ -9,8 +9,8 @@ import io.jsonwebtoken.security.Keys;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
+import javax.crypto.SecretKey;
 import java.nio.charset.StandardCharsets;
-import java.security.Key;
 import java.util.Collections;
 import java.util.Date;
 import java.util.List;
@@ -19,6 +19,11 @@ import java.util.Objects;
 @Component
 public class JwtUtil {
 
+    /**
+     * Claim con la version de tokens del usuario al emitir el JWT.
+     */
+    public static final String CLAIM_VERSION = "tv";
+
     /**
      * Utilidades para generar y validar JWT HMAC-SHA256, asi como extraer claims
      * propios del dominio (usuarioId, roles, email). Acepta secretos en Base64,
@@ -30,13 +35,37 @@ public class JwtUtil {
     @Value("${jwt.expiration}")
     private long expiration;
 
+    private volatile SecretKey clave;
+
     /**
-     * Construye la llave criptografica a partir del secreto configurado.
+     * Llave HMAC derivada del secreto configurado; se calcula una sola vez y se reutiliza
+     * para firmar y validar.
      *
-     * @return llave HMAC-SHA necesaria por JJWT
+     * @return llave HMAC-SHA
+     * @throws IllegalArgumentException si el secreto decodificado tiene menos de 32 bytes
+     */
+    public SecretKey getClave() {
+        SecretKey actual = clave;
+        if (actual == null) {
+            actual = derivarClave(secret);
+            clave = actual;
+        }
+        return actual;
+    }
+
+    /**
+     * Deriva la llave HMAC de un secreto con la misma decodificacion que usa el emisor, para que
+     * el decodificador del resource server valide exactamente los tokens que aqui se firman.
+     *
+     * @param rawSecret secreto configurado
+     * @return llave HMAC-SHA
+     * @throws IllegalArgumentException si el secreto decodificado tiene menos de 32 bytes
      */
-    private Key getSigningKey() {
-        byte[] keyBytes = decodeSecret(secret);
+    public static SecretKey derivarClave(String rawSecret) {
+        byte[] keyBytes = decodeSecret(rawSecret);
+        if (keyBytes.length < 32) {
+            throw new IllegalArgumentException("JWT secret debe tener al menos 256 bits (32 caracteres)");
+        }
         return Keys.hmacShaKeyFor(keyBytes);
     }
 
@@ -48,7 +77,7 @@ public class JwtUtil {
      * @return bytes listos para construir la llave
      * @throws IllegalArgumentException si el secreto es nulo o vacio
      */
-    private byte[] decodeSecret(String rawSecret) {
+    private static byte[] decodeSecret(String rawSecret) {
         if (rawSecret == null || rawSecret.isBlank()) {
             throw new IllegalArgumentException("La propiedad jwt.secret no puede ser vacia");
         }
@@ -69,7 +98,7 @@ public class JwtUtil {
     }
 
     /**
-     * Genera un token JWT con correo, id de usuario y roles como claims.
+     * Genera un token JWT con correo, id de usuario y roles como claims, con version de tokens 0.
      *
      * @param email correo del usuario autenticado
      * @param usuarioId identificador interno del usuario
@@ -77,6 +106,19 @@ public class JwtUtil {
      * @return token firmado HS256 con expiracion configurada
      */
     public String generarToken(String email, Long usuarioId, List<String> roles) {
+        return generarToken(email, usuarioId, roles, 0);
+    }
+
+    /**
+     * Genera un token JWT con correo, id de usuario, roles y version de tokens como claims.
+     *
+     * @param email correo del usuario autenticado
+     * @param usuarioId identificador interno del usuario
+     * @param roles lista de roles otorgados (se convierte a claim {@code roles})
+     * @param tokenVersion version vigente de los tokens del usuario (claim {@code tv})
+     * @return token firmado HS256 con expiracion configurada
+     */
+    public String generarToken(String email, Long usuarioId, List<String> roles, int tokenVersion) {
         Date issuedAt = new Date();
         Date expirationDate = new Date(issuedAt.getTime() + expiration);
 
@@ -84,9 +126,10 @@ public class JwtUtil {
                 .setSubject(email)
                 .claim("usuarioId", usuarioId)
                 .claim("roles", roles)
+                .claim(CLAIM_VERSION, tokenVersion)
                 .setIssuedAt(issuedAt)
                 .setExpiration(expirationDate)
-                .signWith(getSigningKey(), SignatureAlgorithm.HS256)
+                .signWith(getClave(), SignatureAlgorithm.HS256)
                 .compact();
     }
 
@@ -124,7 +167,7 @@ public class JwtUtil {
      */
     public Claims extraerClaims(String token) {
         return Jwts.parser()
-                .setSigningKey(getSigningKey())
+                .setSigningKey(getClave())
                 .build()
                 .parseClaimsJws(token)
                 .getBody();
@@ -0,0 +1,179 @@
+package io.github.jaredmcc4.gtm.util;
+
+/**
+ * Claves de orden fraccionarias (estilo LexoRank) en base 36 para el orden manual
+ * de tareas y subtareas.
+ * <p>
+ * Las claves se comparan lexicograficamente y nunca terminan en {@code '0'}, por lo que
+ * siempre existe una clave entre dos claves distintas: mover un elemento solo reescribe
+ * su propia fila. Las claves nuevas al inicio/final avanzan sobre un prefijo de ancho fijo
+ * para no crecer en longitud; solo las inserciones repetidas en el mismo hueco la alargan.
+ */
+public final class PosicionUtil {
+
+    private static final String DIGITOS = "0123456789abcdefghijklmnopqrstuvwxyz";
+    private static final int BASE = DIGITOS.length();
+    private static final int ANCHO = 8;
+    private static final long LIMITE = (long) Math.pow(BASE, ANCHO);
+
+    /**
+     * Separacion entre claves consecutivas generadas al final/inicio o al rebalancear.
+     */
+    public static final long PASO = (long) BASE * BASE * BASE;
+
+    /**
+     * Longitud maxima almacenable (coincide con la columna {@code posicion}).
+     */
+    public static final int LONGITUD_MAXIMA = 64;
+
+    /**
+     * Clave de un elemento sin vecinos.
+     */
+    public static final String INICIAL = clave(PASO);
+
+    private PosicionUtil() {
+    }
+
+    /**
+     * Calcula la clave para colocar un elemento entre dos vecinos.
+     *
+     * @param anterior clave del vecino anterior o null si va al inicio
+     * @param siguiente clave del vecino siguiente o null si va al final
+     * @return clave estrictamente entre ambos vecinos
+     * @throws IllegalArgumentException si las claves no son validas o no estan ordenadas
+     */
+    public static String calcular(String anterior, String siguiente) {
+        if (anterior == null && siguiente == null) {
+            return INICIAL;
+        }
+        if (anterior == null) {
+            return antesDe(siguiente);
+        }
+        if (siguiente == null) {
+            return despuesDe(anterior);
+        }
+        return entre(anterior, siguiente);
+    }
+
+    /**
+     * Clave posterior a {@code ultima}, avanzando el prefijo de ancho fijo.
+     *
+     * @param ultima clave mayor actual o null si no hay elementos
+     * @return nueva clave mayor
+     */
+    public static String despuesDe(String ultima) {
+        if (ultima == null) {
+            return INICIAL;
+        }
+        validar(ultima);
+        long valor = prefijo(ultima) + PASO;
+        return valor < LIMITE ? clave(valor) : entre(ultima, null);
+    }
+
+    /**
+     * Clave anterior a {@code primera}, retrocediendo el prefijo de ancho fijo.
+     *
+     * @param primera clave menor actual
+     * @return nueva clave menor
+     */
+    public static String antesDe(String primera) {
+        validar(primera);
+        long valor = prefijo(primera) - PASO;
+        return valor > 0 ? clave(valor) : entre(null, primera);
+    }
+
+    /**
+     * Clave intermedia entre dos claves (cualquiera puede ser null como extremo abierto).
+     *
+     * @param anterior limite inferior exclusivo o null
+     * @param siguiente limite superior exclusivo o null
+     * @return clave intermedia mas corta posible
+     */
+    public static String entre(String anterior, String siguiente) {
+        String a = anterior == null ? "" : anterior;
+        if (anterior != null) {
+            validar(anterior);
+        }
+        if (siguiente != null) {
+            validar(siguiente);
+            if (a.compareTo(siguiente) >= 0) {
+                throw new IllegalArgumentException("Las posiciones vecinas no estan ordenadas: " + anterior + " >= " + siguiente);
+            }
+        }
+        return medio(a, siguiente);
+    }
+
+    /**
+     * Clave del elemento en la posicion {@code indice} tras un rebalanceo.
+     *
+     * @param indice posicion (base 0) dentro del padre
+     * @return clave equiespaciada
+     */
+    public static String secuencia(int indice) {
+        long valor = (indice + 1L) * PASO;
+        if (valor >= LIMITE) {
+            throw new IllegalStateException("Demasiados elementos para rebalancear: " + indice);
+        }
+        return clave(valor);
+    }
+
+    /**
+     * Algoritmo de punto medio sobre digitos: {@code a} puede ser vacia y {@code b} null (infinito).
+     */
+    private static String medio(String a, String b) {
+        if (b != null) {
+            int n = 0;
+            while (digito(a, n) == b.charAt(n)) {
+                n++;
+            }
+            if (n > 0) {
+                return b.substring(0, n) + medio(a.length() > n ? a.substring(n) : "", b.substring(n));
+            }
+        }
+        int digitoA = a.isEmpty() ? 0 : DIGITOS.indexOf(a.charAt(0));
+        int digitoB = b != null ? DIGITOS.indexOf(b.charAt(0)) : BASE;
+        if (digitoB - digitoA > 1) {
+            return String.valueOf(DIGITOS.charAt((digitoA + digitoB + 1) / 2));
+        }
+        if (b != null && b.length() > 1) {
+            return b.substring(0, 1);
+        }
+        return DIGITOS.charAt(digitoA) + medio(a.isEmpty() ? "" : a.substring(1), null);
+    }
+
+    private static char digito(String clave, int indice) {
+        return indice < clave.length() ? clave.charAt(indice) : '0';
+    }
+
+    private static long prefijo(String clave) {
+        long valor = 0;
+        for (int i = 0; i < ANCHO; i++) {
+            valor = valor * BASE + DIGITOS.indexOf(digito(clave, i));
+        }
+        return valor;
+    }
+
+    private static String clave(long valor) {
+        char[] digitos = new char[ANCHO];
+        for (int i = ANCHO - 1; i >= 0; i--) {
+            digitos[i] = DIGITOS.charAt((int) (valor % BASE));
+            valor /= BASE;
+        }
+        int fin = ANCHO;
+        while (fin > 1 && digitos[fin - 1] == '0') {
+            fin--;
+        }
+        return new String(digitos, 0, fin);
+    }
+
+    private static void validar(String clave) {
+        if (clave.isEmpty() || clave.charAt(clave.length() - 1) == '0') {
+            throw new IllegalArgumentException("Posicion invalida: '" + clave + "'");
+        }
+        for (int i = 0; i < clave.length(); i++) {
+            if (DIGITOS.indexOf(clave.charAt(i)) < 0) {
+                throw new IllegalArgumentException("Posicion invalida: '" + clave + "'");
+            }
+        }
+    }
+}
@@ -0,0 +1,28 @@
+package io.github.jaredmcc4.gtm.util;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+/**
+ * Hash de tokens opacos (refresh tokens) para guardarlos y buscarlos sin conservar el valor.
+ */
+public final class TokenHashUtil {
+
+    private TokenHashUtil() {
+    }
+
+    /**
+     * SHA-256 del token en UTF-8.
+     *
+     * @param token valor en texto plano
+     * @return 32 bytes del hash
+     */
+    public static byte[] sha256(String token) {
+        try {
+            return MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 no disponible", e);
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package io.github.jaredmcc4.gtm.util;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Utilidades para enganchar acciones al ciclo de vida de la transaccion en curso.
+ */
+public final class TransaccionUtil {
+
+    private TransaccionUtil() {
+    }
+
+    /**
+     * Ejecuta la accion cuando la transaccion actual confirme; si no hay transaccion
+     * sincronizada se ejecuta de inmediato. No se ejecuta si la transaccion se revierte.
+     *
+     * @param accion accion a ejecutar
+     */
+    public static void despuesDelCommit(Runnable accion) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            accion.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                accion.run();
+            }
+        });
+    }
+
+    /**
+     * Ejecuta la accion cuando la transaccion actual termine, confirme o se revierta; si no
+     * hay transaccion sincronizada se ejecuta de inmediato.
+     *
+     * @param accion accion a ejecutar
+     */
+    public static void alTerminar(Runnable accion) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            accion.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                accion.run();
+            }
+        });
+    }
+}
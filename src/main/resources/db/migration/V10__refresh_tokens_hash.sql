@@ -0,0 +1,14 @@
+-- ===========================================
+-- GTM - Refresh tokens guardados como hash SHA-256
+-- ===========================================
+
+-- El token en texto plano pasa a ser opcional: las filas nuevas guardan solo el hash y
+-- las existentes lo reciben del backfill 'refresh-tokens-hash-v10' (o al usarse).
+-- La columna token se eliminara en una migracion posterior, cuando ya no queden filas sin hash
+ALTER TABLE refresh_tokens
+    ADD COLUMN token_hash BINARY(32) NULL AFTER token,
+    MODIFY COLUMN token VARCHAR(500) NULL,
+    ADD CONSTRAINT uk_rt_token_hash UNIQUE (token_hash);
+
+-- Redundante con el UNIQUE de token
+DROP INDEX idx_rt_token ON refresh_tokens;
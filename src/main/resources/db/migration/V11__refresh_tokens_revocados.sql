@@ -0,0 +1,14 @@
+-- ===========================================
+-- GTM - Revocaciones de refresh tokens firmados
+-- ===========================================
+
+-- En modo firmado el refresh token no se guarda: al cerrar sesion se inserta su familia y
+-- cada nodo sondea las filas nuevas para rechazarla; las filas se purgan al expirar el token
+CREATE TABLE IF NOT EXISTS refresh_tokens_revocados (
+    id BIGINT PRIMARY KEY AUTO_INCREMENT,
+    familia CHAR(36) NOT NULL,
+    usuario_id BIGINT NOT NULL,
+    expires_at TIMESTAMP NOT NULL,
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    INDEX idx_rtr_exp (expires_at)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
@@ -0,0 +1,8 @@
+-- ===========================================
+-- GTM - Version de tokens por usuario
+-- ===========================================
+
+-- Los JWT llevan la version vigente al emitirse (claim tv); subirla al cambiar la contrasena,
+-- desactivar al usuario o cerrar todas sus sesiones invalida los tokens ya emitidos
+ALTER TABLE usuarios
+    ADD COLUMN token_version INT NOT NULL DEFAULT 0;
@@ -0,0 +1,16 @@
+-- ===========================================
+-- GTM - Identidades de proveedores OAuth
+-- ===========================================
+
+-- El login social busca al usuario por (proveedor, sujeto) en lugar de por email; las
+-- cuentas sociales anteriores se vinculan por email en su siguiente login
+CREATE TABLE IF NOT EXISTS usuarios_identidades (
+    id BIGINT PRIMARY KEY AUTO_INCREMENT,
+    usuario_id BIGINT NOT NULL,
+    proveedor VARCHAR(20) NOT NULL,
+    sujeto VARCHAR(255) NOT NULL,
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    CONSTRAINT fk_ui_user FOREIGN KEY (usuario_id) REFERENCES usuarios(id) ON DELETE CASCADE,
+    UNIQUE KEY uk_ui_proveedor_sujeto (proveedor, sujeto),
+    INDEX idx_ui_user (usuario_id)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
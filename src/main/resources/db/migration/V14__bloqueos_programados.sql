@@ -0,0 +1,13 @@
+-- ===========================================
+-- GTM - Bloqueos de tareas programadas
+-- ===========================================
+
+-- Un lease por job programado; solo el nodo que lo reclama ejecuta la pasada
+CREATE TABLE IF NOT EXISTS bloqueos_programados (
+    nombre VARCHAR(100) PRIMARY KEY,
+    propietario VARCHAR(100) NULL,
+    lease_hasta TIMESTAMP NULL,
+    updated_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
+
+INSERT INTO bloqueos_programados (nombre) VALUES ('contadores-tareas');
@@ -0,0 +1,14 @@
+-- ===========================================
+-- GTM - Marca de entrega en el outbox
+-- ===========================================
+
+-- Cada evento se marca al entregarlo; el despachador reclama los pendientes con SKIP LOCKED
+-- en lugar de avanzar un offset por id, que saltaba eventos confirmados tarde
+ALTER TABLE outbox_eventos ADD COLUMN entregado_en TIMESTAMP NULL;
+
+UPDATE outbox_eventos e
+    JOIN outbox_offsets o ON o.particion = e.particion
+SET e.entregado_en = CURRENT_TIMESTAMP
+WHERE e.id <= o.ultimo_id;
+
+CREATE INDEX idx_outbox_pendientes ON outbox_eventos (particion, entregado_en, id);
@@ -0,0 +1,7 @@
+-- ===========================================
+-- GTM - Ventana de revocaciones de refresh tokens
+-- ===========================================
+
+-- Cada nodo relee las revocaciones creadas en una ventana reciente en lugar de avanzar un
+-- cursor por id, que saltaba revocaciones confirmadas tarde
+CREATE INDEX idx_rtr_created ON refresh_tokens_revocados (created_at);
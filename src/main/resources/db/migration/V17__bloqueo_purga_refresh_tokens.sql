@@ -0,0 +1,6 @@
+-- ===========================================
+-- GTM - Lease de la purga de refresh tokens
+-- ===========================================
+
+-- Solo el nodo que reclama el lease recorre refresh_tokens en cada pasada
+INSERT INTO bloqueos_programados (nombre) VALUES ('refresh-tokens-purga');
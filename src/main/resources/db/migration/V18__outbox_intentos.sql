@@ -0,0 +1,6 @@
+-- ===========================================
+-- GTM - Intentos de entrega en el outbox
+-- ===========================================
+
+-- Los reintentos se cuentan en la fila del evento en lugar de en memoria de cada nodo
+ALTER TABLE outbox_eventos ADD COLUMN intentos INT NOT NULL DEFAULT 0;
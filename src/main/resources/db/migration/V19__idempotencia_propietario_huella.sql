@@ -0,0 +1,9 @@
+-- ===========================================
+-- GTM - Propietario y huella de las claves de idempotencia
+-- ===========================================
+
+-- propietario: token de la reserva; solo quien la tomo puede completarla, renovarla o liberarla
+-- huella: SHA-256 de la operacion y la solicitud, para rechazar la misma clave con otro contenido
+ALTER TABLE idempotencia_respuestas
+    ADD COLUMN propietario CHAR(36) NULL,
+    ADD COLUMN huella CHAR(64) NULL;
@@ -0,0 +1,17 @@
+-- ===========================================
+-- GTM - Respuestas idempotentes (Idempotency-Key)
+-- ===========================================
+
+CREATE TABLE IF NOT EXISTS idempotencia_respuestas (
+    id BIGINT PRIMARY KEY AUTO_INCREMENT,
+    usuario_id BIGINT NOT NULL,
+    clave VARCHAR(100) NOT NULL,
+    operacion VARCHAR(120) NOT NULL,
+    estado_http INT NULL,
+    cuerpo TEXT NULL,
+    expires_at DATETIME NOT NULL,
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    CONSTRAINT fk_idem_user FOREIGN KEY (usuario_id) REFERENCES usuarios(id) ON DELETE CASCADE,
+    UNIQUE KEY uk_idem_usuario_clave (usuario_id, clave),
+    INDEX idx_idem_exp (expires_at)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
@@ -0,0 +1,12 @@
+-- ===========================================
+-- GTM - Contadores denormalizados en tareas
+-- ===========================================
+
+ALTER TABLE tareas
+    ADD COLUMN subtareas_total INT NOT NULL DEFAULT 0,
+    ADD COLUMN subtareas_completadas INT NOT NULL DEFAULT 0,
+    ADD COLUMN adjuntos_total INT NOT NULL DEFAULT 0,
+    ADD COLUMN adjuntos_bytes BIGINT NOT NULL DEFAULT 0;
+
+-- La carga inicial la hace el backfill 'tareas-contadores-v4' por rangos de id tras el arranque,
+-- para no reescribir toda la tabla dentro de la migracion
@@ -0,0 +1,14 @@
+-- ===========================================
+-- GTM - Orden manual con claves fraccionarias
+-- ===========================================
+
+ALTER TABLE tareas
+    ADD COLUMN posicion VARCHAR(64) CHARACTER SET ascii COLLATE ascii_bin NOT NULL DEFAULT '00001',
+    ADD INDEX idx_tareas_user_posicion (usuario_id, posicion);
+
+ALTER TABLE subtareas
+    ADD COLUMN posicion VARCHAR(64) CHARACTER SET ascii COLLATE ascii_bin NOT NULL DEFAULT '00001',
+    ADD INDEX idx_sub_tarea_posicion (tarea_id, posicion);
+
+-- Las claves iniciales las asigna el backfill 'posiciones-v5' por rangos de id tras el arranque,
+-- para no reescribir toda la tabla dentro de la migracion
@@ -0,0 +1,27 @@
+-- ===========================================
+-- GTM - Outbox transaccional de eventos de dominio
+-- ===========================================
+
+CREATE TABLE IF NOT EXISTS outbox_eventos (
+    id BIGINT PRIMARY KEY AUTO_INCREMENT,
+    usuario_id BIGINT NOT NULL,
+    particion INT NOT NULL,
+    agregado VARCHAR(20) NOT NULL,
+    agregado_id BIGINT NULL,
+    tipo VARCHAR(30) NOT NULL,
+    payload TEXT NULL,
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    INDEX idx_outbox_particion (particion, id),
+    INDEX idx_outbox_created (created_at)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
+
+-- Un offset por particion (usuario_id % 16); la fila se bloquea con SKIP LOCKED al despachar
+CREATE TABLE IF NOT EXISTS outbox_offsets (
+    particion INT PRIMARY KEY,
+    ultimo_id BIGINT NOT NULL DEFAULT 0,
+    updated_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
+
+INSERT INTO outbox_offsets (particion, ultimo_id) VALUES
+    (0, 0), (1, 0), (2, 0), (3, 0), (4, 0), (5, 0), (6, 0), (7, 0),
+    (8, 0), (9, 0), (10, 0), (11, 0), (12, 0), (13, 0), (14, 0), (15, 0);
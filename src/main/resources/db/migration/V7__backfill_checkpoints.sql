@@ -0,0 +1,18 @@
+-- ===========================================
+-- GTM - Checkpoints de backfills en linea
+-- ===========================================
+
+-- Progreso de cada backfill Java; el lease garantiza que solo un nodo lo ejecute a la vez
+CREATE TABLE IF NOT EXISTS backfill_checkpoints (
+    nombre VARCHAR(100) PRIMARY KEY,
+    estado VARCHAR(20) NOT NULL DEFAULT 'PENDIENTE',
+    ultimo_id BIGINT NOT NULL DEFAULT 0,
+    objetivo_id BIGINT NULL,
+    procesadas BIGINT NOT NULL DEFAULT 0,
+    propietario VARCHAR(100) NULL,
+    lease_hasta TIMESTAMP NULL,
+    error VARCHAR(500) NULL,
+    iniciado_en TIMESTAMP NULL,
+    completado_en TIMESTAMP NULL,
+    updated_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
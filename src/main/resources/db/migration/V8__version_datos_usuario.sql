@@ -0,0 +1,12 @@
+-- ===========================================
+-- GTM - Version de datos por usuario para GET condicionales
+-- ===========================================
+
+-- Se incrementa en la misma transaccion que cada escritura de tareas/etiquetas/subtareas/adjuntos;
+-- la fila se crea en la primera escritura (sin fila equivale a version 0)
+CREATE TABLE IF NOT EXISTS usuarios_version_datos (
+    usuario_id BIGINT PRIMARY KEY,
+    version BIGINT NOT NULL DEFAULT 0,
+    modificado_en TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    CONSTRAINT fk_version_datos_usuario FOREIGN KEY (usuario_id) REFERENCES usuarios(id) ON DELETE CASCADE
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
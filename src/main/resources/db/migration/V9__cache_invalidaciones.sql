@@ -0,0 +1,14 @@
+-- ===========================================
+-- GTM - Invalidaciones de cache entre nodos
+-- ===========================================
+
+-- Cada nodo sondea las filas nuevas y descarta las claves en sus caches locales;
+-- las filas se purgan tras la retencion configurada
+CREATE TABLE IF NOT EXISTS cache_invalidaciones (
+    id BIGINT PRIMARY KEY AUTO_INCREMENT,
+    nodo VARCHAR(100) NOT NULL,
+    cache VARCHAR(50) NOT NULL,
+    clave BIGINT NOT NULL,
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    INDEX idx_cache_invalidaciones_created (created_at)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
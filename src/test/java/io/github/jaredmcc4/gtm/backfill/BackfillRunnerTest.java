@@ -0,0 +1,115 @@
+package io.github.jaredmcc4.gtm.backfill;
+
+import io.github.jaredmcc4.gtm.domain.BackfillCheckpoint;
+import io.github.jaredmcc4.gtm.repository.BackfillCheckpointRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("BackfillRunner - Unit Tests")
+class BackfillRunnerTest {
+
+    @Mock
+    private BackfillCheckpointRepository checkpointRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Mock
+    private Backfill backfill;
+
+    private BackfillRunner runner;
+
+    @BeforeEach
+    void setUp() {
+        runner = new BackfillRunner(List.of(backfill), checkpointRepository, transactionManager, true, 1000, 0, 60);
+        when(backfill.nombre()).thenReturn("prueba");
+        when(checkpointRepository.existsById("prueba")).thenReturn(true);
+    }
+
+    @Test
+    @DisplayName("Debería procesar por rangos hasta el objetivo y marcarlo completado")
+    void deberiaProcesarPorRangos() {
+        reclamarCon(0L, 2500L);
+        when(checkpointRepository.avanzar(eq("prueba"), anyString(), anyLong(), anyLong(), any())).thenReturn(1);
+
+        assertThat(runner.ejecutar(backfill)).isTrue();
+
+        verify(backfill).procesar(1, 1000);
+        verify(backfill).procesar(1001, 2000);
+        verify(backfill).procesar(2001, 2500);
+        verify(checkpointRepository).finalizar(eq("prueba"), anyString(), eq(BackfillCheckpoint.Estado.COMPLETADO), isNull(), any());
+    }
+
+    @Test
+    @DisplayName("Debería retomar desde el último checkpoint")
+    void deberiaRetomarDesdeCheckpoint() {
+        reclamarCon(2000L, 2500L);
+        when(checkpointRepository.avanzar(eq("prueba"), anyString(), anyLong(), anyLong(), any())).thenReturn(1);
+
+        runner.ejecutar(backfill);
+
+        verify(backfill).procesar(2001, 2500);
+        verify(backfill, times(1)).procesar(anyLong(), anyLong());
+    }
+
+    @Test
+    @DisplayName("Debería detenerse y revertir el lote si perdió el lease")
+    void deberiaDetenerseSiPierdeLease() {
+        SimpleTransactionStatus status = new SimpleTransactionStatus();
+        when(transactionManager.getTransaction(any())).thenReturn(status);
+        reclamarCon(0L, 2500L);
+        when(checkpointRepository.avanzar(eq("prueba"), anyString(), anyLong(), anyLong(), any())).thenReturn(0);
+
+        assertThat(runner.ejecutar(backfill)).isFalse();
+
+        verify(backfill, times(1)).procesar(anyLong(), anyLong());
+        assertThat(status.isRollbackOnly()).isTrue();
+        verify(checkpointRepository, never()).finalizar(any(), any(), any(), any(), any());
+    }
+
+    @Test
+    @DisplayName("No debería procesar si otro nodo tiene el lease")
+    void noDeberiaProcesarSinLease() {
+        when(checkpointRepository.reclamar(eq("prueba"), anyString(), any(), any())).thenReturn(0);
+
+        assertThat(runner.ejecutar(backfill)).isFalse();
+
+        verify(backfill, never()).procesar(anyLong(), anyLong());
+    }
+
+    @Test
+    @DisplayName("Debería registrar el fallo para reintentarlo desde el checkpoint")
+    void deberiaRegistrarFallo() {
+        reclamarCon(0L, 2500L);
+        when(backfill.procesar(1, 1000)).thenThrow(new IllegalStateException("sin conexion"));
+
+        assertThat(runner.ejecutar(backfill)).isFalse();
+
+        verify(checkpointRepository).finalizar(eq("prueba"), anyString(), eq(BackfillCheckpoint.Estado.FALLIDO), eq("sin conexion"), isNull());
+    }
+
+    private void reclamarCon(long ultimoId, long objetivoId) {
+        when(checkpointRepository.reclamar(eq("prueba"), anyString(), any(), any())).thenReturn(1);
+        when(backfill.maxId()).thenReturn(objetivoId);
+        when(checkpointRepository.findById("prueba")).thenReturn(Optional.of(BackfillCheckpoint.builder()
+                .nombre("prueba")
+                .estado(BackfillCheckpoint.Estado.EN_CURSO)
+                .ultimoId(ultimoId)
+                .objetivoId(objetivoId)
+                .build()));
+    }
+}
@@ -1,15 +1,25 @@
 package io.github.jaredmcc4.gtm.config;
 
 import io.github.jaredmcc4.gtm.repository.AdjuntoRepository;
+import io.github.jaredmcc4.gtm.repository.BackfillCheckpointRepository;
+import io.github.jaredmcc4.gtm.repository.BloqueoProgramadoRepository;
+import io.github.jaredmcc4.gtm.repository.CacheInvalidacionRepository;
 import io.github.jaredmcc4.gtm.repository.EtiquetaRepository;
+import io.github.jaredmcc4.gtm.repository.OutboxEventoRepository;
+import io.github.jaredmcc4.gtm.repository.OutboxOffsetRepository;
 import io.github.jaredmcc4.gtm.repository.RefreshTokenRepository;
+import io.github.jaredmcc4.gtm.repository.RefreshTokenRevocadoRepository;
+import io.github.jaredmcc4.gtm.repository.RespuestaIdempotenteRepository;
 import io.github.jaredmcc4.gtm.repository.RolRepository;
 import io.github.jaredmcc4.gtm.repository.SubtareaRepository;
 import io.github.jaredmcc4.gtm.repository.TareaRepository;
+import io.github.jaredmcc4.gtm.repository.UsuarioIdentidadRepository;
 import io.github.jaredmcc4.gtm.repository.UsuarioRepository;
+import io.github.jaredmcc4.gtm.repository.VersionDatosUsuarioRepository;
 import org.mockito.Mockito;
 import org.springframework.boot.test.context.TestConfiguration;
 import org.springframework.context.annotation.Bean;
+import org.springframework.transaction.PlatformTransactionManager;
 
 @TestConfiguration
 public class MockRepositoriesConfig {
@@ -48,4 +58,54 @@ public class MockRepositoriesConfig {
     public AdjuntoRepository adjuntoRepository() {
         return Mockito.mock(AdjuntoRepository.class);
     }
+
+    @Bean
+    public RespuestaIdempotenteRepository respuestaIdempotenteRepository() {
+        return Mockito.mock(RespuestaIdempotenteRepository.class);
+    }
+
+    @Bean
+    public OutboxEventoRepository outboxEventoRepository() {
+        return Mockito.mock(OutboxEventoRepository.class);
+    }
+
+    @Bean
+    public OutboxOffsetRepository outboxOffsetRepository() {
+        return Mockito.mock(OutboxOffsetRepository.class);
+    }
+
+    @Bean
+    public BackfillCheckpointRepository backfillCheckpointRepository() {
+        return Mockito.mock(BackfillCheckpointRepository.class);
+    }
+
+    @Bean
+    public VersionDatosUsuarioRepository versionDatosUsuarioRepository() {
+        return Mockito.mock(VersionDatosUsuarioRepository.class);
+    }
+
+    @Bean
+    public CacheInvalidacionRepository cacheInvalidacionRepository() {
+        return Mockito.mock(CacheInvalidacionRepository.class);
+    }
+
+    @Bean
+    public RefreshTokenRevocadoRepository refreshTokenRevocadoRepository() {
+        return Mockito.mock(RefreshTokenRevocadoRepository.class);
+    }
+
+    @Bean
+    public UsuarioIdentidadRepository usuarioIdentidadRepository() {
+        return Mockito.mock(UsuarioIdentidadRepository.class);
+    }
+
+    @Bean
+    public BloqueoProgramadoRepository bloqueoProgramadoRepository() {
+        return Mockito.mock(BloqueoProgramadoRepository.class);
+    }
+
+    @Bean
+    public PlatformTransactionManager transactionManager() {
+        return Mockito.mock(PlatformTransactionManager.class);
+    }
 }
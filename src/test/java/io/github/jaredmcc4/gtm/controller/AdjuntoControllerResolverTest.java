@@ -5,10 +5,9 @@ import io.github.jaredmcc4.gtm.domain.Tarea;
 import io.github.jaredmcc4.gtm.domain.Usuario;
 import io.github.jaredmcc4.gtm.dto.adjunto.AdjuntoDto;
 import io.github.jaredmcc4.gtm.dto.response.ApiResponse;
-import io.github.jaredmcc4.gtm.exception.UnauthorizedException;
 import io.github.jaredmcc4.gtm.mapper.AdjuntoMapper;
+import io.github.jaredmcc4.gtm.security.UsuarioAutenticado;
 import io.github.jaredmcc4.gtm.services.AdjuntoService;
-import io.github.jaredmcc4.gtm.util.JwtUtil;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
@@ -16,12 +15,10 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
-import org.springframework.security.oauth2.jwt.Jwt;
 
 import java.util.List;
 
 import static org.assertj.core.api.Assertions.assertThat;
-import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.Mockito.*;
 
 import org.mockito.junit.jupiter.MockitoSettings;
@@ -38,20 +35,14 @@ class AdjuntoControllerResolverTest {
     @Mock
     private AdjuntoMapper adjuntoMapper;
 
-    @Mock
-    private JwtUtil jwtUtil;
-
     @InjectMocks
     private AdjuntoController adjuntoController;
 
-    private Jwt jwt;
+    private UsuarioAutenticado autenticado;
 
     @BeforeEach
     void setUp() {
-        jwt = Jwt.withTokenValue("token")
-                .header("alg", "none")
-                .claim("usuarioId", 4L)
-                .build();
+        autenticado = new UsuarioAutenticado(4L, "user@test.com", List.of());
 
         Adjunto adjunto = Adjunto.builder()
                 .id(1L)
@@ -64,34 +55,14 @@ class AdjuntoControllerResolverTest {
     }
 
     @Test
-    @DisplayName("Debe obtener adjuntos utilizando el Jwt principal")
-    void deberiaObtenerAdjuntosConJwt() {
+    @DisplayName("Debe obtener adjuntos con el usuario autenticado inyectado")
+    void deberiaObtenerAdjuntosConUsuarioInyectado() {
         ApiResponse<List<AdjuntoDto>> respuesta = adjuntoController
-                .obtenerAdjuntosPorTarea(2L, jwt, null)
+                .obtenerAdjuntosPorTarea(2L, autenticado)
                 .getBody();
 
         assertThat(respuesta).isNotNull();
         assertThat(respuesta.getData()).hasSize(1);
         verify(adjuntoService).mostrarAdjuntos(2L, 4L);
-        verifyNoInteractions(jwtUtil);
-    }
-
-    @Test
-    @DisplayName("Debe lanzar Unauthorized cuando faltan credenciales")
-    void deberiaLanzarUnauthorizedSinCredenciales() {
-        assertThatThrownBy(() -> adjuntoController.eliminarAdjunto(1L, null, null))
-                .isInstanceOf(UnauthorizedException.class);
-    }
-
-    @Test
-    @DisplayName("Debe resolver usuario desde el Authorization header")
-    void deberiaResolverConHeader() {
-        when(jwtUtil.extraerUsuarioId("token-header")).thenReturn(4L);
-        when(adjuntoService.mostrarAdjuntos(2L, 4L)).thenReturn(List.of());
-
-        adjuntoController.obtenerAdjuntosPorTarea(2L, null, "Bearer token-header");
-
-        verify(jwtUtil).extraerUsuarioId("token-header");
-        verify(adjuntoService).mostrarAdjuntos(2L, 4L);
     }
 }
@@ -5,7 +5,9 @@ import io.github.jaredmcc4.gtm.domain.Adjunto;
 import io.github.jaredmcc4.gtm.dto.adjunto.AdjuntoDto;
 import io.github.jaredmcc4.gtm.mapper.AdjuntoMapper;
 import io.github.jaredmcc4.gtm.services.AdjuntoService;
-import io.github.jaredmcc4.gtm.util.JwtUtil;
+import io.github.jaredmcc4.gtm.services.IdempotenciaService;
+import io.github.jaredmcc4.gtm.services.SubtareaToggleBuffer;
+import io.github.jaredmcc4.gtm.services.VersionDatosService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Nested;
@@ -22,22 +24,25 @@ import org.springframework.http.MediaType;
 import org.springframework.mock.web.MockMultipartFile;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
+import org.springframework.security.oauth2.jwt.Jwt;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.test.context.bean.override.mockito.MockitoBean;
 import org.springframework.test.web.servlet.MockMvc;
 
 import java.util.List;
+import java.util.function.Supplier;
 
 import static org.mockito.ArgumentMatchers.*;
 import static org.mockito.Mockito.*;
 import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.jwt;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
 @WebMvcTest(AdjuntoController.class)
 @Import(TestSecurityConfig.class)
-@AutoConfigureMockMvc(addFilters = false)
+@AutoConfigureMockMvc
 @DisplayName("Adjunto Controller - Integration Tests")
 class AdjuntoControllerTests {
 
@@ -51,11 +56,26 @@ class AdjuntoControllerTests {
     private AdjuntoMapper adjuntoMapper;
 
     @MockitoBean
-    private JwtUtil jwtUtil;
+    private IdempotenciaService idempotenciaService;
+
+    @MockitoBean
+    private VersionDatosService versionDatosService;
+
+    @MockitoBean
+    private SubtareaToggleBuffer subtareaToggleBuffer;
 
     @BeforeEach
     void setUp() {
-        when(jwtUtil.extraerUsuarioId(anyString())).thenReturn(1L);
+        when(idempotenciaService.ejecutar(any(), any(), anyString(), any(), any(), any()))
+                .thenAnswer(inv -> inv.<Supplier<?>>getArgument(5).get());
+    }
+
+    private Jwt jwtMock() {
+        return Jwt.withTokenValue("token-mock")
+                .header("alg", "none")
+                .claim("sub", "user@test.com")
+                .claim("usuarioId", 1L)
+                .build();
     }
 
     @Nested
@@ -94,7 +114,7 @@ class AdjuntoControllerTests {
             mockMvc.perform(multipart("/api/v1/adjuntos/tarea/1")
                             .file(file)
                             .with(csrf())
-                            .header("Authorization", "Bearer token"))
+                            .with(jwt().jwt(jwtMock())))
                     .andExpect(status().isCreated())
                     .andExpect(jsonPath("$.success").value(true))
                     .andExpect(jsonPath("$.data.nombre").value("documento.pdf"));
@@ -119,7 +139,7 @@ class AdjuntoControllerTests {
             mockMvc.perform(multipart("/api/v1/adjuntos/tarea/1")
                             .file(file)
                             .with(csrf())
-                            .header("Authorization", "Bearer token"))
+                            .with(jwt().jwt(jwtMock())))
                     .andExpect(status().isBadRequest());
         }
     }
@@ -158,7 +178,7 @@ class AdjuntoControllerTests {
             when(adjuntoMapper.toDto(adjunto2)).thenReturn(dto2);
 
             mockMvc.perform(get("/api/v1/adjuntos/tarea/1")
-                            .header("Authorization", "Bearer token"))
+                            .with(jwt().jwt(jwtMock())))
                     .andExpect(status().isOk())
                     .andExpect(jsonPath("$.success").value(true))
                     .andExpect(jsonPath("$.data").isArray())
@@ -188,7 +208,7 @@ class AdjuntoControllerTests {
             when(adjuntoService.descargarAdjunto(1L, 1L)).thenReturn(resource);
 
             mockMvc.perform(get("/api/v1/adjuntos/1/descargar")
-                            .header("Authorization", "Bearer token"))
+                            .with(jwt().jwt(jwtMock())))
                     .andExpect(status().isOk())
                     .andExpect(header().string("Content-Type", "application/pdf"))
                     .andExpect(header().exists("Content-Disposition"));
@@ -209,7 +229,7 @@ class AdjuntoControllerTests {
 
             mockMvc.perform(delete("/api/v1/adjuntos/1")
                             .with(csrf())
-                            .header("Authorization", "Bearer token"))
+                            .with(jwt().jwt(jwtMock())))
                     .andExpect(status().isOk())
                     .andExpect(jsonPath("$.success").value(true))
                     .andExpect(jsonPath("$.message").value("Adjunto eliminado exitosamente"));
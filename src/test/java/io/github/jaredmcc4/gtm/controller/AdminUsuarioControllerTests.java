@@ -0,0 +1,78 @@
+package io.github.jaredmcc4.gtm.controller;
+
+import io.github.jaredmcc4.gtm.builders.UsuarioTestBuilder;
+import io.github.jaredmcc4.gtm.config.TestSecurityConfig;
+import io.github.jaredmcc4.gtm.domain.Usuario;
+import io.github.jaredmcc4.gtm.dto.usuario.UsuarioDto;
+import io.github.jaredmcc4.gtm.exception.ResourceNotFoundException;
+import io.github.jaredmcc4.gtm.mapper.UsuarioMapper;
+import io.github.jaredmcc4.gtm.services.SubtareaToggleBuffer;
+import io.github.jaredmcc4.gtm.services.UsuarioService;
+import io.github.jaredmcc4.gtm.services.VersionDatosService;
+import io.github.jaredmcc4.gtm.util.JwtUtil;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.mockito.Mockito.*;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@WebMvcTest(AdminUsuarioController.class)
+@Import(TestSecurityConfig.class)
+@AutoConfigureMockMvc(addFilters = false)
+@DisplayName("Admin Usuario Controller - Integration Tests")
+class AdminUsuarioControllerTests {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockitoBean
+    private UsuarioService usuarioService;
+
+    @MockitoBean
+    private UsuarioMapper usuarioMapper;
+
+    @MockitoBean
+    private JwtUtil jwtUtil;
+
+    @MockitoBean
+    private VersionDatosService versionDatosService;
+
+    @MockitoBean
+    private SubtareaToggleBuffer subtareaToggleBuffer;
+
+    @Test
+    @WithMockUser(roles = "ADMIN")
+    @DisplayName("Debería desactivar al usuario indicado")
+    void deberiaDesactivarUsuario() throws Exception {
+        Usuario desactivado = UsuarioTestBuilder.unUsuario().conId(4L).inactivo().build();
+        when(usuarioService.desactivarUsuario(4L)).thenReturn(desactivado);
+        when(usuarioMapper.toDto(desactivado)).thenReturn(UsuarioDto.builder().id(4L).activo(false).build());
+
+        mockMvc.perform(patch("/api/v1/admin/usuarios/4/desactivar").with(csrf()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.success").value(true))
+                .andExpect(jsonPath("$.data.id").value(4))
+                .andExpect(jsonPath("$.data.activo").value(false));
+
+        verify(usuarioService).desactivarUsuario(4L);
+    }
+
+    @Test
+    @WithMockUser(roles = "ADMIN")
+    @DisplayName("Debería responder 404 si el usuario no existe")
+    void deberiaResponder404SiNoExiste() throws Exception {
+        when(usuarioService.desactivarUsuario(9L)).thenThrow(new ResourceNotFoundException("Usuario no encontrado."));
+
+        mockMvc.perform(patch("/api/v1/admin/usuarios/9/desactivar").with(csrf()))
+                .andExpect(status().isNotFound());
+    }
+}
@@ -10,11 +10,17 @@ import io.github.jaredmcc4.gtm.dto.auth.LoginRequest;
 import io.github.jaredmcc4.gtm.dto.auth.RefreshTokenRequest;
 import io.github.jaredmcc4.gtm.dto.auth.RegistroRequest;
 import io.github.jaredmcc4.gtm.dto.usuario.UsuarioDto;
+import io.github.jaredmcc4.gtm.exception.DemasiadosIntentosException;
+import io.github.jaredmcc4.gtm.exception.ResourceNotFoundException;
+import io.github.jaredmcc4.gtm.exception.ServicioSaturadoException;
 import io.github.jaredmcc4.gtm.exception.UnauthorizedException;
 import io.github.jaredmcc4.gtm.mapper.UsuarioMapper;
+import io.github.jaredmcc4.gtm.security.LimitadorIntentos;
 import io.github.jaredmcc4.gtm.services.AuthService;
 import io.github.jaredmcc4.gtm.services.SocialAuthService;
+import io.github.jaredmcc4.gtm.services.SubtareaToggleBuffer;
 import io.github.jaredmcc4.gtm.services.TurnstileService;
+import io.github.jaredmcc4.gtm.services.VersionDatosService;
 import io.github.jaredmcc4.gtm.util.JwtUtil;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
@@ -25,6 +31,7 @@ import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMock
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.context.annotation.Import;
 import org.springframework.http.MediaType;
+import org.springframework.security.authentication.BadCredentialsException;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.context.bean.override.mockito.MockitoBean;
 import org.springframework.test.web.servlet.MockMvc;
@@ -32,6 +39,7 @@ import org.springframework.test.web.servlet.MockMvc;
 import java.util.Set;
 
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
@@ -60,12 +68,21 @@ class AuthControllerTests {
     @MockitoBean
     private TurnstileService turnstileService;
 
+    @MockitoBean
+    private LimitadorIntentos limitadorIntentos;
+
     @MockitoBean
     private UsuarioMapper usuarioMapper;
 
     @MockitoBean
     private JwtUtil jwtUtil;
 
+    @MockitoBean
+    private VersionDatosService versionDatosService;
+
+    @MockitoBean
+    private SubtareaToggleBuffer subtareaToggleBuffer;
+
     @BeforeEach
     void setUp() {
 
@@ -106,7 +123,7 @@ class AuthControllerTests {
                     .activo(true)
                     .build();
 
-            when(authService.registrarUsuario(any(RegistroRequest.class))).thenReturn(usuario);
+            when(authService.registrarUsuario(any(RegistroRequest.class), any())).thenReturn(usuario);
             when(usuarioMapper.toDto(any(Usuario.class))).thenReturn(usuarioDto);
 
             mockMvc.perform(post("/api/v1/auth/registro")
@@ -118,7 +135,7 @@ class AuthControllerTests {
                     .andExpect(jsonPath("$.data.email").value("nuevo@example.com"))
                     .andExpect(jsonPath("$.message").value("Usuario registrado exitosamente"));
 
-            verify(authService).registrarUsuario(any(RegistroRequest.class));
+            verify(authService).registrarUsuario(any(RegistroRequest.class), any());
         }
 
         @Test
@@ -141,7 +158,7 @@ class AuthControllerTests {
                     .andExpect(jsonPath("$.success").value(false))
                     .andExpect(jsonPath("$.errors.email").exists());
 
-            verify(authService, never()).registrarUsuario(any());
+            verify(authService, never()).registrarUsuario(any(), any());
         }
 
         @Test
@@ -163,7 +180,7 @@ class AuthControllerTests {
                     .andExpect(status().isBadRequest())
                     .andExpect(jsonPath("$.errors.password").exists());
 
-            verify(authService, never()).registrarUsuario(any());
+            verify(authService, never()).registrarUsuario(any(), any());
         }
 
         @Test
@@ -198,7 +215,7 @@ class AuthControllerTests {
                     TURNSTILE_TOKEN
             );
 
-            when(authService.registrarUsuario(any(RegistroRequest.class)))
+            when(authService.registrarUsuario(any(RegistroRequest.class), any()))
                     .thenThrow(new IllegalArgumentException("Ya existe un usuario con el email proporcionado"));
 
             mockMvc.perform(post("/api/v1/auth/registro")
@@ -242,6 +259,65 @@ class AuthControllerTests {
             verify(authService).autenticarUsuario(any(LoginRequest.class));
         }
 
+        @Test
+        @DisplayName("Debería retornar 503 con Retry-After si el pool de hashing está saturado")
+        void deberiaRetornar503SiHashingSaturado() throws Exception {
+            LoginRequest request = new LoginRequest("test@example.com", "password123");
+
+            when(authService.autenticarUsuario(any(LoginRequest.class)))
+                    .thenThrow(new ServicioSaturadoException("Demasiadas solicitudes", 2));
+
+            mockMvc.perform(post("/api/v1/auth/login")
+                            .with(csrf())
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(objectMapper.writeValueAsString(request)))
+                    .andExpect(status().isServiceUnavailable())
+                    .andExpect(header().string("Retry-After", "2"))
+                    .andExpect(jsonPath("$.success").value(false));
+        }
+
+        @Test
+        @DisplayName("Debería retornar 429 con Retry-After sin autenticar si se supera el límite")
+        void deberiaRetornar429SiSuperaLimite() throws Exception {
+            LoginRequest request = new LoginRequest("test@example.com", "password123");
+
+            doThrow(new DemasiadosIntentosException("Demasiados intentos", 30))
+                    .when(limitadorIntentos).verificarLogin(anyString(), eq("test@example.com"));
+
+            mockMvc.perform(post("/api/v1/auth/login")
+                            .with(csrf())
+                            .with(peticion -> {
+                                peticion.setRemoteAddr("203.0.113.7");
+                                return peticion;
+                            })
+                            .header("X-Forwarded-For", "198.51.100.1")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(objectMapper.writeValueAsString(request)))
+                    .andExpect(status().isTooManyRequests())
+                    .andExpect(header().string("Retry-After", "30"))
+                    .andExpect(jsonPath("$.success").value(false));
+
+            verify(limitadorIntentos).verificarLogin("203.0.113.7", "test@example.com");
+            verify(authService, never()).autenticarUsuario(any());
+        }
+
+        @Test
+        @DisplayName("Debería registrar el fallo en el limitador cuando las credenciales no son válidas")
+        void deberiaRegistrarFalloEnLimitador() throws Exception {
+            LoginRequest request = new LoginRequest("test@example.com", "wrongPassword");
+
+            when(authService.autenticarUsuario(any(LoginRequest.class)))
+                    .thenThrow(new BadCredentialsException("Credenciales inválidas."));
+
+            mockMvc.perform(post("/api/v1/auth/login")
+                            .with(csrf())
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(objectMapper.writeValueAsString(request)))
+                    .andExpect(status().isUnauthorized());
+
+            verify(limitadorIntentos).registrarFallo("127.0.0.1", "test@example.com");
+        }
+
         @Test
         @DisplayName("Debería retornar 401 con credenciales incorrectas")
         void deberiaRechazarCredencialesIncorrectas() throws Exception {
@@ -322,6 +398,25 @@ class AuthControllerTests {
                             .contentType(MediaType.APPLICATION_JSON)
                             .content(objectMapper.writeValueAsString(request)))
                     .andExpect(status().isUnauthorized());
+
+            verify(limitadorIntentos).registrarFalloRefresh("127.0.0.1");
+        }
+
+        @Test
+        @DisplayName("Debería penalizar la IP cuando el refresh token no existe")
+        void deberiaPenalizarRefreshTokenDesconocido() throws Exception {
+            RefreshTokenRequest request = new RefreshTokenRequest("desconocido");
+
+            when(authService.refrescarToken("desconocido"))
+                    .thenThrow(new ResourceNotFoundException("El refresh token es inválido."));
+
+            mockMvc.perform(post("/api/v1/auth/refresh")
+                            .with(csrf())
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(objectMapper.writeValueAsString(request)))
+                    .andExpect(status().isNotFound());
+
+            verify(limitadorIntentos).registrarFalloRefresh("127.0.0.1");
         }
     }
 
@@ -4,11 +4,10 @@ import io.github.jaredmcc4.gtm.domain.Etiqueta;
 import io.github.jaredmcc4.gtm.domain.Usuario;
 import io.github.jaredmcc4.gtm.dto.etiqueta.EtiquetaDto;
 import io.github.jaredmcc4.gtm.dto.response.ApiResponse;
-import io.github.jaredmcc4.gtm.exception.UnauthorizedException;
 import io.github.jaredmcc4.gtm.mapper.EtiquetaMapper;
+import io.github.jaredmcc4.gtm.security.UsuarioAutenticado;
 import io.github.jaredmcc4.gtm.services.EtiquetaService;
 import io.github.jaredmcc4.gtm.services.UsuarioService;
-import io.github.jaredmcc4.gtm.util.JwtUtil;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
@@ -16,12 +15,10 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
-import org.springframework.security.oauth2.jwt.Jwt;
 
 import java.util.List;
 
 import static org.assertj.core.api.Assertions.assertThat;
-import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.Mockito.*;
 
 import org.mockito.junit.jupiter.MockitoSettings;
@@ -41,20 +38,14 @@ class EtiquetaControllerResolverTest {
     @Mock
     private UsuarioService usuarioService;
 
-    @Mock
-    private JwtUtil jwtUtil;
-
     @InjectMocks
     private EtiquetaController etiquetaController;
 
-    private Jwt jwt;
+    private UsuarioAutenticado autenticado;
 
     @BeforeEach
     void setUp() {
-        jwt = Jwt.withTokenValue("token")
-                .header("alg", "none")
-                .claim("usuarioId", 3L)
-                .build();
+        autenticado = new UsuarioAutenticado(3L, "user@test.com", List.of());
 
         Etiqueta etiqueta = Etiqueta.builder()
                 .id(1L)
@@ -72,34 +63,14 @@ class EtiquetaControllerResolverTest {
     }
 
     @Test
-    @DisplayName("Debe obtener la etiqueta usando el Jwt principal")
-    void deberiaObtenerEtiquetaPorIdUsandoJwt() {
+    @DisplayName("Debe obtener la etiqueta con el usuario autenticado inyectado")
+    void deberiaObtenerEtiquetaPorIdConUsuarioInyectado() {
         ApiResponse<EtiquetaDto> respuesta = etiquetaController
-                .obtenerEtiquetaPorId(jwt, null, 1L)
+                .obtenerEtiquetaPorId(autenticado, 1L)
                 .getBody();
 
         assertThat(respuesta).isNotNull();
         assertThat(respuesta.getData().getId()).isEqualTo(1L);
         verify(etiquetaService).obtenerEtiquetaPorIdYUsuarioId(1L, 3L);
-        verifyNoInteractions(jwtUtil);
-    }
-
-    @Test
-    @DisplayName("Debe lanzar Unauthorized cuando no hay credenciales")
-    void deberiaLanzarUnauthorizedSinCredenciales() {
-        assertThatThrownBy(() -> etiquetaController.obtenerEtiquetas(null, null))
-                .isInstanceOf(UnauthorizedException.class);
-    }
-
-    @Test
-    @DisplayName("Debe resolver usuario usando encabezado Authorization")
-    void deberiaResolverConHeader() {
-        when(jwtUtil.extraerUsuarioId("token-header")).thenReturn(3L);
-        when(etiquetaService.obtenerEtiquetasPorUsuarioId(3L)).thenReturn(List.of());
-
-        etiquetaController.obtenerEtiquetas(null, "Bearer token-header");
-
-        verify(jwtUtil).extraerUsuarioId("token-header");
-        verify(etiquetaService).obtenerEtiquetasPorUsuarioId(3L);
     }
 }
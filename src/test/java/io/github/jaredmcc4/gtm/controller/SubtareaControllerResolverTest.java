@@ -5,10 +5,9 @@ import io.github.jaredmcc4.gtm.domain.Tarea;
 import io.github.jaredmcc4.gtm.domain.Usuario;
 import io.github.jaredmcc4.gtm.dto.response.ApiResponse;
 import io.github.jaredmcc4.gtm.dto.subtarea.SubtareaDto;
-import io.github.jaredmcc4.gtm.exception.UnauthorizedException;
 import io.github.jaredmcc4.gtm.mapper.SubtareaMapper;
+import io.github.jaredmcc4.gtm.security.UsuarioAutenticado;
 import io.github.jaredmcc4.gtm.services.SubtareaService;
-import io.github.jaredmcc4.gtm.util.JwtUtil;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
@@ -16,12 +15,10 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
-import org.springframework.security.oauth2.jwt.Jwt;
 
 import java.util.List;
 
 import static org.assertj.core.api.Assertions.assertThat;
-import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.Mockito.*;
 
 import org.mockito.junit.jupiter.MockitoSettings;
@@ -38,20 +35,14 @@ class SubtareaControllerResolverTest {
     @Mock
     private SubtareaMapper subtareaMapper;
 
-    @Mock
-    private JwtUtil jwtUtil;
-
     @InjectMocks
     private SubtareaController subtareaController;
 
-    private Jwt jwt;
+    private UsuarioAutenticado autenticado;
 
     @BeforeEach
     void setUp() {
-        jwt = Jwt.withTokenValue("token")
-                .header("alg", "none")
-                .claim("usuarioId", 8L)
-                .build();
+        autenticado = new UsuarioAutenticado(8L, "user@test.com", List.of());
 
         Subtarea subtarea = Subtarea.builder()
                 .id(1L)
@@ -64,34 +55,14 @@ class SubtareaControllerResolverTest {
     }
 
     @Test
-    @DisplayName("Debe resolver usuario utilizando el Jwt principal")
-    void deberiaResolverUsuarioConJwt() {
+    @DisplayName("Debe listar subtareas con el usuario autenticado inyectado")
+    void deberiaResolverUsuarioInyectado() {
         ApiResponse<List<SubtareaDto>> respuesta = subtareaController
-                .obtenerSubtareasPorTarea(jwt, null, 2L)
+                .obtenerSubtareasPorTarea(autenticado, 2L)
                 .getBody();
 
         assertThat(respuesta).isNotNull();
         assertThat(respuesta.getData()).hasSize(1);
         verify(subtareaService).mostrarSubtareas(2L, 8L);
-        verifyNoInteractions(jwtUtil);
-    }
-
-    @Test
-    @DisplayName("Debe lanzar Unauthorized cuando no hay encabezado ni Jwt")
-    void deberiaLanzarUnauthorizedSinCredenciales() {
-        assertThatThrownBy(() -> subtareaController.eliminarSubtarea(null, null, 1L))
-                .isInstanceOf(UnauthorizedException.class);
-    }
-
-    @Test
-    @DisplayName("Debe resolver usuario usando Authorization header")
-    void deberiaResolverConHeader() {
-        when(jwtUtil.extraerUsuarioId("token-header")).thenReturn(8L);
-        when(subtareaService.mostrarSubtareas(2L, 8L)).thenReturn(List.of());
-
-        subtareaController.obtenerSubtareasPorTarea(null, "Bearer token-header", 2L);
-
-        verify(jwtUtil).extraerUsuarioId("token-header");
-        verify(subtareaService).mostrarSubtareas(2L, 8L);
     }
 }
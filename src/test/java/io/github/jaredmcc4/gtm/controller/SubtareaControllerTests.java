@@ -6,7 +6,8 @@ import io.github.jaredmcc4.gtm.domain.Subtarea;
 import io.github.jaredmcc4.gtm.dto.subtarea.SubtareaDto;
 import io.github.jaredmcc4.gtm.mapper.SubtareaMapper;
 import io.github.jaredmcc4.gtm.services.SubtareaService;
-import io.github.jaredmcc4.gtm.util.JwtUtil;
+import io.github.jaredmcc4.gtm.services.SubtareaToggleBuffer;
+import io.github.jaredmcc4.gtm.services.VersionDatosService;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
@@ -15,6 +16,7 @@ import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMock
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.context.annotation.Import;
 import org.springframework.http.MediaType;
+import org.springframework.security.oauth2.jwt.Jwt;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.context.bean.override.mockito.MockitoBean;
 import org.springframework.test.web.servlet.MockMvc;
@@ -24,12 +26,13 @@ import java.util.List;
 import static org.mockito.ArgumentMatchers.*;
 import static org.mockito.Mockito.*;
 import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.jwt;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
 @WebMvcTest(SubtareaController.class)
 @Import(TestSecurityConfig.class)
-@AutoConfigureMockMvc(addFilters = false)
+@AutoConfigureMockMvc
 @DisplayName("Subtarea Controller - Integration Tests")
 class SubtareaControllerTests {
 
@@ -46,7 +49,18 @@ class SubtareaControllerTests {
     private SubtareaMapper subtareaMapper;
 
     @MockitoBean
-    private JwtUtil jwtUtil;
+    private VersionDatosService versionDatosService;
+
+    @MockitoBean
+    private SubtareaToggleBuffer subtareaToggleBuffer;
+
+    private Jwt jwtMock() {
+        return Jwt.withTokenValue("token-mock")
+                .header("alg", "none")
+                .claim("sub", "user@test.com")
+                .claim("usuarioId", 1L)
+                .build();
+    }
 
     @Nested
     @DisplayName("GET /api/v1/subtareas/tarea/{tareaId}")
@@ -78,14 +92,13 @@ class SubtareaControllerTests {
                     .completada(true)
                     .build();
 
-            when(jwtUtil.extraerUsuarioId(anyString())).thenReturn(1L);
             when(subtareaService.mostrarSubtareas(1L, 1L))
                     .thenReturn(List.of(subtarea1, subtarea2));
             when(subtareaMapper.toDto(subtarea1)).thenReturn(dto1);
             when(subtareaMapper.toDto(subtarea2)).thenReturn(dto2);
 
             mockMvc.perform(get("/api/v1/subtareas/tarea/1")
-                            .header("Authorization", "Bearer token"))
+                            .with(jwt().jwt(jwtMock())))
                     .andExpect(status().isOk())
                     .andExpect(jsonPath("$.success").value(true))
                     .andExpect(jsonPath("$.data").isArray())
@@ -127,7 +140,6 @@ class SubtareaControllerTests {
                     .completada(false)
                     .build();
 
-            when(jwtUtil.extraerUsuarioId(anyString())).thenReturn(1L);
             when(subtareaMapper.toEntity(any(SubtareaDto.class))).thenReturn(subtarea);
             when(subtareaService.crearSubtarea(eq(1L), any(Subtarea.class), eq(1L)))
                     .thenReturn(subtareaCreada);
@@ -135,7 +147,7 @@ class SubtareaControllerTests {
 
             mockMvc.perform(post("/api/v1/subtareas/tarea/1")
                             .with(csrf())
-                            .header("Authorization", "Bearer token")
+                            .with(jwt().jwt(jwtMock()))
                             .contentType(MediaType.APPLICATION_JSON)
                             .content(objectMapper.writeValueAsString(requestDto)))
                     .andExpect(status().isCreated())
@@ -154,11 +166,10 @@ class SubtareaControllerTests {
                     .titulo("")
                     .build();
 
-            when(jwtUtil.extraerUsuarioId(anyString())).thenReturn(1L);
 
             mockMvc.perform(post("/api/v1/subtareas/tarea/1")
                             .with(csrf())
-                            .header("Authorization", "Bearer token")
+                            .with(jwt().jwt(jwtMock()))
                             .contentType(MediaType.APPLICATION_JSON)
                             .content(objectMapper.writeValueAsString(requestDto)))
                     .andExpect(status().isBadRequest());
@@ -197,7 +208,6 @@ class SubtareaControllerTests {
                     .completada(true)
                     .build();
 
-            when(jwtUtil.extraerUsuarioId(anyString())).thenReturn(1L);
             when(subtareaMapper.toEntity(any(SubtareaDto.class))).thenReturn(subtarea);
             when(subtareaService.actualizarSubtarea(eq(1L), any(Subtarea.class), eq(1L)))
                     .thenReturn(subtareaActualizada);
@@ -205,7 +215,7 @@ class SubtareaControllerTests {
 
             mockMvc.perform(put("/api/v1/subtareas/1")
                             .with(csrf())
-                            .header("Authorization", "Bearer token")
+                            .with(jwt().jwt(jwtMock()))
                             .contentType(MediaType.APPLICATION_JSON)
                             .content(objectMapper.writeValueAsString(requestDto)))
                     .andExpect(status().isOk())
@@ -217,6 +227,40 @@ class SubtareaControllerTests {
         }
     }
 
+    @Nested
+    @DisplayName("PUT /api/v1/subtareas/{id}/posicion")
+    class MoverSubtareaTests {
+
+        @Test
+        @WithMockUser
+        @DisplayName("Debería mover subtarea al inicio")
+        void deberiaMoverSubtareaAlInicio() throws Exception {
+            Subtarea movida = Subtarea.builder()
+                    .id(1L)
+                    .titulo("Subtarea")
+                    .posicion("00001")
+                    .build();
+            SubtareaDto responseDto = SubtareaDto.builder()
+                    .id(1L)
+                    .titulo("Subtarea")
+                    .posicion("00001")
+                    .build();
+
+            when(subtareaService.moverSubtarea(1L, null, 1L)).thenReturn(movida);
+            when(subtareaMapper.toDto(movida)).thenReturn(responseDto);
+
+            mockMvc.perform(put("/api/v1/subtareas/1/posicion")
+                            .with(csrf())
+                            .with(jwt().jwt(jwtMock()))
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content("{}"))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.data.posicion").value("00001"));
+
+            verify(subtareaService).moverSubtarea(1L, null, 1L);
+        }
+    }
+
     @Nested
     @DisplayName("DELETE /api/v1/subtareas/{id}")
     class EliminarSubtareaTests {
@@ -225,12 +269,11 @@ class SubtareaControllerTests {
         @WithMockUser
         @DisplayName("Debería eliminar subtarea correctamente")
         void deberiaEliminarSubtarea() throws Exception {
-            when(jwtUtil.extraerUsuarioId(anyString())).thenReturn(1L);
             doNothing().when(subtareaService).eliminarSubtarea(1L, 1L);
 
             mockMvc.perform(delete("/api/v1/subtareas/1")
                             .with(csrf())
-                            .header("Authorization", "Bearer token"))
+                            .with(jwt().jwt(jwtMock())))
                     .andExpect(status().isOk())
                     .andExpect(jsonPath("$.success").value(true))
                     .andExpect(jsonPath("$.message").value("Subtarea eliminada exitosamente"));
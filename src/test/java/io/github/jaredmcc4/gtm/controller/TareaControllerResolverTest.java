@@ -7,9 +7,13 @@ import io.github.jaredmcc4.gtm.dto.response.PageResponse;
 import io.github.jaredmcc4.gtm.dto.tarea.TareaDto;
 import io.github.jaredmcc4.gtm.exception.UnauthorizedException;
 import io.github.jaredmcc4.gtm.mapper.TareaMapper;
+import io.github.jaredmcc4.gtm.security.UsuarioAutenticado;
+import io.github.jaredmcc4.gtm.security.UsuarioAutenticadoToken;
+import io.github.jaredmcc4.gtm.services.SingleFlight;
 import io.github.jaredmcc4.gtm.services.TareaService;
 import io.github.jaredmcc4.gtm.services.UsuarioService;
-import io.github.jaredmcc4.gtm.util.JwtUtil;
+import io.github.jaredmcc4.gtm.services.VersionDatosService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
@@ -17,6 +21,7 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.mockito.junit.jupiter.MockitoSettings;
 import org.mockito.quality.Strictness;
@@ -49,7 +54,10 @@ class TareaControllerResolverTest {
     private TareaMapper tareaMapper;
 
     @Mock
-    private JwtUtil jwtUtil;
+    private VersionDatosService versionDatosService;
+
+    @Spy
+    private SingleFlight singleFlight = new SingleFlight(new SimpleMeterRegistry(), true, 2000);
 
     @InjectMocks
     private TareaController tareaController;
@@ -80,7 +88,6 @@ class TareaControllerResolverTest {
                 .claim("usuarioId", 9L)
                 .build();
         SecurityContextHolder.getContext().setAuthentication(new JwtAuthenticationToken(jwt));
-        when(jwtUtil.extraerUsuarioId(jwt.getTokenValue())).thenReturn(9L);
         when(tareaService.obtenerTareasPorUsuarioId(eq(9L), any())).thenReturn(page);
 
         ApiResponse<PageResponse<TareaDto>> respuesta = tareaController
@@ -92,6 +99,22 @@ class TareaControllerResolverTest {
         verify(tareaService).obtenerTareasPorUsuarioId(eq(9L), any());
     }
 
+    @Test
+    @DisplayName("Debe usar el principal construido al autenticar en lugar de releer el token")
+    void deberiaUsarPrincipalAutenticado() {
+        Jwt jwt = Jwt.withTokenValue("token")
+                .header("alg", "none")
+                .claim("usuarioId", 1L)
+                .build();
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsuarioAutenticadoToken(jwt, List.of(), new UsuarioAutenticado(9L, "user@test.com", List.of("USER"))));
+        when(tareaService.obtenerTareasPorUsuarioId(eq(9L), any())).thenReturn(page);
+
+        tareaController.obtenerTareas(jwt, 0, 10, "createdAt", "DESC", null, null);
+
+        verify(tareaService).obtenerTareasPorUsuarioId(eq(9L), any());
+    }
+
     @Test
     @DisplayName("buscarTareas debe delegar en el servicio con los parámetros indicados")
     void deberiaBuscarTareasPorTexto() {
@@ -99,7 +122,6 @@ class TareaControllerResolverTest {
                 .header("alg", "none")
                 .claim("usuarioId", 3L)
                 .build();
-        when(jwtUtil.extraerUsuarioId(jwt.getTokenValue())).thenReturn(3L);
         when(tareaService.buscarTareasPorTexto(eq(3L), eq("bug"), any()))
                 .thenReturn(page);
 
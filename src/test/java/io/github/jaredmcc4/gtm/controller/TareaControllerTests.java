@@ -7,18 +7,23 @@ import io.github.jaredmcc4.gtm.config.TestSecurityConfig;
 import io.github.jaredmcc4.gtm.domain.Tarea;
 import io.github.jaredmcc4.gtm.domain.Usuario;
 import io.github.jaredmcc4.gtm.dto.tarea.ActualizarTareaRequest;
+import io.github.jaredmcc4.gtm.dto.tarea.MoverPosicionRequest;
 import io.github.jaredmcc4.gtm.dto.tarea.CrearTareaRequest;
 import io.github.jaredmcc4.gtm.dto.tarea.TareaDto;
 import io.github.jaredmcc4.gtm.exception.GlobalExceptionHandler;
 import io.github.jaredmcc4.gtm.exception.ResourceNotFoundException;
 import io.github.jaredmcc4.gtm.mapper.TareaMapper;
+import io.github.jaredmcc4.gtm.services.IdempotenciaService;
+import io.github.jaredmcc4.gtm.services.SingleFlight;
+import io.github.jaredmcc4.gtm.services.SubtareaToggleBuffer;
 import io.github.jaredmcc4.gtm.services.TareaService;
 import io.github.jaredmcc4.gtm.services.UsuarioService;
-import io.github.jaredmcc4.gtm.util.JwtUtil;
+import io.github.jaredmcc4.gtm.services.VersionDatosService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
@@ -35,6 +40,7 @@ import org.springframework.test.web.servlet.MockMvc;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.function.Supplier;
 
 import static org.mockito.ArgumentMatchers.*;
 import static org.mockito.Mockito.*;
@@ -65,7 +71,16 @@ class TareaControllerTests {
     private TareaMapper tareaMapper;
 
     @MockitoBean
-    private JwtUtil jwtUtil;
+    private IdempotenciaService idempotenciaService;
+
+    @MockitoBean
+    private VersionDatosService versionDatosService;
+
+    @MockitoBean
+    private SubtareaToggleBuffer subtareaToggleBuffer;
+
+    @MockitoBean
+    private SingleFlight singleFlight;
 
     private Usuario usuario;
     private Tarea tarea;
@@ -85,7 +100,10 @@ class TareaControllerTests {
                 .titulo("Tarea de prueba")
                 .build();
 
-        when(jwtUtil.extraerUsuarioId(anyString())).thenReturn(1L);
+        when(idempotenciaService.ejecutar(any(), any(), anyString(), any(), any(), any()))
+                .thenAnswer(inv -> inv.<Supplier<?>>getArgument(5).get());
+        when(singleFlight.ejecutar(any(), anyString(), anyList(), any()))
+                .thenAnswer(inv -> inv.<Supplier<?>>getArgument(3).get());
         when(usuarioService.obtenerUsuarioPorId(1L)).thenReturn(usuario);
         when(tareaMapper.toDto(any(Tarea.class))).thenReturn(tareaDto);
     }
@@ -94,6 +112,15 @@ class TareaControllerTests {
         return Jwt.withTokenValue("token-mock")
                 .header("alg", "none")
                 .claim("sub", "user-id")
+                .claim("usuarioId", 1L)
+                .build();
+    }
+
+    private Jwt jwtConUsuarioId() {
+        return Jwt.withTokenValue("token-mock")
+                .header("alg", "none")
+                .claim("sub", "user-id")
+                .claim("usuarioId", 1L)
                 .build();
     }
 
@@ -207,6 +234,63 @@ class TareaControllerTests {
 
             verify(tareaService).buscarTareasPorTexto(eq(1L), eq("prueba"), any());
         }
+
+        @Test
+        @WithMockUser
+        @DisplayName("Debería incluir ETag con la version de datos del usuario")
+        void deberiaIncluirEtag() throws Exception {
+            when(versionDatosService.obtener(1L)).thenReturn(new VersionDatosService.Version(7L, LocalDateTime.now()));
+            when(tareaService.obtenerTareasPorUsuarioId(eq(1L), any())).thenReturn(buildPage());
+
+            mockMvc.perform(get("/api/v1/tareas").with(jwt().jwt(jwtConUsuarioId())))
+                    .andExpect(status().isOk())
+                    .andExpect(header().string("ETag", "W/\"1-7\""))
+                    .andExpect(header().string("Cache-Control", "private, no-cache"));
+        }
+
+        @Test
+        @WithMockUser
+        @DisplayName("Debería responder 304 sin consultar tareas si la version no cambio")
+        void deberiaResponderNoModificado() throws Exception {
+            when(versionDatosService.obtener(1L)).thenReturn(new VersionDatosService.Version(7L, LocalDateTime.now()));
+
+            mockMvc.perform(get("/api/v1/tareas")
+                            .with(jwt().jwt(jwtConUsuarioId()))
+                            .header("If-None-Match", "W/\"1-7\""))
+                    .andExpect(status().isNotModified())
+                    .andExpect(content().string(""));
+
+            verifyNoInteractions(tareaService, tareaMapper);
+        }
+
+        @Test
+        @WithMockUser
+        @DisplayName("Debería responder 200 si la version cambio")
+        void deberiaResponderSiLaVersionCambio() throws Exception {
+            when(versionDatosService.obtener(1L)).thenReturn(new VersionDatosService.Version(8L, LocalDateTime.now()));
+            when(tareaService.obtenerTareasPorUsuarioId(eq(1L), any())).thenReturn(buildPage());
+
+            mockMvc.perform(get("/api/v1/tareas")
+                            .with(jwt().jwt(jwtConUsuarioId()))
+                            .header("If-None-Match", "W/\"1-7\""))
+                    .andExpect(status().isOk())
+                    .andExpect(header().string("ETag", "W/\"1-8\""));
+        }
+
+        @Test
+        @WithMockUser
+        @DisplayName("Debería agrupar lecturas concurrentes solo dentro de la misma version de datos")
+        void deberiaIncluirVersionEnClaveSingleFlight() throws Exception {
+            when(versionDatosService.obtener(1L)).thenReturn(new VersionDatosService.Version(8L, LocalDateTime.now()));
+            when(tareaService.obtenerTareasPorUsuarioId(eq(1L), any())).thenReturn(buildPage());
+
+            mockMvc.perform(get("/api/v1/tareas").with(jwt().jwt(jwtConUsuarioId())))
+                    .andExpect(status().isOk());
+
+            verify(singleFlight).ejecutar(eq(1L), eq("tareas"),
+                    argThat(argumentos -> argumentos.get(0).equals(8L)), any());
+            verify(versionDatosService, times(1)).obtener(1L);
+        }
     }
 
     @Nested
@@ -312,6 +396,38 @@ class TareaControllerTests {
                             .with(jwt().jwt(jwtMock())))
                     .andExpect(status().isNotFound());
         }
+
+        @Test
+        @WithMockUser
+        @DisplayName("No debería incluir ETag en respuestas de error")
+        void noDeberiaIncluirEtagEnErrores() throws Exception {
+            when(versionDatosService.obtener(1L)).thenReturn(new VersionDatosService.Version(7L, LocalDateTime.now()));
+            when(tareaService.obtenerTareaPorIdYUsuarioId(999L, 1L))
+                    .thenThrow(new ResourceNotFoundException("Tarea no encontrada"));
+
+            mockMvc.perform(get("/api/v1/tareas/999")
+                            .with(jwt().jwt(jwtConUsuarioId())))
+                    .andExpect(status().isNotFound())
+                    .andExpect(header().doesNotExist("ETag"))
+                    .andExpect(header().doesNotExist("Last-Modified"));
+        }
+
+        @Test
+        @WithMockUser
+        @DisplayName("Debería vaciar los toggles pendientes antes de leer la versión de datos")
+        void deberiaVaciarTogglesAntesDeLaVersion() throws Exception {
+            when(versionDatosService.obtener(1L)).thenReturn(new VersionDatosService.Version(7L, LocalDateTime.now()));
+            when(tareaService.obtenerTareaPorIdYUsuarioId(1L, 1L)).thenReturn(tarea);
+
+            mockMvc.perform(get("/api/v1/tareas/1")
+                            .with(jwt().jwt(jwtConUsuarioId())))
+                    .andExpect(status().isOk());
+
+            InOrder orden = inOrder(subtareaToggleBuffer, versionDatosService, tareaService);
+            orden.verify(subtareaToggleBuffer).vaciarUsuario(1L);
+            orden.verify(versionDatosService).obtener(1L);
+            orden.verify(tareaService).obtenerTareaPorIdYUsuarioId(1L, 1L);
+        }
     }
 
     @Nested
@@ -355,6 +471,65 @@ class TareaControllerTests {
         }
     }
 
+    @Nested
+    @DisplayName("POST /api/v1/tareas/lote")
+    class ActualizarEnLoteTests {
+
+        @Test
+        @WithMockUser
+        @DisplayName("Debería devolver la cantidad de tareas actualizadas")
+        void deberiaActualizarEnLote() throws Exception {
+            when(tareaService.actualizarTareasEnLote(eq(1L), any())).thenReturn(3);
+
+            mockMvc.perform(post("/api/v1/tareas/lote")
+                            .with(csrf())
+                            .with(jwt().jwt(jwtMock()))
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content("{\"filtro\":{\"estado\":\"PENDIENTE\"},\"cambio\":{\"desplazarVencimiento\":\"P7D\"}}"))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.data.actualizadas").value(3));
+
+            verify(tareaService).actualizarTareasEnLote(eq(1L), argThat(request ->
+                    request.getCambio().getDesplazarVencimiento().toDays() == 7
+                            && request.getFiltro().getEstado() == Tarea.EstadoTarea.PENDIENTE));
+        }
+
+        @Test
+        @WithMockUser
+        @DisplayName("Debería retornar 400 si no se indica el cambio")
+        void deberiaRetornar400SinCambio() throws Exception {
+            mockMvc.perform(post("/api/v1/tareas/lote")
+                            .with(csrf())
+                            .with(jwt().jwt(jwtMock()))
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content("{\"filtro\":{}}"))
+                    .andExpect(status().isBadRequest());
+
+            verify(tareaService, never()).actualizarTareasEnLote(any(), any());
+        }
+    }
+
+    @Nested
+    @DisplayName("PUT /api/v1/tareas/{id}/posicion")
+    class MoverTareaTests {
+
+        @Test
+        @WithMockUser
+        @DisplayName("Debería mover una tarea despues de su nuevo vecino")
+        void deberiaMoverTarea() throws Exception {
+            when(tareaService.moverTarea(1L, 5L, 1L)).thenReturn(tarea);
+
+            mockMvc.perform(put("/api/v1/tareas/1/posicion")
+                            .with(csrf())
+                            .with(jwt().jwt(jwtMock()))
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(objectMapper.writeValueAsString(new MoverPosicionRequest(5L))))
+                    .andExpect(status().isOk());
+
+            verify(tareaService).moverTarea(1L, 5L, 1L);
+        }
+    }
+
     @Nested
     @DisplayName("DELETE /api/v1/tareas/{id}")
     class EliminarTareaTests {
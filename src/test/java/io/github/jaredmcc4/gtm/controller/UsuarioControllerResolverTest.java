@@ -2,12 +2,10 @@ package io.github.jaredmcc4.gtm.controller;
 
 import io.github.jaredmcc4.gtm.domain.Usuario;
 import io.github.jaredmcc4.gtm.dto.response.ApiResponse;
-import io.github.jaredmcc4.gtm.dto.usuario.ActualizarUsuarioRequest;
 import io.github.jaredmcc4.gtm.dto.usuario.UsuarioDto;
-import io.github.jaredmcc4.gtm.exception.UnauthorizedException;
 import io.github.jaredmcc4.gtm.mapper.UsuarioMapper;
+import io.github.jaredmcc4.gtm.security.UsuarioAutenticado;
 import io.github.jaredmcc4.gtm.services.UsuarioService;
-import io.github.jaredmcc4.gtm.util.JwtUtil;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
@@ -17,10 +15,10 @@ import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.mockito.junit.jupiter.MockitoSettings;
 import org.mockito.quality.Strictness;
-import org.springframework.security.oauth2.jwt.Jwt;
+
+import java.util.List;
 
 import static org.assertj.core.api.Assertions.assertThat;
-import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -34,17 +32,11 @@ class UsuarioControllerResolverTest {
     @Mock
     private UsuarioMapper usuarioMapper;
 
-    @Mock
-    private JwtUtil jwtUtil;
-
     @InjectMocks
     private UsuarioController usuarioController;
 
-    private Jwt buildJwt() {
-        return Jwt.withTokenValue("token")
-                .header("alg", "none")
-                .claim("usuarioId", 5L)
-                .build();
+    private UsuarioAutenticado autenticado() {
+        return new UsuarioAutenticado(5L, "user@test.com", List.of());
     }
 
     @BeforeEach
@@ -54,41 +46,14 @@ class UsuarioControllerResolverTest {
     }
 
     @Test
-    @DisplayName("Debe resolver el usuario a partir del Jwt principal")
-    void deberiaResolverUsuarioDesdeJwt() {
+    @DisplayName("Debe obtener el perfil con el usuario autenticado inyectado")
+    void deberiaResolverUsuarioInyectado() {
         ApiResponse<UsuarioDto> respuesta = usuarioController
-                .obtenerPerfil(buildJwt(), null)
+                .obtenerPerfil(autenticado())
                 .getBody();
 
         assertThat(respuesta).isNotNull();
         assertThat(respuesta.getData().getId()).isEqualTo(5L);
         verify(usuarioService).obtenerUsuarioPorId(5L);
-        verifyNoInteractions(jwtUtil);
-    }
-
-    @Test
-    @DisplayName("Debe lanzar Unauthorized cuando no hay credenciales")
-    void deberiaLanzarUnauthorizedSinCredenciales() {
-        ActualizarUsuarioRequest request = new ActualizarUsuarioRequest("Nombre", "America/Costa_Rica");
-
-        assertThatThrownBy(() -> usuarioController.actualizarPerfil(null, null, request))
-                .isInstanceOf(UnauthorizedException.class);
-    }
-
-    @Test
-    @DisplayName("Debe resolver usuario usando el encabezado Authorization")
-    void deberiaResolverUsuarioDesdeHeader() {
-        when(jwtUtil.extraerUsuarioId("token-header")).thenReturn(7L);
-        when(usuarioService.obtenerUsuarioPorId(7L)).thenReturn(Usuario.builder().id(7L).email("header@test.com").contrasenaHash("hash").build());
-        when(usuarioMapper.toDto(any(Usuario.class))).thenReturn(UsuarioDto.builder().id(7L).email("header@test.com").build());
-
-        ApiResponse<UsuarioDto> respuesta = usuarioController
-                .obtenerPerfil(null, "Bearer token-header")
-                .getBody();
-
-        assertThat(respuesta).isNotNull();
-        assertThat(respuesta.getData().getId()).isEqualTo(7L);
-        verify(jwtUtil).extraerUsuarioId("token-header");
-        verify(usuarioService).obtenerUsuarioPorId(7L);
     }
 }
@@ -6,8 +6,9 @@ import io.github.jaredmcc4.gtm.domain.Usuario;
 import io.github.jaredmcc4.gtm.dto.usuario.CambiarPasswordRequest;
 import io.github.jaredmcc4.gtm.dto.usuario.UsuarioDto;
 import io.github.jaredmcc4.gtm.mapper.UsuarioMapper;
+import io.github.jaredmcc4.gtm.services.SubtareaToggleBuffer;
 import io.github.jaredmcc4.gtm.services.UsuarioService;
-import io.github.jaredmcc4.gtm.util.JwtUtil;
+import io.github.jaredmcc4.gtm.services.VersionDatosService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Nested;
@@ -22,6 +23,7 @@ import org.springframework.context.annotation.Import;
 import org.springframework.http.MediaType;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
+import org.springframework.security.oauth2.jwt.Jwt;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.test.context.bean.override.mockito.MockitoBean;
@@ -30,12 +32,13 @@ import org.springframework.test.web.servlet.MockMvc;
 import static org.mockito.ArgumentMatchers.*;
 import static org.mockito.Mockito.*;
 import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.jwt;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
 @WebMvcTest(UsuarioController.class)
 @Import(TestSecurityConfig.class)
-@AutoConfigureMockMvc(addFilters = false)
+@AutoConfigureMockMvc
 @DisplayName("Usuario Controller - Integration Tests")
 class UsuarioControllerTests {
 
@@ -52,14 +55,24 @@ class UsuarioControllerTests {
     private UsuarioMapper usuarioMapper;
 
     @MockitoBean
-    private JwtUtil jwtUtil;
+    private VersionDatosService versionDatosService;
+
+    @MockitoBean
+    private SubtareaToggleBuffer subtareaToggleBuffer;
 
     private Usuario usuario;
 
     @BeforeEach
     void setUp() {
         usuario = UsuarioTestBuilder.unUsuario().conId(1L).build();
-        when(jwtUtil.extraerUsuarioId(anyString())).thenReturn(1L);
+    }
+
+    private Jwt jwtMock() {
+        return Jwt.withTokenValue("token-mock")
+                .header("alg", "none")
+                .claim("sub", "user@test.com")
+                .claim("usuarioId", 1L)
+                .build();
     }
 
     @Nested
@@ -80,7 +93,7 @@ class UsuarioControllerTests {
             when(usuarioMapper.toDto(usuario)).thenReturn(usuarioDto);
 
             mockMvc.perform(get("/api/v1/usuarios/perfil")
-                            .header("Authorization", "Bearer token"))
+                            .with(jwt().jwt(jwtMock())))
                     .andExpect(status().isOk())
                     .andExpect(jsonPath("$.success").value(true))
                     .andExpect(jsonPath("$.data.email").value(usuario.getEmail()));
@@ -106,7 +119,7 @@ class UsuarioControllerTests {
 
             mockMvc.perform(patch("/api/v1/usuarios/cambiar-password")
                             .with(csrf())
-                            .header("Authorization", "Bearer token")
+                            .with(jwt().jwt(jwtMock()))
                             .contentType(MediaType.APPLICATION_JSON)
                             .content(objectMapper.writeValueAsString(request)))
                     .andExpect(status().isOk())
@@ -127,7 +140,7 @@ class UsuarioControllerTests {
 
             mockMvc.perform(patch("/api/v1/usuarios/cambiar-password")
                             .with(csrf())
-                            .header("Authorization", "Bearer token")
+                            .with(jwt().jwt(jwtMock()))
                             .contentType(MediaType.APPLICATION_JSON)
                             .content(objectMapper.writeValueAsString(request)))
                     .andExpect(status().isBadRequest());
@@ -135,4 +148,23 @@ class UsuarioControllerTests {
             verify(usuarioService, never()).cambiarPassword(anyLong(), anyString(), anyString());
         }
     }
-}
\ No newline at end of file
+
+    @Nested
+    @DisplayName("POST /api/v1/usuarios/cerrar-sesiones")
+    class CerrarSesionesTests {
+
+        @Test
+        @WithMockUser
+        @DisplayName("Debería cerrar todas las sesiones del usuario autenticado")
+        void deberiaCerrarSesiones() throws Exception {
+            mockMvc.perform(post("/api/v1/usuarios/cerrar-sesiones")
+                            .with(csrf())
+                            .with(jwt().jwt(jwtMock())))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.success").value(true))
+                    .andExpect(jsonPath("$.message").value("Sesiones cerradas exitosamente"));
+
+            verify(usuarioService).cerrarSesiones(1L);
+        }
+    }
+}
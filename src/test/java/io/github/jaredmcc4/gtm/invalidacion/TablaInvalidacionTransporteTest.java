@@ -0,0 +1,141 @@
+package io.github.jaredmcc4.gtm.invalidacion;
+
+import io.github.jaredmcc4.gtm.domain.CacheInvalidacion;
+import io.github.jaredmcc4.gtm.repository.CacheInvalidacionRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Limit;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("TablaInvalidacionTransporte - Unit Tests")
+class TablaInvalidacionTransporteTest {
+
+    @Mock
+    private CacheInvalidacionRepository repository;
+
+    private TablaInvalidacionTransporte transporte;
+    private List<Invalidacion> recibidas;
+
+    @BeforeEach
+    void setUp() {
+        transporte = new TablaInvalidacionTransporte(repository, 100, Duration.ofSeconds(1), Duration.ofMinutes(60));
+        recibidas = new ArrayList<>();
+        transporte.suscribir(recibidas::add);
+    }
+
+    @Test
+    @DisplayName("Debería insertar una fila al publicar")
+    void deberiaInsertarFila() {
+        transporte.publicar(new Invalidacion("nodo-a", "usuarios", 7L));
+
+        ArgumentCaptor<CacheInvalidacion> captor = ArgumentCaptor.forClass(CacheInvalidacion.class);
+        verify(repository).save(captor.capture());
+        assertThat(captor.getValue().getNodo()).isEqualTo("nodo-a");
+        assertThat(captor.getValue().getCache()).isEqualTo("usuarios");
+        assertThat(captor.getValue().getClave()).isEqualTo(7L);
+    }
+
+    @Test
+    @DisplayName("Debería marcar como vista la ventana inicial sin entregar el historial")
+    void deberiaEmpezarSinHistorial() {
+        LocalDateTime base = LocalDateTime.of(2025, 1, 10, 9, 0);
+        when(repository.maxCreatedAt()).thenReturn(base);
+        when(repository.findByCreatedAtGreaterThanEqualAndIdGreaterThanOrderByIdAsc(eq(base.minusSeconds(1)), eq(0L), any(Limit.class)))
+                .thenReturn(List.of(fila(40L, "usuarios", 1L, base)));
+
+        assertThat(transporte.sondear()).isZero();
+        assertThat(transporte.sondear()).isZero();
+
+        assertThat(recibidas).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Debería entregar una vez cada fila y recoger las confirmadas tarde dentro de la ventana")
+    void deberiaEntregarFilasConfirmadasTarde() {
+        LocalDateTime base = LocalDateTime.of(2025, 1, 10, 9, 0);
+        when(repository.maxCreatedAt()).thenReturn(null);
+        when(repository.findByIdGreaterThanOrderByIdAsc(eq(0L), any(Limit.class)))
+                .thenReturn(List.of())
+                .thenReturn(List.of(
+                        fila(1L, "usuarios", 10L, base),
+                        fila(3L, "usuarios", 11L, base.plusSeconds(1))));
+        when(repository.findByCreatedAtGreaterThanEqualAndIdGreaterThanOrderByIdAsc(eq(base), eq(0L), any(Limit.class)))
+                .thenReturn(List.of(
+                        fila(1L, "usuarios", 10L, base),
+                        fila(2L, "etiquetas", 10L, base),
+                        fila(3L, "usuarios", 11L, base.plusSeconds(1))));
+
+        transporte.sondear();
+        assertThat(transporte.sondear()).isEqualTo(2);
+        assertThat(transporte.sondear()).isEqualTo(1);
+
+        assertThat(recibidas).extracting(Invalidacion::cache, Invalidacion::clave)
+                .containsExactly(
+                        tuple("usuarios", 10L),
+                        tuple("usuarios", 11L),
+                        tuple("etiquetas", 10L));
+    }
+
+    @Test
+    @DisplayName("Debería paginar la ventana por id cuando supera el lote")
+    void deberiaPaginarVentana() {
+        transporte = new TablaInvalidacionTransporte(repository, 2, Duration.ofSeconds(2), Duration.ofMinutes(60));
+        transporte.suscribir(recibidas::add);
+        LocalDateTime base = LocalDateTime.of(2025, 1, 10, 9, 0);
+        when(repository.maxCreatedAt()).thenReturn(base);
+        when(repository.findByCreatedAtGreaterThanEqualAndIdGreaterThanOrderByIdAsc(any(), eq(0L), any(Limit.class)))
+                .thenReturn(List.of())
+                .thenReturn(List.of(fila(5L, "usuarios", 1L, base), fila(6L, "usuarios", 2L, base)));
+        when(repository.findByCreatedAtGreaterThanEqualAndIdGreaterThanOrderByIdAsc(any(), eq(6L), any(Limit.class)))
+                .thenReturn(List.of(fila(7L, "usuarios", 3L, base)));
+
+        transporte.sondear();
+
+        assertThat(transporte.sondear()).isEqualTo(3);
+        assertThat(recibidas).extracting(Invalidacion::clave).containsExactly(1L, 2L, 3L);
+    }
+
+    @Test
+    @DisplayName("Debería seguir entregando aunque un receptor falle")
+    void deberiaSeguirSiUnReceptorFalla() {
+        List<Long> claves = new ArrayList<>();
+        transporte.suscribir(invalidacion -> {
+            if (invalidacion.clave() == 1L) {
+                throw new IllegalStateException("fallo");
+            }
+            claves.add(invalidacion.clave());
+        });
+        LocalDateTime base = LocalDateTime.of(2025, 1, 10, 9, 0);
+        when(repository.maxCreatedAt()).thenReturn(null);
+        when(repository.findByIdGreaterThanOrderByIdAsc(eq(0L), any(Limit.class)))
+                .thenReturn(List.of())
+                .thenReturn(List.of(
+                        fila(1L, "usuarios", 1L, base),
+                        fila(2L, "usuarios", 2L, base)));
+
+        transporte.sondear();
+        transporte.sondear();
+
+        assertThat(claves).containsExactly(2L);
+    }
+
+    private CacheInvalidacion fila(Long id, String cache, Long clave, LocalDateTime creada) {
+        return new CacheInvalidacion(id, "nodo-b", cache, clave, creada);
+    }
+}
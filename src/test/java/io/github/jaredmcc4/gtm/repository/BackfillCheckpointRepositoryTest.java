@@ -0,0 +1,72 @@
+package io.github.jaredmcc4.gtm.repository;
+
+import io.github.jaredmcc4.gtm.domain.BackfillCheckpoint;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.test.context.TestPropertySource;
+
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.ANY)
+@TestPropertySource(properties = {
+    "spring.datasource.url=jdbc:h2:mem:testdb;MODE=MySQL;DB_CLOSE_DELAY=-1",
+    "spring.datasource.driver-class-name=org.h2.Driver",
+    "spring.jpa.hibernate.ddl-auto=create-drop",
+    "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+    "spring.flyway.enabled=false"
+})
+@DisplayName("BackfillCheckpointRepository - Integration Tests")
+class BackfillCheckpointRepositoryTest {
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private BackfillCheckpointRepository checkpointRepository;
+
+    @BeforeEach
+    void setUp() {
+        checkpointRepository.saveAndFlush(BackfillCheckpoint.builder().nombre("prueba").build());
+    }
+
+    @Test
+    @DisplayName("Debería conceder el lease a un solo nodo mientras esté vigente")
+    void deberiaConcederLeaseAUnSoloNodo() {
+        LocalDateTime ahora = LocalDateTime.now();
+
+        assertThat(checkpointRepository.reclamar("prueba", "nodo-a", ahora, ahora.plusMinutes(2))).isEqualTo(1);
+        assertThat(checkpointRepository.reclamar("prueba", "nodo-b", ahora, ahora.plusMinutes(2))).isZero();
+        assertThat(checkpointRepository.reclamar("prueba", "nodo-a", ahora, ahora.plusMinutes(2))).isEqualTo(1);
+        assertThat(checkpointRepository.reclamar("prueba", "nodo-b", ahora.plusMinutes(3), ahora.plusMinutes(5))).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Solo el propietario debería poder avanzar y no se reclama un backfill completado")
+    void soloPropietarioDeberiaAvanzar() {
+        LocalDateTime ahora = LocalDateTime.now();
+        checkpointRepository.reclamar("prueba", "nodo-a", ahora, ahora.plusMinutes(2));
+        checkpointRepository.fijarObjetivo("prueba", "nodo-a", 5000L);
+
+        assertThat(checkpointRepository.avanzar("prueba", "nodo-b", 1000L, 10, ahora.plusMinutes(2))).isZero();
+        assertThat(checkpointRepository.avanzar("prueba", "nodo-a", 1000L, 10, ahora.plusMinutes(2))).isEqualTo(1);
+        assertThat(checkpointRepository.avanzar("prueba", "nodo-a", 2000L, 5, ahora.plusMinutes(2))).isEqualTo(1);
+        checkpointRepository.finalizar("prueba", "nodo-a", BackfillCheckpoint.Estado.COMPLETADO, null, ahora);
+        entityManager.clear();
+
+        BackfillCheckpoint checkpoint = checkpointRepository.findById("prueba").orElseThrow();
+        assertThat(checkpoint.getUltimoId()).isEqualTo(2000L);
+        assertThat(checkpoint.getObjetivoId()).isEqualTo(5000L);
+        assertThat(checkpoint.getProcesadas()).isEqualTo(15L);
+        assertThat(checkpoint.getEstado()).isEqualTo(BackfillCheckpoint.Estado.COMPLETADO);
+        assertThat(checkpoint.getPropietario()).isNull();
+        assertThat(checkpointRepository.reclamar("prueba", "nodo-b", ahora, ahora.plusMinutes(2))).isZero();
+    }
+}
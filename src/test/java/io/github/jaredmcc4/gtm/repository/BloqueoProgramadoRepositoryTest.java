@@ -0,0 +1,49 @@
+package io.github.jaredmcc4.gtm.repository;
+
+import io.github.jaredmcc4.gtm.domain.BloqueoProgramado;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.test.context.TestPropertySource;
+
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.ANY)
+@TestPropertySource(properties = {
+    "spring.datasource.url=jdbc:h2:mem:testdb;MODE=MySQL;DB_CLOSE_DELAY=-1",
+    "spring.datasource.driver-class-name=org.h2.Driver",
+    "spring.jpa.hibernate.ddl-auto=create-drop",
+    "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+    "spring.flyway.enabled=false"
+})
+@DisplayName("BloqueoProgramadoRepository - Integration Tests")
+class BloqueoProgramadoRepositoryTest {
+
+    @Autowired
+    private BloqueoProgramadoRepository bloqueoRepository;
+
+    @BeforeEach
+    void setUp() {
+        bloqueoRepository.saveAndFlush(BloqueoProgramado.builder().nombre("job").build());
+    }
+
+    @Test
+    @DisplayName("Debería conceder el lease a un solo nodo hasta que lo libere o venza")
+    void deberiaConcederLeaseAUnSoloNodo() {
+        LocalDateTime ahora = LocalDateTime.now();
+
+        assertThat(bloqueoRepository.reclamar("job", "nodo-a", ahora, ahora.plusMinutes(5))).isEqualTo(1);
+        assertThat(bloqueoRepository.reclamar("job", "nodo-b", ahora, ahora.plusMinutes(5))).isZero();
+        assertThat(bloqueoRepository.liberar("job", "nodo-b")).isZero();
+        assertThat(bloqueoRepository.reclamar("job", "nodo-b", ahora.plusMinutes(6), ahora.plusMinutes(11))).isEqualTo(1);
+        assertThat(bloqueoRepository.liberar("job", "nodo-a")).isZero();
+        assertThat(bloqueoRepository.liberar("job", "nodo-b")).isEqualTo(1);
+        assertThat(bloqueoRepository.reclamar("job", "nodo-a", ahora, ahora.plusMinutes(5))).isEqualTo(1);
+    }
+}
@@ -0,0 +1,100 @@
+package io.github.jaredmcc4.gtm.repository;
+
+import io.github.jaredmcc4.gtm.domain.CacheInvalidacion;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.Limit;
+import org.springframework.test.context.TestPropertySource;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.ANY)
+@TestPropertySource(properties = {
+    "spring.datasource.url=jdbc:h2:mem:testdb;MODE=MySQL;DB_CLOSE_DELAY=-1",
+    "spring.datasource.driver-class-name=org.h2.Driver",
+    "spring.jpa.hibernate.ddl-auto=create-drop",
+    "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+    "spring.flyway.enabled=false"
+})
+@DisplayName("CacheInvalidacionRepository - Integration Tests")
+class CacheInvalidacionRepositoryTest {
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private CacheInvalidacionRepository repository;
+
+    @Test
+    @DisplayName("Debería leer en orden las invalidaciones posteriores a un id")
+    void deberiaLeerPosteriores() {
+        CacheInvalidacion primera = guardar("usuarios", 1L);
+        CacheInvalidacion segunda = guardar("etiquetas", 2L);
+        CacheInvalidacion tercera = guardar("usuarios", 3L);
+
+        List<CacheInvalidacion> resultado = repository.findByIdGreaterThanOrderByIdAsc(primera.getId(), Limit.of(10));
+
+        assertThat(resultado).extracting(CacheInvalidacion::getId).containsExactly(segunda.getId(), tercera.getId());
+    }
+
+    @Test
+    @DisplayName("Debería releer la ventana por fecha de creación aunque el id sea anterior")
+    void deberiaLeerVentanaPorCreacion() {
+        CacheInvalidacion antigua = guardar("usuarios", 1L);
+        CacheInvalidacion tardia = guardar("usuarios", 2L);
+        CacheInvalidacion reciente = guardar("usuarios", 3L);
+        fijarCreacion(antigua, LocalDateTime.now().minusHours(2));
+        entityManager.clear();
+
+        List<CacheInvalidacion> ventana = repository.findByCreatedAtGreaterThanEqualAndIdGreaterThanOrderByIdAsc(
+                LocalDateTime.now().minusMinutes(1), 0L, Limit.of(10));
+
+        assertThat(ventana).extracting(CacheInvalidacion::getId).containsExactly(tardia.getId(), reciente.getId());
+        assertThat(repository.findByCreatedAtGreaterThanEqualAndIdGreaterThanOrderByIdAsc(
+                LocalDateTime.now().minusMinutes(1), tardia.getId(), Limit.of(10)))
+                .extracting(CacheInvalidacion::getId).containsExactly(reciente.getId());
+        assertThat(repository.maxCreatedAt()).isEqualTo(repository.findById(reciente.getId()).orElseThrow().getCreatedAt());
+    }
+
+    @Test
+    @DisplayName("Debería devolver null como creación maxima si no hay invalidaciones")
+    void deberiaDevolverNullSinFilas() {
+        assertThat(repository.maxCreatedAt()).isNull();
+    }
+
+    @Test
+    @DisplayName("Debería purgar solo las invalidaciones anteriores a la retencion")
+    void deberiaPurgarAntiguas() {
+        CacheInvalidacion antigua = guardar("usuarios", 1L);
+        CacheInvalidacion reciente = guardar("usuarios", 2L);
+        fijarCreacion(antigua, LocalDateTime.now().minusHours(2));
+
+        int eliminadas = repository.purgar(LocalDateTime.now().minusHours(1));
+        entityManager.clear();
+
+        assertThat(eliminadas).isEqualTo(1);
+        assertThat(repository.findAll()).extracting(CacheInvalidacion::getId).containsExactly(reciente.getId());
+    }
+
+    private void fijarCreacion(CacheInvalidacion invalidacion, LocalDateTime fecha) {
+        entityManager.getEntityManager()
+                .createQuery("UPDATE CacheInvalidacion c SET c.createdAt = :fecha WHERE c.id = :id")
+                .setParameter("fecha", fecha)
+                .setParameter("id", invalidacion.getId())
+                .executeUpdate();
+    }
+
+    private CacheInvalidacion guardar(String cache, Long clave) {
+        CacheInvalidacion invalidacion = repository.save(CacheInvalidacion.builder().nodo("nodo-a").cache(cache).clave(clave).build());
+        entityManager.flush();
+        return invalidacion;
+    }
+}
@@ -0,0 +1,97 @@
+package io.github.jaredmcc4.gtm.repository;
+
+import io.github.jaredmcc4.gtm.domain.OutboxEvento;
+import io.github.jaredmcc4.gtm.domain.OutboxOffset;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.Limit;
+import org.springframework.test.context.TestPropertySource;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.ANY)
+@TestPropertySource(properties = {
+    "spring.datasource.url=jdbc:h2:mem:testdb;MODE=MySQL;DB_CLOSE_DELAY=-1",
+    "spring.datasource.driver-class-name=org.h2.Driver",
+    "spring.jpa.hibernate.ddl-auto=create-drop",
+    "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+    "spring.flyway.enabled=false"
+})
+@DisplayName("OutboxEventoRepository - Integration Tests")
+class OutboxEventoRepositoryTest {
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private OutboxEventoRepository outboxEventoRepository;
+
+    @Autowired
+    private OutboxOffsetRepository outboxOffsetRepository;
+
+    @BeforeEach
+    void setUp() {
+        outboxOffsetRepository.save(OutboxOffset.builder().particion(1).ultimoId(0L).build());
+        outboxOffsetRepository.save(OutboxOffset.builder().particion(2).ultimoId(0L).build());
+        entityManager.flush();
+    }
+
+    @Test
+    @DisplayName("Debería reclamar en orden solo los eventos pendientes de la partición")
+    void deberiaReclamarPendientesEnOrden() {
+        OutboxEvento primero = registrar(1L, 1);
+        OutboxEvento segundo = registrar(1L, 1);
+        OutboxEvento tercero = registrar(1L, 1);
+        registrar(2L, 2);
+        outboxEventoRepository.marcarEntregados(List.of(primero.getId()), LocalDateTime.now());
+        entityManager.clear();
+
+        List<OutboxEvento> lote = outboxEventoRepository.reclamarPendientes(1, Limit.of(10));
+
+        assertThat(lote).extracting(OutboxEvento::getId).containsExactly(segundo.getId(), tercero.getId());
+        assertThat(outboxEventoRepository.reclamarPendientes(1, Limit.of(1))).hasSize(1);
+    }
+
+    @Test
+    @DisplayName("Debería reclamar el offset de una partición existente")
+    void deberiaReclamarOffset() {
+        assertThat(outboxOffsetRepository.reclamar(1)).get().extracting(OutboxOffset::getUltimoId).isEqualTo(0L);
+        assertThat(outboxOffsetRepository.reclamar(99)).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Debería purgar solo eventos ya entregados")
+    void deberiaPurgarSoloEntregados() {
+        OutboxEvento antiguo = registrar(1L, 1);
+        OutboxEvento reciente = registrar(1L, 1);
+        OutboxEvento pendiente = registrar(2L, 2);
+        LocalDateTime ahora = LocalDateTime.now();
+        outboxEventoRepository.marcarEntregados(List.of(antiguo.getId()), ahora.minusHours(2));
+        outboxEventoRepository.marcarEntregados(List.of(reciente.getId()), ahora);
+
+        int eliminados = outboxEventoRepository.purgarEntregados(ahora.minusHours(1));
+
+        assertThat(eliminados).isEqualTo(1);
+        assertThat(outboxEventoRepository.findAll()).extracting(OutboxEvento::getId)
+                .containsExactlyInAnyOrder(reciente.getId(), pendiente.getId());
+    }
+
+    private OutboxEvento registrar(Long usuarioId, int particion) {
+        return entityManager.persistFlushFind(OutboxEvento.builder()
+                .usuarioId(usuarioId)
+                .particion(particion)
+                .agregado(OutboxEvento.Agregado.TAREA)
+                .agregadoId(10L)
+                .tipo(OutboxEvento.Tipo.CREADO)
+                .build());
+    }
+}
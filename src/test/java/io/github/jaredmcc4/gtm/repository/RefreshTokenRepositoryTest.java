@@ -3,6 +3,7 @@ package io.github.jaredmcc4.gtm.repository;
 import io.github.jaredmcc4.gtm.domain.RefreshToken;
 import io.github.jaredmcc4.gtm.domain.Rol;
 import io.github.jaredmcc4.gtm.domain.Usuario;
+import io.github.jaredmcc4.gtm.util.TokenHashUtil;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Nested;
@@ -11,9 +12,11 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
 import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.Limit;
 import org.springframework.test.context.TestPropertySource;
 
 import java.time.LocalDateTime;
+import java.util.List;
 import java.util.Optional;
 import java.util.Set;
 import java.util.UUID;
@@ -62,6 +65,40 @@ class RefreshTokenRepositoryTest {
         entityManager.flush();
     }
 
+    @Nested
+    @DisplayName("findByTokenHash()")
+    class FindByTokenHashTests {
+
+        @Test
+        @DisplayName("Debería encontrar token por su hash y filtrar revocados")
+        void deberiaEncontrarPorHash() {
+            String activo = UUID.randomUUID().toString();
+            String revocado = UUID.randomUUID().toString();
+            crearTokenHasheado(activo, false);
+            crearTokenHasheado(revocado, true);
+            entityManager.flush();
+            entityManager.clear();
+
+            assertThat(refreshTokenRepository.findByTokenHash(TokenHashUtil.sha256(activo))).isPresent();
+            assertThat(refreshTokenRepository.findByTokenHashAndRevokedFalse(TokenHashUtil.sha256(activo))).isPresent();
+            assertThat(refreshTokenRepository.findByTokenHashAndRevokedFalse(TokenHashUtil.sha256(revocado))).isEmpty();
+            assertThat(refreshTokenRepository.findByTokenHash(TokenHashUtil.sha256("otro"))).isEmpty();
+        }
+
+        @Test
+        @DisplayName("Debería listar solo los tokens del rango sin hash")
+        void deberiaListarSinHash() {
+            RefreshToken legado = crearToken(UUID.randomUUID().toString(), false, LocalDateTime.now().plusDays(1));
+            RefreshToken hasheado = crearTokenHasheado(UUID.randomUUID().toString(), false);
+            entityManager.flush();
+
+            assertThat(refreshTokenRepository.findSinHash(0, hasheado.getId()))
+                    .extracting(RefreshToken::getId)
+                    .containsExactly(legado.getId());
+            assertThat(refreshTokenRepository.findMaxId()).isEqualTo(hasheado.getId());
+        }
+    }
+
     @Nested
     @DisplayName("findByToken()")
     class FindByTokenTests {
@@ -161,6 +198,50 @@ class RefreshTokenRepositoryTest {
         }
     }
 
+    @Nested
+    @DisplayName("Purga y límite de sesiones")
+    class PurgaYSesionesTests {
+
+        @Test
+        @DisplayName("Debería listar por lotes los tokens expirados o revocados y eliminarlos por id")
+        void deberiaPurgarPorLotes() {
+            RefreshToken expirado = crearToken(UUID.randomUUID().toString(), false, LocalDateTime.now().minusDays(1));
+            RefreshToken revocado = crearToken(UUID.randomUUID().toString(), true, LocalDateTime.now().plusDays(1));
+            RefreshToken vigente = crearToken(UUID.randomUUID().toString(), false, LocalDateTime.now().plusDays(1));
+            entityManager.flush();
+
+            List<Long> primerLote = refreshTokenRepository.findIdsPurgables(0, LocalDateTime.now(), Limit.of(1));
+            List<Long> segundoLote = refreshTokenRepository.findIdsPurgables(primerLote.get(0), LocalDateTime.now(), Limit.of(1));
+
+            assertThat(primerLote).containsExactly(expirado.getId());
+            assertThat(segundoLote).containsExactly(revocado.getId());
+
+            int eliminados = refreshTokenRepository.eliminarPorIds(List.of(expirado.getId(), revocado.getId()));
+            entityManager.clear();
+
+            assertThat(eliminados).isEqualTo(2);
+            assertThat(refreshTokenRepository.findAll()).extracting(RefreshToken::getId).containsExactly(vigente.getId());
+        }
+
+        @Test
+        @DisplayName("Debería listar sesiones activas de la más reciente a la más antigua y revocarlas por id")
+        void deberiaRevocarSesionesPorId() {
+            RefreshToken antigua = crearToken(UUID.randomUUID().toString(), false, LocalDateTime.now().plusDays(1));
+            RefreshToken reciente = crearToken(UUID.randomUUID().toString(), false, LocalDateTime.now().plusDays(1));
+            crearToken(UUID.randomUUID().toString(), true, LocalDateTime.now().plusDays(1));
+            entityManager.flush();
+
+            List<Long> activas = refreshTokenRepository.findIdsActivosPorUsuario(usuario.getId(), LocalDateTime.now());
+            assertThat(activas).containsExactly(reciente.getId(), antigua.getId());
+
+            refreshTokenRepository.revocarPorIds(List.of(antigua.getId()));
+            entityManager.clear();
+
+            assertThat(refreshTokenRepository.findIdsActivosPorUsuario(usuario.getId(), LocalDateTime.now()))
+                    .containsExactly(reciente.getId());
+        }
+    }
+
     @Nested
     @DisplayName("deleteByUsuarioId()")
     class DeleteByUsuarioIdTests {
@@ -227,4 +308,13 @@ class RefreshTokenRepositoryTest {
                 .build();
         return refreshTokenRepository.save(refreshToken);
     }
-}
\ No newline at end of file
+
+    private RefreshToken crearTokenHasheado(String valor, boolean revocado) {
+        return refreshTokenRepository.save(RefreshToken.builder()
+                .usuario(usuario)
+                .tokenHash(TokenHashUtil.sha256(valor))
+                .expiresAt(LocalDateTime.now().plusDays(1))
+                .revoked(revocado)
+                .build());
+    }
+}
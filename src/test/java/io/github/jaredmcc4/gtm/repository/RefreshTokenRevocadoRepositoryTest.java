@@ -0,0 +1,90 @@
+package io.github.jaredmcc4.gtm.repository;
+
+import io.github.jaredmcc4.gtm.domain.RefreshTokenRevocado;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.Limit;
+import org.springframework.test.context.TestPropertySource;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.ANY)
+@TestPropertySource(properties = {
+    "spring.datasource.url=jdbc:h2:mem:testdb;MODE=MySQL;DB_CLOSE_DELAY=-1",
+    "spring.datasource.driver-class-name=org.h2.Driver",
+    "spring.jpa.hibernate.ddl-auto=create-drop",
+    "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+    "spring.flyway.enabled=false"
+})
+@DisplayName("RefreshTokenRevocadoRepository - Integration Tests")
+class RefreshTokenRevocadoRepositoryTest {
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private RefreshTokenRevocadoRepository repository;
+
+    @Test
+    @DisplayName("Debería leer en orden solo las revocaciones vigentes posteriores a un id")
+    void deberiaLeerVigentesPosteriores() {
+        RefreshTokenRevocado primera = guardar(LocalDateTime.now().plusDays(1));
+        guardar(LocalDateTime.now().minusHours(1));
+        RefreshTokenRevocado tercera = guardar(LocalDateTime.now().plusDays(2));
+        RefreshTokenRevocado cuarta = guardar(LocalDateTime.now().plusDays(3));
+
+        List<RefreshTokenRevocado> resultado = repository.findByIdGreaterThanAndExpiresAtAfterOrderByIdAsc(
+                primera.getId(), LocalDateTime.now(), Limit.of(10));
+
+        assertThat(resultado).extracting(RefreshTokenRevocado::getId).containsExactly(tercera.getId(), cuarta.getId());
+    }
+
+    @Test
+    @DisplayName("Debería leer las revocaciones vigentes creadas desde un instante")
+    void deberiaLeerVigentesCreadasDesde() {
+        RefreshTokenRevocado primera = guardar(LocalDateTime.now().plusDays(1));
+        guardar(LocalDateTime.now().minusHours(1));
+        RefreshTokenRevocado tercera = guardar(LocalDateTime.now().plusDays(2));
+        entityManager.clear();
+        LocalDateTime desde = repository.findById(primera.getId()).orElseThrow().getCreatedAt();
+
+        List<RefreshTokenRevocado> resultado = repository.findByCreatedAtGreaterThanEqualAndExpiresAtAfterAndIdGreaterThanOrderByIdAsc(
+                desde, LocalDateTime.now(), 0L, Limit.of(10));
+
+        assertThat(resultado).extracting(RefreshTokenRevocado::getId).containsExactly(primera.getId(), tercera.getId());
+        assertThat(repository.findByCreatedAtGreaterThanEqualAndExpiresAtAfterAndIdGreaterThanOrderByIdAsc(
+                desde.plusMinutes(1), LocalDateTime.now(), 0L, Limit.of(10))).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Debería purgar solo las revocaciones de tokens expirados")
+    void deberiaPurgarExpiradas() {
+        guardar(LocalDateTime.now().minusHours(1));
+        RefreshTokenRevocado vigente = guardar(LocalDateTime.now().plusDays(1));
+
+        int eliminadas = repository.purgar(LocalDateTime.now());
+        entityManager.clear();
+
+        assertThat(eliminadas).isEqualTo(1);
+        assertThat(repository.findAll()).extracting(RefreshTokenRevocado::getId).containsExactly(vigente.getId());
+    }
+
+    private RefreshTokenRevocado guardar(LocalDateTime expiresAt) {
+        RefreshTokenRevocado revocado = repository.save(RefreshTokenRevocado.builder()
+                .familia(UUID.randomUUID().toString())
+                .usuarioId(1L)
+                .expiresAt(expiresAt)
+                .build());
+        entityManager.flush();
+        return revocado;
+    }
+}
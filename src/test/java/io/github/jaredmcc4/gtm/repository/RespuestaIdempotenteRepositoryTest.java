@@ -0,0 +1,121 @@
+package io.github.jaredmcc4.gtm.repository;
+
+import io.github.jaredmcc4.gtm.domain.RespuestaIdempotente;
+import io.github.jaredmcc4.gtm.domain.Usuario;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.test.context.TestPropertySource;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.ANY)
+@TestPropertySource(properties = {
+    "spring.datasource.url=jdbc:h2:mem:testdb;MODE=MySQL;DB_CLOSE_DELAY=-1",
+    "spring.datasource.driver-class-name=org.h2.Driver",
+    "spring.jpa.hibernate.ddl-auto=create-drop",
+    "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+    "spring.flyway.enabled=false"
+})
+@DisplayName("RespuestaIdempotenteRepository - Integration Tests")
+class RespuestaIdempotenteRepositoryTest {
+
+    private static final String HUELLA = "a".repeat(64);
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private RespuestaIdempotenteRepository respuestaRepository;
+
+    @Autowired
+    private UsuarioRepository usuarioRepository;
+
+    private Usuario usuario;
+
+    @BeforeEach
+    void setUp() {
+        usuario = usuarioRepository.save(Usuario.builder()
+                .email("idem@example.com")
+                .contrasenaHash("$2a$12$hash")
+                .activo(true)
+                .build());
+        entityManager.flush();
+    }
+
+    @Test
+    @DisplayName("Debería reservar una clave solo una vez")
+    void deberiaReservarUnaSolaVez() {
+        LocalDateTime expira = LocalDateTime.now().plusHours(1);
+
+        assertThat(respuestaRepository.reservar(usuario.getId(), "clave-1", "POST /api/v1/tareas", HUELLA, "p1", expira)).isEqualTo(1);
+        assertThatThrownBy(() -> respuestaRepository.reservar(usuario.getId(), "clave-1", "POST /api/v1/tareas", HUELLA, "p2", expira))
+                .isInstanceOf(DataIntegrityViolationException.class);
+    }
+
+    @Test
+    @DisplayName("Debería completar y recuperar la respuesta guardada")
+    void deberiaCompletarYRecuperar() {
+        LocalDateTime vigencia = LocalDateTime.now().plusHours(24).withNano(0);
+        respuestaRepository.reservar(usuario.getId(), "clave-2", "POST /api/v1/tareas", HUELLA, "p1", LocalDateTime.now().plusMinutes(1));
+        respuestaRepository.completar(usuario.getId(), "clave-2", "p1", 201, "{\"success\":true}", vigencia);
+        entityManager.clear();
+
+        RespuestaIdempotente respuesta = respuestaRepository.findByUsuarioIdAndClave(usuario.getId(), "clave-2").orElseThrow();
+
+        assertThat(respuesta.getEstadoHttp()).isEqualTo(201);
+        assertThat(respuesta.getCuerpo()).isEqualTo("{\"success\":true}");
+        assertThat(respuesta.getExpiresAt()).isEqualTo(vigencia);
+        assertThat(respuesta.getHuella()).isEqualTo(HUELLA);
+    }
+
+    @Test
+    @DisplayName("Debería liberar solo reservas sin completar y purgar las expiradas")
+    void deberiaLiberarYPurgar() {
+        respuestaRepository.reservar(usuario.getId(), "en-proceso", "POST /api/v1/tareas", HUELLA, "p1", LocalDateTime.now().plusHours(1));
+        respuestaRepository.reservar(usuario.getId(), "completada", "POST /api/v1/tareas", HUELLA, "p2", LocalDateTime.now().plusHours(1));
+        respuestaRepository.completar(usuario.getId(), "completada", "p2", 201, "{}", LocalDateTime.now().plusHours(1));
+        respuestaRepository.reservar(usuario.getId(), "vencida", "POST /api/v1/tareas", HUELLA, "p3", LocalDateTime.now().minusMinutes(1));
+
+        assertThat(respuestaRepository.liberar(usuario.getId(), "en-proceso", "p1")).isEqualTo(1);
+        assertThat(respuestaRepository.liberar(usuario.getId(), "completada", "p2")).isZero();
+        assertThat(respuestaRepository.eliminarExpiradas(LocalDateTime.now())).isEqualTo(1);
+        assertThat(respuestaRepository.count()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("No debería completar ni liberar una reserva de otro propietario")
+    void noDeberiaTocarReservaAjena() {
+        respuestaRepository.reservar(usuario.getId(), "clave-3", "POST /api/v1/tareas", HUELLA, "p1", LocalDateTime.now().plusMinutes(1));
+
+        assertThat(respuestaRepository.completar(usuario.getId(), "clave-3", "otro", 201, "{}", LocalDateTime.now().plusHours(1))).isZero();
+        assertThat(respuestaRepository.liberar(usuario.getId(), "clave-3", "otro")).isZero();
+        assertThat(respuestaRepository.completar(usuario.getId(), "clave-3", "p1", 201, "{}", LocalDateTime.now().plusHours(1))).isEqualTo(1);
+        assertThat(respuestaRepository.completar(usuario.getId(), "clave-3", "p1", 500, "{}", LocalDateTime.now().plusHours(1))).isZero();
+    }
+
+    @Test
+    @DisplayName("Debería renovar solo las reservas en curso de los propietarios indicados")
+    void deberiaRenovarReservasEnCurso() {
+        LocalDateTime corta = LocalDateTime.now().plusMinutes(1).withNano(0);
+        LocalDateTime renovada = LocalDateTime.now().plusMinutes(5).withNano(0);
+        respuestaRepository.reservar(usuario.getId(), "propia", "POST /api/v1/tareas", HUELLA, "p1", corta);
+        respuestaRepository.reservar(usuario.getId(), "ajena", "POST /api/v1/tareas", HUELLA, "p2", corta);
+
+        assertThat(respuestaRepository.renovar(List.of("p1"), renovada)).isEqualTo(1);
+        entityManager.clear();
+
+        assertThat(respuestaRepository.findByUsuarioIdAndClave(usuario.getId(), "propia").orElseThrow().getExpiresAt()).isEqualTo(renovada);
+        assertThat(respuestaRepository.findByUsuarioIdAndClave(usuario.getId(), "ajena").orElseThrow().getExpiresAt()).isEqualTo(corta);
+    }
+}
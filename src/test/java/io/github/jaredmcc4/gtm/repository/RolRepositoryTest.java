@@ -0,0 +1,107 @@
+package io.github.jaredmcc4.gtm.repository;
+
+import io.github.jaredmcc4.gtm.config.HibernateCacheConfig;
+import io.github.jaredmcc4.gtm.domain.Rol;
+import io.github.jaredmcc4.gtm.domain.Usuario;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest
+@Import(HibernateCacheConfig.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.ANY)
+@TestPropertySource(properties = {
+    "spring.datasource.url=jdbc:h2:mem:roltestdb;MODE=MySQL;DB_CLOSE_DELAY=-1",
+    "spring.datasource.driver-class-name=org.h2.Driver",
+    "spring.jpa.hibernate.ddl-auto=create-drop",
+    "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+    "spring.jpa.properties.hibernate.generate_statistics=true",
+    "spring.flyway.enabled=false"
+})
+@DisplayName("RolRepository - Cache de segundo nivel")
+class RolRepositoryTest {
+
+    @Autowired
+    private RolRepository rolRepository;
+
+    @Autowired
+    private UsuarioRepository usuarioRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private Statistics estadisticas;
+
+    @BeforeEach
+    void setUp() {
+        rolRepository.save(Rol.builder().nombreRol("USER").build());
+        estadisticas = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        estadisticas.clear();
+    }
+
+    @AfterEach
+    void tearDown() {
+        usuarioRepository.deleteAll();
+        rolRepository.deleteAll();
+    }
+
+    @Test
+    @DisplayName("Debería resolver findByNombreRol desde la cache de consultas")
+    void deberiaCachearConsultaPorNombre() {
+        rolRepository.findByNombreRol("USER").orElseThrow();
+        rolRepository.findByNombreRol("USER").orElseThrow();
+
+        assertThat(estadisticas.getQueryCacheHitCount()).isEqualTo(1);
+        assertThat(estadisticas.getQueryExecutionCount()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Debería invalidar la consulta cacheada al crear un rol")
+    void deberiaInvalidarAlEscribirRoles() {
+        assertThat(rolRepository.findByNombreRol("ADMIN")).isEmpty();
+
+        rolRepository.save(Rol.builder().nombreRol("ADMIN").build());
+
+        assertThat(rolRepository.findByNombreRol("ADMIN")).isPresent();
+    }
+
+    @Test
+    @DisplayName("Debería leer los roles del usuario desde la cache de colecciones")
+    void deberiaCachearRolesDelUsuario() {
+        Usuario usuario = new TransactionTemplate(transactionManager).execute(status ->
+                usuarioRepository.save(Usuario.builder()
+                        .email("cache@example.com")
+                        .contrasenaHash("$2a$12$hash")
+                        .roles(Set.of(rolRepository.findByNombreRol("USER").orElseThrow()))
+                        .build()));
+
+        usuarioRepository.findById(usuario.getId()).orElseThrow();
+        estadisticas.clear();
+        Usuario cargado = usuarioRepository.findById(usuario.getId()).orElseThrow();
+
+        assertThat(cargado.getRoles()).extracting(Rol::getNombreRol).containsExactly("USER");
+        assertThat(estadisticas.getCollectionStatistics(Usuario.class.getName() + ".roles").getCacheHitCount()).isEqualTo(1);
+        assertThat(estadisticas.getCollectionStatistics(Usuario.class.getName() + ".roles").getFetchCount()).isZero();
+    }
+}
@@ -123,6 +123,24 @@ class SubtareaRepositoryTest {
             assertThat(resultado).hasSize(1);
             assertThat(resultado.get(0).getTitulo()).isEqualTo("Mi Subtarea");
         }
+
+        @Test
+        @DisplayName("Debería ordenar por posicion manual y desempatar por id")
+        void deberiaOrdenarPorPosicion() {
+            Subtarea ultima = crearSubtarea("Ultima", false);
+            ultima.setPosicion("00002");
+            Subtarea primera = crearSubtarea("Primera", false);
+            primera.setPosicion("00001");
+            Subtarea intermedia = crearSubtarea("Intermedia", false);
+            intermedia.setPosicion("00001i");
+            entityManager.flush();
+
+            List<Subtarea> resultado = subtareaRepository.findByTareaIdOrderByPosicionAscIdAsc(tarea.getId());
+
+            assertThat(resultado).extracting("titulo")
+                    .containsExactly("Primera", "Intermedia", "Ultima");
+            assertThat(subtareaRepository.findPosicionSiguiente(tarea.getId(), "00001", primera.getId())).isEqualTo("00001i");
+        }
     }
 
     @Nested
@@ -1,7 +1,9 @@
 package io.github.jaredmcc4.gtm.repository;
 
+import io.github.jaredmcc4.gtm.domain.Adjunto;
 import io.github.jaredmcc4.gtm.domain.Etiqueta;
 import io.github.jaredmcc4.gtm.domain.Rol;
+import io.github.jaredmcc4.gtm.domain.Subtarea;
 import io.github.jaredmcc4.gtm.domain.Tarea;
 import io.github.jaredmcc4.gtm.domain.Usuario;
 import org.junit.jupiter.api.BeforeEach;
@@ -415,6 +417,147 @@ class TareaRepositoryTest {
         }
     }
 
+    @Nested
+    @DisplayName("Contadores denormalizados")
+    class ContadoresTests {
+
+        @Test
+        @DisplayName("Debería ajustar contadores de subtareas y adjuntos de forma atómica")
+        void deberiaAjustarContadores() {
+            Tarea tarea = crearTarea("Con contadores", usuario);
+            entityManager.flush();
+
+            tareaRepository.ajustarContadoresSubtareas(tarea.getId(), 2, 1);
+            tareaRepository.ajustarContadoresAdjuntos(tarea.getId(), 1, 2048L);
+            entityManager.clear();
+
+            Tarea recargada = tareaRepository.findById(tarea.getId()).orElseThrow();
+            assertThat(recargada.getSubtareasTotal()).isEqualTo(2);
+            assertThat(recargada.getSubtareasCompletadas()).isEqualTo(1);
+            assertThat(recargada.getAdjuntosTotal()).isEqualTo(1);
+            assertThat(recargada.getAdjuntosBytes()).isEqualTo(2048L);
+        }
+
+        @Test
+        @DisplayName("Debería reconciliar contadores a partir de las tablas hijas")
+        void deberiaReconciliarContadores() {
+            Tarea tarea = crearTarea("A reconciliar", usuario);
+            entityManager.persist(Subtarea.builder().tarea(tarea).titulo("Uno").completada(true).build());
+            entityManager.persist(Subtarea.builder().tarea(tarea).titulo("Dos").completada(false).build());
+            entityManager.persist(Adjunto.builder().tarea(tarea).nombre("a.pdf")
+                    .mimeType("application/pdf").sizeBytes(100L).path("/tmp/a.pdf").build());
+            entityManager.flush();
+            tareaRepository.ajustarContadoresSubtareas(tarea.getId(), 7, 7);
+
+            int actualizadas = tareaRepository.reconciliarContadores(tarea.getId(), tarea.getId());
+            entityManager.clear();
+
+            Tarea recargada = tareaRepository.findById(tarea.getId()).orElseThrow();
+            assertThat(actualizadas).isEqualTo(1);
+            assertThat(recargada.getSubtareasTotal()).isEqualTo(2);
+            assertThat(recargada.getSubtareasCompletadas()).isEqualTo(1);
+            assertThat(recargada.getAdjuntosTotal()).isEqualTo(1);
+            assertThat(recargada.getAdjuntosBytes()).isEqualTo(100L);
+        }
+
+        @Test
+        @DisplayName("Debería recalcular solo las subtareas completadas")
+        void deberiaRecalcularSubtareasCompletadas() {
+            Tarea tarea = crearTarea("Recalcular", usuario);
+            entityManager.persist(Subtarea.builder().tarea(tarea).titulo("Hecha").completada(true).build());
+            entityManager.flush();
+
+            tareaRepository.recalcularSubtareasCompletadas(Set.of(tarea.getId()));
+            entityManager.clear();
+
+            assertThat(tareaRepository.findById(tarea.getId()).orElseThrow().getSubtareasCompletadas()).isEqualTo(1);
+            assertThat(tareaRepository.findMaxId()).isGreaterThanOrEqualTo(tarea.getId());
+        }
+    }
+
+    @Nested
+    @DisplayName("Orden manual")
+    class PosicionTests {
+
+        @Test
+        @DisplayName("Debería resolver los vecinos por posicion ignorando la tarea movida")
+        void deberiaResolverVecinos() {
+            Tarea primera = crearTareaEnPosicion("Primera", "00001");
+            Tarea segunda = crearTareaEnPosicion("Segunda", "00002");
+            Tarea tercera = crearTareaEnPosicion("Tercera", "00003");
+            entityManager.flush();
+
+            assertThat(tareaRepository.findUltimaPosicion(usuario.getId())).isEqualTo("00003");
+            assertThat(tareaRepository.findPrimeraPosicion(usuario.getId(), primera.getId())).isEqualTo("00002");
+            assertThat(tareaRepository.findPosicionSiguiente(usuario.getId(), "00001", segunda.getId())).isEqualTo("00003");
+            assertThat(tareaRepository.findIdsOrdenadosPorPosicion(usuario.getId()))
+                    .containsExactly(primera.getId(), segunda.getId(), tercera.getId());
+        }
+
+        @Test
+        @DisplayName("Debería reescribir la posicion de una sola tarea")
+        void deberiaActualizarPosicion() {
+            Tarea tarea = crearTareaEnPosicion("Mover", "00001");
+            entityManager.flush();
+
+            int filas = tareaRepository.actualizarPosicion(tarea.getId(), "00001i");
+            entityManager.clear();
+
+            assertThat(filas).isEqualTo(1);
+            assertThat(tareaRepository.findPosicionById(tarea.getId())).isEqualTo("00001i");
+        }
+    }
+
+    @Nested
+    @DisplayName("actualizarEnLote()")
+    class ActualizarEnLoteTests {
+
+        @Test
+        @DisplayName("Debería posponer solo las tareas vencidas pendientes del usuario")
+        void deberiaPosponerVencidas() {
+            LocalDateTime ahora = LocalDateTime.now().withNano(0);
+            Tarea vencida = crearTarea("Vencida", usuario);
+            vencida.setFechaVencimiento(ahora.minusDays(1));
+            Tarea futura = crearTarea("Futura", usuario);
+            futura.setFechaVencimiento(ahora.plusDays(3));
+            Tarea completada = crearTareaConEstado("Completada", Tarea.EstadoTarea.COMPLETADA);
+            completada.setFechaVencimiento(ahora.minusDays(2));
+            entityManager.flush();
+
+            int actualizadas = tareaRepository.actualizarEnLote(usuario.getId(), Tarea.EstadoTarea.PENDIENTE, null, null,
+                    null, ahora, 7 * 24 * 3600L, null, null);
+            entityManager.clear();
+
+            assertThat(actualizadas).isEqualTo(1);
+            assertThat(tareaRepository.findById(vencida.getId()).orElseThrow().getFechaVencimiento())
+                    .isEqualTo(ahora.plusDays(6));
+            assertThat(tareaRepository.findById(futura.getId()).orElseThrow().getFechaVencimiento())
+                    .isEqualTo(ahora.plusDays(3));
+            assertThat(tareaRepository.findById(completada.getId()).orElseThrow().getFechaVencimiento())
+                    .isEqualTo(ahora.minusDays(2));
+        }
+
+        @Test
+        @DisplayName("Debería cancelar todas las tareas con una etiqueta")
+        void deberiaCancelarPorEtiqueta() {
+            Etiqueta etiqueta = crearEtiqueta("Descartar");
+            Tarea conEtiqueta = crearTareaCompleta("Con etiqueta", Tarea.EstadoTarea.PENDIENTE, Tarea.Prioridad.ALTA, etiqueta);
+            Tarea sinEtiqueta = crearTarea("Sin etiqueta", usuario);
+            entityManager.flush();
+
+            int actualizadas = tareaRepository.actualizarEnLote(usuario.getId(), null, null, etiqueta.getId(),
+                    null, null, 0L, Tarea.EstadoTarea.CANCELADA, null);
+            entityManager.clear();
+
+            assertThat(actualizadas).isEqualTo(1);
+            Tarea cancelada = tareaRepository.findById(conEtiqueta.getId()).orElseThrow();
+            assertThat(cancelada.getEstado()).isEqualTo(Tarea.EstadoTarea.CANCELADA);
+            assertThat(cancelada.getPrioridad()).isEqualTo(Tarea.Prioridad.ALTA);
+            assertThat(tareaRepository.findById(sinEtiqueta.getId()).orElseThrow().getEstado())
+                    .isEqualTo(Tarea.EstadoTarea.PENDIENTE);
+        }
+    }
+
     private Tarea crearTarea(String titulo, Usuario usuario) {
         Tarea tarea = Tarea.builder()
                 .titulo(titulo)
@@ -427,6 +570,12 @@ class TareaRepositoryTest {
         return tareaRepository.save(tarea);
     }
 
+    private Tarea crearTareaEnPosicion(String titulo, String posicion) {
+        Tarea tarea = crearTarea(titulo, usuario);
+        tarea.setPosicion(posicion);
+        return tareaRepository.save(tarea);
+    }
+
     private Tarea crearTareaConEstado(String titulo, Tarea.EstadoTarea estado) {
         Tarea tarea = crearTarea(titulo, usuario);
         tarea.setEstado(estado);
@@ -0,0 +1,67 @@
+package io.github.jaredmcc4.gtm.repository;
+
+import io.github.jaredmcc4.gtm.domain.Usuario;
+import io.github.jaredmcc4.gtm.domain.UsuarioIdentidad;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.test.context.TestPropertySource;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.ANY)
+@TestPropertySource(properties = {
+    "spring.datasource.url=jdbc:h2:mem:testdb;MODE=MySQL;DB_CLOSE_DELAY=-1",
+    "spring.datasource.driver-class-name=org.h2.Driver",
+    "spring.jpa.hibernate.ddl-auto=create-drop",
+    "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+    "spring.flyway.enabled=false"
+})
+@DisplayName("UsuarioIdentidadRepository - Integration Tests")
+class UsuarioIdentidadRepositoryTest {
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private UsuarioIdentidadRepository repository;
+
+    @Test
+    @DisplayName("Debería encontrar al usuario por proveedor y sujeto")
+    void deberiaEncontrarUsuarioPorIdentidad() {
+        Usuario usuario = guardarUsuario("social@example.com");
+        repository.save(UsuarioIdentidad.builder().usuario(usuario).proveedor("GITHUB").sujeto("42").build());
+        entityManager.flush();
+        entityManager.clear();
+
+        assertThat(repository.findUsuario("GITHUB", "42")).get()
+                .extracting(Usuario::getEmail).isEqualTo("social@example.com");
+        assertThat(repository.findUsuario("GOOGLE", "42")).isEmpty();
+    }
+
+    @Test
+    @DisplayName("No debería permitir vincular dos veces la misma identidad")
+    void noDeberiaDuplicarIdentidad() {
+        Usuario primero = guardarUsuario("uno@example.com");
+        Usuario segundo = guardarUsuario("dos@example.com");
+        repository.saveAndFlush(UsuarioIdentidad.builder().usuario(primero).proveedor("GITHUB").sujeto("7").build());
+
+        assertThatThrownBy(() -> repository.saveAndFlush(
+                UsuarioIdentidad.builder().usuario(segundo).proveedor("GITHUB").sujeto("7").build()))
+                .isInstanceOf(DataIntegrityViolationException.class);
+    }
+
+    private Usuario guardarUsuario(String email) {
+        return entityManager.persist(Usuario.builder()
+                .email(email)
+                .contrasenaHash(Usuario.SIN_CONTRASENA)
+                .activo(true)
+                .build());
+    }
+}
@@ -11,7 +11,10 @@ import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
 import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
 import org.springframework.test.context.TestPropertySource;
 
+import org.springframework.data.domain.Limit;
+
 import java.util.HashSet;
+import java.util.List;
 import java.util.Optional;
 import java.util.Set;
 
@@ -140,6 +143,28 @@ class UsuarioRepositoryTest {
         assertThat(encontrado.get().getRoles()).extracting("nombreRol").contains("USER");
     }
 
+    @Test
+    @DisplayName("Debería cargar al usuario con sus roles usando findByIdWithRoles")
+    void deberiaCargarUsuarioConRolesPorId() {
+        Rol rolUser = rolRepository.findByNombreRol("USER")
+                .orElseGet(() -> rolRepository.save(Rol.builder().nombreRol("USER").build()));
+
+        Usuario usuario = usuarioRepository.save(Usuario.builder()
+                .email("byid@example.com")
+                .contrasenaHash("$2a$12$hashedPassword")
+                .nombreUsuario("Usuario Por Id")
+                .activo(true)
+                .roles(new HashSet<>(Set.of(rolUser)))
+                .build());
+        entityManager.flush();
+        entityManager.clear();
+
+        Optional<Usuario> encontrado = usuarioRepository.findByIdWithRoles(usuario.getId());
+
+        assertThat(encontrado).isPresent();
+        assertThat(encontrado.get().getRoles()).extracting("nombreRol").containsExactly("USER");
+    }
+
     @Test
     @DisplayName("Debería respetar constraint único de email")
     void deberiaRespetarConstraintUnicoEmail() {
@@ -195,4 +220,32 @@ class UsuarioRepositoryTest {
         assertThat(actualizado.get().getNombreUsuario()).isEqualTo("Usuario Actualizado");
         assertThat(actualizado.get().getZonaHoraria()).isEqualTo("America/New_York");
     }
-}
\ No newline at end of file
+
+    @Test
+    @DisplayName("Debería leer por lotes de id solo las versiones de tokens mayores a 0")
+    void deberiaLeerVersionesToken() {
+        Usuario sinVersion = usuarioRepository.save(usuarioConVersion("v0@example.com", 0));
+        Usuario primero = usuarioRepository.save(usuarioConVersion("v1@example.com", 2));
+        Usuario segundo = usuarioRepository.save(usuarioConVersion("v2@example.com", 5));
+        entityManager.flush();
+        entityManager.clear();
+
+        List<UsuarioRepository.VersionToken> lote = usuarioRepository.findVersionesToken(0L, Limit.of(1));
+        List<UsuarioRepository.VersionToken> siguiente = usuarioRepository.findVersionesToken(lote.get(0).getId(), Limit.of(10));
+
+        assertThat(lote).extracting(UsuarioRepository.VersionToken::getId).containsExactly(primero.getId());
+        assertThat(siguiente).extracting(UsuarioRepository.VersionToken::getTokenVersion).containsExactly(5);
+        assertThat(usuarioRepository.findTokenVersionById(segundo.getId())).contains(5);
+        assertThat(usuarioRepository.findTokenVersionById(sinVersion.getId())).contains(0);
+    }
+
+    private Usuario usuarioConVersion(String email, int tokenVersion) {
+        return Usuario.builder()
+                .email(email)
+                .contrasenaHash("$2a$12$hashedPassword")
+                .activo(true)
+                .tokenVersion(tokenVersion)
+                .roles(Set.of(rolUser))
+                .build();
+    }
+}
@@ -0,0 +1,96 @@
+package io.github.jaredmcc4.gtm.repository;
+
+import io.github.jaredmcc4.gtm.domain.VersionDatosUsuario;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.test.context.TestPropertySource;
+
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.ANY)
+@TestPropertySource(properties = {
+    "spring.datasource.url=jdbc:h2:mem:testdb;MODE=MySQL;DB_CLOSE_DELAY=-1",
+    "spring.datasource.driver-class-name=org.h2.Driver",
+    "spring.jpa.hibernate.ddl-auto=create-drop",
+    "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+    "spring.flyway.enabled=false"
+})
+@DisplayName("VersionDatosUsuarioRepository - Integration Tests")
+class VersionDatosUsuarioRepositoryTest {
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private VersionDatosUsuarioRepository versionDatosUsuarioRepository;
+
+    @Test
+    @DisplayName("No debería incrementar si el usuario no tiene fila")
+    void noDeberiaIncrementarSinFila() {
+        int filas = versionDatosUsuarioRepository.incrementar(42L, LocalDateTime.now());
+
+        assertThat(filas).isZero();
+        assertThat(versionDatosUsuarioRepository.findById(42L)).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Debería crear la fila en version 0 y luego incrementarla")
+    void deberiaCrearEIncrementar() {
+        LocalDateTime creacion = LocalDateTime.of(2025, 1, 10, 9, 0);
+        LocalDateTime escritura = creacion.plusMinutes(5);
+
+        versionDatosUsuarioRepository.crear(42L, creacion);
+        int filas = versionDatosUsuarioRepository.incrementar(42L, escritura);
+        entityManager.clear();
+
+        assertThat(filas).isEqualTo(1);
+        assertThat(versionDatosUsuarioRepository.findById(42L))
+                .get()
+                .extracting(VersionDatosUsuario::getVersion, VersionDatosUsuario::getModificadoEn)
+                .containsExactly(1L, escritura);
+    }
+
+    @Test
+    @DisplayName("Debería fallar al crear una fila existente sin tocar su version")
+    void deberiaFallarAlCrearFilaExistente() {
+        LocalDateTime ahora = LocalDateTime.of(2025, 1, 10, 9, 0);
+        versionDatosUsuarioRepository.crear(42L, ahora);
+        versionDatosUsuarioRepository.incrementar(42L, ahora);
+
+        assertThatThrownBy(() -> versionDatosUsuarioRepository.crear(42L, ahora))
+                .isInstanceOf(DataIntegrityViolationException.class);
+    }
+
+    @Test
+    @DisplayName("No debería afectar la version de otros usuarios")
+    void noDeberiaAfectarOtrosUsuarios() {
+        LocalDateTime ahora = LocalDateTime.of(2025, 1, 10, 9, 0);
+        versionDatosUsuarioRepository.crear(1L, ahora);
+        versionDatosUsuarioRepository.crear(2L, ahora);
+        versionDatosUsuarioRepository.incrementar(1L, ahora);
+        versionDatosUsuarioRepository.incrementar(1L, ahora);
+        entityManager.clear();
+
+        assertThat(versionDatosUsuarioRepository.findById(1L)).get().extracting(VersionDatosUsuario::getVersion).isEqualTo(2L);
+        assertThat(versionDatosUsuarioRepository.findById(2L)).get().extracting(VersionDatosUsuario::getVersion).isEqualTo(0L);
+    }
+
+    @Test
+    @DisplayName("Debería bloquear la fila del usuario sin cambiar su version")
+    void deberiaBloquearSinIncrementar() {
+        LocalDateTime ahora = LocalDateTime.of(2025, 1, 10, 9, 0);
+        versionDatosUsuarioRepository.crear(42L, ahora);
+
+        assertThat(versionDatosUsuarioRepository.bloquear(42L)).get().extracting(VersionDatosUsuario::getVersion).isEqualTo(0L);
+        assertThat(versionDatosUsuarioRepository.bloquear(7L)).isEmpty();
+    }
+}
@@ -0,0 +1,77 @@
+package io.github.jaredmcc4.gtm.security;
+
+import io.github.jaredmcc4.gtm.config.SecurityConfig;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.lang.reflect.Method;
+import java.time.Duration;
+import java.util.Arrays;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("BcryptCalibrado - Unit Tests")
+class BcryptCalibradoTest {
+
+    @Test
+    @DisplayName("Debería elegir un costo dentro del rango configurado")
+    void deberiaCalibrarDentroDelRango() {
+        assertThat(BcryptCalibrado.calibrar(Duration.ZERO, 4, 6)).isEqualTo(4);
+        assertThat(BcryptCalibrado.calibrar(Duration.ofMinutes(1), 4, 6)).isEqualTo(6);
+    }
+
+    @Test
+    @DisplayName("Debería codificar con prefijo y verificar hashes anteriores sin prefijo")
+    void deberiaVerificarHashesConYSinPrefijo() {
+        PasswordEncoder encoder = BcryptCalibrado.crear(4);
+        String nuevo = encoder.encode("contrasena459.");
+        String anterior = new BCryptPasswordEncoder(4).encode("contrasena459.");
+
+        assertThat(nuevo).startsWith("{bcrypt}$2a$04$");
+        assertThat(encoder.matches("contrasena459.", nuevo)).isTrue();
+        assertThat(encoder.matches("contrasena459.", anterior)).isTrue();
+        assertThat(encoder.matches("otra", anterior)).isFalse();
+    }
+
+    @Test
+    @DisplayName("Debería pedir recalcular solo los hashes sin prefijo o de costo menor")
+    void deberiaPedirRecalcularHashesDesactualizados() {
+        PasswordEncoder encoder = BcryptCalibrado.crear(5);
+
+        assertThat(encoder.upgradeEncoding(encoder.encode("clave"))).isFalse();
+        assertThat(encoder.upgradeEncoding(new BCryptPasswordEncoder(5).encode("clave"))).isTrue();
+        assertThat(encoder.upgradeEncoding("{bcrypt}" + new BCryptPasswordEncoder(4).encode("clave"))).isTrue();
+        assertThat(encoder.upgradeEncoding("{bcrypt}" + new BCryptPasswordEncoder(6).encode("clave"))).isFalse();
+    }
+
+    @Test
+    @DisplayName("Debería codificar con el costo calibrado y recalcular solo por debajo del mínimo")
+    void deberiaRecalcularSoloPorDebajoDelMinimo() {
+        PasswordEncoder encoder = BcryptCalibrado.crear(6, 5);
+
+        assertThat(encoder.encode("clave")).startsWith("{bcrypt}$2a$06$");
+        assertThat(encoder.upgradeEncoding("{bcrypt}" + new BCryptPasswordEncoder(5).encode("clave"))).isFalse();
+        assertThat(encoder.upgradeEncoding("{bcrypt}" + new BCryptPasswordEncoder(4).encode("clave"))).isTrue();
+    }
+
+    @Test
+    @DisplayName("Debería usar por defecto un costo mínimo no inferior al BCrypt(12) anterior")
+    void deberiaUsarPisoPorDefectoDeDoce() {
+        Method metodo = Arrays.stream(SecurityConfig.class.getMethods())
+                .filter(m -> m.getName().equals("passwordEncoder"))
+                .findFirst()
+                .orElseThrow();
+        String expresion = Arrays.stream(metodo.getParameters())
+                .map(p -> p.getAnnotation(Value.class))
+                .filter(v -> v != null && v.value().startsWith("${app.password.hash.costo-minimo:"))
+                .map(Value::value)
+                .findFirst()
+                .orElseThrow();
+        int porDefecto = Integer.parseInt(expresion.substring(expresion.indexOf(':') + 1, expresion.length() - 1));
+
+        assertThat(porDefecto).isGreaterThanOrEqualTo(12).isEqualTo(BcryptCalibrado.COSTO_MINIMO);
+    }
+}
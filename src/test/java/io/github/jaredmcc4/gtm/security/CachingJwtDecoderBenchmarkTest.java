@@ -0,0 +1,61 @@
+package io.github.jaredmcc4.gtm.security;
+
+import io.github.jaredmcc4.gtm.util.JwtUtil;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+import org.springframework.security.oauth2.jwt.NimbusJwtDecoder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Compara el CPU por peticion de autenticar el mismo token con y sin cache.
+ * Se ejecuta solo con {@code -Dbenchmark=true}.
+ */
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+@DisplayName("CachingJwtDecoder - Benchmark")
+class CachingJwtDecoderBenchmarkTest {
+
+    private static final String SECRET = "test-secret-key-for-jwt-minimum-256-bits-required-for-hs256";
+    private static final int CALENTAMIENTO = 20_000;
+    private static final int ITERACIONES = 200_000;
+
+    @Test
+    @DisplayName("El decodificador con cache debería usar menos CPU por token que Nimbus")
+    void compararCpuPorToken() {
+        JwtUtil jwtUtil = new JwtUtil();
+        ReflectionTestUtils.setField(jwtUtil, "secret", SECRET);
+        ReflectionTestUtils.setField(jwtUtil, "expiration", 3_600_000L);
+        String token = jwtUtil.generarToken("bench@test.com", 1L, List.of("USER"));
+
+        JwtDecoder nimbus = NimbusJwtDecoder.withSecretKey(JwtUtil.derivarClave(SECRET)).build();
+        JwtDecoder cache = new CachingJwtDecoder(nimbus, new SimpleMeterRegistry(), true, 10_000, Duration.ofHours(1));
+
+        double sinCache = nanosCpuPorToken(nimbus, token);
+        double conCache = nanosCpuPorToken(cache, token);
+
+        System.out.printf("CPU por token: sin cache %.0f ns, con cache %.0f ns (x%.1f)%n",
+                sinCache, conCache, sinCache / conCache);
+        assertThat(conCache).isLessThan(sinCache);
+    }
+
+    private static double nanosCpuPorToken(JwtDecoder decoder, String token) {
+        for (int i = 0; i < CALENTAMIENTO; i++) {
+            decoder.decode(token);
+        }
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        long inicio = threads.getCurrentThreadCpuTime();
+        for (int i = 0; i < ITERACIONES; i++) {
+            decoder.decode(token);
+        }
+        return (threads.getCurrentThreadCpuTime() - inicio) / (double) ITERACIONES;
+    }
+}
@@ -0,0 +1,94 @@
+package io.github.jaredmcc4.gtm.security;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.oauth2.jwt.BadJwtException;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+
+import java.time.Duration;
+import java.time.Instant;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.*;
+
+@DisplayName("CachingJwtDecoder - Unit Tests")
+class CachingJwtDecoderTest {
+
+    private JwtDecoder delegado;
+    private SimpleMeterRegistry meterRegistry;
+    private CachingJwtDecoder decoder;
+
+    @BeforeEach
+    void setUp() {
+        delegado = mock(JwtDecoder.class);
+        meterRegistry = new SimpleMeterRegistry();
+        decoder = new CachingJwtDecoder(delegado, meterRegistry, true, 100, Duration.ofHours(1));
+    }
+
+    @Test
+    @DisplayName("Debería verificar una sola vez el mismo token")
+    void deberiaVerificarUnaVez() {
+        Jwt jwt = jwt("token-a", 1L, Instant.now().plusSeconds(600));
+        when(delegado.decode("token-a")).thenReturn(jwt);
+
+        Jwt primero = decoder.decode("token-a");
+        Jwt segundo = decoder.decode("token-a");
+
+        assertThat(segundo).isSameAs(primero);
+        verify(delegado, times(1)).decode("token-a");
+        assertThat(meterRegistry.get("cache.gets").tag("cache", "jwt").tag("result", "hit")
+                .functionCounter().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("cache.gets").tag("cache", "jwt").tag("result", "miss")
+                .functionCounter().count()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("No debería servir desde cache un token ya expirado")
+    void noDeberiaServirTokenExpirado() {
+        Jwt jwt = jwt("token-b", 1L, Instant.now().minusSeconds(5));
+        when(delegado.decode("token-b")).thenReturn(jwt);
+
+        decoder.decode("token-b");
+        decoder.decode("token-b");
+
+        verify(delegado, times(2)).decode("token-b");
+    }
+
+    @Test
+    @DisplayName("No debería cachear tokens rechazados")
+    void noDeberiaCachearRechazos() {
+        when(delegado.decode("malo")).thenThrow(new BadJwtException("firma invalida"));
+
+        assertThatThrownBy(() -> decoder.decode("malo")).isInstanceOf(BadJwtException.class);
+        assertThatThrownBy(() -> decoder.decode("malo")).isInstanceOf(BadJwtException.class);
+
+        verify(delegado, times(2)).decode("malo");
+        assertThat(decoder.tamano()).isZero();
+    }
+
+    @Test
+    @DisplayName("Debería delegar siempre si está deshabilitado")
+    void deberiaDelegarSiEstaDeshabilitado() {
+        CachingJwtDecoder deshabilitado = new CachingJwtDecoder(delegado, meterRegistry, false, 100, Duration.ofHours(1));
+        when(delegado.decode("token-a")).thenReturn(jwt("token-a", 1L, Instant.now().plusSeconds(600)));
+
+        deshabilitado.decode("token-a");
+        deshabilitado.decode("token-a");
+
+        verify(delegado, times(2)).decode("token-a");
+    }
+
+    private static Jwt jwt(String token, Long usuarioId, Instant expira) {
+        return Jwt.withTokenValue(token)
+                .header("alg", "HS256")
+                .subject("user" + usuarioId + "@test.com")
+                .claim("usuarioId", usuarioId)
+                .issuedAt(expira.minusSeconds(3600))
+                .expiresAt(expira)
+                .build();
+    }
+}
@@ -0,0 +1,142 @@
+package io.github.jaredmcc4.gtm.security;
+
+import io.github.jaredmcc4.gtm.exception.DemasiadosIntentosException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatCode;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@DisplayName("LimitadorIntentos - Unit Tests")
+class LimitadorIntentosTest {
+
+    private static final long MINUTO = 60_000;
+
+    private SimpleMeterRegistry meterRegistry;
+    private AtomicLong reloj;
+    private LimitadorIntentos limitador;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        reloj = new AtomicLong(1_000_000);
+        limitador = new LimitadorIntentos(meterRegistry, true,
+                new SketchLimitador(3, 1024, 10, 60, 15 * MINUTO, 6),
+                new SketchLimitador(3, 1024, 3, 1, 15 * MINUTO, 6),
+                new SketchLimitador(3, 1024, 10, 60, 15 * MINUTO, 6),
+                reloj::get);
+    }
+
+    @Test
+    @DisplayName("Debería rechazar por email al agotar el cupo y admitir tras la recarga")
+    void deberiaRechazarPorEmailYRecargar() {
+        for (int i = 0; i < 3; i++) {
+            limitador.verificarLogin("203.0.113." + i, "Victima@Example.com");
+        }
+
+        assertThatThrownBy(() -> limitador.verificarLogin("203.0.113.9", " victima@example.com "))
+                .isInstanceOf(DemasiadosIntentosException.class)
+                .satisfies(ex -> assertThat(((DemasiadosIntentosException) ex).getRetryAfterSegundos()).isEqualTo(60));
+        assertThatCode(() -> limitador.verificarLogin("203.0.113.9", "otra@example.com")).doesNotThrowAnyException();
+        assertThat(meterRegistry.get("gtm.auth.limite.rechazados").tag("limite", "email").counter().count()).isEqualTo(1);
+
+        reloj.addAndGet(MINUTO);
+        assertThatCode(() -> limitador.verificarLogin("203.0.113.9", "victima@example.com")).doesNotThrowAnyException();
+    }
+
+    @Test
+    @DisplayName("Debería rechazar por IP aunque cambie el email")
+    void deberiaRechazarPorIp() {
+        for (int i = 0; i < 10; i++) {
+            limitador.verificarLogin("198.51.100.1", "usuario" + i + "@example.com");
+        }
+
+        assertThatThrownBy(() -> limitador.verificarLogin("198.51.100.1", "otro@example.com"))
+                .isInstanceOf(DemasiadosIntentosException.class);
+        assertThatCode(() -> limitador.verificarLogin("198.51.100.2", "otro@example.com")).doesNotThrowAnyException();
+        assertThat(meterRegistry.get("gtm.auth.limite.rechazados").tag("limite", "ip").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Debería alargar la espera con cada fallo seguido y olvidarlos tras la inactividad")
+    void deberiaCastigarFallosDeFormaProgresiva() {
+        limitador.verificarLogin("203.0.113.1", "victima@example.com");
+        limitador.registrarFallo("203.0.113.1", "victima@example.com");
+        limitador.verificarLogin("203.0.113.1", "victima@example.com");
+        limitador.registrarFallo("203.0.113.1", "victima@example.com");
+
+        assertThatThrownBy(() -> limitador.verificarLogin("203.0.113.1", "victima@example.com"))
+                .isInstanceOf(DemasiadosIntentosException.class)
+                .satisfies(ex -> assertThat(((DemasiadosIntentosException) ex).getRetryAfterSegundos()).isEqualTo(60));
+
+        reloj.addAndGet(MINUTO);
+        limitador.verificarLogin("203.0.113.1", "victima@example.com");
+        limitador.registrarFallo("203.0.113.1", "victima@example.com");
+        assertThatThrownBy(() -> limitador.verificarLogin("203.0.113.1", "victima@example.com"))
+                .isInstanceOf(DemasiadosIntentosException.class)
+                .satisfies(ex -> assertThat(((DemasiadosIntentosException) ex).getRetryAfterSegundos()).isEqualTo(240));
+        assertThat(meterRegistry.counter("gtm.auth.limite.fallos").count()).isEqualTo(3);
+
+        reloj.addAndGet(30 * MINUTO);
+        for (int i = 0; i < 3; i++) {
+            limitador.verificarLogin("203.0.113.1", "victima@example.com");
+        }
+    }
+
+    @Test
+    @DisplayName("Debería limitar el refresh con un cupo propio que no consume el del login")
+    void deberiaLimitarRefreshConCupoPropio() {
+        for (int i = 0; i < 10; i++) {
+            limitador.verificarRefresh("192.0.2.1");
+        }
+
+        assertThatThrownBy(() -> limitador.verificarRefresh("192.0.2.1"))
+                .isInstanceOf(DemasiadosIntentosException.class);
+        assertThatCode(() -> limitador.verificarLogin("192.0.2.1", "a@example.com")).doesNotThrowAnyException();
+        assertThat(meterRegistry.get("gtm.auth.limite.rechazados").tag("limite", "refresh").counter().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("gtm.auth.limite.rechazados").tag("limite", "ip").counter().count()).isZero();
+    }
+
+    @Test
+    @DisplayName("No debería admitir más intentos que la capacidad bajo concurrencia")
+    void noDeberiaSuperarCapacidadConcurrente() throws Exception {
+        AtomicInteger admitidos = new AtomicInteger();
+        ExecutorService hilos = Executors.newFixedThreadPool(8);
+        for (int i = 0; i < 200; i++) {
+            hilos.submit(() -> {
+                try {
+                    limitador.verificarRefresh("192.0.2.1");
+                    admitidos.incrementAndGet();
+                } catch (DemasiadosIntentosException ignored) {
+                    // esperado al agotar el cupo
+                }
+            });
+        }
+        hilos.shutdown();
+        assertThat(hilos.awaitTermination(5, TimeUnit.SECONDS)).isTrue();
+
+        assertThat(admitidos.get()).isBetween(10, 10 + 7);
+    }
+
+    @Test
+    @DisplayName("No debería limitar cuando está deshabilitado")
+    void noDeberiaLimitarDeshabilitado() {
+        LimitadorIntentos deshabilitado = new LimitadorIntentos(new SimpleMeterRegistry(), false,
+                new SketchLimitador(1, 16, 1, 1, MINUTO, 6), new SketchLimitador(1, 16, 1, 1, MINUTO, 6),
+                new SketchLimitador(1, 16, 1, 1, MINUTO, 6), reloj::get);
+
+        for (int i = 0; i < 5; i++) {
+            deshabilitado.verificarLogin("192.0.2.1", "a@example.com");
+            deshabilitado.registrarFallo("192.0.2.1", "a@example.com");
+        }
+    }
+}
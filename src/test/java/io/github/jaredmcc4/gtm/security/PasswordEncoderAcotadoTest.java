@@ -0,0 +1,106 @@
+package io.github.jaredmcc4.gtm.security;
+
+import io.github.jaredmcc4.gtm.exception.ServicioSaturadoException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@DisplayName("PasswordEncoderAcotado - Unit Tests")
+class PasswordEncoderAcotadoTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private ExecutorService clientes;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        clientes = Executors.newFixedThreadPool(2);
+    }
+
+    @AfterEach
+    void tearDown() {
+        clientes.shutdownNow();
+    }
+
+    @Test
+    @DisplayName("Debería codificar y verificar en el pool publicando métricas")
+    void deberiaCodificarYVerificar() {
+        try (PasswordEncoderAcotado encoder = new PasswordEncoderAcotado(new BCryptPasswordEncoder(4), meterRegistry, 1, 4, 2)) {
+            String hash = encoder.encode("contrasena459.");
+
+            assertThat(encoder.matches("contrasena459.", hash)).isTrue();
+            assertThat(encoder.matches("otra", hash)).isFalse();
+            assertThat(meterRegistry.get("gtm.password.hash").tag("operacion", "encode").timer().count()).isEqualTo(1);
+            assertThat(meterRegistry.get("gtm.password.hash").tag("operacion", "matches").timer().count()).isEqualTo(2);
+            assertThat(meterRegistry.get("gtm.password.espera").timer().count()).isEqualTo(3);
+        }
+    }
+
+    @Test
+    @DisplayName("Debería usar la mitad de los núcleos, al menos uno, si no se configuran hilos")
+    void deberiaUsarMitadDeNucleosPorDefecto() {
+        int nucleos = Runtime.getRuntime().availableProcessors();
+
+        assertThat(PasswordEncoderAcotado.hilosPorDefecto()).isEqualTo(Math.max(1, nucleos / 2));
+    }
+
+    @Test
+    @DisplayName("Debería rechazar de inmediato cuando la cola está llena")
+    void deberiaRechazarConColaLlena() throws Exception {
+        CountDownLatch enCurso = new CountDownLatch(1);
+        CountDownLatch liberar = new CountDownLatch(1);
+        PasswordEncoder bloqueante = new PasswordEncoder() {
+            @Override
+            public String encode(CharSequence rawPassword) {
+                enCurso.countDown();
+                try {
+                    liberar.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                }
+                return rawPassword.toString();
+            }
+
+            @Override
+            public boolean matches(CharSequence rawPassword, String encodedPassword) {
+                return rawPassword.toString().equals(encodedPassword);
+            }
+        };
+
+        try (PasswordEncoderAcotado encoder = new PasswordEncoderAcotado(bloqueante, meterRegistry, 1, 1, 3)) {
+            Future<String> primero = clientes.submit(() -> encoder.encode("a"));
+            assertThat(enCurso.await(5, TimeUnit.SECONDS)).isTrue();
+            Future<String> encolado = clientes.submit(() -> encoder.encode("b"));
+            esperarCola(1);
+
+            assertThatThrownBy(() -> encoder.encode("c"))
+                    .isInstanceOf(ServicioSaturadoException.class)
+                    .satisfies(ex -> assertThat(((ServicioSaturadoException) ex).getRetryAfterSegundos()).isEqualTo(3));
+            assertThat(meterRegistry.counter("gtm.password.rechazados").count()).isEqualTo(1);
+
+            liberar.countDown();
+            assertThat(primero.get(5, TimeUnit.SECONDS)).isEqualTo("a");
+            assertThat(encolado.get(5, TimeUnit.SECONDS)).isEqualTo("b");
+        }
+    }
+
+    private void esperarCola(int tamano) throws InterruptedException {
+        long limite = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (meterRegistry.get("gtm.password.cola").gauge().value() < tamano && System.nanoTime() < limite) {
+            Thread.sleep(5);
+        }
+    }
+}
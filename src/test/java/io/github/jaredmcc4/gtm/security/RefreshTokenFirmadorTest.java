@@ -0,0 +1,151 @@
+package io.github.jaredmcc4.gtm.security;
+
+import io.github.jaredmcc4.gtm.domain.RefreshTokenRevocado;
+import io.github.jaredmcc4.gtm.repository.RefreshTokenRevocadoRepository;
+import io.github.jaredmcc4.gtm.util.JwtUtil;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Limit;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("RefreshTokenFirmador - Unit Tests")
+class RefreshTokenFirmadorTest {
+
+    private static final String SECRET = "clave-super-secreta-para-tests-de-refresh-1234567890";
+
+    @Mock
+    private RefreshTokenRevocadoRepository repository;
+
+    private JwtUtil jwtUtil;
+    private SimpleMeterRegistry meterRegistry;
+    private RefreshTokenFirmador firmador;
+
+    @BeforeEach
+    void setUp() {
+        jwtUtil = new JwtUtil();
+        ReflectionTestUtils.setField(jwtUtil, "secret", SECRET);
+        ReflectionTestUtils.setField(jwtUtil, "expiration", 3600000L);
+        meterRegistry = new SimpleMeterRegistry();
+        firmador = new RefreshTokenFirmador(jwtUtil, repository, meterRegistry, 30, 2, 60_000);
+    }
+
+    @Test
+    @DisplayName("Debería verificar un token emitido con su usuario, familia y versión")
+    void deberiaVerificarTokenEmitido() {
+        String token = firmador.emitir(7L, 3);
+
+        assertThat(firmador.esFirmado(token)).isTrue();
+        assertThat(firmador.verificar(token)).hasValueSatisfying(sesion -> {
+            assertThat(sesion.usuarioId()).isEqualTo(7L);
+            assertThat(sesion.familia()).isNotNull();
+            assertThat(sesion.tokenVersion()).isEqualTo(3);
+        });
+    }
+
+    @Test
+    @DisplayName("Debería distinguir los refresh tokens persistidos (UUID)")
+    void deberiaDistinguirTokensPersistidos() {
+        assertThat(firmador.esFirmado(UUID.randomUUID().toString())).isFalse();
+        assertThat(firmador.esFirmado(null)).isFalse();
+    }
+
+    @Test
+    @DisplayName("Debería rechazar un token alterado o un JWT de acceso")
+    void deberiaRechazarTokenAlteradoOAcceso() {
+        String token = firmador.emitir(7L, 0);
+        String alterado = token.substring(0, token.length() - 2) + (token.endsWith("A") ? "BB" : "AA");
+        String acceso = jwtUtil.generarToken("test@test.com", 7L, List.of("USER"));
+
+        assertThat(firmador.verificar(alterado)).isEmpty();
+        assertThat(firmador.verificar(acceso)).isEmpty();
+        verifyNoInteractions(repository);
+    }
+
+    @Test
+    @DisplayName("Debería rechazar la familia revocada y registrarla para el resto de nodos")
+    void deberiaRechazarFamiliaRevocada() {
+        String token = firmador.emitir(7L, 0);
+
+        assertThat(firmador.revocar(token)).isTrue();
+        assertThat(firmador.verificar(token)).isEmpty();
+        assertThat(firmador.verificar(firmador.emitir(7L, 0))).isPresent();
+        verify(repository).save(argThat(revocado -> revocado.getUsuarioId().equals(7L)));
+        assertThat(meterRegistry.get("gtm.refresh-tokens.revocaciones").gauge().value()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Debería cargar las revocaciones de otros nodos antes de la primera verificación")
+    void deberiaCargarRevocacionesDeOtrosNodos() {
+        String token = firmador.emitir(7L, 0);
+        UUID familia = new RefreshTokenFirmador(jwtUtil, mock(RefreshTokenRevocadoRepository.class),
+                new SimpleMeterRegistry(), 30, 2, 60_000).verificar(token).orElseThrow().familia();
+        when(repository.findByIdGreaterThanAndExpiresAtAfterOrderByIdAsc(eq(0L), any(LocalDateTime.class), eq(Limit.of(2))))
+                .thenReturn(List.of(revocado(1L, UUID.randomUUID()), revocado(2L, UUID.randomUUID())));
+        when(repository.findByIdGreaterThanAndExpiresAtAfterOrderByIdAsc(eq(2L), any(LocalDateTime.class), eq(Limit.of(2))))
+                .thenReturn(List.of(revocado(3L, familia)));
+
+        assertThat(firmador.verificar(token)).isEmpty();
+        assertThat(firmador.verificar(firmador.emitir(7L, 0))).isPresent();
+        verify(repository, times(2)).findByIdGreaterThanAndExpiresAtAfterOrderByIdAsc(anyLong(), any(), any());
+    }
+
+    @Test
+    @DisplayName("Debería recoger una revocación confirmada tarde al releer la ventana")
+    void deberiaRecogerRevocacionConfirmadaTarde() {
+        LocalDateTime base = LocalDateTime.of(2026, 1, 1, 12, 0);
+        String token = firmador.emitir(7L, 0);
+        UUID familia = new RefreshTokenFirmador(jwtUtil, mock(RefreshTokenRevocadoRepository.class),
+                new SimpleMeterRegistry(), 30, 2, 60_000).verificar(token).orElseThrow().familia();
+        when(repository.findByIdGreaterThanAndExpiresAtAfterOrderByIdAsc(eq(0L), any(LocalDateTime.class), eq(Limit.of(2))))
+                .thenReturn(List.of(revocado(5L, UUID.randomUUID(), base)));
+        firmador.sincronizar();
+        when(repository.findByCreatedAtGreaterThanEqualAndExpiresAtAfterAndIdGreaterThanOrderByIdAsc(
+                eq(base.minusMinutes(1)), any(LocalDateTime.class), eq(0L), eq(Limit.of(2))))
+                .thenReturn(List.of(revocado(4L, familia, base.minusSeconds(10)), revocado(5L, UUID.randomUUID(), base)));
+        when(repository.findByCreatedAtGreaterThanEqualAndExpiresAtAfterAndIdGreaterThanOrderByIdAsc(
+                eq(base.minusMinutes(1)), any(LocalDateTime.class), eq(5L), eq(Limit.of(2))))
+                .thenReturn(List.of());
+
+        assertThat(firmador.sincronizar()).isEqualTo(2);
+
+        assertThat(firmador.verificar(token)).isEmpty();
+        verify(repository, times(1)).findByIdGreaterThanAndExpiresAtAfterOrderByIdAsc(anyLong(), any(), any());
+    }
+
+    @Test
+    @DisplayName("No debería revocar un token inválido")
+    void noDeberiaRevocarTokenInvalido() {
+        assertThat(firmador.revocar("no.es.valido")).isFalse();
+        verify(repository, never()).save(any());
+    }
+
+    private static RefreshTokenRevocado revocado(Long id, UUID familia) {
+        return revocado(id, familia, LocalDateTime.now().minusMinutes(1));
+    }
+
+    private static RefreshTokenRevocado revocado(Long id, UUID familia, LocalDateTime creada) {
+        return RefreshTokenRevocado.builder()
+                .id(id)
+                .familia(familia.toString())
+                .usuarioId(7L)
+                .expiresAt(LocalDateTime.now().plusDays(1))
+                .createdAt(creada)
+                .build();
+    }
+}
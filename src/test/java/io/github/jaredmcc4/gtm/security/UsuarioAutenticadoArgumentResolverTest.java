@@ -0,0 +1,51 @@
+package io.github.jaredmcc4.gtm.security;
+
+import io.github.jaredmcc4.gtm.exception.UnauthorizedException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.oauth2.jwt.Jwt;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@DisplayName("UsuarioAutenticadoArgumentResolver - Unit Tests")
+class UsuarioAutenticadoArgumentResolverTest {
+
+    private final UsuarioAutenticadoArgumentResolver resolver = new UsuarioAutenticadoArgumentResolver();
+
+    @AfterEach
+    void limpiar() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    @DisplayName("Debería devolver el principal construido al validar el JWT")
+    void deberiaResolverPrincipal() {
+        Jwt jwt = Jwt.withTokenValue("token")
+                .header("alg", "HS256")
+                .subject("user@test.com")
+                .claim("usuarioId", 7)
+                .build();
+        UsuarioAutenticado usuario = new UsuarioAutenticado(7L, "user@test.com", List.of("USER"));
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsuarioAutenticadoToken(jwt, List.of(new SimpleGrantedAuthority("ROLE_USER")), usuario));
+
+        assertThat(resolver.resolveArgument(null, null, null, null)).isSameAs(usuario);
+    }
+
+    @Test
+    @DisplayName("Debería responder no autorizado si el contexto no tiene un JWT validado")
+    void deberiaRechazarSinJwt() {
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken("user", "clave", List.of()));
+
+        assertThatThrownBy(() -> resolver.resolveArgument(null, null, null, null))
+                .isInstanceOf(UnauthorizedException.class);
+    }
+}
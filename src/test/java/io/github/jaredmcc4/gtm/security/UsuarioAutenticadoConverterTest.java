@@ -0,0 +1,75 @@
+package io.github.jaredmcc4.gtm.security;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.authentication.AbstractAuthenticationToken;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.server.resource.InvalidBearerTokenException;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+@DisplayName("UsuarioAutenticadoConverter - Unit Tests")
+class UsuarioAutenticadoConverterTest {
+
+    private final UsuarioAutenticadoConverter converter = new UsuarioAutenticadoConverter();
+
+    @Test
+    @DisplayName("Debería construir el principal y las autoridades a partir de los claims")
+    void deberiaConstruirPrincipal() {
+        Jwt jwt = Jwt.withTokenValue("token")
+                .header("alg", "HS256")
+                .subject("user@test.com")
+                .claim("usuarioId", 7)
+                .claim("roles", List.of("USER", "ADMIN"))
+                .build();
+
+        AbstractAuthenticationToken token = converter.convert(jwt);
+
+        assertThat(token).isInstanceOf(UsuarioAutenticadoToken.class);
+        assertThat(((UsuarioAutenticadoToken) token).getUsuario())
+                .isEqualTo(new UsuarioAutenticado(7L, "user@test.com", List.of("USER", "ADMIN")));
+        assertThat(token.getAuthorities()).extracting(GrantedAuthority::getAuthority)
+                .containsExactly("ROLE_USER", "ROLE_ADMIN");
+        assertThat(token.getName()).isEqualTo("user@test.com");
+        assertThat(token.getPrincipal()).isSameAs(jwt);
+    }
+
+    @Test
+    @DisplayName("Debería rechazar como token inválido un JWT sin usuarioId")
+    void deberiaRechazarSinUsuarioId() {
+        Jwt jwt = Jwt.withTokenValue("token")
+                .header("alg", "HS256")
+                .subject("user@test.com")
+                .build();
+
+        assertThatThrownBy(() -> converter.convert(jwt)).isInstanceOf(InvalidBearerTokenException.class);
+    }
+
+    @Test
+    @DisplayName("Debería rechazar un JWT con una versión de tokens anterior a la vigente")
+    void deberiaRechazarVersionAntigua() {
+        VersionesToken versionesToken = mock(VersionesToken.class);
+        when(versionesToken.vigente(7L, 1)).thenReturn(false);
+        when(versionesToken.vigente(7L, 2)).thenReturn(true);
+        UsuarioAutenticadoConverter conVersiones = new UsuarioAutenticadoConverter(versionesToken);
+
+        assertThatThrownBy(() -> conVersiones.convert(jwtConVersion(1))).isInstanceOf(InvalidBearerTokenException.class);
+        assertThat(conVersiones.convert(jwtConVersion(2))).isInstanceOf(UsuarioAutenticadoToken.class);
+    }
+
+    private static Jwt jwtConVersion(int version) {
+        return Jwt.withTokenValue("token")
+                .header("alg", "HS256")
+                .subject("user@test.com")
+                .claim("usuarioId", 7)
+                .claim("roles", List.of("USER"))
+                .claim("tv", version)
+                .build();
+    }
+}
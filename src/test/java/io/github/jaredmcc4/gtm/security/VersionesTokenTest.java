@@ -0,0 +1,168 @@
+package io.github.jaredmcc4.gtm.security;
+
+import io.github.jaredmcc4.gtm.domain.Usuario;
+import io.github.jaredmcc4.gtm.invalidacion.Invalidacion;
+import io.github.jaredmcc4.gtm.invalidacion.InvalidacionBus;
+import io.github.jaredmcc4.gtm.invalidacion.InvalidacionTransporte;
+import io.github.jaredmcc4.gtm.repository.UsuarioRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Limit;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@DisplayName("VersionesToken - Unit Tests")
+class VersionesTokenTest {
+
+    private UsuarioRepository usuarioRepository;
+    private SimpleMeterRegistry meterRegistry;
+    private TransporteEnMemoria transporte;
+    private VersionesToken versiones;
+
+    @BeforeEach
+    void setUp() {
+        usuarioRepository = mock(UsuarioRepository.class);
+        when(usuarioRepository.findVersionesToken(anyLong(), any(Limit.class))).thenReturn(List.of());
+        meterRegistry = new SimpleMeterRegistry();
+        transporte = new TransporteEnMemoria();
+        versiones = new VersionesToken(usuarioRepository, new InvalidacionBus(transporte, meterRegistry), meterRegistry, 2);
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    @DisplayName("Debería cargar las versiones por lotes de id al arrancar")
+    void deberiaCargarPorLotes() {
+        when(usuarioRepository.findVersionesToken(0L, Limit.of(2))).thenReturn(List.of(fila(3L, 1), fila(8L, 4)));
+        when(usuarioRepository.findVersionesToken(8L, Limit.of(2))).thenReturn(List.of(fila(11L, 2)));
+
+        versiones.cargar();
+
+        assertThat(versiones.actual(8L)).isEqualTo(4);
+        assertThat(versiones.actual(5L)).isZero();
+        assertThat(versiones.vigente(3L, 1)).isTrue();
+        assertThat(versiones.vigente(11L, 1)).isFalse();
+
+        verify(usuarioRepository, times(2)).findVersionesToken(anyLong(), any(Limit.class));
+        verify(usuarioRepository, never()).findTokenVersionById(any());
+        assertThat(meterRegistry.get("gtm.auth.token-version.usuarios").gauge().value()).isEqualTo(3);
+        assertThat(meterRegistry.get("gtm.auth.token-version.rechazados").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Debería aplicar la nueva versión solo al confirmar la transacción")
+    void deberiaAplicarTrasCommit() {
+        Usuario usuario = Usuario.builder().id(7L).tokenVersion(2).build();
+        TransactionSynchronizationManager.initSynchronization();
+
+        assertThat(versiones.incrementar(usuario)).isEqualTo(3);
+        assertThat(usuario.getTokenVersion()).isEqualTo(3);
+        assertThat(versiones.actual(7L)).isZero();
+
+        TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        assertThat(versiones.vigente(7L, 2)).isFalse();
+        assertThat(versiones.vigente(7L, 3)).isTrue();
+    }
+
+    @Test
+    @DisplayName("Debería releer la versión cuando otro nodo la sube")
+    void deberiaRecargarAvisoDeOtroNodo() {
+        SimpleMeterRegistry otroRegistry = new SimpleMeterRegistry();
+        UsuarioRepository otroRepository = mock(UsuarioRepository.class);
+        VersionesToken otroNodo = new VersionesToken(otroRepository,
+                new InvalidacionBus(transporte, otroRegistry), otroRegistry, 2);
+        when(usuarioRepository.findTokenVersionById(7L)).thenReturn(Optional.of(1));
+        otroNodo.cargar();
+
+        otroNodo.incrementar(Usuario.builder().id(7L).build());
+
+        assertThat(versiones.vigente(7L, 0)).isFalse();
+        verify(otroRepository, never()).findTokenVersionById(any());
+    }
+
+    @Test
+    @DisplayName("No debería bajar una versión al recibir un dato atrasado")
+    void noDeberiaBajarVersion() {
+        when(usuarioRepository.findVersionesToken(eq(0L), any(Limit.class))).thenReturn(List.of(fila(7L, 5)));
+        versiones.sincronizar();
+        when(usuarioRepository.findVersionesToken(eq(0L), any(Limit.class))).thenReturn(List.of(fila(7L, 2)));
+
+        versiones.sincronizar();
+
+        assertThat(versiones.actual(7L)).isEqualTo(5);
+    }
+
+    @Test
+    @DisplayName("Debería leer por usuario sin recargar desde la petición mientras la carga falla")
+    void deberiaLeerPorUsuarioMientrasLaCargaFalla() {
+        when(usuarioRepository.findVersionesToken(anyLong(), any(Limit.class)))
+                .thenThrow(new IllegalStateException("sin conexion"))
+                .thenReturn(List.of(fila(7L, 1)));
+        when(usuarioRepository.findTokenVersionById(7L)).thenReturn(Optional.of(1));
+        versiones.cargar();
+
+        assertThat(versiones.vigente(7L, 0)).isFalse();
+        verify(usuarioRepository, times(1)).findVersionesToken(anyLong(), any(Limit.class));
+
+        versiones.reintentarCarga();
+        versiones.reintentarCarga();
+
+        assertThat(versiones.actual(7L)).isEqualTo(1);
+        verify(usuarioRepository, times(2)).findVersionesToken(anyLong(), any(Limit.class));
+        verify(usuarioRepository, times(1)).findTokenVersionById(7L);
+    }
+
+    @Test
+    @DisplayName("Debería rechazar la petición si no puede comprobar la versión antes de la primera carga")
+    void deberiaRechazarSinCargaNiLectura() {
+        when(usuarioRepository.findTokenVersionById(7L)).thenThrow(new IllegalStateException("sin conexion"));
+
+        assertThatThrownBy(() -> versiones.vigente(7L, 0)).isInstanceOf(IllegalStateException.class);
+        verify(usuarioRepository, never()).findVersionesToken(anyLong(), any(Limit.class));
+    }
+
+    private static UsuarioRepository.VersionToken fila(Long id, int version) {
+        return new Fila(id, version);
+    }
+
+    private record Fila(Long getId, int getTokenVersion) implements UsuarioRepository.VersionToken {
+    }
+
+    /**
+     * Transporte que entrega cada invalidacion a todos los nodos suscritos, incluido el emisor.
+     */
+    private static class TransporteEnMemoria implements InvalidacionTransporte {
+
+        private final List<Consumer<Invalidacion>> receptores = new CopyOnWriteArrayList<>();
+
+        @Override
+        public void publicar(Invalidacion invalidacion) {
+            receptores.forEach(receptor -> receptor.accept(invalidacion));
+        }
+
+        @Override
+        public void suscribir(Consumer<Invalidacion> receptor) {
+            receptores.add(receptor);
+        }
+    }
+}
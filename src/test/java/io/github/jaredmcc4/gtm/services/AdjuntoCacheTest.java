@@ -0,0 +1,107 @@
+package io.github.jaredmcc4.gtm.services;
+
+import io.github.jaredmcc4.gtm.invalidacion.InvalidacionBus;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.core.io.Resource;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+
+@DisplayName("AdjuntoCache - Unit Tests")
+class AdjuntoCacheTest {
+
+    @TempDir
+    Path tempDir;
+
+    private InvalidacionBus invalidacionBus;
+    private AdjuntoCache adjuntoCache;
+
+    @BeforeEach
+    void setUp() {
+        invalidacionBus = mock(InvalidacionBus.class);
+        adjuntoCache = new AdjuntoCache(new SimpleMeterRegistry(), invalidacionBus, true, 64, 1024);
+    }
+
+    @Test
+    @DisplayName("Debería servir el contenido desde memoria sin volver a leer el disco")
+    void deberiaServirDesdeMemoria() throws IOException {
+        Path archivo = escribir("logo.png", "contenido");
+
+        Resource primera = adjuntoCache.obtener(1L, archivo.toString(), 9L).orElseThrow();
+        Files.delete(archivo);
+        Resource segunda = adjuntoCache.obtener(1L, archivo.toString(), 9L).orElseThrow();
+
+        assertThat(leer(primera)).isEqualTo("contenido");
+        assertThat(leer(segunda)).isEqualTo("contenido");
+        assertThat(leer(segunda)).isEqualTo("contenido");
+        assertThat(segunda.contentLength()).isEqualTo(9);
+        assertThat(segunda.getFilename()).isEqualTo("logo.png");
+        assertThat(adjuntoCache.bytesEnUso()).isEqualTo(9);
+    }
+
+    @Test
+    @DisplayName("Debería recargar si cambia la versión de contenido")
+    void deberiaRecargarSiCambiaVersion() throws IOException {
+        Path original = escribir("a.txt", "uno");
+        Path nuevo = escribir("b.txt", "dos");
+
+        adjuntoCache.obtener(1L, original.toString(), 3L);
+        Resource resultado = adjuntoCache.obtener(1L, nuevo.toString(), 3L).orElseThrow();
+
+        assertThat(leer(resultado)).isEqualTo("dos");
+    }
+
+    @Test
+    @DisplayName("No debería cachear archivos sobre el umbral ni inexistentes")
+    void noDeberiaCachearArchivosGrandesNiInexistentes() throws IOException {
+        Path grande = escribir("grande.bin", "x".repeat(100));
+
+        assertThat(adjuntoCache.obtener(1L, grande.toString(), 100L)).isEmpty();
+        assertThat(adjuntoCache.obtener(1L, grande.toString(), 10L)).isEmpty();
+        assertThat(adjuntoCache.obtener(2L, tempDir.resolve("nada.txt").toString(), 3L)).isEmpty();
+        assertThat(adjuntoCache.bytesEnUso()).isZero();
+    }
+
+    @Test
+    @DisplayName("Debería descartar la entrada al invalidar y publicarlo en el bus")
+    void deberiaDescartarAlInvalidar() throws IOException {
+        Path archivo = escribir("doc.pdf", "contenido");
+        adjuntoCache.obtener(1L, archivo.toString(), 9L);
+
+        adjuntoCache.invalidar(1L);
+        Files.delete(archivo);
+
+        assertThat(adjuntoCache.obtener(1L, archivo.toString(), 9L)).isEmpty();
+        verify(invalidacionBus).publicar("adjuntos", 1L);
+    }
+
+    @Test
+    @DisplayName("No debería cachear si está deshabilitado")
+    void noDeberiaCachearSiEstaDeshabilitado() throws IOException {
+        AdjuntoCache deshabilitada = new AdjuntoCache(new SimpleMeterRegistry(), invalidacionBus, false, 64, 1024);
+        Path archivo = escribir("logo.png", "contenido");
+
+        assertThat(deshabilitada.obtener(1L, archivo.toString(), 9L)).isEqualTo(Optional.empty());
+    }
+
+    private Path escribir(String nombre, String contenido) throws IOException {
+        return Files.writeString(tempDir.resolve(nombre), contenido);
+    }
+
+    private static String leer(Resource resource) throws IOException {
+        try (InputStream in = resource.getInputStream()) {
+            return new String(in.readAllBytes());
+        }
+    }
+}
@@ -6,6 +6,7 @@ import io.github.jaredmcc4.gtm.domain.Usuario;
 import io.github.jaredmcc4.gtm.exception.ResourceNotFoundException;
 import io.github.jaredmcc4.gtm.exception.UnauthorizedException;
 import io.github.jaredmcc4.gtm.repository.AdjuntoRepository;
+import io.github.jaredmcc4.gtm.repository.TareaRepository;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
@@ -19,6 +20,7 @@ import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
+import org.springframework.core.io.ByteArrayResource;
 import org.springframework.core.io.Resource;
 import org.springframework.mock.web.MockMultipartFile;
 import org.springframework.test.util.ReflectionTestUtils;
@@ -45,6 +47,15 @@ class AdjuntoServiceImplTest {
     @Mock
     private TareaService tareaService;
 
+    @Mock
+    private TareaRepository tareaRepository;
+
+    @Mock
+    private OutboxService outboxService;
+
+    @Mock
+    private AdjuntoCache adjuntoCache;
+
     @InjectMocks
     private AdjuntoServiceImpl adjuntoService;
 
@@ -116,6 +127,7 @@ class AdjuntoServiceImplTest {
 
             assertThat(Files.exists(Paths.get(resultado.getPath()))).isTrue();
             verify(adjuntoRepository).save(any(Adjunto.class));
+            verify(tareaRepository).ajustarContadoresAdjuntos(tarea.getId(), 1, archivo.getSize());
         }
 
         @Test
@@ -231,6 +243,25 @@ class AdjuntoServiceImplTest {
             assertThat(resultado.isReadable()).isTrue();
         }
 
+        @Test
+        @DisplayName("Debería servir desde la cache en memoria si el adjunto está cacheado")
+        void deberiaServirDesdeCache() {
+            Adjunto adjunto = Adjunto.builder()
+                    .id(1L)
+                    .path(tempDir.resolve("1").resolve("logo.png").toString())
+                    .sizeBytes(9L)
+                    .tarea(tarea)
+                    .build();
+            Resource enMemoria = new ByteArrayResource("contenido".getBytes());
+
+            when(adjuntoRepository.findById(1L)).thenReturn(Optional.of(adjunto));
+            when(adjuntoCache.obtener(1L, adjunto.getPath(), 9L)).thenReturn(Optional.of(enMemoria));
+
+            Resource resultado = adjuntoService.descargarAdjunto(1L, 1L);
+
+            assertThat(resultado).isSameAs(enMemoria);
+        }
+
         @Test
         @DisplayName("Debería rechazar adjunto inexistente")
         void deberiaRechazarAdjuntoInexistente() {
@@ -346,6 +377,8 @@ class AdjuntoServiceImplTest {
             adjuntoService.eliminarAdjunto(1L, 1L);
 
             verify(adjuntoRepository).delete(adjunto);
+            verify(tareaRepository).ajustarContadoresAdjuntos(tarea.getId(), -1, 0L);
+            verify(adjuntoCache).invalidar(1L);
             assertThat(Files.exists(filePath)).isFalse();
         }
 
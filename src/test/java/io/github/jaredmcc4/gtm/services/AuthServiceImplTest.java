@@ -8,10 +8,14 @@ import io.github.jaredmcc4.gtm.dto.auth.JwtResponse;
 import io.github.jaredmcc4.gtm.dto.auth.LoginRequest;
 import io.github.jaredmcc4.gtm.dto.auth.RegistroRequest;
 import io.github.jaredmcc4.gtm.exception.ResourceNotFoundException;
+import io.github.jaredmcc4.gtm.exception.ServicioSaturadoException;
 import io.github.jaredmcc4.gtm.repository.RefreshTokenRepository;
 import io.github.jaredmcc4.gtm.repository.RolRepository;
 import io.github.jaredmcc4.gtm.repository.UsuarioRepository;
+import io.github.jaredmcc4.gtm.security.RefreshTokenFirmador;
+import io.github.jaredmcc4.gtm.security.VersionesToken;
 import io.github.jaredmcc4.gtm.util.JwtUtil;
+import io.github.jaredmcc4.gtm.util.TokenHashUtil;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Nested;
@@ -26,11 +30,18 @@ import org.springframework.test.util.ReflectionTestUtils;
 
 import com.github.dockerjava.api.exception.UnauthorizedException;
 
+import java.time.Duration;
+import java.time.Instant;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
 
 import static org.assertj.core.api.Assertions.*;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
 import static org.mockito.ArgumentMatchers.*;
 import static org.mockito.Mockito.*;
 
@@ -47,16 +58,32 @@ public class AuthServiceImplTest {
     @Mock
     private RefreshTokenRepository refreshTokenRepository;
 
+    @Mock
+    private RefreshTokenService refreshTokenService;
+
+    @Mock
+    private RefreshTokenFirmador refreshTokenFirmador;
+
+    @Mock
+    private UsuarioCache usuarioCache;
+
     @Mock
     private PasswordEncoder passwordEncoder;
 
     @Mock
     private JwtUtil jwtUtil;
 
+    @Mock
+    private TurnstileService turnstileService;
+
+    @Mock
+    private VersionesToken versionesToken;
+
     @InjectMocks
     private AuthServiceImpl authService;
 
     private static final String TURNSTILE_TOKEN = "turnstile-test-token";
+    private static final String CLIENT_IP = "203.0.113.7";
 
     private Rol rolUser;
     private Usuario usuario;
@@ -75,6 +102,8 @@ public class AuthServiceImplTest {
                 .conContrasenaHash("$2b$12$RoIfpG6/4G3lPAGqaUr2Iu39pWqwBi0g/WxYOVmaH.Ab9mnsketb.") // contrasena459.
                 .conRol(rolUser)
                 .build();
+        lenient().when(usuarioCache.obtener(eq(1L), any())).thenReturn(usuario);
+        lenient().when(versionesToken.vigente(anyLong(), anyInt())).thenReturn(true);
     }
 
     @Nested
@@ -97,7 +126,7 @@ public class AuthServiceImplTest {
             when(passwordEncoder.encode(request.getPassword())).thenReturn("$2a$12$encoded");
             when(usuarioRepository.save(any(Usuario.class))).thenAnswer(inv -> inv.getArgument(0));
 
-            Usuario resultado = authService.registrarUsuario(request);
+            Usuario resultado = authService.registrarUsuario(request, CLIENT_IP);
 
             assertThat(resultado).isNotNull();
             assertThat(resultado.getEmail()).isEqualTo("nuevo@test.com");
@@ -123,13 +152,100 @@ public class AuthServiceImplTest {
 
             when(usuarioRepository.existsByEmail(request.getEmail())).thenReturn(true);
 
-            assertThatThrownBy(() -> authService.registrarUsuario(request))
+            assertThatThrownBy(() -> authService.registrarUsuario(request, CLIENT_IP))
                     .isInstanceOf(IllegalArgumentException.class)
                     .hasMessageContaining("Ya existe un usuario con el email");
 
             verify(usuarioRepository, never()).save(any());
         }
 
+        @Test
+        @DisplayName("Debería fallar en cuanto el captcha es rechazado y cancelar el hash en curso")
+        void deberiaFallarAlRechazarCaptcha() throws Exception {
+            RegistroRequest request = new RegistroRequest(
+                    "nuevo@test.com",
+                    "password123",
+                    "Usuario",
+                    "America/Costa_Rica",
+                    TURNSTILE_TOKEN
+            );
+            CountDownLatch hashIniciado = new CountDownLatch(1);
+            CountDownLatch hashCancelado = new CountDownLatch(1);
+            CountDownLatch liberarHash = new CountDownLatch(1);
+
+            when(turnstileService.verificarToken(TURNSTILE_TOKEN, CLIENT_IP)).thenAnswer(inv -> {
+                hashIniciado.await(5, TimeUnit.SECONDS);
+                throw new IllegalArgumentException("Verificación de captcha fallida.");
+            });
+            when(passwordEncoder.encode(request.getPassword())).thenAnswer(inv -> {
+                hashIniciado.countDown();
+                try {
+                    liberarHash.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException ex) {
+                    hashCancelado.countDown();
+                    throw ex;
+                }
+                return "$2a$12$encoded";
+            });
+
+            try {
+                assertTimeoutPreemptively(Duration.ofSeconds(2), () ->
+                        assertThatThrownBy(() -> authService.registrarUsuario(request, CLIENT_IP))
+                                .isInstanceOf(IllegalArgumentException.class)
+                                .hasMessageContaining("captcha"));
+            } finally {
+                liberarHash.countDown();
+            }
+            assertThat(hashCancelado.await(2, TimeUnit.SECONDS)).isTrue();
+            verify(usuarioRepository, never()).save(any());
+        }
+
+        @Test
+        @DisplayName("Debería informar el email duplicado solo tras validar el captcha")
+        void deberiaPriorizarCaptchaSobreEmailDuplicado() {
+            RegistroRequest request = new RegistroRequest(
+                    "test@test.com",
+                    "password123",
+                    "Usuario",
+                    "America/Costa_Rica",
+                    TURNSTILE_TOKEN
+            );
+            CountDownLatch emailComprobado = new CountDownLatch(1);
+
+            when(usuarioRepository.existsByEmail(request.getEmail())).thenAnswer(inv -> {
+                emailComprobado.countDown();
+                return true;
+            });
+            when(turnstileService.verificarToken(TURNSTILE_TOKEN, CLIENT_IP)).thenAnswer(inv -> {
+                emailComprobado.await(5, TimeUnit.SECONDS);
+                Thread.sleep(50);
+                throw new IllegalArgumentException("Verificación de captcha fallida.");
+            });
+
+            assertThatThrownBy(() -> authService.registrarUsuario(request, CLIENT_IP))
+                    .isInstanceOf(IllegalArgumentException.class)
+                    .hasMessageContaining("captcha");
+            verify(usuarioRepository, never()).save(any());
+        }
+
+        @Test
+        @DisplayName("Debería dejar de aceptar registros tras cerrar el servicio")
+        void deberiaRechazarRegistroTrasCerrar() {
+            RegistroRequest request = new RegistroRequest(
+                    "nuevo@test.com",
+                    "password123",
+                    "Usuario",
+                    "America/Costa_Rica",
+                    TURNSTILE_TOKEN
+            );
+
+            authService.cerrar();
+
+            assertThatThrownBy(() -> authService.registrarUsuario(request, CLIENT_IP))
+                    .isInstanceOf(RejectedExecutionException.class);
+            verify(passwordEncoder, never()).encode(any());
+        }
+
         @Test
         @DisplayName("Debería lanzar una excepción cuando el rol USER no exista")
         void deberiaLanzarExcepcionSinRolUser() {
@@ -144,7 +260,7 @@ public class AuthServiceImplTest {
             when(usuarioRepository.existsByEmail(request.getEmail())).thenReturn(false);
             when(rolRepository.findByNombreRol("USER")).thenReturn(Optional.empty());
 
-            assertThatThrownBy(() -> authService.registrarUsuario(request))
+            assertThatThrownBy(() -> authService.registrarUsuario(request, CLIENT_IP))
                     .isInstanceOf(ResourceNotFoundException.class)
                     .hasMessageContaining("El rol de usuario no existe.");
             verify(usuarioRepository, never()).save(any());
@@ -165,7 +281,7 @@ public class AuthServiceImplTest {
 
             when(usuarioRepository.findByEmail(request.getEmail())).thenReturn(Optional.of(usuario));
             when(passwordEncoder.matches(request.getPassword(), usuario.getContrasenaHash())).thenReturn(true);
-            when(jwtUtil.generarToken(anyString(), anyLong(), anyList())).thenReturn(jwtToken);
+            when(jwtUtil.generarToken(anyString(), anyLong(), anyList(), anyInt())).thenReturn(jwtToken);
             when(refreshTokenRepository.save(any(RefreshToken.class)))
                     .thenAnswer(inv -> {
                         RefreshToken rt = inv.getArgument(0);
@@ -182,8 +298,48 @@ public class AuthServiceImplTest {
             assertThat(response.getExpiresIn()).isEqualTo(3600000L);
 
             verify(passwordEncoder).matches(request.getPassword(), usuario.getContrasenaHash());
-            verify(jwtUtil).generarToken(usuario.getEmail(), usuario.getId(), List.of("USER"));
+            verify(jwtUtil).generarToken(usuario.getEmail(), usuario.getId(), List.of("USER"), 0);
             verify(refreshTokenRepository).save(any(RefreshToken.class));
+            verify(refreshTokenService).limitarSesionesActivas(usuario.getId());
+        }
+
+        @Test
+        @DisplayName("Debería recalcular y guardar el hash cuando no usa el formato actual")
+        void deberiaRecalcularHashDesactualizado() {
+            LoginRequest request = new LoginRequest("test@test.com", "contrasena459.");
+            String hashAnterior = usuario.getContrasenaHash();
+
+            when(usuarioRepository.findByEmail(request.getEmail())).thenReturn(Optional.of(usuario));
+            when(passwordEncoder.matches(request.getPassword(), hashAnterior)).thenReturn(true);
+            when(passwordEncoder.upgradeEncoding(hashAnterior)).thenReturn(true);
+            when(passwordEncoder.encode(request.getPassword())).thenReturn("{bcrypt}nuevoHash");
+            when(jwtUtil.generarToken(anyString(), anyLong(), anyList(), anyInt())).thenReturn("jwt.token.here");
+            when(refreshTokenRepository.save(any(RefreshToken.class))).thenAnswer(inv -> inv.getArgument(0));
+
+            authService.autenticarUsuario(request);
+
+            assertThat(usuario.getContrasenaHash()).isEqualTo("{bcrypt}nuevoHash");
+            verify(usuarioRepository).save(usuario);
+        }
+
+        @Test
+        @DisplayName("Debería autenticar aunque falle el recálculo del hash")
+        void deberiaAutenticarSiFallaRecalculoHash() {
+            LoginRequest request = new LoginRequest("test@test.com", "contrasena459.");
+            String hashAnterior = usuario.getContrasenaHash();
+
+            when(usuarioRepository.findByEmail(request.getEmail())).thenReturn(Optional.of(usuario));
+            when(passwordEncoder.matches(request.getPassword(), hashAnterior)).thenReturn(true);
+            when(passwordEncoder.upgradeEncoding(hashAnterior)).thenReturn(true);
+            when(passwordEncoder.encode(request.getPassword())).thenThrow(new ServicioSaturadoException("saturado", 2));
+            when(jwtUtil.generarToken(anyString(), anyLong(), anyList(), anyInt())).thenReturn("jwt.token.here");
+            when(refreshTokenRepository.save(any(RefreshToken.class))).thenAnswer(inv -> inv.getArgument(0));
+
+            JwtResponse response = authService.autenticarUsuario(request);
+
+            assertThat(response.getJwtToken()).isEqualTo("jwt.token.here");
+            assertThat(usuario.getContrasenaHash()).isEqualTo(hashAnterior);
+            verify(usuarioRepository, never()).save(any());
         }
 
         @Test
@@ -198,10 +354,23 @@ public class AuthServiceImplTest {
                     .isInstanceOf(BadCredentialsException.class)
                     .hasMessageContaining("Credenciales inválidas");
 
-            verify(jwtUtil, never()).generarToken(anyString(), anyLong(), anyList());
+            verify(jwtUtil, never()).generarToken(anyString(), anyLong(), anyList(), anyInt());
             verify(refreshTokenRepository, never()).save(any());
         }
 
+        @Test
+        @DisplayName("Debería rechazar el login con contraseña de una cuenta creada por login social")
+        void deberiaRechazarCuentaSinContrasena() {
+            LoginRequest request = new LoginRequest("test@test.com", "!oauth");
+            usuario.setContrasenaHash(Usuario.SIN_CONTRASENA);
+            when(usuarioRepository.findByEmail(request.getEmail())).thenReturn(Optional.of(usuario));
+
+            assertThatThrownBy(() -> authService.autenticarUsuario(request))
+                    .isInstanceOf(BadCredentialsException.class)
+                    .hasMessageContaining("Credenciales inválidas");
+            verifyNoInteractions(passwordEncoder);
+        }
+
         @Test
         @DisplayName("Debería rechazar al usuario inactivo")
         void deberiaRechazarUsuarioInactivo() {
@@ -219,7 +388,7 @@ public class AuthServiceImplTest {
                     .isInstanceOf(BadCredentialsException.class)
                     .hasMessageContaining("El usuario no está activo.");
 
-            verify(jwtUtil, never()).generarToken(anyString(), anyLong(), anyList());
+            verify(jwtUtil, never()).generarToken(anyString(), anyLong(), anyList(), anyInt());
         }
 
         @Test
@@ -256,7 +425,7 @@ public class AuthServiceImplTest {
                     .build();
 
             when(refreshTokenRepository.findByToken(refreshTokenValue)).thenReturn(Optional.of(refreshToken));
-            when(jwtUtil.generarToken(anyString(), anyLong(), anyList())).thenReturn(newJwtToken);
+            when(jwtUtil.generarToken(anyString(), anyLong(), anyList(), anyInt())).thenReturn(newJwtToken);
 
             JwtResponse response = authService.refrescarToken(refreshTokenValue);
 
@@ -264,7 +433,48 @@ public class AuthServiceImplTest {
             assertThat(response.getJwtToken()).isEqualTo(newJwtToken);
             assertThat(response.getRefreshToken()).isEqualTo(refreshTokenValue);
 
-            verify(jwtUtil).generarToken(usuario.getEmail(), usuario.getId(), List.of("USER"));
+            verify(jwtUtil).generarToken(usuario.getEmail(), usuario.getId(), List.of("USER"), 0);
+        }
+
+        @Test
+        @DisplayName("Debería buscar por hash sin consultar el valor en texto plano")
+        void deberiaBuscarPorHash() {
+            RefreshToken refreshToken = RefreshToken.builder()
+                    .id(2L)
+                    .usuario(usuario)
+                    .tokenHash(TokenHashUtil.sha256("hashed-refresh-token"))
+                    .expiresAt(LocalDateTime.now().plusDays(30))
+                    .revoked(false)
+                    .build();
+
+            when(refreshTokenRepository.findByTokenHash(TokenHashUtil.sha256("hashed-refresh-token")))
+                    .thenReturn(Optional.of(refreshToken));
+            when(jwtUtil.generarToken(anyString(), anyLong(), anyList(), anyInt())).thenReturn("new.jwt.token");
+
+            JwtResponse response = authService.refrescarToken("hashed-refresh-token");
+
+            assertThat(response.getRefreshToken()).isEqualTo("hashed-refresh-token");
+            verify(refreshTokenRepository, never()).findByToken(anyString());
+        }
+
+        @Test
+        @DisplayName("Debería asignar el hash a un refresh token anterior a V10 y borrar su valor")
+        void deberiaMigrarTokenLegado() {
+            RefreshToken legado = RefreshToken.builder()
+                    .id(3L)
+                    .usuario(usuario)
+                    .token("legacy-refresh-token")
+                    .expiresAt(LocalDateTime.now().plusDays(30))
+                    .revoked(false)
+                    .build();
+
+            when(refreshTokenRepository.findByToken("legacy-refresh-token")).thenReturn(Optional.of(legado));
+            when(jwtUtil.generarToken(anyString(), anyLong(), anyList(), anyInt())).thenReturn("new.jwt.token");
+
+            authService.refrescarToken("legacy-refresh-token");
+
+            assertThat(legado.getTokenHash()).isEqualTo(TokenHashUtil.sha256("legacy-refresh-token"));
+            assertThat(legado.getToken()).isNull();
         }
 
         @Test
@@ -359,6 +569,116 @@ public class AuthServiceImplTest {
         }
     }
 
+    @Nested
+    @DisplayName("Refresh tokens firmados")
+    class RefreshTokenFirmadoTests {
+
+        private static final String TOKEN_FIRMADO = "cabecera.cuerpo.firma";
+
+        @Test
+        @DisplayName("Debería emitir un refresh token firmado sin persistirlo en modo firmado")
+        void deberiaEmitirTokenFirmado() {
+            ReflectionTestUtils.setField(authService, "modoRefreshToken", "firmado");
+            when(jwtUtil.generarToken(anyString(), anyLong(), anyList(), anyInt())).thenReturn("jwt.token");
+            when(refreshTokenFirmador.emitir(1L, 0)).thenReturn(TOKEN_FIRMADO);
+
+            JwtResponse response = authService.emitirTokensParaUsuario(usuario);
+
+            assertThat(response.getRefreshToken()).isEqualTo(TOKEN_FIRMADO);
+            verifyNoInteractions(refreshTokenRepository, refreshTokenService);
+        }
+
+        @Test
+        @DisplayName("Debería refrescar con un token firmado sin consultar refresh_tokens")
+        void deberiaRefrescarConTokenFirmado() {
+            when(refreshTokenFirmador.esFirmado(TOKEN_FIRMADO)).thenReturn(true);
+            when(refreshTokenFirmador.verificar(TOKEN_FIRMADO)).thenReturn(Optional.of(
+                    new RefreshTokenFirmador.Sesion(1L, UUID.randomUUID(), Instant.now().plusSeconds(60), 0)));
+            when(jwtUtil.generarToken(anyString(), anyLong(), anyList(), anyInt())).thenReturn("new.jwt.token");
+
+            JwtResponse response = authService.refrescarToken(TOKEN_FIRMADO);
+
+            assertThat(response.getJwtToken()).isEqualTo("new.jwt.token");
+            assertThat(response.getRefreshToken()).isEqualTo(TOKEN_FIRMADO);
+            verify(jwtUtil).generarToken(usuario.getEmail(), 1L, List.of("USER"), 0);
+            verifyNoInteractions(refreshTokenRepository, usuarioRepository);
+        }
+
+        @Test
+        @DisplayName("Debería emitir los tokens con la versión más reciente conocida del usuario")
+        void deberiaEmitirConVersionVigente() {
+            ReflectionTestUtils.setField(authService, "modoRefreshToken", "firmado");
+            usuario.setTokenVersion(2);
+            when(versionesToken.actual(1L)).thenReturn(3);
+            when(jwtUtil.generarToken(anyString(), anyLong(), anyList(), anyInt())).thenReturn("jwt.token");
+            when(refreshTokenFirmador.emitir(1L, 3)).thenReturn(TOKEN_FIRMADO);
+
+            authService.emitirTokensParaUsuario(usuario);
+
+            verify(jwtUtil).generarToken(usuario.getEmail(), 1L, List.of("USER"), 3);
+            verify(refreshTokenFirmador).emitir(1L, 3);
+        }
+
+        @Test
+        @DisplayName("Debería rechazar un token firmado con una versión anterior a la vigente")
+        void deberiaRechazarTokenFirmadoConVersionAntigua() {
+            when(refreshTokenFirmador.esFirmado(TOKEN_FIRMADO)).thenReturn(true);
+            when(refreshTokenFirmador.verificar(TOKEN_FIRMADO)).thenReturn(Optional.of(
+                    new RefreshTokenFirmador.Sesion(1L, UUID.randomUUID(), Instant.now().plusSeconds(60), 1)));
+            when(versionesToken.vigente(1L, 1)).thenReturn(false);
+
+            assertThatThrownBy(() -> authService.refrescarToken(TOKEN_FIRMADO))
+                    .isInstanceOf(io.github.jaredmcc4.gtm.exception.UnauthorizedException.class);
+            verify(jwtUtil, never()).generarToken(anyString(), anyLong(), anyList(), anyInt());
+        }
+
+        @Test
+        @DisplayName("Debería rechazar un token firmado inválido o revocado")
+        void deberiaRechazarTokenFirmadoRevocado() {
+            when(refreshTokenFirmador.esFirmado(TOKEN_FIRMADO)).thenReturn(true);
+            when(refreshTokenFirmador.verificar(TOKEN_FIRMADO)).thenReturn(Optional.empty());
+
+            assertThatThrownBy(() -> authService.refrescarToken(TOKEN_FIRMADO))
+                    .isInstanceOf(io.github.jaredmcc4.gtm.exception.UnauthorizedException.class);
+            verify(jwtUtil, never()).generarToken(anyString(), anyLong(), anyList(), anyInt());
+        }
+
+        @Test
+        @DisplayName("Debería rechazar el refresco de un usuario inactivo")
+        void deberiaRechazarUsuarioInactivo() {
+            Usuario inactivo = UsuarioTestBuilder.unUsuario().conId(2L).inactivo().build();
+            when(refreshTokenFirmador.esFirmado(TOKEN_FIRMADO)).thenReturn(true);
+            when(refreshTokenFirmador.verificar(TOKEN_FIRMADO)).thenReturn(Optional.of(
+                    new RefreshTokenFirmador.Sesion(2L, UUID.randomUUID(), Instant.now().plusSeconds(60), 0)));
+            when(usuarioCache.obtener(eq(2L), any())).thenReturn(inactivo);
+
+            assertThatThrownBy(() -> authService.refrescarToken(TOKEN_FIRMADO))
+                    .isInstanceOf(io.github.jaredmcc4.gtm.exception.UnauthorizedException.class);
+        }
+
+        @Test
+        @DisplayName("Debería revocar la familia del token firmado al cerrar sesión")
+        void deberiaRevocarTokenFirmado() {
+            when(refreshTokenFirmador.esFirmado(TOKEN_FIRMADO)).thenReturn(true);
+            when(refreshTokenFirmador.revocar(TOKEN_FIRMADO)).thenReturn(true);
+
+            authService.cerrarSesion(TOKEN_FIRMADO);
+
+            verify(refreshTokenFirmador).revocar(TOKEN_FIRMADO);
+            verifyNoInteractions(refreshTokenRepository);
+        }
+
+        @Test
+        @DisplayName("Debería lanzar excepción al cerrar sesión con un token firmado inválido")
+        void deberiaRechazarCierreConTokenFirmadoInvalido() {
+            when(refreshTokenFirmador.esFirmado(TOKEN_FIRMADO)).thenReturn(true);
+            when(refreshTokenFirmador.revocar(TOKEN_FIRMADO)).thenReturn(false);
+
+            assertThatThrownBy(() -> authService.cerrarSesion(TOKEN_FIRMADO))
+                    .isInstanceOf(ResourceNotFoundException.class);
+        }
+    }
+
     @Nested
     @DisplayName("validarToken()")
     class ValidarTokenTests {
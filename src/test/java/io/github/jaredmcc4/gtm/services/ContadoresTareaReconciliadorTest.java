@@ -0,0 +1,85 @@
+package io.github.jaredmcc4.gtm.services;
+
+import io.github.jaredmcc4.gtm.repository.BloqueoProgramadoRepository;
+import io.github.jaredmcc4.gtm.repository.TareaRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("ContadoresTareaReconciliador - Unit Tests")
+class ContadoresTareaReconciliadorTest {
+
+    @Mock
+    private TareaRepository tareaRepository;
+
+    @Mock
+    private BloqueoProgramadoRepository bloqueoRepository;
+
+    private ContadoresTareaReconciliador reconciliador;
+
+    @BeforeEach
+    void setUp() {
+        reconciliador = new ContadoresTareaReconciliador(tareaRepository, bloqueoRepository, 10, 300);
+    }
+
+    @Test
+    @DisplayName("Debería recorrer todas las tareas por rangos de id")
+    void deberiaRecorrerPorRangos() {
+        when(bloqueoRepository.reclamar(eq(ContadoresTareaReconciliador.BLOQUEO), anyString(), any(LocalDateTime.class), any(LocalDateTime.class)))
+                .thenReturn(1);
+        when(tareaRepository.findMaxId()).thenReturn(25L);
+        when(tareaRepository.reconciliarContadores(anyLong(), anyLong())).thenReturn(10, 10, 5);
+
+        long actualizadas = reconciliador.reconciliar();
+
+        assertThat(actualizadas).isEqualTo(25);
+        verify(tareaRepository).reconciliarContadores(1L, 10L);
+        verify(tareaRepository).reconciliarContadores(11L, 20L);
+        verify(tareaRepository).reconciliarContadores(21L, 30L);
+        verify(bloqueoRepository).liberar(eq(ContadoresTareaReconciliador.BLOQUEO), anyString());
+    }
+
+    @Test
+    @DisplayName("No debería hacer nada sin tareas")
+    void noDeberiaHacerNadaSinTareas() {
+        when(bloqueoRepository.reclamar(anyString(), anyString(), any(LocalDateTime.class), any(LocalDateTime.class))).thenReturn(1);
+        when(tareaRepository.findMaxId()).thenReturn(0L);
+
+        assertThat(reconciliador.reconciliar()).isZero();
+        verify(tareaRepository, never()).reconciliarContadores(anyLong(), anyLong());
+    }
+
+    @Test
+    @DisplayName("No debería recorrer las tareas si otro nodo tiene el lease")
+    void noDeberiaEjecutarSinLease() {
+        when(bloqueoRepository.reclamar(anyString(), anyString(), any(LocalDateTime.class), any(LocalDateTime.class))).thenReturn(0);
+
+        assertThat(reconciliador.reconciliar()).isZero();
+        verifyNoInteractions(tareaRepository);
+        verify(bloqueoRepository, never()).liberar(anyString(), anyString());
+    }
+
+    @Test
+    @DisplayName("Debería detenerse si pierde el lease entre lotes")
+    void deberiaDetenerseAlPerderLease() {
+        when(bloqueoRepository.reclamar(anyString(), anyString(), any(LocalDateTime.class), any(LocalDateTime.class))).thenReturn(1, 1, 0);
+        when(tareaRepository.findMaxId()).thenReturn(25L);
+        when(tareaRepository.reconciliarContadores(anyLong(), anyLong())).thenReturn(10);
+
+        assertThat(reconciliador.reconciliar()).isEqualTo(20);
+        verify(tareaRepository, never()).reconciliarContadores(21L, 30L);
+    }
+}
@@ -4,13 +4,16 @@ import io.github.jaredmcc4.gtm.builders.EtiquetaTestBuilder;
 import io.github.jaredmcc4.gtm.builders.UsuarioTestBuilder;
 import io.github.jaredmcc4.gtm.domain.Etiqueta;
 import io.github.jaredmcc4.gtm.domain.Usuario;
+import io.github.jaredmcc4.gtm.invalidacion.InvalidacionBus;
 import io.github.jaredmcc4.gtm.repository.EtiquetaRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 
 import java.util.Optional;
@@ -27,6 +30,12 @@ class EtiquetaServiceImplAdditionalTest {
     @Mock
     private EtiquetaRepository etiquetaRepository;
 
+    @Mock
+    private OutboxService outboxService;
+
+    @Spy
+    private EtiquetaCache etiquetaCache = new EtiquetaCache(new SimpleMeterRegistry(), mock(InvalidacionBus.class), 100, 600);
+
     @InjectMocks
     private EtiquetaServiceImpl etiquetaService;
 
@@ -3,10 +3,13 @@ package io.github.jaredmcc4.gtm.services;
 import io.github.jaredmcc4.gtm.builders.EtiquetaTestBuilder;
 import io.github.jaredmcc4.gtm.builders.UsuarioTestBuilder;
 import io.github.jaredmcc4.gtm.domain.Etiqueta;
+import io.github.jaredmcc4.gtm.domain.OutboxEvento;
 import io.github.jaredmcc4.gtm.domain.Usuario;
 import io.github.jaredmcc4.gtm.exception.DuplicateResourceException;
 import io.github.jaredmcc4.gtm.exception.UnauthorizedException;
+import io.github.jaredmcc4.gtm.invalidacion.InvalidacionBus;
 import io.github.jaredmcc4.gtm.repository.EtiquetaRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Nested;
@@ -14,6 +17,7 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 
 import java.util.List;
@@ -30,6 +34,12 @@ class EtiquetaServiceImplTest {
     @Mock
     private EtiquetaRepository etiquetaRepository;
 
+    @Mock
+    private OutboxService outboxService;
+
+    @Spy
+    private EtiquetaCache etiquetaCache = new EtiquetaCache(new SimpleMeterRegistry(), mock(InvalidacionBus.class), 100, 600);
+
     @InjectMocks
     private EtiquetaServiceImpl etiquetaService;
 
@@ -75,6 +85,7 @@ class EtiquetaServiceImplTest {
             assertThat(resultado.getUsuario()).isEqualTo(usuario);
 
             verify(etiquetaRepository).save(any(Etiqueta.class));
+            verify(outboxService).registrar(1L, OutboxEvento.Agregado.ETIQUETA, 2L, OutboxEvento.Tipo.CREADO, null);
         }
 
         @Test
@@ -159,6 +170,40 @@ class EtiquetaServiceImplTest {
 
             assertThat(resultado).isEmpty();
         }
+
+        @Test
+        @DisplayName("Debería responder lecturas y unicidad desde la cache hasta la siguiente mutación")
+        void deberiaUsarCacheHastaMutacion() {
+            when(etiquetaRepository.findByUsuarioId(1L)).thenReturn(List.of(etiqueta));
+            when(etiquetaRepository.save(any(Etiqueta.class))).thenAnswer(inv -> inv.getArgument(0));
+
+            etiquetaService.obtenerEtiquetasPorUsuarioId(1L);
+            Etiqueta porId = etiquetaService.obtenerEtiquetaPorIdYUsuarioId(etiqueta.getId(), 1L);
+            boolean existe = etiquetaService.existeEtiquetaPorNombreYUsuarioId(etiqueta.getNombre(), 1L);
+
+            assertThat(porId.getNombre()).isEqualTo(etiqueta.getNombre());
+            assertThat(existe).isTrue();
+            verify(etiquetaRepository, never()).findById(any());
+            verify(etiquetaRepository, never()).existsByUsuarioIdAndNombre(anyLong(), any());
+
+            etiquetaService.crearEtiqueta(EtiquetaTestBuilder.unaEtiqueta().conNombre("Nueva").build(), usuario);
+            etiquetaService.obtenerEtiquetasPorUsuarioId(1L);
+
+            verify(etiquetaRepository, times(2)).findByUsuarioId(1L);
+        }
+
+        @Test
+        @DisplayName("Debería detectar desde la cache nombres que solo difieren en mayúsculas, acentos o espacios finales")
+        void deberiaCompararNombresComoLaBaseDeDatos() {
+            Etiqueta cafe = EtiquetaTestBuilder.unaEtiqueta().conId(5L).conNombre("Café").build();
+            when(etiquetaRepository.findByUsuarioId(1L)).thenReturn(List.of(cafe));
+            etiquetaService.obtenerEtiquetasPorUsuarioId(1L);
+
+            assertThat(etiquetaService.existeEtiquetaPorNombreYUsuarioId("CAFE", 1L)).isTrue();
+            assertThat(etiquetaService.existeEtiquetaPorNombreYUsuarioId("café ", 1L)).isTrue();
+            assertThat(etiquetaService.existeEtiquetaPorNombreYUsuarioId("Cafés", 1L)).isFalse();
+            verify(etiquetaRepository, never()).existsByUsuarioIdAndNombre(anyLong(), any());
+        }
     }
 
     @Nested
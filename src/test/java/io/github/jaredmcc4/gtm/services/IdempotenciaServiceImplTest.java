@@ -0,0 +1,224 @@
+package io.github.jaredmcc4.gtm.services;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import io.github.jaredmcc4.gtm.domain.RespuestaIdempotente;
+import io.github.jaredmcc4.gtm.dto.response.ApiResponse;
+import io.github.jaredmcc4.gtm.dto.tarea.TareaDto;
+import io.github.jaredmcc4.gtm.exception.DuplicateResourceException;
+import io.github.jaredmcc4.gtm.repository.RespuestaIdempotenteRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("IdempotenciaService - Unit Tests")
+class IdempotenciaServiceImplTest {
+
+    private static final String OPERACION = "POST /api/v1/tareas";
+    private static final Map<String, String> SOLICITUD = Map.of("titulo", "Nueva");
+
+    @Mock
+    private RespuestaIdempotenteRepository respuestaRepository;
+
+    private IdempotenciaServiceImpl idempotenciaService;
+    private AtomicInteger ejecuciones;
+    private Supplier<ResponseEntity<ApiResponse<TareaDto>>> accion;
+
+    @BeforeEach
+    void setUp() {
+        ObjectMapper objectMapper = new ObjectMapper().registerModule(new JavaTimeModule());
+        idempotenciaService = new IdempotenciaServiceImpl(respuestaRepository, objectMapper, 24, 60, 100);
+        ejecuciones = new AtomicInteger();
+        accion = () -> {
+            ejecuciones.incrementAndGet();
+            return ResponseEntity.status(HttpStatus.CREATED)
+                    .body(ApiResponse.success("Tarea creada exitosamente", TareaDto.builder().id(7L).titulo("Nueva").build()));
+        };
+    }
+
+    @Test
+    @DisplayName("Debería ejecutar sin registrar cuando no hay clave")
+    void deberiaEjecutarSinClave() {
+        ResponseEntity<ApiResponse<TareaDto>> respuesta = idempotenciaService.ejecutar(1L, null, OPERACION, SOLICITUD, TareaDto.class, accion);
+
+        assertThat(respuesta.getStatusCode()).isEqualTo(HttpStatus.CREATED);
+        assertThat(ejecuciones).hasValue(1);
+        verifyNoInteractions(respuestaRepository);
+    }
+
+    @Test
+    @DisplayName("Debería repetir la respuesta original sin volver a ejecutar")
+    void deberiaRepetirRespuesta() {
+        when(respuestaRepository.reservar(eq(1L), eq("k1"), eq(OPERACION), anyString(), anyString(), any(LocalDateTime.class))).thenReturn(1);
+
+        ResponseEntity<ApiResponse<TareaDto>> primera = idempotenciaService.ejecutar(1L, "k1", OPERACION, SOLICITUD, TareaDto.class, accion);
+        ResponseEntity<ApiResponse<TareaDto>> segunda = idempotenciaService.ejecutar(1L, "k1", OPERACION, SOLICITUD, TareaDto.class, accion);
+
+        assertThat(ejecuciones).hasValue(1);
+        assertThat(segunda.getStatusCode()).isEqualTo(primera.getStatusCode());
+        assertThat(segunda.getBody().getData().getId()).isEqualTo(7L);
+        assertThat(segunda.getHeaders().getFirst("Idempotent-Replayed")).isEqualTo("true");
+        verify(respuestaRepository).completar(eq(1L), eq("k1"), anyString(), eq(201), anyString(), any(LocalDateTime.class));
+    }
+
+    @Test
+    @DisplayName("Debería reservar por un plazo corto y extender la vigencia al completar")
+    void deberiaReservarConPlazoCorto() {
+        when(respuestaRepository.reservar(eq(1L), eq("k1"), eq(OPERACION), anyString(), anyString(), any(LocalDateTime.class))).thenReturn(1);
+        LocalDateTime antes = LocalDateTime.now();
+
+        idempotenciaService.ejecutar(1L, "k1", OPERACION, SOLICITUD, TareaDto.class, accion);
+
+        verify(respuestaRepository).reservar(eq(1L), eq("k1"), eq(OPERACION), anyString(), anyString(),
+                argThat(expira -> expira.isBefore(antes.plusMinutes(2))));
+        verify(respuestaRepository).completar(eq(1L), eq("k1"), anyString(), eq(201), anyString(),
+                argThat(expira -> expira.isAfter(antes.plusHours(23))));
+    }
+
+    @Test
+    @DisplayName("Debería reconstruir la respuesta desde la base de datos")
+    void deberiaRepetirDesdeBaseDeDatos() {
+        RespuestaIdempotente guardada = RespuestaIdempotente.builder()
+                .usuarioId(1L)
+                .clave("k2")
+                .operacion(OPERACION)
+                .estadoHttp(201)
+                .cuerpo("{\"success\":true,\"message\":\"Tarea creada exitosamente\",\"data\":{\"id\":9,\"titulo\":\"Otra\"}}")
+                .build();
+        when(respuestaRepository.reservar(eq(1L), eq("k2"), eq(OPERACION), anyString(), anyString(), any(LocalDateTime.class)))
+                .thenThrow(new DataIntegrityViolationException("duplicada"));
+        when(respuestaRepository.findByUsuarioIdAndClave(1L, "k2")).thenReturn(Optional.of(guardada));
+
+        ResponseEntity<ApiResponse<TareaDto>> respuesta = idempotenciaService.ejecutar(1L, "k2", OPERACION, SOLICITUD, TareaDto.class, accion);
+
+        assertThat(ejecuciones).hasValue(0);
+        assertThat(respuesta.getStatusCode().value()).isEqualTo(201);
+        assertThat(respuesta.getBody().getData().getId()).isEqualTo(9L);
+    }
+
+    @Test
+    @DisplayName("Debería responder conflicto si la solicitud original sigue en proceso")
+    void deberiaRechazarSolicitudEnProceso() {
+        RespuestaIdempotente enProceso = RespuestaIdempotente.builder()
+                .usuarioId(1L)
+                .clave("k3")
+                .operacion(OPERACION)
+                .build();
+        when(respuestaRepository.reservar(eq(1L), eq("k3"), eq(OPERACION), anyString(), anyString(), any(LocalDateTime.class)))
+                .thenThrow(new DataIntegrityViolationException("duplicada"));
+        when(respuestaRepository.findByUsuarioIdAndClave(1L, "k3")).thenReturn(Optional.of(enProceso));
+
+        assertThatThrownBy(() -> idempotenciaService.ejecutar(1L, "k3", OPERACION, SOLICITUD, TareaDto.class, accion))
+                .isInstanceOf(DuplicateResourceException.class);
+        assertThat(ejecuciones).hasValue(0);
+    }
+
+    @Test
+    @DisplayName("Debería liberar la clave si la operación falla")
+    void deberiaLiberarClaveSiFalla() {
+        when(respuestaRepository.reservar(eq(1L), eq("k4"), eq(OPERACION), anyString(), anyString(), any(LocalDateTime.class))).thenReturn(1);
+        Supplier<ResponseEntity<ApiResponse<TareaDto>>> fallida = () -> {
+            throw new IllegalArgumentException("Datos invalidos");
+        };
+
+        assertThatThrownBy(() -> idempotenciaService.ejecutar(1L, "k4", OPERACION, SOLICITUD, TareaDto.class, fallida))
+                .isInstanceOf(IllegalArgumentException.class);
+        ArgumentCaptor<String> propietario = ArgumentCaptor.forClass(String.class);
+        verify(respuestaRepository).reservar(eq(1L), eq("k4"), eq(OPERACION), anyString(), propietario.capture(), any(LocalDateTime.class));
+        verify(respuestaRepository).liberar(1L, "k4", propietario.getValue());
+        verify(respuestaRepository, never()).completar(any(), any(), any(), any(), any(), any());
+    }
+
+    @Test
+    @DisplayName("Debería rechazar reutilizar la clave en otra operación")
+    void deberiaRechazarOtraOperacion() {
+        when(respuestaRepository.reservar(eq(1L), eq("k5"), eq(OPERACION), anyString(), anyString(), any(LocalDateTime.class))).thenReturn(1);
+        idempotenciaService.ejecutar(1L, "k5", OPERACION, SOLICITUD, TareaDto.class, accion);
+
+        assertThatThrownBy(() -> idempotenciaService.ejecutar(1L, "k5", "POST /api/v1/adjuntos/tarea/1", SOLICITUD, TareaDto.class, accion))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    @DisplayName("Debería rechazar reutilizar la clave con otro contenido")
+    void deberiaRechazarOtroContenido() {
+        when(respuestaRepository.reservar(eq(1L), eq("k6"), eq(OPERACION), anyString(), anyString(), any(LocalDateTime.class))).thenReturn(1);
+        idempotenciaService.ejecutar(1L, "k6", OPERACION, SOLICITUD, TareaDto.class, accion);
+
+        assertThatThrownBy(() -> idempotenciaService.ejecutar(1L, "k6", OPERACION, Map.of("titulo", "Otra"), TareaDto.class, accion))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("otro contenido");
+        assertThat(ejecuciones).hasValue(1);
+    }
+
+    @Test
+    @DisplayName("Debería completar solo la reserva propia")
+    void deberiaCompletarConElPropietarioDeLaReserva() {
+        when(respuestaRepository.reservar(eq(1L), eq("k7"), eq(OPERACION), anyString(), anyString(), any(LocalDateTime.class))).thenReturn(1);
+
+        idempotenciaService.ejecutar(1L, "k7", OPERACION, SOLICITUD, TareaDto.class, accion);
+
+        ArgumentCaptor<String> propietario = ArgumentCaptor.forClass(String.class);
+        verify(respuestaRepository).reservar(eq(1L), eq("k7"), eq(OPERACION), anyString(), propietario.capture(), any(LocalDateTime.class));
+        verify(respuestaRepository).completar(eq(1L), eq("k7"), eq(propietario.getValue()), eq(201), anyString(), any(LocalDateTime.class));
+    }
+
+    @Test
+    @DisplayName("Debería renovar la reserva mientras la acción sigue en curso")
+    void deberiaRenovarReservaEnCurso() {
+        when(respuestaRepository.reservar(eq(1L), eq("k8"), eq(OPERACION), anyString(), anyString(), any(LocalDateTime.class))).thenReturn(1);
+        Supplier<ResponseEntity<ApiResponse<TareaDto>>> lenta = () -> {
+            idempotenciaService.renovarReservas();
+            return accion.get();
+        };
+
+        idempotenciaService.ejecutar(1L, "k8", OPERACION, SOLICITUD, TareaDto.class, lenta);
+        idempotenciaService.renovarReservas();
+
+        ArgumentCaptor<String> propietario = ArgumentCaptor.forClass(String.class);
+        verify(respuestaRepository).reservar(eq(1L), eq("k8"), eq(OPERACION), anyString(), propietario.capture(), any(LocalDateTime.class));
+        verify(respuestaRepository).renovar(eq(List.of(propietario.getValue())), any(LocalDateTime.class));
+    }
+
+    @Test
+    @DisplayName("No debería liberar la clave si falla guardar la respuesta tras una acción exitosa")
+    void noDeberiaLiberarTrasExito() {
+        when(respuestaRepository.reservar(eq(1L), eq("k9"), eq(OPERACION), anyString(), anyString(), any(LocalDateTime.class))).thenReturn(1);
+        when(respuestaRepository.completar(eq(1L), eq("k9"), anyString(), eq(201), anyString(), any(LocalDateTime.class)))
+                .thenThrow(new IllegalStateException("db caida"))
+                .thenReturn(1);
+
+        ResponseEntity<ApiResponse<TareaDto>> respuesta = idempotenciaService.ejecutar(1L, "k9", OPERACION, SOLICITUD, TareaDto.class, accion);
+
+        assertThat(respuesta.getStatusCode()).isEqualTo(HttpStatus.CREATED);
+        verify(respuestaRepository, never()).liberar(any(), any(), any());
+
+        idempotenciaService.renovarReservas();
+        idempotenciaService.renovarReservas();
+
+        verify(respuestaRepository, times(2)).completar(eq(1L), eq("k9"), anyString(), eq(201), anyString(), any(LocalDateTime.class));
+        verify(respuestaRepository, never()).renovar(any(), any());
+        assertThat(idempotenciaService.ejecutar(1L, "k9", OPERACION, SOLICITUD, TareaDto.class, accion)
+                .getHeaders().getFirst("Idempotent-Replayed")).isEqualTo("true");
+        assertThat(ejecuciones).hasValue(1);
+    }
+}
@@ -0,0 +1,171 @@
+package io.github.jaredmcc4.gtm.services;
+
+import io.github.jaredmcc4.gtm.domain.EventoDominio;
+import io.github.jaredmcc4.gtm.domain.OutboxEvento;
+import io.github.jaredmcc4.gtm.domain.OutboxOffset;
+import io.github.jaredmcc4.gtm.repository.OutboxEventoRepository;
+import io.github.jaredmcc4.gtm.repository.OutboxOffsetRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("OutboxDispatcher - Unit Tests")
+class OutboxDispatcherTest {
+
+    @Mock
+    private OutboxEventoRepository outboxEventoRepository;
+
+    @Mock
+    private OutboxOffsetRepository outboxOffsetRepository;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private SimpleMeterRegistry meterRegistry;
+    private OutboxDispatcher dispatcher;
+    private OutboxOffset offset;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        dispatcher = new OutboxDispatcher(outboxEventoRepository, outboxOffsetRepository, eventPublisher,
+                transactionManager, meterRegistry, 10, 2);
+        offset = OutboxOffset.builder().particion(3).ultimoId(4L).build();
+    }
+
+    @Test
+    @DisplayName("Debería entregar en orden y marcar los eventos entregados")
+    void deberiaEntregarEnOrden() {
+        when(outboxOffsetRepository.reclamar(3)).thenReturn(Optional.of(offset));
+        when(outboxEventoRepository.reclamarPendientes(eq(3), any()))
+                .thenReturn(List.of(evento(5L), evento(6L)));
+
+        int entregados = dispatcher.despacharLote(3);
+
+        assertThat(entregados).isEqualTo(2);
+        assertThat(offset.getUltimoId()).isEqualTo(6L);
+        InOrder orden = inOrder(eventPublisher);
+        orden.verify(eventPublisher).publishEvent(argThat((EventoDominio e) -> e.id() == 5L));
+        orden.verify(eventPublisher).publishEvent(argThat((EventoDominio e) -> e.id() == 6L));
+        verify(outboxEventoRepository).marcarEntregados(eq(List.of(5L, 6L)), any());
+        verify(outboxOffsetRepository).save(offset);
+        assertThat(meterRegistry.counter("gtm.outbox.despachados").count()).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("Debería detener la partición ante un fallo y descartar tras agotar los intentos")
+    void deberiaReintentarYDescartar() {
+        when(outboxOffsetRepository.reclamar(3)).thenReturn(Optional.of(offset));
+        when(outboxEventoRepository.reclamarPendientes(eq(3), any()))
+                .thenReturn(List.of(evento(5L), evento(6L)));
+        doThrow(new IllegalStateException("listener caido"))
+                .when(eventPublisher).publishEvent(argThat((EventoDominio e) -> e != null && e.id() == 5L));
+
+        assertThat(dispatcher.despacharLote(3)).isZero();
+        assertThat(offset.getUltimoId()).isEqualTo(4L);
+        verify(outboxEventoRepository, never()).marcarEntregados(any(), any());
+        verify(outboxOffsetRepository, never()).save(any());
+
+        assertThat(dispatcher.despacharLote(3)).isEqualTo(2);
+        assertThat(offset.getUltimoId()).isEqualTo(6L);
+        verify(outboxEventoRepository).marcarEntregados(eq(List.of(5L, 6L)), any());
+        assertThat(meterRegistry.counter("gtm.outbox.descartados").count()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Debería guardar los intentos en el evento para que otro nodo los continúe")
+    void deberiaContinuarIntentosGuardadosEnElEvento() {
+        OutboxEvento fallido = evento(5L);
+        fallido.setIntentos(1);
+        when(outboxOffsetRepository.reclamar(3)).thenReturn(Optional.of(offset));
+        when(outboxEventoRepository.reclamarPendientes(eq(3), any())).thenReturn(List.of(fallido));
+        doThrow(new IllegalStateException("listener caido")).when(eventPublisher).publishEvent(any(EventoDominio.class));
+        OutboxDispatcher otroNodo = new OutboxDispatcher(outboxEventoRepository, outboxOffsetRepository, eventPublisher,
+                transactionManager, meterRegistry, 10, 3);
+
+        assertThat(otroNodo.despacharLote(3)).isZero();
+        assertThat(fallido.getIntentos()).isEqualTo(2);
+
+        assertThat(otroNodo.despacharLote(3)).isEqualTo(1);
+        assertThat(fallido.getIntentos()).isEqualTo(3);
+        verify(outboxEventoRepository).marcarEntregados(eq(List.of(5L)), any());
+    }
+
+    @Test
+    @DisplayName("Debería entregar cada evento en una transacción propia")
+    void deberiaAislarCadaEntrega() {
+        when(outboxOffsetRepository.reclamar(3)).thenReturn(Optional.of(offset));
+        when(outboxEventoRepository.reclamarPendientes(eq(3), any()))
+                .thenReturn(List.of(evento(5L), evento(6L)));
+
+        dispatcher.despacharLote(3);
+
+        verify(transactionManager, times(2)).getTransaction(argThat(definicion -> definicion != null
+                && definicion.getPropagationBehavior() == TransactionDefinition.PROPAGATION_REQUIRES_NEW));
+    }
+
+    @Test
+    @DisplayName("No debería leer eventos si otra instancia tiene la partición")
+    void deberiaOmitirParticionTomada() {
+        when(outboxOffsetRepository.reclamar(3)).thenReturn(Optional.empty());
+
+        assertThat(dispatcher.despacharLote(3)).isZero();
+        verifyNoInteractions(outboxEventoRepository, eventPublisher);
+    }
+
+    @Test
+    @DisplayName("Debería entregar un evento confirmado tarde con id menor al último entregado")
+    void deberiaEntregarEventoConfirmadoTarde() {
+        offset.setUltimoId(9L);
+        when(outboxOffsetRepository.reclamar(3)).thenReturn(Optional.of(offset));
+        when(outboxEventoRepository.reclamarPendientes(eq(3), any())).thenReturn(List.of(evento(7L)));
+
+        assertThat(dispatcher.despacharLote(3)).isEqualTo(1);
+        verify(eventPublisher).publishEvent(argThat((EventoDominio e) -> e.id() == 7L));
+        verify(outboxEventoRepository).marcarEntregados(eq(List.of(7L)), any());
+        assertThat(offset.getUltimoId()).isEqualTo(9L);
+    }
+
+    @Test
+    @DisplayName("La pasada rápida solo debería despachar tras una notificación")
+    void deberiaDespacharSoloTrasNotificacion() {
+        dispatcher.despacharNotificados();
+        verifyNoInteractions(outboxOffsetRepository);
+
+        dispatcher.notificar();
+        dispatcher.despacharNotificados();
+        dispatcher.despacharNotificados();
+
+        verify(outboxOffsetRepository, times(OutboxService.PARTICIONES)).reclamar(anyInt());
+    }
+
+    private OutboxEvento evento(Long id) {
+        return OutboxEvento.builder()
+                .id(id)
+                .usuarioId(3L)
+                .particion(3)
+                .agregado(OutboxEvento.Agregado.TAREA)
+                .agregadoId(id * 10)
+                .tipo(OutboxEvento.Tipo.ACTUALIZADO)
+                .build();
+    }
+}
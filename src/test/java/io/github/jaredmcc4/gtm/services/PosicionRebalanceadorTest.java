@@ -0,0 +1,76 @@
+package io.github.jaredmcc4.gtm.services;
+
+import io.github.jaredmcc4.gtm.repository.SubtareaRepository;
+import io.github.jaredmcc4.gtm.repository.TareaRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("PosicionRebalanceador - Unit Tests")
+class PosicionRebalanceadorTest {
+
+    @Mock
+    private TareaRepository tareaRepository;
+
+    @Mock
+    private SubtareaRepository subtareaRepository;
+
+    @Mock
+    private VersionDatosService versionDatosService;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private PosicionRebalanceador rebalanceador;
+
+    @BeforeEach
+    void setUp() {
+        rebalanceador = new PosicionRebalanceador(tareaRepository, subtareaRepository, versionDatosService, transactionManager, 24);
+    }
+
+    @Test
+    @DisplayName("Debería reasignar claves equiespaciadas conservando el orden")
+    void deberiaReasignarClaves() {
+        when(tareaRepository.findIdsOrdenadosPorPosicion(1L)).thenReturn(List.of(7L, 3L, 9L));
+
+        int total = rebalanceador.rebalancearTareas(1L);
+
+        assertThat(total).isEqualTo(3);
+        verify(tareaRepository).actualizarPosicion(7L, "00001");
+        verify(tareaRepository).actualizarPosicion(3L, "00002");
+        verify(tareaRepository).actualizarPosicion(9L, "00003");
+        InOrder orden = inOrder(versionDatosService, tareaRepository);
+        orden.verify(versionDatosService).bloquear(1L);
+        orden.verify(tareaRepository).findIdsOrdenadosPorPosicion(1L);
+        orden.verify(versionDatosService).incrementar(1L);
+    }
+
+    @Test
+    @DisplayName("Solo debería rebalancear padres con claves por encima del umbral")
+    void deberiaRebalancearSoloPadresMarcados() {
+        when(subtareaRepository.findIdsOrdenadosPorPosicion(5L)).thenReturn(List.of(1L));
+
+        rebalanceador.revisarTareas(1L, "00001i");
+        rebalanceador.revisarSubtareas(2L, 5L, "0".repeat(24) + "1");
+        rebalanceador.rebalancearPendientes();
+        rebalanceador.rebalancearPendientes();
+
+        verify(tareaRepository, never()).findIdsOrdenadosPorPosicion(any());
+        verify(subtareaRepository, times(1)).findIdsOrdenadosPorPosicion(5L);
+        verify(subtareaRepository).actualizarPosicion(1L, "00001");
+        verify(versionDatosService).bloquear(2L);
+        verify(versionDatosService, never()).incrementar(any());
+    }
+}
@@ -0,0 +1,89 @@
+package io.github.jaredmcc4.gtm.services;
+
+import io.github.jaredmcc4.gtm.repository.BloqueoProgramadoRepository;
+import io.github.jaredmcc4.gtm.repository.RefreshTokenRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Limit;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("RefreshTokenPurgador - Unit Tests")
+class RefreshTokenPurgadorTest {
+
+    @Mock
+    private RefreshTokenRepository refreshTokenRepository;
+
+    @Mock
+    private BloqueoProgramadoRepository bloqueoRepository;
+
+    private SimpleMeterRegistry meterRegistry;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+    }
+
+    private RefreshTokenPurgador purgador() {
+        return new RefreshTokenPurgador(refreshTokenRepository, bloqueoRepository, meterRegistry, 2, 300);
+    }
+
+    @Test
+    @DisplayName("Debería eliminar por lotes de ids avanzando desde el último procesado")
+    void deberiaEliminarPorLotes() {
+        when(bloqueoRepository.reclamar(eq(RefreshTokenPurgador.BLOQUEO), anyString(), any(), any())).thenReturn(1);
+        when(refreshTokenRepository.findIdsPurgables(eq(0L), any(LocalDateTime.class), eq(Limit.of(2))))
+                .thenReturn(List.of(3L, 5L));
+        when(refreshTokenRepository.findIdsPurgables(eq(5L), any(LocalDateTime.class), eq(Limit.of(2))))
+                .thenReturn(List.of(8L, 9L));
+        when(refreshTokenRepository.findIdsPurgables(eq(9L), any(LocalDateTime.class), eq(Limit.of(2))))
+                .thenReturn(List.of(12L));
+        when(refreshTokenRepository.eliminarPorIds(any())).thenReturn(2, 2, 1);
+        when(refreshTokenRepository.count()).thenReturn(40L);
+
+        long eliminados = purgador().purgar();
+
+        assertThat(eliminados).isEqualTo(5);
+        verify(refreshTokenRepository).eliminarPorIds(List.of(3L, 5L));
+        verify(refreshTokenRepository).eliminarPorIds(List.of(8L, 9L));
+        verify(refreshTokenRepository).eliminarPorIds(List.of(12L));
+        assertThat(meterRegistry.counter("gtm.refresh-tokens.purgados").count()).isEqualTo(5);
+        assertThat(meterRegistry.get("gtm.refresh-tokens.filas").gauge().value()).isEqualTo(40);
+        verify(bloqueoRepository).liberar(eq(RefreshTokenPurgador.BLOQUEO), anyString());
+    }
+
+    @Test
+    @DisplayName("No debería recorrer la tabla si otro nodo tiene el lease")
+    void noDeberiaPurgarSinLease() {
+        when(bloqueoRepository.reclamar(eq(RefreshTokenPurgador.BLOQUEO), anyString(), any(), any())).thenReturn(0);
+
+        assertThat(purgador().purgar()).isZero();
+        verifyNoInteractions(refreshTokenRepository);
+        verify(bloqueoRepository, never()).liberar(anyString(), anyString());
+    }
+
+    @Test
+    @DisplayName("No debería borrar nada si no hay tokens purgables")
+    void noDeberiaBorrarSinPurgables() {
+        when(bloqueoRepository.reclamar(eq(RefreshTokenPurgador.BLOQUEO), anyString(), any(), any())).thenReturn(1);
+        when(refreshTokenRepository.findIdsPurgables(anyLong(), any(LocalDateTime.class), any(Limit.class)))
+                .thenReturn(List.of());
+
+        assertThat(purgador().purgar()).isZero();
+        verify(refreshTokenRepository, never()).eliminarPorIds(any());
+    }
+}
@@ -4,6 +4,7 @@ import io.github.jaredmcc4.gtm.builders.UsuarioTestBuilder;
 import io.github.jaredmcc4.gtm.domain.RefreshToken;
 import io.github.jaredmcc4.gtm.domain.Usuario;
 import io.github.jaredmcc4.gtm.repository.RefreshTokenRepository;
+import io.github.jaredmcc4.gtm.util.TokenHashUtil;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Nested;
@@ -12,12 +13,15 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
 
 import java.time.LocalDateTime;
+import java.util.List;
 import java.util.Optional;
 
 import static org.assertj.core.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -27,6 +31,9 @@ class RefreshTokenServiceImplTest {
     @Mock
     private RefreshTokenRepository refreshTokenRepository;
 
+    @Mock
+    private RefreshTokenPurgador refreshTokenPurgador;
+
     @InjectMocks
     private RefreshTokenServiceImpl refreshTokenService;
 
@@ -50,8 +57,10 @@ class RefreshTokenServiceImplTest {
             RefreshToken resultado = refreshTokenService.crearRefreshToken(usuario, 1440); // 24h
 
             assertThat(resultado).isNotNull();
-            assertThat(resultado.getToken()).isNotNull();
-            assertThat(resultado.getToken()).hasSize(36); // UUID length
+            assertThat(resultado.getValor()).isNotNull();
+            assertThat(resultado.getValor()).hasSize(36); // UUID length
+            assertThat(resultado.getTokenHash()).isEqualTo(TokenHashUtil.sha256(resultado.getValor()));
+            assertThat(resultado.getToken()).isNull();
             assertThat(resultado.getUsuario()).isEqualTo(usuario);
             assertThat(resultado.getExpiresAt()).isAfter(LocalDateTime.now());
             assertThat(resultado.getRevoked()).isFalse();
@@ -83,6 +92,25 @@ class RefreshTokenServiceImplTest {
             assertThat(resultado.get()).isEqualTo(token);
         }
 
+        @Test
+        @DisplayName("Debería encontrar el token por su hash")
+        void deberiaValidarPorHash() {
+            RefreshToken token = RefreshToken.builder()
+                    .tokenHash(TokenHashUtil.sha256("hashed-token"))
+                    .usuario(usuario)
+                    .expiresAt(LocalDateTime.now().plusDays(1))
+                    .revoked(false)
+                    .build();
+
+            when(refreshTokenRepository.findByTokenHashAndRevokedFalse(TokenHashUtil.sha256("hashed-token")))
+                    .thenReturn(Optional.of(token));
+
+            Optional<RefreshToken> resultado = refreshTokenService.validarRefreshToken("hashed-token");
+
+            assertThat(resultado).containsSame(token);
+            verify(refreshTokenRepository, never()).findByTokenAndRevokedFalse(any());
+        }
+
         @Test
         @DisplayName("Debería rechazar token expirado")
         void deberiaRechazarTokenExpirado() {
@@ -156,15 +184,54 @@ class RefreshTokenServiceImplTest {
     class LimpiarTokensExpiradosTests {
 
         @Test
-        @DisplayName("Debería eliminar tokens expirados")
+        @DisplayName("Debería eliminar tokens expirados en lotes")
         void deberiaEliminarTokensExpirados() {
-            doNothing().when(refreshTokenRepository)
-                    .deleteExpiredTokens(any(LocalDateTime.class));
+            when(refreshTokenPurgador.purgar()).thenReturn(3L);
 
             assertThatCode(() -> refreshTokenService.limpiarRefreshTokensExpirados())
                     .doesNotThrowAnyException();
 
-            verify(refreshTokenRepository).deleteExpiredTokens(any(LocalDateTime.class));
+            verify(refreshTokenPurgador).purgar();
+        }
+    }
+
+    @Nested
+    @DisplayName("limitarSesionesActivas()")
+    class LimitarSesionesActivasTests {
+
+        @Test
+        @DisplayName("Debería revocar las sesiones más antiguas por encima del máximo")
+        void deberiaRevocarSesionesAntiguas() {
+            ReflectionTestUtils.setField(refreshTokenService, "maxSesiones", 2);
+            when(refreshTokenRepository.findIdsActivosPorUsuario(eq(1L), any(LocalDateTime.class)))
+                    .thenReturn(List.of(9L, 7L, 4L, 2L));
+            when(refreshTokenRepository.revocarPorIds(List.of(4L, 2L))).thenReturn(2);
+
+            assertThat(refreshTokenService.limitarSesionesActivas(1L)).isEqualTo(2);
+
+            verify(refreshTokenRepository).revocarPorIds(List.of(4L, 2L));
+        }
+
+        @Test
+        @DisplayName("No debería revocar si no se supera el máximo")
+        void noDeberiaRevocarDentroDelMaximo() {
+            ReflectionTestUtils.setField(refreshTokenService, "maxSesiones", 2);
+            when(refreshTokenRepository.findIdsActivosPorUsuario(eq(1L), any(LocalDateTime.class)))
+                    .thenReturn(List.of(9L, 7L));
+
+            assertThat(refreshTokenService.limitarSesionesActivas(1L)).isZero();
+
+            verify(refreshTokenRepository, never()).revocarPorIds(any());
+        }
+
+        @Test
+        @DisplayName("No debería consultar sesiones con el límite desactivado")
+        void noDeberiaConsultarSinLimite() {
+            ReflectionTestUtils.setField(refreshTokenService, "maxSesiones", 0);
+
+            assertThat(refreshTokenService.limitarSesionesActivas(1L)).isZero();
+
+            verifyNoInteractions(refreshTokenRepository);
         }
     }
 }
\ No newline at end of file
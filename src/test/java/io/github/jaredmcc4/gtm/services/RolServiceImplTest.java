@@ -32,6 +32,9 @@ class RolServiceImplTest {
     @Mock
     private UsuarioRepository usuarioRepository;
 
+    @Mock
+    private UsuarioCache usuarioCache;
+
     @InjectMocks
     private RolServiceImpl rolService;
 
@@ -96,6 +99,7 @@ class RolServiceImplTest {
             rolService.asignarRol(10L, "USER");
 
             verify(usuarioRepository).save(usuario);
+            verify(usuarioCache).invalidar(10L);
             assertThat(usuario.getRoles()).contains(rol);
         }
 
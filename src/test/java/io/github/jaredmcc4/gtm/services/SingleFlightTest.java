@@ -0,0 +1,155 @@
+package io.github.jaredmcc4.gtm.services;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@DisplayName("SingleFlight - Unit Tests")
+class SingleFlightTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private ExecutorService executor;
+    private AtomicInteger calculos;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        executor = Executors.newFixedThreadPool(4);
+        calculos = new AtomicInteger();
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    @DisplayName("Debería compartir un solo cálculo entre llamadas concurrentes idénticas")
+    void deberiaCompartirCalculo() throws Exception {
+        SingleFlight singleFlight = new SingleFlight(meterRegistry, true, 5000);
+        CountDownLatch liberar = new CountDownLatch(1);
+
+        Future<String> lider = executor.submit(() -> singleFlight.ejecutar(1L, "estadisticas", List.of(), () -> {
+            calculos.incrementAndGet();
+            esperar(liberar);
+            return "resultado";
+        }));
+        esperarHasta(() -> singleFlight.enCurso() == 1);
+
+        List<Future<String>> seguidores = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            seguidores.add(executor.submit(() -> singleFlight.ejecutar(1L, "estadisticas", List.of(), () -> {
+                calculos.incrementAndGet();
+                return "otro";
+            })));
+        }
+        esperarHasta(() -> meterRegistry.get("gtm.single-flight.colapsadas").counter().count() == 3);
+        liberar.countDown();
+
+        assertThat(lider.get(5, TimeUnit.SECONDS)).isEqualTo("resultado");
+        for (Future<String> seguidor : seguidores) {
+            assertThat(seguidor.get(5, TimeUnit.SECONDS)).isEqualTo("resultado");
+        }
+        assertThat(calculos).hasValue(1);
+        assertThat(meterRegistry.get("gtm.single-flight.ejecuciones").counter().count()).isEqualTo(1);
+        assertThat(singleFlight.enCurso()).isZero();
+    }
+
+    @Test
+    @DisplayName("No debería agrupar llamadas de distinto usuario o argumentos")
+    void noDeberiaAgruparClavesDistintas() {
+        SingleFlight singleFlight = new SingleFlight(meterRegistry, true, 5000);
+
+        singleFlight.ejecutar(1L, "tareas", List.of(10), calculos::incrementAndGet);
+        singleFlight.ejecutar(2L, "tareas", List.of(10), calculos::incrementAndGet);
+        singleFlight.ejecutar(1L, "tareas", List.of(20), calculos::incrementAndGet);
+
+        assertThat(calculos).hasValue(3);
+        assertThat(meterRegistry.get("gtm.single-flight.colapsadas").counter().count()).isZero();
+    }
+
+    @Test
+    @DisplayName("Debería calcular por su cuenta si la espera se agota")
+    void deberiaCalcularSiSeAgotaLaEspera() throws Exception {
+        SingleFlight singleFlight = new SingleFlight(meterRegistry, true, 50);
+        CountDownLatch liberar = new CountDownLatch(1);
+
+        Future<String> lider = executor.submit(() -> singleFlight.ejecutar(1L, "proximas-vencer", List.of(7), () -> {
+            esperar(liberar);
+            return "lento";
+        }));
+        esperarHasta(() -> singleFlight.enCurso() == 1);
+
+        String propio = singleFlight.ejecutar(1L, "proximas-vencer", List.of(7), () -> "propio");
+        liberar.countDown();
+
+        assertThat(propio).isEqualTo("propio");
+        assertThat(lider.get(5, TimeUnit.SECONDS)).isEqualTo("lento");
+        assertThat(meterRegistry.get("gtm.single-flight.esperas-agotadas").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Debería propagar el error del cálculo compartido a quienes esperaban")
+    void deberiaPropagarError() throws Exception {
+        SingleFlight singleFlight = new SingleFlight(meterRegistry, true, 5000);
+        CountDownLatch liberar = new CountDownLatch(1);
+
+        Future<Object> lider = executor.submit(() -> singleFlight.ejecutar(1L, "estadisticas", List.of(), () -> {
+            esperar(liberar);
+            throw new IllegalStateException("fallo");
+        }));
+        esperarHasta(() -> singleFlight.enCurso() == 1);
+        Future<Object> seguidor = executor.submit(() -> singleFlight.ejecutar(1L, "estadisticas", List.of(), () -> "otro"));
+        esperarHasta(() -> meterRegistry.get("gtm.single-flight.colapsadas").counter().count() == 1);
+        liberar.countDown();
+
+        assertThatThrownBy(() -> lider.get(5, TimeUnit.SECONDS)).isInstanceOf(ExecutionException.class)
+                .hasCauseInstanceOf(IllegalStateException.class);
+        assertThatThrownBy(() -> seguidor.get(5, TimeUnit.SECONDS)).isInstanceOf(ExecutionException.class)
+                .hasRootCauseMessage("fallo");
+        assertThat(singleFlight.enCurso()).isZero();
+    }
+
+    @Test
+    @DisplayName("Debería ejecutar directamente si está deshabilitado")
+    void deberiaEjecutarDirectoSiEstaDeshabilitado() {
+        SingleFlight singleFlight = new SingleFlight(meterRegistry, false, 5000);
+
+        singleFlight.ejecutar(1L, "estadisticas", List.of(), calculos::incrementAndGet);
+
+        assertThat(calculos).hasValue(1);
+        assertThat(meterRegistry.get("gtm.single-flight.ejecuciones").counter().count()).isZero();
+    }
+
+    private static void esperar(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void esperarHasta(BooleanSupplier condicion) throws InterruptedException {
+        long limite = System.currentTimeMillis() + 5000;
+        while (!condicion.getAsBoolean() && System.currentTimeMillis() < limite) {
+            Thread.sleep(5);
+        }
+        assertThat(condicion.getAsBoolean()).isTrue();
+    }
+}
@@ -0,0 +1,168 @@
+package io.github.jaredmcc4.gtm.services;
+
+import io.github.jaredmcc4.gtm.builders.UsuarioTestBuilder;
+import io.github.jaredmcc4.gtm.config.OAuthProviderProperties;
+import io.github.jaredmcc4.gtm.domain.Rol;
+import io.github.jaredmcc4.gtm.domain.Usuario;
+import io.github.jaredmcc4.gtm.domain.UsuarioIdentidad;
+import io.github.jaredmcc4.gtm.dto.auth.JwtResponse;
+import io.github.jaredmcc4.gtm.dto.auth.OAuthProvider;
+import io.github.jaredmcc4.gtm.dto.auth.SocialLoginRequest;
+import io.github.jaredmcc4.gtm.repository.RolRepository;
+import io.github.jaredmcc4.gtm.repository.UsuarioIdentidadRepository;
+import io.github.jaredmcc4.gtm.repository.UsuarioRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.client.ExpectedCount;
+import org.springframework.test.web.client.MockRestServiceServer;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.web.client.RestClient;
+
+import java.util.Optional;
+import java.util.concurrent.RejectedExecutionException;
+
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.header;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.requestTo;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withStatus;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withSuccess;
+
+@DisplayName("SocialAuthServiceImpl - Unit Tests")
+class SocialAuthServiceImplTest {
+
+    private static final String PERFIL_URI = "https://api.github.com/user";
+    private static final String EMAILS_URI = "https://api.github.com/user/emails";
+
+    private UsuarioRepository usuarioRepository;
+    private RolRepository rolRepository;
+    private UsuarioIdentidadRepository usuarioIdentidadRepository;
+    private AuthService authService;
+    private MockRestServiceServer servidor;
+    private SocialAuthServiceImpl socialAuthService;
+
+    @BeforeEach
+    void setUp() {
+        OAuthProviderProperties properties = new OAuthProviderProperties();
+        properties.getGithub().setClientId("client-id");
+        properties.getGithub().setClientSecret("client-secret");
+        usuarioRepository = mock(UsuarioRepository.class);
+        rolRepository = mock(RolRepository.class);
+        usuarioIdentidadRepository = mock(UsuarioIdentidadRepository.class);
+        authService = mock(AuthService.class);
+        when(authService.emitirTokensParaUsuario(any())).thenReturn(JwtResponse.builder().jwtToken("jwt").build());
+
+        RestClient.Builder builder = RestClient.builder();
+        servidor = MockRestServiceServer.bindTo(builder).ignoreExpectOrder(true).build();
+        socialAuthService = new SocialAuthServiceImpl(properties, usuarioRepository, rolRepository,
+                usuarioIdentidadRepository, authService, builder, mock(PlatformTransactionManager.class));
+    }
+
+    @Test
+    @DisplayName("Debería crear la cuenta sin contraseña y vincular la identidad con el email privado de GitHub")
+    void deberiaCrearCuentaConEmailPrivado() {
+        servidor.expect(requestTo(PERFIL_URI)).andExpect(header("Authorization", "token gh-token"))
+                .andRespond(withSuccess("{\"id\":42,\"login\":\"octo\",\"email\":null}", MediaType.APPLICATION_JSON));
+        servidor.expect(requestTo(EMAILS_URI))
+                .andRespond(withSuccess("[{\"email\":\"otro@example.com\",\"primary\":false},"
+                        + "{\"email\":\"octo@example.com\",\"primary\":true}]", MediaType.APPLICATION_JSON));
+        when(usuarioIdentidadRepository.findUsuario("GITHUB", "42")).thenReturn(Optional.empty());
+        when(usuarioRepository.findByEmail("octo@example.com")).thenReturn(Optional.empty());
+        when(rolRepository.findByNombreRol("USER")).thenReturn(Optional.of(new Rol(1L, "USER")));
+        when(usuarioRepository.save(any(Usuario.class))).thenAnswer(inv -> inv.getArgument(0));
+
+        socialAuthService.login(solicitud());
+
+        servidor.verify();
+        verify(usuarioRepository).save(argThat(usuario -> usuario.getEmail().equals("octo@example.com")
+                && usuario.getNombreUsuario().equals("octo")
+                && Usuario.SIN_CONTRASENA.equals(usuario.getContrasenaHash())
+                && !usuario.tieneContrasena()));
+        verify(usuarioIdentidadRepository).save(argThat((UsuarioIdentidad identidad) -> identidad.getProveedor().equals("GITHUB")
+                && identidad.getSujeto().equals("42")
+                && identidad.getUsuario().getEmail().equals("octo@example.com")));
+    }
+
+    @Test
+    @DisplayName("Debería entrar por la identidad vinculada sin buscar por email")
+    void deberiaEntrarPorIdentidadVinculada() {
+        Usuario vinculado = UsuarioTestBuilder.unUsuario().conId(3L).conEmail("antiguo@example.com").build();
+        servidor.expect(requestTo(PERFIL_URI))
+                .andRespond(withSuccess("{\"id\":42,\"login\":\"octo\",\"email\":\"nuevo@example.com\"}",
+                        MediaType.APPLICATION_JSON));
+        servidor.expect(ExpectedCount.between(0, 1), requestTo(EMAILS_URI)).andRespond(withStatus(HttpStatus.FORBIDDEN));
+        when(usuarioIdentidadRepository.findUsuario("GITHUB", "42")).thenReturn(Optional.of(vinculado));
+
+        socialAuthService.login(solicitud());
+
+        verify(authService).emitirTokensParaUsuario(vinculado);
+        verify(usuarioRepository, never()).findByEmail(anyString());
+        verify(usuarioIdentidadRepository, never()).save(any());
+    }
+
+    @Test
+    @DisplayName("Debería vincular la identidad a una cuenta existente con el mismo email")
+    void deberiaVincularCuentaExistente() {
+        Usuario existente = UsuarioTestBuilder.unUsuario().conId(5L).conEmail("octo@example.com").build();
+        servidor.expect(requestTo(PERFIL_URI))
+                .andRespond(withSuccess("{\"id\":42,\"name\":\"Octo\",\"email\":\"octo@example.com\"}",
+                        MediaType.APPLICATION_JSON));
+        servidor.expect(ExpectedCount.between(0, 1), requestTo(EMAILS_URI))
+                .andRespond(withSuccess("[]", MediaType.APPLICATION_JSON));
+        when(usuarioIdentidadRepository.findUsuario("GITHUB", "42")).thenReturn(Optional.empty());
+        when(usuarioRepository.findByEmail("octo@example.com")).thenReturn(Optional.of(existente));
+
+        socialAuthService.login(solicitud());
+
+        verify(usuarioRepository, never()).save(any());
+        verify(usuarioIdentidadRepository).save(argThat((UsuarioIdentidad identidad) -> identidad.getUsuario() == existente));
+        verify(authService).emitirTokensParaUsuario(existente);
+    }
+
+    @Test
+    @DisplayName("Debería releer la identidad si otro primer login simultáneo la vinculó antes")
+    void deberiaReleerIdentidadCreadaEnParalelo() {
+        Usuario creadoEnParalelo = UsuarioTestBuilder.unUsuario().conId(8L).conEmail("octo@example.com").build();
+        servidor.expect(requestTo(PERFIL_URI))
+                .andRespond(withSuccess("{\"id\":42,\"login\":\"octo\",\"email\":\"octo@example.com\"}",
+                        MediaType.APPLICATION_JSON));
+        servidor.expect(ExpectedCount.between(0, 1), requestTo(EMAILS_URI))
+                .andRespond(withSuccess("[]", MediaType.APPLICATION_JSON));
+        when(usuarioIdentidadRepository.findUsuario("GITHUB", "42"))
+                .thenReturn(Optional.empty())
+                .thenReturn(Optional.of(creadoEnParalelo));
+        when(usuarioRepository.findByEmail("octo@example.com")).thenReturn(Optional.empty());
+        when(rolRepository.findByNombreRol("USER")).thenReturn(Optional.of(new Rol(1L, "USER")));
+        when(usuarioRepository.save(any(Usuario.class)))
+                .thenThrow(new DataIntegrityViolationException("Duplicate entry 'octo@example.com'"));
+
+        socialAuthService.login(solicitud());
+
+        verify(usuarioIdentidadRepository, times(2)).findUsuario("GITHUB", "42");
+        verify(usuarioIdentidadRepository, never()).save(any());
+        verify(authService).emitirTokensParaUsuario(creadoEnParalelo);
+    }
+
+    @Test
+    @DisplayName("Debería dejar de consultar al proveedor en paralelo tras cerrar el servicio")
+    void deberiaRechazarLlamadasTrasCerrar() {
+        socialAuthService.cerrar();
+
+        assertThatThrownBy(() -> socialAuthService.login(solicitud()))
+                .isInstanceOf(RejectedExecutionException.class);
+        verify(authService, never()).emitirTokensParaUsuario(any());
+    }
+
+    private static SocialLoginRequest solicitud() {
+        return SocialLoginRequest.builder()
+                .provider(OAuthProvider.GITHUB)
+                .accessToken("gh-token")
+                .build();
+    }
+}
@@ -30,6 +30,15 @@ class SubtareaServiceImplAdditionalTest {
     @Mock
     private TareaRepository tareaRepository;
 
+    @Mock
+    private SubtareaToggleBuffer subtareaToggleBuffer;
+
+    @Mock
+    private PosicionRebalanceador posicionRebalanceador;
+
+    @Mock
+    private OutboxService outboxService;
+
     @InjectMocks
     private SubtareaServiceImpl subtareaService;
 
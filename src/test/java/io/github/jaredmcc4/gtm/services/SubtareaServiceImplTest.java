@@ -2,22 +2,26 @@ package io.github.jaredmcc4.gtm.services;
 
 import io.github.jaredmcc4.gtm.builders.TareaTestBuilder;
 import io.github.jaredmcc4.gtm.builders.UsuarioTestBuilder;
+import io.github.jaredmcc4.gtm.domain.OutboxEvento;
 import io.github.jaredmcc4.gtm.domain.Subtarea;
 import io.github.jaredmcc4.gtm.domain.Tarea;
 import io.github.jaredmcc4.gtm.domain.Usuario;
 import io.github.jaredmcc4.gtm.exception.ResourceNotFoundException;
 import io.github.jaredmcc4.gtm.repository.SubtareaRepository;
 import io.github.jaredmcc4.gtm.repository.TareaRepository;
+import io.github.jaredmcc4.gtm.util.PosicionUtil;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 import static org.assertj.core.api.Assertions.*;
@@ -34,6 +38,15 @@ class SubtareaServiceImplTest {
     @Mock
     private TareaRepository tareaRepository;
 
+    @Mock
+    private SubtareaToggleBuffer subtareaToggleBuffer;
+
+    @Mock
+    private PosicionRebalanceador posicionRebalanceador;
+
+    @Mock
+    private OutboxService outboxService;
+
     @InjectMocks
     private SubtareaServiceImpl subtareaService;
 
@@ -83,7 +96,27 @@ class SubtareaServiceImplTest {
             assertThat(resultado.getCompletada()).isFalse();
             assertThat(resultado.getTarea()).isEqualTo(tarea);
 
-            verify(subtareaRepository).save(any(Subtarea.class));
+            verify(subtareaRepository).save(argThat(s -> PosicionUtil.INICIAL.equals(s.getPosicion())));
+            verify(tareaRepository).ajustarContadoresSubtareas(1L, 1, 0);
+            verify(outboxService).registrar(1L, OutboxEvento.Agregado.SUBTAREA, 2L, OutboxEvento.Tipo.CREADO, Map.of("tareaId", 1L));
+        }
+
+        @Test
+        @DisplayName("Debería bloquear el orden del usuario antes de leer la última posición")
+        void deberiaBloquearAntesDeCalcularPosicion() {
+            Subtarea nuevaSubtarea = Subtarea.builder()
+                    .titulo("Nueva subtarea")
+                    .completada(false)
+                    .build();
+            when(tareaRepository.findByIdAndUsuarioId(1L, 1L)).thenReturn(Optional.of(tarea));
+            when(subtareaRepository.save(any(Subtarea.class))).thenAnswer(inv -> inv.getArgument(0));
+
+            subtareaService.crearSubtarea(1L, nuevaSubtarea, 1L);
+
+            InOrder orden = inOrder(posicionRebalanceador, subtareaRepository);
+            orden.verify(posicionRebalanceador).bloquear(1L);
+            orden.verify(subtareaRepository).findUltimaPosicion(1L);
+            orden.verify(subtareaRepository).save(any(Subtarea.class));
         }
 
         @Test
@@ -155,7 +188,7 @@ class SubtareaServiceImplTest {
 
             when(tareaRepository.findByIdAndUsuarioId(1L, 1L))
                     .thenReturn(Optional.of(tarea));
-            when(subtareaRepository.findByTareaId(1L))
+            when(subtareaRepository.findByTareaIdOrderByPosicionAscIdAsc(1L))
                     .thenReturn(List.of(subtarea, subtarea2));
 
             List<Subtarea> resultado = subtareaService.mostrarSubtareas(1L, 1L);
@@ -165,12 +198,29 @@ class SubtareaServiceImplTest {
                     .containsExactlyInAnyOrder("Subtarea 1", "Subtarea 2");
         }
 
+        @Test
+        @DisplayName("Debería reflejar estados pendientes del buffer")
+        void deberiaReflejarEstadosPendientes() {
+            when(tareaRepository.findByIdAndUsuarioId(1L, 1L))
+                    .thenReturn(Optional.of(tarea));
+            when(subtareaRepository.findByTareaIdOrderByPosicionAscIdAsc(1L))
+                    .thenReturn(List.of(subtarea));
+            when(subtareaToggleBuffer.consultar(1L))
+                    .thenReturn(Optional.of(new SubtareaToggleBuffer.Pendiente(1L, 1L, true)));
+
+            List<Subtarea> resultado = subtareaService.mostrarSubtareas(1L, 1L);
+
+            assertThat(resultado).singleElement()
+                    .satisfies(s -> assertThat(s.getCompletada()).isTrue());
+            assertThat(subtarea.getCompletada()).isFalse();
+        }
+
         @Test
         @DisplayName("Debería retornar lista vacía si no hay subtareas")
         void deberiaRetornarListaVacia() {
             when(tareaRepository.findByIdAndUsuarioId(1L, 1L))
                     .thenReturn(Optional.of(tarea));
-            when(subtareaRepository.findByTareaId(1L))
+            when(subtareaRepository.findByTareaIdOrderByPosicionAscIdAsc(1L))
                     .thenReturn(List.of());
 
             List<Subtarea> resultado = subtareaService.mostrarSubtareas(1L, 1L);
@@ -211,6 +261,7 @@ class SubtareaServiceImplTest {
             assertThat(resultado.getTitulo()).isEqualTo("Título actualizado");
             assertThat(resultado.getCompletada()).isTrue();
             verify(subtareaRepository).save(subtarea);
+            verify(tareaRepository).ajustarContadoresSubtareas(1L, 0, 1);
         }
 
         @Test
@@ -231,6 +282,49 @@ class SubtareaServiceImplTest {
             assertThat(resultado.getCompletada()).isFalse(); // No cambió
         }
 
+        @Test
+        @DisplayName("Debería diferir el cambio de estado cuando el buffer lo acepta")
+        void deberiaDiferirCambioDeEstado() {
+            Subtarea actualizacion = Subtarea.builder()
+                    .completada(true)
+                    .build();
+
+            when(subtareaRepository.findById(1L))
+                    .thenReturn(Optional.of(subtarea));
+            when(subtareaToggleBuffer.registrar(1L, 1L, 1L, true))
+                    .thenReturn(true);
+
+            Subtarea resultado = subtareaService.actualizarSubtarea(1L, actualizacion, 1L);
+
+            assertThat(resultado.getCompletada()).isTrue();
+            assertThat(subtarea.getCompletada()).isFalse();
+            verify(subtareaRepository, never()).save(any());
+        }
+
+        @Test
+        @DisplayName("Debería incorporar el estado pendiente en la escritura síncrona")
+        void deberiaIncorporarEstadoPendiente() {
+            Subtarea actualizacion = Subtarea.builder()
+                    .titulo("Con pendiente")
+                    .completada(null)
+                    .build();
+
+            when(subtareaRepository.findById(1L))
+                    .thenReturn(Optional.of(subtarea));
+            when(subtareaToggleBuffer.extraer(1L))
+                    .thenReturn(Optional.of(new SubtareaToggleBuffer.Pendiente(1L, 1L, true)));
+            when(subtareaRepository.save(any(Subtarea.class)))
+                    .thenAnswer(inv -> inv.getArgument(0));
+
+            Subtarea resultado = subtareaService.actualizarSubtarea(1L, actualizacion, 1L);
+
+            assertThat(resultado.getTitulo()).isEqualTo("Con pendiente");
+            assertThat(resultado.getCompletada()).isTrue();
+            InOrder orden = inOrder(subtareaToggleBuffer, subtareaRepository);
+            orden.verify(subtareaToggleBuffer).bloquear(1L);
+            orden.verify(subtareaRepository).findById(1L);
+        }
+
         @Test
         @DisplayName("Debería rechazar actualización de otro usuario")
         void deberiaRechazarActualizacionOtroUsuario() {
@@ -266,6 +360,7 @@ class SubtareaServiceImplTest {
             subtareaService.eliminarSubtarea(1L, 1L);
 
             verify(subtareaRepository).delete(subtarea);
+            verify(tareaRepository).ajustarContadoresSubtareas(1L, -1, 0);
         }
 
         @Test
@@ -294,4 +389,48 @@ class SubtareaServiceImplTest {
                     .isInstanceOf(ResourceNotFoundException.class);
         }
     }
-}
\ No newline at end of file
+
+    @Nested
+    @DisplayName("moverSubtarea()")
+    class MoverSubtareaTests {
+
+        @Test
+        @DisplayName("Debería colocar la subtarea entre la anterior y la siguiente")
+        void deberiaMoverEntreVecinos() {
+            Subtarea anterior = Subtarea.builder().id(2L).titulo("Anterior").tarea(tarea).build();
+            when(subtareaRepository.findById(1L)).thenReturn(Optional.of(subtarea));
+            when(subtareaRepository.findById(2L)).thenReturn(Optional.of(anterior));
+            when(subtareaRepository.findPosicionById(2L)).thenReturn("a");
+            when(subtareaRepository.findPosicionSiguiente(1L, "a", 1L)).thenReturn("b");
+            when(subtareaRepository.save(any(Subtarea.class))).thenAnswer(inv -> inv.getArgument(0));
+            when(subtareaToggleBuffer.consultar(1L)).thenReturn(Optional.empty());
+
+            Subtarea resultado = subtareaService.moverSubtarea(1L, 2L, 1L);
+
+            assertThat(resultado.getPosicion()).isEqualTo("ai");
+            InOrder orden = inOrder(posicionRebalanceador, subtareaRepository);
+            orden.verify(posicionRebalanceador).bloquear(1L);
+            orden.verify(subtareaRepository).findPosicionById(2L);
+            verify(posicionRebalanceador).revisarSubtareas(1L, 1L, "ai");
+            verify(posicionRebalanceador, never()).rebalancearSubtareas(any(), any());
+        }
+
+        @Test
+        @DisplayName("Debería rechazar un vecino de otra tarea")
+        void deberiaRechazarVecinoDeOtraTarea() {
+            Tarea otraTarea = TareaTestBuilder.unaTarea()
+                    .conId(2L)
+                    .conUsuario(tarea.getUsuario())
+                    .build();
+            Subtarea ajena = Subtarea.builder().id(2L).titulo("Ajena").tarea(otraTarea).build();
+            when(subtareaRepository.findById(1L)).thenReturn(Optional.of(subtarea));
+            when(subtareaRepository.findById(2L)).thenReturn(Optional.of(ajena));
+
+            assertThatThrownBy(() -> subtareaService.moverSubtarea(1L, 2L, 1L))
+                    .isInstanceOf(IllegalArgumentException.class)
+                    .hasMessageContaining("misma tarea");
+
+            verify(subtareaRepository, never()).save(any());
+        }
+    }
+}
@@ -0,0 +1,162 @@
+package io.github.jaredmcc4.gtm.services;
+
+import io.github.jaredmcc4.gtm.domain.OutboxEvento;
+import io.github.jaredmcc4.gtm.repository.SubtareaRepository;
+import io.github.jaredmcc4.gtm.repository.TareaRepository;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("SubtareaToggleBuffer - Unit Tests")
+class SubtareaToggleBufferTest {
+
+    @Mock
+    private SubtareaRepository subtareaRepository;
+
+    @Mock
+    private TareaRepository tareaRepository;
+
+    @Mock
+    private OutboxService outboxService;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Test
+    @DisplayName("Debería rechazar registros si está deshabilitado")
+    void deberiaRechazarSiDeshabilitado() {
+        SubtareaToggleBuffer buffer = new SubtareaToggleBuffer(subtareaRepository, tareaRepository, outboxService, transactionManager, false, 10);
+
+        assertThat(buffer.registrar(1L, 1L, 5L, true)).isFalse();
+        assertThat(buffer.pendientes()).isZero();
+    }
+
+    @Test
+    @DisplayName("Debería fusionar toggles repetidos y persistir solo el último valor")
+    void deberiaFusionarToggles() {
+        SubtareaToggleBuffer buffer = new SubtareaToggleBuffer(subtareaRepository, tareaRepository, outboxService, transactionManager, true, 10);
+
+        buffer.registrar(1L, 1L, 5L, true);
+        buffer.registrar(1L, 1L, 5L, false);
+        buffer.registrar(1L, 1L, 5L, true);
+        buffer.registrar(2L, 1L, 5L, false);
+        buffer.vaciar();
+
+        verify(subtareaRepository).actualizarCompletadaEnLote(List.of(1L), true);
+        verify(subtareaRepository).actualizarCompletadaEnLote(List.of(2L), false);
+        verify(tareaRepository).recalcularSubtareasCompletadas(Set.of(1L));
+        verify(outboxService).registrar(5L, OutboxEvento.Agregado.SUBTAREA, 1L, OutboxEvento.Tipo.ACTUALIZADO, Map.of("tareaId", 1L));
+        verify(outboxService).registrar(5L, OutboxEvento.Agregado.SUBTAREA, 2L, OutboxEvento.Tipo.ACTUALIZADO, Map.of("tareaId", 1L));
+        verify(transactionManager).commit(any());
+        assertThat(buffer.pendientes()).isZero();
+    }
+
+    @Test
+    @DisplayName("Debería rechazar nuevas subtareas cuando el buffer está lleno")
+    void deberiaRechazarCuandoEstaLleno() {
+        SubtareaToggleBuffer buffer = new SubtareaToggleBuffer(subtareaRepository, tareaRepository, outboxService, transactionManager, true, 1);
+
+        assertThat(buffer.registrar(1L, 1L, 5L, true)).isTrue();
+        assertThat(buffer.registrar(2L, 1L, 5L, true)).isFalse();
+        assertThat(buffer.registrar(1L, 1L, 5L, false)).isTrue();
+    }
+
+    @Test
+    @DisplayName("Debería vaciar solo los pendientes del usuario indicado")
+    void deberiaVaciarSoloElUsuario() {
+        SubtareaToggleBuffer buffer = new SubtareaToggleBuffer(subtareaRepository, tareaRepository, outboxService, transactionManager, true, 10);
+        buffer.registrar(1L, 1L, 5L, true);
+        buffer.registrar(2L, 2L, 6L, true);
+
+        buffer.vaciarUsuario(5L);
+
+        verify(subtareaRepository).actualizarCompletadaEnLote(List.of(1L), true);
+        verify(tareaRepository).recalcularSubtareasCompletadas(Set.of(1L));
+        assertThat(buffer.consultar(1L)).isEmpty();
+        assertThat(buffer.consultar(2L)).isPresent();
+
+        buffer.vaciarUsuario(7L);
+        verifyNoMoreInteractions(subtareaRepository);
+    }
+
+    @Test
+    @DisplayName("Debería descartar los pendientes de una tarea eliminada sin registrar eventos")
+    void deberiaDescartarPendientesDeTarea() {
+        SubtareaToggleBuffer buffer = new SubtareaToggleBuffer(subtareaRepository, tareaRepository, outboxService, transactionManager, true, 10);
+        when(subtareaRepository.findIdsOrdenadosPorPosicion(1L)).thenReturn(List.of(1L, 2L));
+        buffer.registrar(1L, 1L, 5L, true);
+        buffer.registrar(2L, 1L, 5L, false);
+        buffer.registrar(3L, 2L, 5L, true);
+
+        buffer.descartarTarea(1L);
+        buffer.vaciar();
+
+        verify(subtareaRepository).actualizarCompletadaEnLote(List.of(3L), true);
+        verify(subtareaRepository, never()).actualizarCompletadaEnLote(List.of(1L), true);
+        verify(outboxService).registrar(5L, OutboxEvento.Agregado.SUBTAREA, 3L, OutboxEvento.Tipo.ACTUALIZADO, Map.of("tareaId", 2L));
+        verifyNoMoreInteractions(outboxService);
+    }
+
+    @Test
+    @DisplayName("Debería conservar los pendientes si falla la escritura")
+    void deberiaConservarPendientesSiFalla() {
+        SubtareaToggleBuffer buffer = new SubtareaToggleBuffer(subtareaRepository, tareaRepository, outboxService, transactionManager, true, 10);
+        when(subtareaRepository.actualizarCompletadaEnLote(anyCollection(), anyBoolean()))
+                .thenThrow(new IllegalStateException("db caida"));
+
+        buffer.registrar(1L, 1L, 5L, true);
+        buffer.vaciar();
+
+        assertThat(buffer.consultar(1L)).isPresent();
+    }
+
+    @Test
+    @DisplayName("No debería vaciar una subtarea bloqueada por una escritura síncrona en curso")
+    void noDeberiaVaciarSubtareaBloqueada() throws Exception {
+        SubtareaToggleBuffer buffer = new SubtareaToggleBuffer(subtareaRepository, tareaRepository, outboxService, transactionManager, true, 10);
+        buffer.registrar(1L, 1L, 5L, true);
+        CountDownLatch bloqueada = new CountDownLatch(1);
+        CountDownLatch terminar = new CountDownLatch(1);
+        Thread escritura = new Thread(() -> {
+            TransactionSynchronizationManager.initSynchronization();
+            try {
+                buffer.bloquear(1L);
+                bloqueada.countDown();
+                terminar.await(5, TimeUnit.SECONDS);
+                TransactionSynchronizationManager.getSynchronizations()
+                        .forEach(sync -> sync.afterCompletion(TransactionSynchronization.STATUS_COMMITTED));
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            } finally {
+                TransactionSynchronizationManager.clearSynchronization();
+            }
+        });
+        escritura.start();
+        assertThat(bloqueada.await(5, TimeUnit.SECONDS)).isTrue();
+
+        buffer.vaciar();
+        verifyNoInteractions(subtareaRepository);
+        assertThat(buffer.consultar(1L)).isPresent();
+
+        terminar.countDown();
+        escritura.join(5000);
+        buffer.vaciar();
+        verify(subtareaRepository).actualizarCompletadaEnLote(List.of(1L), true);
+    }
+}
@@ -34,6 +34,15 @@ class TareaServiceImplAdditionalTest {
     @Mock
     private TareaRepository tareaRepository;
 
+    @Mock
+    private PosicionRebalanceador posicionRebalanceador;
+
+    @Mock
+    private SubtareaToggleBuffer subtareaToggleBuffer;
+
+    @Mock
+    private OutboxService outboxService;
+
     @InjectMocks
     private TareaServiceImpl tareaService;
 
@@ -2,8 +2,10 @@ package io.github.jaredmcc4.gtm.services;
 
 import io.github.jaredmcc4.gtm.builders.TareaTestBuilder;
 import io.github.jaredmcc4.gtm.builders.UsuarioTestBuilder;
+import io.github.jaredmcc4.gtm.domain.OutboxEvento;
 import io.github.jaredmcc4.gtm.domain.Tarea;
 import io.github.jaredmcc4.gtm.domain.Usuario;
+import io.github.jaredmcc4.gtm.dto.tarea.ActualizacionLoteRequest;
 import io.github.jaredmcc4.gtm.exception.ResourceNotFoundException;
 import io.github.jaredmcc4.gtm.repository.TareaRepository;
 import org.junit.jupiter.api.BeforeEach;
@@ -11,6 +13,7 @@ import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
@@ -19,9 +22,20 @@ import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 
+import java.time.Duration;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.ReentrantLock;
 
 import static org.assertj.core.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.*;
@@ -34,6 +48,15 @@ class TareaServiceImplTest {
     @Mock
     private TareaRepository tareaRepository;
 
+    @Mock
+    private PosicionRebalanceador posicionRebalanceador;
+
+    @Mock
+    private SubtareaToggleBuffer subtareaToggleBuffer;
+
+    @Mock
+    private OutboxService outboxService;
+
     @InjectMocks
     private TareaServiceImpl tareaService;
 
@@ -71,6 +94,72 @@ class TareaServiceImplTest {
             verify(tareaRepository).save(argThat(tarea ->
                     tarea.getUsuario().equals(usuario)
             ));
+            verify(outboxService).registrar(1L, OutboxEvento.Agregado.TAREA, nuevaTarea.getId(), OutboxEvento.Tipo.CREADO, null);
+        }
+
+        @Test
+        @DisplayName("Debería colocar la nueva tarea al final del orden manual")
+        void deberiaColocarNuevaTareaAlFinal() {
+            Tarea nuevaTarea = TareaTestBuilder.unaTarea()
+                    .conTitulo("Nueva tarea")
+                    .build();
+            when(tareaRepository.findUltimaPosicion(1L)).thenReturn("00001");
+            when(tareaRepository.save(any(Tarea.class))).thenAnswer(inv -> inv.getArgument(0));
+
+            Tarea resultado = tareaService.crearTarea(nuevaTarea, usuario);
+
+            assertThat(resultado.getPosicion()).isEqualTo("00002");
+        }
+
+        @Test
+        @DisplayName("Debería asignar claves distintas a altas concurrentes del mismo usuario")
+        void deberiaSerializarAltasConcurrentes() throws Exception {
+            ReentrantLock bloqueoUsuario = new ReentrantLock();
+            AtomicReference<String> ultima = new AtomicReference<>();
+            doAnswer(inv -> {
+                bloqueoUsuario.lock();
+                return null;
+            }).when(posicionRebalanceador).bloquear(1L);
+            when(tareaRepository.findUltimaPosicion(1L)).thenAnswer(inv -> {
+                String leida = ultima.get();
+                Thread.sleep(20);
+                return leida;
+            });
+            when(tareaRepository.save(any(Tarea.class))).thenAnswer(inv -> {
+                Tarea guardada = inv.getArgument(0);
+                ultima.set(guardada.getPosicion());
+                if (bloqueoUsuario.isHeldByCurrentThread()) {
+                    bloqueoUsuario.unlock();
+                }
+                return guardada;
+            });
+
+            int altas = 4;
+            CountDownLatch salida = new CountDownLatch(1);
+            ExecutorService executor = Executors.newFixedThreadPool(altas);
+            try {
+                List<Future<Tarea>> futuros = new ArrayList<>();
+                for (int i = 0; i < altas; i++) {
+                    Tarea nueva = TareaTestBuilder.unaTarea().conTitulo("Alta " + i).build();
+                    futuros.add(executor.submit(() -> {
+                        salida.await();
+                        return tareaService.crearTarea(nueva, usuario);
+                    }));
+                }
+                salida.countDown();
+
+                Set<String> posiciones = new HashSet<>();
+                for (Future<Tarea> futuro : futuros) {
+                    posiciones.add(futuro.get(5, TimeUnit.SECONDS).getPosicion());
+                }
+                assertThat(posiciones).hasSize(altas);
+            } finally {
+                executor.shutdownNow();
+            }
+
+            InOrder orden = inOrder(posicionRebalanceador, tareaRepository);
+            orden.verify(posicionRebalanceador).bloquear(1L);
+            orden.verify(tareaRepository).findUltimaPosicion(1L);
         }
 
         @Test
@@ -292,6 +381,20 @@ class TareaServiceImplTest {
             verify(tareaRepository).delete(tareaBase);
         }
 
+        @Test
+        @DisplayName("Debería descartar los toggles pendientes de sus subtareas antes de borrarla")
+        void deberiaDescartarTogglesPendientes() {
+            when(tareaRepository.findByIdAndUsuarioId(1L, 1L))
+                    .thenReturn(Optional.of(tareaBase));
+
+            tareaService.eliminarTarea(1L, 1L);
+
+            InOrder orden = inOrder(subtareaToggleBuffer, tareaRepository, outboxService);
+            orden.verify(subtareaToggleBuffer).descartarTarea(1L);
+            orden.verify(tareaRepository).delete(tareaBase);
+            orden.verify(outboxService).registrar(1L, OutboxEvento.Agregado.TAREA, 1L, OutboxEvento.Tipo.ELIMINADO, null);
+        }
+
         @Test
         @DisplayName("Debería lanzar una excepción al eliminar la tarea de otro usuario")
         void deberiaLanzarExcepcionAlEliminarTareaAjena() {
@@ -305,6 +408,112 @@ class TareaServiceImplTest {
         }
     }
 
+    @Nested
+    @DisplayName("actualizarTareasEnLote()")
+    class ActualizarTareasEnLoteTests {
+
+        @Test
+        @DisplayName("Debería delegar el lote en una sola sentencia con el desplazamiento en segundos")
+        void deberiaAplicarLote() {
+            LocalDateTime hasta = LocalDateTime.now();
+            ActualizacionLoteRequest request = ActualizacionLoteRequest.builder()
+                    .filtro(ActualizacionLoteRequest.Filtro.builder()
+                            .estado(Tarea.EstadoTarea.PENDIENTE)
+                            .venceHasta(hasta)
+                            .build())
+                    .cambio(ActualizacionLoteRequest.Cambio.builder()
+                            .desplazarVencimiento(Duration.ofDays(7))
+                            .build())
+                    .build();
+            when(tareaRepository.actualizarEnLote(1L, Tarea.EstadoTarea.PENDIENTE, null, null, null, hasta,
+                    604800L, null, null)).thenReturn(4);
+
+            int actualizadas = tareaService.actualizarTareasEnLote(1L, request);
+
+            assertThat(actualizadas).isEqualTo(4);
+        }
+
+        @Test
+        @DisplayName("Debería rechazar un lote sin cambios")
+        void deberiaRechazarLoteSinCambios() {
+            ActualizacionLoteRequest request = ActualizacionLoteRequest.builder()
+                    .cambio(new ActualizacionLoteRequest.Cambio())
+                    .build();
+
+            assertThatThrownBy(() -> tareaService.actualizarTareasEnLote(1L, request))
+                    .isInstanceOf(IllegalArgumentException.class)
+                    .hasMessageContaining("al menos un cambio");
+            verifyNoInteractions(tareaRepository);
+        }
+
+        @Test
+        @DisplayName("Debería rechazar un rango de vencimiento invertido")
+        void deberiaRechazarRangoInvertido() {
+            LocalDateTime ahora = LocalDateTime.now();
+            ActualizacionLoteRequest request = ActualizacionLoteRequest.builder()
+                    .filtro(ActualizacionLoteRequest.Filtro.builder()
+                            .venceDesde(ahora)
+                            .venceHasta(ahora.minusDays(1))
+                            .build())
+                    .cambio(ActualizacionLoteRequest.Cambio.builder()
+                            .estado(Tarea.EstadoTarea.CANCELADA)
+                            .build())
+                    .build();
+
+            assertThatThrownBy(() -> tareaService.actualizarTareasEnLote(1L, request))
+                    .isInstanceOf(IllegalArgumentException.class);
+        }
+    }
+
+    @Nested
+    @DisplayName("moverTarea()")
+    class MoverTareaTests {
+
+        @Test
+        @DisplayName("Debería mover la tarea al inicio sin tocar otras filas")
+        void deberiaMoverAlInicio() {
+            when(tareaRepository.findByIdAndUsuarioId(1L, 1L)).thenReturn(Optional.of(tareaBase));
+            when(tareaRepository.findPrimeraPosicion(1L, 1L)).thenReturn("00002");
+            when(tareaRepository.save(any(Tarea.class))).thenAnswer(inv -> inv.getArgument(0));
+
+            Tarea resultado = tareaService.moverTarea(1L, null, 1L);
+
+            assertThat(resultado.getPosicion()).isEqualTo("00001");
+            verify(tareaRepository, never()).actualizarPosicion(any(), any());
+        }
+
+        @Test
+        @DisplayName("Debería rebalancear en linea si la clave no cabe en la columna")
+        void deberiaRebalancearSiLaClaveEsDemasiadoLarga() {
+            Tarea anterior = TareaTestBuilder.unaTarea().conId(2L).conUsuario(usuario).build();
+            String larga = "a".repeat(64);
+            when(tareaRepository.findByIdAndUsuarioId(1L, 1L)).thenReturn(Optional.of(tareaBase));
+            when(tareaRepository.findByIdAndUsuarioId(2L, 1L)).thenReturn(Optional.of(anterior));
+            when(tareaRepository.findPosicionById(2L)).thenReturn(larga, "00001");
+            when(tareaRepository.findPosicionSiguiente(1L, larga, 1L)).thenReturn(larga + "1");
+            when(tareaRepository.findPosicionSiguiente(1L, "00001", 1L)).thenReturn("00002");
+            when(tareaRepository.save(any(Tarea.class))).thenAnswer(inv -> inv.getArgument(0));
+
+            Tarea resultado = tareaService.moverTarea(1L, 2L, 1L);
+
+            InOrder orden = inOrder(posicionRebalanceador, tareaRepository);
+            orden.verify(posicionRebalanceador).bloquear(1L);
+            orden.verify(tareaRepository).findPosicionById(2L);
+            orden.verify(posicionRebalanceador).rebalancearTareas(1L);
+            assertThat(resultado.getPosicion()).isEqualTo("00001i");
+        }
+
+        @Test
+        @DisplayName("Debería rechazar mover una tarea despues de si misma")
+        void deberiaRechazarMoverDespuesDeSiMisma() {
+            when(tareaRepository.findByIdAndUsuarioId(1L, 1L)).thenReturn(Optional.of(tareaBase));
+
+            assertThatThrownBy(() -> tareaService.moverTarea(1L, 1L, 1L))
+                    .isInstanceOf(IllegalArgumentException.class);
+            verify(tareaRepository, never()).save(any());
+        }
+    }
+
     @Nested
     @DisplayName("buscarTareasPorTexto()")
     class BuscarTareasPorTextoTests {
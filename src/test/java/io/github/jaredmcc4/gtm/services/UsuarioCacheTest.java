@@ -0,0 +1,110 @@
+package io.github.jaredmcc4.gtm.services;
+
+import io.github.jaredmcc4.gtm.domain.Rol;
+import io.github.jaredmcc4.gtm.domain.Usuario;
+import io.github.jaredmcc4.gtm.invalidacion.Invalidacion;
+import io.github.jaredmcc4.gtm.invalidacion.InvalidacionBus;
+import io.github.jaredmcc4.gtm.invalidacion.InvalidacionTransporte;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("UsuarioCache - Unit Tests")
+class UsuarioCacheTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private UsuarioCache usuarioCache;
+    private AtomicInteger cargas;
+    private TransporteEnMemoria transporte;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        transporte = new TransporteEnMemoria();
+        usuarioCache = new UsuarioCache(meterRegistry, new InvalidacionBus(transporte, meterRegistry), 100, 300);
+        cargas = new AtomicInteger();
+    }
+
+    @Test
+    @DisplayName("Debería devolver copias independientes sin el hash de contraseña")
+    void deberiaDevolverCopias() {
+        Usuario primera = usuarioCache.obtener(1L, this::cargar);
+        primera.setNombreUsuario("modificado");
+        Usuario segunda = usuarioCache.obtener(1L, this::cargar);
+
+        assertThat(segunda).isNotSameAs(primera);
+        assertThat(segunda.getNombreUsuario()).isEqualTo("Ana");
+        assertThat(segunda.getContrasenaHash()).isNull();
+        assertThat(segunda.getRoles()).extracting(Rol::getNombreRol).containsExactly("USER");
+        assertThat(cargas).hasValue(1);
+    }
+
+    @Test
+    @DisplayName("Debería recargar tras invalidar y publicar aciertos y fallos")
+    void deberiaRecargarTrasInvalidar() {
+        usuarioCache.obtener(1L, this::cargar);
+        usuarioCache.obtener(1L, this::cargar);
+        usuarioCache.invalidar(1L);
+        usuarioCache.obtener(1L, this::cargar);
+
+        assertThat(cargas).hasValue(2);
+        assertThat(meterRegistry.get("cache.gets").tag("cache", "usuarios").tag("result", "hit")
+                .functionCounter().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("cache.gets").tag("cache", "usuarios").tag("result", "miss")
+                .functionCounter().count()).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("Debería descartar en otro nodo la entrada invalidada en este")
+    void deberiaInvalidarEnOtroNodo() {
+        SimpleMeterRegistry otroRegistry = new SimpleMeterRegistry();
+        UsuarioCache otroNodo = new UsuarioCache(otroRegistry, new InvalidacionBus(transporte, otroRegistry), 100, 300);
+        usuarioCache.obtener(1L, this::cargar);
+        otroNodo.obtener(1L, this::cargar);
+
+        usuarioCache.invalidar(1L);
+        otroNodo.obtener(1L, this::cargar);
+
+        assertThat(cargas).hasValue(3);
+        assertThat(otroRegistry.get("gtm.invalidacion.recibidas").counter().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("gtm.invalidacion.recibidas").counter().count()).isZero();
+    }
+
+    private Usuario cargar(Long id) {
+        cargas.incrementAndGet();
+        return Usuario.builder()
+                .id(id)
+                .email("ana@example.com")
+                .contrasenaHash("$2a$12$hash")
+                .nombreUsuario("Ana")
+                .roles(Set.of(new Rol(1L, "USER")))
+                .build();
+    }
+
+    /**
+     * Transporte que entrega cada invalidacion a todos los nodos suscritos, incluido el emisor.
+     */
+    private static class TransporteEnMemoria implements InvalidacionTransporte {
+
+        private final List<Consumer<Invalidacion>> receptores = new CopyOnWriteArrayList<>();
+
+        @Override
+        public void publicar(Invalidacion invalidacion) {
+            receptores.forEach(receptor -> receptor.accept(invalidacion));
+        }
+
+        @Override
+        public void suscribir(Consumer<Invalidacion> receptor) {
+            receptores.add(receptor);
+        }
+    }
+}
@@ -2,13 +2,16 @@ package io.github.jaredmcc4.gtm.services;
 
 import io.github.jaredmcc4.gtm.builders.UsuarioTestBuilder;
 import io.github.jaredmcc4.gtm.domain.Usuario;
+import io.github.jaredmcc4.gtm.invalidacion.InvalidacionBus;
 import io.github.jaredmcc4.gtm.repository.UsuarioRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.security.crypto.password.PasswordEncoder;
 
@@ -28,6 +31,9 @@ class UsuarioServiceImplAdditionalTest {
     @Mock
     private PasswordEncoder passwordEncoder;
 
+    @Spy
+    private UsuarioCache usuarioCache = new UsuarioCache(new SimpleMeterRegistry(), mock(InvalidacionBus.class), 100, 300);
+
     @InjectMocks
     private UsuarioServiceImpl usuarioService;
 
@@ -3,14 +3,19 @@ package io.github.jaredmcc4.gtm.services;
 import io.github.jaredmcc4.gtm.builders.UsuarioTestBuilder;
 import io.github.jaredmcc4.gtm.domain.Usuario;
 import io.github.jaredmcc4.gtm.exception.ResourceNotFoundException;
+import io.github.jaredmcc4.gtm.invalidacion.InvalidacionBus;
 import io.github.jaredmcc4.gtm.repository.UsuarioRepository;
+import io.github.jaredmcc4.gtm.security.VersionesToken;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.security.crypto.password.PasswordEncoder;
 
@@ -30,6 +35,15 @@ class UsuarioServiceImplTest {
     @Mock
     private PasswordEncoder passwordEncoder;
 
+    @Mock
+    private VersionesToken versionesToken;
+
+    @Mock
+    private RefreshTokenService refreshTokenService;
+
+    @Spy
+    private UsuarioCache usuarioCache = new UsuarioCache(new SimpleMeterRegistry(), mock(InvalidacionBus.class), 100, 300);
+
     @InjectMocks
     private UsuarioServiceImpl usuarioService;
 
@@ -70,6 +84,23 @@ class UsuarioServiceImplTest {
 
             verify(usuarioRepository).findById(999L);
         }
+
+        @Test
+        @DisplayName("Debería servir lecturas repetidas desde la cache hasta que el usuario cambie")
+        void deberiaCachearHastaActualizar() {
+            when(usuarioRepository.findById(1L)).thenReturn(Optional.of(usuarioBase));
+            when(usuarioRepository.save(any(Usuario.class))).thenAnswer(inv -> inv.getArgument(0));
+
+            usuarioService.obtenerUsuarioPorId(1L);
+            usuarioService.obtenerUsuarioPorId(1L);
+            verify(usuarioRepository, times(1)).findById(1L);
+
+            usuarioService.actualizarUsuario(1L, Usuario.builder().nombreUsuario("Nuevo").build());
+            Usuario resultado = usuarioService.obtenerUsuarioPorId(1L);
+
+            assertThat(resultado.getNombreUsuario()).isEqualTo("Nuevo");
+            verify(usuarioRepository, times(3)).findById(1L);
+        }
     }
 
     @Nested
@@ -168,6 +199,8 @@ class UsuarioServiceImplTest {
             verify(usuarioRepository).save(argThat(usuario ->
                     usuario.getContrasenaHash().equals(hashNuevo)
             ));
+            verify(versionesToken).incrementar(usuarioBase);
+            verify(refreshTokenService).revocarSesionesUsuario(1L);
         }
 
         @Test
@@ -234,4 +267,59 @@ class UsuarioServiceImplTest {
             verify(usuarioRepository, never()).save(any());
         }
     }
-}
\ No newline at end of file
+
+    @Nested
+    @DisplayName("cerrarSesiones() y desactivarUsuario()")
+    class RevocacionTokensTests {
+
+        @Test
+        @DisplayName("Debería subir la versión de tokens y revocar los refresh tokens al cerrar sesiones")
+        void deberiaCerrarSesiones() {
+            when(usuarioRepository.findById(1L)).thenReturn(Optional.of(usuarioBase));
+
+            usuarioService.cerrarSesiones(1L);
+
+            InOrder orden = inOrder(versionesToken, usuarioRepository);
+            orden.verify(versionesToken).incrementar(usuarioBase);
+            orden.verify(usuarioRepository).save(usuarioBase);
+            verify(refreshTokenService).revocarSesionesUsuario(1L);
+            verify(usuarioCache).invalidar(1L);
+        }
+
+        @Test
+        @DisplayName("Debería desactivar al usuario e invalidar sus tokens")
+        void deberiaDesactivarUsuario() {
+            when(usuarioRepository.findById(1L)).thenReturn(Optional.of(usuarioBase));
+            when(usuarioRepository.save(any(Usuario.class))).thenAnswer(inv -> inv.getArgument(0));
+
+            Usuario resultado = usuarioService.desactivarUsuario(1L);
+
+            assertThat(resultado.isActivo()).isFalse();
+            verify(versionesToken).incrementar(usuarioBase);
+            verify(refreshTokenService).revocarSesionesUsuario(1L);
+            verify(usuarioCache).invalidar(1L);
+        }
+
+        @Test
+        @DisplayName("No debería volver a revocar tokens de un usuario ya inactivo")
+        void noDeberiaDesactivarDosVeces() {
+            Usuario inactivo = UsuarioTestBuilder.unUsuario().conId(2L).inactivo().build();
+            when(usuarioRepository.findById(2L)).thenReturn(Optional.of(inactivo));
+
+            usuarioService.desactivarUsuario(2L);
+
+            verifyNoInteractions(versionesToken, refreshTokenService);
+            verify(usuarioRepository, never()).save(any());
+        }
+
+        @Test
+        @DisplayName("Debería lanzar excepción al desactivar un usuario inexistente")
+        void deberiaFallarSiNoExiste() {
+            when(usuarioRepository.findById(9L)).thenReturn(Optional.empty());
+
+            assertThatThrownBy(() -> usuarioService.desactivarUsuario(9L))
+                    .isInstanceOf(ResourceNotFoundException.class);
+            verifyNoInteractions(versionesToken, refreshTokenService);
+        }
+    }
+}
@@ -0,0 +1,119 @@
+package io.github.jaredmcc4.gtm.services;
+
+import io.github.jaredmcc4.gtm.domain.VersionDatosUsuario;
+import io.github.jaredmcc4.gtm.repository.VersionDatosUsuarioRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("VersionDatosServiceImpl - Unit Tests")
+class VersionDatosServiceImplTest {
+
+    @Mock
+    private VersionDatosUsuarioRepository versionDatosUsuarioRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private VersionDatosServiceImpl versionDatosService;
+
+    @BeforeEach
+    void setUp() {
+        versionDatosService = new VersionDatosServiceImpl(versionDatosUsuarioRepository, transactionManager);
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.getSynchronizations().forEach(s -> s.afterCompletion(0));
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    @DisplayName("Debería incrementar una sola vez por usuario en la misma transaccion")
+    void deberiaIncrementarUnaVezPorTransaccion() {
+        TransactionSynchronizationManager.initSynchronization();
+        when(versionDatosUsuarioRepository.existsById(anyLong())).thenReturn(true);
+
+        versionDatosService.incrementar(1L);
+        versionDatosService.incrementar(1L);
+        versionDatosService.incrementar(2L);
+
+        verify(versionDatosUsuarioRepository, times(1)).incrementar(eq(1L), any());
+        verify(versionDatosUsuarioRepository, times(1)).incrementar(eq(2L), any());
+    }
+
+    @Test
+    @DisplayName("Debería crear la fila antes de incrementar la primera vez")
+    void deberiaCrearFilaLaPrimeraVez() {
+        when(versionDatosUsuarioRepository.existsById(1L)).thenReturn(false);
+
+        versionDatosService.incrementar(1L);
+
+        var orden = inOrder(versionDatosUsuarioRepository);
+        orden.verify(versionDatosUsuarioRepository).crear(eq(1L), any());
+        orden.verify(versionDatosUsuarioRepository).incrementar(eq(1L), any());
+    }
+
+    @Test
+    @DisplayName("Debería incrementar aunque otra transaccion haya creado la fila en paralelo")
+    void deberiaTolerarFilaCreadaEnParalelo() {
+        when(versionDatosUsuarioRepository.existsById(1L)).thenReturn(false);
+        when(versionDatosUsuarioRepository.crear(eq(1L), any())).thenThrow(new DataIntegrityViolationException("duplicada"));
+
+        versionDatosService.incrementar(1L);
+
+        verify(versionDatosUsuarioRepository).incrementar(eq(1L), any());
+    }
+
+    @Test
+    @DisplayName("Debería crear la fila antes de bloquearla sin incrementar la version")
+    void deberiaBloquearSinIncrementar() {
+        when(versionDatosUsuarioRepository.existsById(1L)).thenReturn(false);
+
+        versionDatosService.bloquear(1L);
+
+        var orden = inOrder(versionDatosUsuarioRepository);
+        orden.verify(versionDatosUsuarioRepository).crear(eq(1L), any());
+        orden.verify(versionDatosUsuarioRepository).bloquear(1L);
+        verify(versionDatosUsuarioRepository, never()).incrementar(any(), any());
+    }
+
+    @Test
+    @DisplayName("Debería devolver version 0 si el usuario nunca escribio")
+    void deberiaDevolverVersionCero() {
+        when(versionDatosUsuarioRepository.findById(1L)).thenReturn(Optional.empty());
+
+        VersionDatosService.Version version = versionDatosService.obtener(1L);
+
+        assertThat(version.numero()).isZero();
+        assertThat(version.modificadoEn()).isNull();
+    }
+
+    @Test
+    @DisplayName("Debería devolver la version almacenada")
+    void deberiaDevolverVersionAlmacenada() {
+        LocalDateTime modificado = LocalDateTime.of(2025, 1, 10, 9, 0);
+        when(versionDatosUsuarioRepository.findById(1L))
+                .thenReturn(Optional.of(new VersionDatosUsuario(1L, 5L, modificado)));
+
+        assertThat(versionDatosService.obtener(1L)).isEqualTo(new VersionDatosService.Version(5L, modificado));
+    }
+}
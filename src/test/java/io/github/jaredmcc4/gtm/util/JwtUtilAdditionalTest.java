@@ -6,6 +6,8 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.NimbusJwtDecoder;
 import org.springframework.test.util.ReflectionTestUtils;
 
 import java.nio.charset.StandardCharsets;
@@ -33,7 +35,7 @@ class JwtUtilAdditionalTest {
     }
 
     private String buildToken(Object usuarioIdClaim, Object rolesClaim) {
-        Key key = (Key) ReflectionTestUtils.invokeMethod(jwtUtil, "getSigningKey");
+        Key key = jwtUtil.getClave();
         var builder = Jwts.builder()
                 .setSubject("helper@test.com")
                 .setIssuedAt(new Date())
@@ -98,6 +100,38 @@ class JwtUtilAdditionalTest {
         }
     }
 
+    @Nested
+    @DisplayName("getClave()")
+    class GetClaveTests {
+
+        @Test
+        @DisplayName("Debe calcular la llave una sola vez")
+        void deberiaReutilizarLlave() {
+            assertThat(jwtUtil.getClave()).isSameAs(jwtUtil.getClave());
+        }
+
+        @Test
+        @DisplayName("El decodificador del resource server debe aceptar tokens firmados con secretos Base64")
+        void deberiaCoincidirConDecodificador() {
+            String base64 = Base64.getEncoder()
+                    .encodeToString("secreto-base64-compartido-para-firmar-y-validar".getBytes(StandardCharsets.UTF_8));
+            ReflectionTestUtils.setField(jwtUtil, "secret", base64);
+
+            String token = jwtUtil.generarToken("base64@test.com", 4L, List.of("USER"));
+            Jwt jwt = NimbusJwtDecoder.withSecretKey(JwtUtil.derivarClave(base64)).build().decode(token);
+
+            assertThat(jwt.getSubject()).isEqualTo("base64@test.com");
+        }
+
+        @Test
+        @DisplayName("Debe rechazar secretos de menos de 32 bytes")
+        void deberiaRechazarSecretoCorto() {
+            ReflectionTestUtils.setField(jwtUtil, "secret", "corto");
+
+            assertThatThrownBy(() -> jwtUtil.getClave()).isInstanceOf(IllegalArgumentException.class);
+        }
+    }
+
     @Nested
     @DisplayName("extraerUsuarioId() casos adicionales")
     class ExtraerUsuarioIdAdicionalTests {
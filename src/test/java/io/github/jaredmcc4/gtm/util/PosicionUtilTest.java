@@ -0,0 +1,109 @@
+package io.github.jaredmcc4.gtm.util;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.*;
+
+@DisplayName("Posicion Util - Unit Tests")
+class PosicionUtilTest {
+
+    @Nested
+    @DisplayName("entre()")
+    class EntreTests {
+
+        @Test
+        @DisplayName("Debería generar una clave estrictamente entre dos vecinos")
+        void deberiaGenerarClaveIntermedia() {
+            String clave = PosicionUtil.entre("a", "b");
+
+            assertThat(clave).isEqualTo("ai");
+            assertThat(clave).isGreaterThan("a").isLessThan("b");
+        }
+
+        @Test
+        @DisplayName("Debería mantener el orden con inserciones repetidas en el mismo hueco")
+        void deberiaMantenerOrdenConInsercionesRepetidas() {
+            String anterior = PosicionUtil.secuencia(0);
+            String siguiente = PosicionUtil.secuencia(1);
+            for (int i = 0; i < 200; i++) {
+                String clave = PosicionUtil.entre(anterior, siguiente);
+                assertThat(clave).isGreaterThan(anterior).isLessThan(siguiente).doesNotEndWith("0");
+                siguiente = clave;
+            }
+        }
+
+        @Test
+        @DisplayName("Debería rechazar vecinos desordenados o claves invalidas")
+        void deberiaRechazarEntradasInvalidas() {
+            assertThatThrownBy(() -> PosicionUtil.entre("b", "a"))
+                    .isInstanceOf(IllegalArgumentException.class);
+            assertThatThrownBy(() -> PosicionUtil.entre("a", "a"))
+                    .isInstanceOf(IllegalArgumentException.class);
+            assertThatThrownBy(() -> PosicionUtil.entre("a0", null))
+                    .isInstanceOf(IllegalArgumentException.class);
+            assertThatThrownBy(() -> PosicionUtil.entre(null, "A"))
+                    .isInstanceOf(IllegalArgumentException.class);
+        }
+    }
+
+    @Nested
+    @DisplayName("despuesDe() / antesDe()")
+    class ExtremosTests {
+
+        @Test
+        @DisplayName("Debería agregar al final sin alargar la clave")
+        void deberiaAgregarAlFinalSinAlargar() {
+            String clave = null;
+            for (int i = 0; i < 1000; i++) {
+                String nueva = PosicionUtil.despuesDe(clave);
+                if (clave != null) {
+                    assertThat(nueva).isGreaterThan(clave);
+                }
+                assertThat(nueva.length()).isLessThanOrEqualTo(8);
+                clave = nueva;
+            }
+        }
+
+        @Test
+        @DisplayName("Debería agregar al inicio hasta agotar el prefijo y luego bisecar")
+        void deberiaAgregarAlInicio() {
+            String clave = PosicionUtil.secuencia(2);
+            for (int i = 0; i < 10; i++) {
+                String nueva = PosicionUtil.antesDe(clave);
+                assertThat(nueva).isLessThan(clave).isNotEmpty();
+                clave = nueva;
+            }
+        }
+
+        @Test
+        @DisplayName("Debería devolver la clave inicial sin vecinos")
+        void deberiaDevolverClaveInicial() {
+            assertThat(PosicionUtil.calcular(null, null)).isEqualTo(PosicionUtil.INICIAL);
+            assertThat(PosicionUtil.INICIAL).isEqualTo(PosicionUtil.secuencia(0)).isEqualTo("00001");
+        }
+    }
+
+    @Test
+    @DisplayName("Debería conservar el orden al simular movimientos aleatorios")
+    void deberiaConservarOrdenConMovimientosAleatorios() {
+        Random random = new Random(42);
+        List<String> claves = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            claves.add(PosicionUtil.secuencia(i));
+        }
+        for (int i = 0; i < 500; i++) {
+            claves.remove(random.nextInt(claves.size()));
+            int destino = random.nextInt(claves.size() + 1);
+            String anterior = destino == 0 ? null : claves.get(destino - 1);
+            String siguiente = destino == claves.size() ? null : claves.get(destino);
+            claves.add(destino, PosicionUtil.calcular(anterior, siguiente));
+        }
+        assertThat(claves).isSorted().doesNotHaveDuplicates();
+    }
+}